@@ -0,0 +1,96 @@
+/*
+  Licensed to the Apache Software Foundation (ASF) under one or more
+  contributor license agreements. See the NOTICE file distributed with
+  this work for additional information regarding copyright ownership.
+  The ASF licenses this file to You under the Apache License, Version 2.0
+  (the "License"); you may not use this file except in compliance with
+  the License. You may obtain a copy of the License at
+  <p>
+  http://www.apache.org/licenses/LICENSE-2.0
+  <p>
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package org.maestro.benchmarks;
+
+import org.maestro.common.duration.CalibratedEpochMicroClock;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.JnaDirectNativeClock;
+import org.maestro.common.duration.JnaStructNativeClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost and the precision of the {@link EpochMicroClock} implementations.
+ * <p>
+ * The microTime benchmark measures the cost of reading the clock. The granularity benchmark spins until the clock
+ * moves and returns by how much it moved: its average time is how often the clock ticks, while the returned values
+ * (see -prof or the JMH result files) tell the size of each tick. Run it with:
+ * <pre>
+ * mvn -PBenchmarks package &amp;&amp; java -jar maestro-benchmarks/target/benchmarks.jar EpochMicroClockBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class EpochMicroClockBenchmark {
+
+    @Param({"calibrated", "jnaDirect", "jnaStruct", "millis"})
+    public String clockType;
+
+    private EpochMicroClock clock;
+
+    @Setup
+    public void setUp() {
+        switch (clockType) {
+            case "calibrated":
+                clock = new CalibratedEpochMicroClock(new JnaDirectNativeClock(), 100);
+                break;
+            case "jnaDirect":
+                clock = new JnaDirectNativeClock();
+                break;
+            case "jnaStruct":
+                clock = new JnaStructNativeClock();
+                break;
+            case "millis":
+                clock = () -> TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown clock type: " + clockType);
+        }
+    }
+
+    @Benchmark
+    public long microTime() {
+        return clock.microTime();
+    }
+
+    @Benchmark
+    public long granularity() {
+        final long start = clock.microTime();
+        long now;
+
+        do {
+            now = clock.microTime();
+        } while (now == start);
+
+        return now - start;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.client;
+
+import org.maestro.client.exchange.MaestroTopics;
+import org.maestro.client.notes.PingResponse;
+import org.maestro.common.HostTypes;
+import org.maestro.common.NodeUtils;
+import org.maestro.common.client.notes.MaestroNote;
+import org.maestro.common.duration.ClockOffsetEstimator;
+import org.maestro.common.exceptions.MaestroConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the offset between the clocks of the sender and receiver peers, so that the receivers can correct
+ * the latency samples of tests spanning multiple hosts.
+ * <p>
+ * The front-end sends a number of ping requests and uses the timestamps on the responses to estimate the offset
+ * of each peer clock in relation to its own (see {@link ClockOffsetEstimator}). The front-end clock is just a
+ * common reference: each receiver is then told the offset between its clock and the one of the senders (the
+ * average of the sender offsets, if the senders are spread across multiple hosts) along with the uncertainty
+ * of that estimate. The receivers subtract the offset from the receive time of every message before recording
+ * the latency and save both values in the test properties.
+ */
+public final class ClockSynchronizer {
+    private static final Logger logger = LoggerFactory.getLogger(ClockSynchronizer.class);
+
+    /**
+     * The clock of a single peer, in relation to the front-end clock
+     */
+    public static final class PeerClock {
+        private final String name;
+        private final ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+
+        PeerClock(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the peer name
+         * @return the peer name (ie.: type@host)
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the peer type
+         * @return the peer type
+         */
+        public String getType() {
+            return NodeUtils.getTypeFromName(name);
+        }
+
+        /**
+         * Gets the estimator for the offset of the peer clock
+         * @return the estimator
+         */
+        public ClockOffsetEstimator getEstimator() {
+            return estimator;
+        }
+    }
+
+    private final Maestro maestro;
+
+    public ClockSynchronizer(final Maestro maestro) {
+        this.maestro = maestro;
+    }
+
+    /**
+     * Estimates the offset of the clock of every peer answering the ping requests. Any other note received
+     * in the meantime is discarded
+     * @param rounds the number of ping requests to send
+     * @param intervalMillis the interval between each request
+     * @return the clock of every peer indexed by the peer ID
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public Map<String, PeerClock> estimate(int rounds, long intervalMillis) throws MaestroConnectionException {
+        final Map<String, PeerClock> peers = new LinkedHashMap<>();
+
+        maestro.collect();
+        for (int i = 0; i < rounds; i++) {
+            maestro.pingRequest();
+
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted while estimating the clock offsets");
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            record(peers, maestro.collect());
+        }
+
+        return peers;
+    }
+
+    static void record(final Map<String, PeerClock> peers, final List<MaestroNote> notes) {
+        for (MaestroNote note : notes) {
+            if (!(note instanceof PingResponse)) {
+                continue;
+            }
+
+            final PingResponse response = (PingResponse) note;
+            if (!response.hasTimestamps()) {
+                logger.debug("Ignoring the ping response from {}: it does not carry timestamps",
+                        response.getName());
+                continue;
+            }
+
+            final PeerClock peer = peers.computeIfAbsent(response.getId(), id -> new PeerClock(response.getName()));
+
+            peer.getEstimator().add(response.getOriginateTime(), response.getReceiveTime(),
+                    response.getTransmitTime(), response.getArrivalTime());
+        }
+    }
+
+    /**
+     * Estimates the clock offsets and sends the corrections to the receivers
+     * @param rounds the number of ping requests to send
+     * @param intervalMillis the interval between each request
+     * @return the number of receivers that were sent a correction
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public int synchronize(int rounds, long intervalMillis) throws MaestroConnectionException {
+        final Map<String, PeerClock> peers = estimate(rounds, intervalMillis);
+        final Map<PeerClock, long[]> corrections = corrections(peers.values());
+
+        for (Map.Entry<PeerClock, long[]> entry : corrections.entrySet()) {
+            final String name = entry.getKey().getName();
+            final long offset = entry.getValue()[0];
+            final long uncertainty = entry.getValue()[1];
+
+            logger.info("Clock offset for {}: {} us (+/- {} us)", name, offset, uncertainty);
+            maestro.setClockOffset(MaestroTopics.peerTopic(NodeUtils.getTypeFromName(name),
+                    NodeUtils.getHostFromName(name)), offset, uncertainty);
+        }
+
+        return corrections.size();
+    }
+
+    /**
+     * Calculates the clock corrections for the receivers
+     * @param peers the clocks of the peers
+     * @return an array with the offset (receiver - senders) and its uncertainty, in microseconds, for each
+     * receiver. It is empty if there are no senders or receivers with an estimate
+     */
+    static Map<PeerClock, long[]> corrections(final Collection<PeerClock> peers) {
+        final Map<PeerClock, long[]> ret = new LinkedHashMap<>();
+
+        long senderSum = 0;
+        long senderMin = Long.MAX_VALUE;
+        long senderMax = Long.MIN_VALUE;
+        long senderUncertainty = 0;
+        int senders = 0;
+
+        for (PeerClock peer : peers) {
+            final ClockOffsetEstimator estimator = peer.getEstimator();
+
+            if (HostTypes.SENDER_HOST_TYPE.equals(peer.getType()) && estimator.hasEstimate()) {
+                final long offset = estimator.offsetMicros();
+
+                senderSum += offset;
+                senderMin = Math.min(senderMin, offset);
+                senderMax = Math.max(senderMax, offset);
+                senderUncertainty = Math.max(senderUncertainty, estimator.uncertaintyMicros());
+                senders++;
+            }
+        }
+
+        if (senders == 0) {
+            logger.warn("Unable to estimate the clock offsets: none of the senders replied with timestamps");
+            return ret;
+        }
+
+        final long senderOffset = senderSum / senders;
+
+        // The senders are compared against their average, so the spread among them adds to the uncertainty
+        senderUncertainty += (senderMax - senderMin + 1) / 2;
+
+        for (PeerClock peer : peers) {
+            final ClockOffsetEstimator estimator = peer.getEstimator();
+
+            if (HostTypes.RECEIVER_HOST_TYPE.equals(peer.getType()) && estimator.hasEstimate()) {
+                ret.put(peer, new long[] { estimator.offsetMicros() - senderOffset,
+                        estimator.uncertaintyMicros() + senderUncertainty });
+            }
+        }
+
+        return ret;
+    }
+}
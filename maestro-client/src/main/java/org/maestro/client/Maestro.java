@@ -326,6 +326,48 @@ public final class Maestro implements MaestroRequester {
     }
 
 
+    /**
+     * Sends a set send scheduler request
+     * @param value The send scheduler specification (ie.: fixed, batch:N, poisson, replay:file)
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void setSendScheduler(final String value) throws MaestroConnectionException {
+        setSendScheduler(MaestroTopics.SENDER_DAEMONS, value);
+    }
+
+
+    /**
+     * Sends a set send scheduler request
+     * @param topic the topic to send the request to
+     * @param value The send scheduler specification (ie.: fixed, batch:N, poisson, replay:file)
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void setSendScheduler(final String topic, final String value) throws MaestroConnectionException {
+        SetRequest maestroNote = new SetRequest();
+
+        maestroNote.setSendScheduler(value);
+
+        maestroClient.publish(topic, maestroNote);
+    }
+
+
+    /**
+     * Sends a set clock offset request
+     * @param topic the topic to send the request to (usually a peer-specific topic)
+     * @param offsetMicros the clock offset (receiver clock - sender clock) in microseconds
+     * @param uncertaintyMicros the maximum error of the clock offset in microseconds
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void setClockOffset(final String topic, long offsetMicros, long uncertaintyMicros)
+            throws MaestroConnectionException {
+        SetRequest maestroNote = new SetRequest();
+
+        maestroNote.setClockOffset(offsetMicros, uncertaintyMicros);
+
+        maestroClient.publish(topic, maestroNote);
+    }
+
+
     /**
      * Sets the management interface URL
      * @param value The management interface URL
@@ -627,6 +669,16 @@ public final class Maestro implements MaestroRequester {
     }
 
 
+    /**
+     * Subscribes to the stats pushed periodically by the peers. The pushed stats are not returned by the
+     * collect methods: they are handed to the collector callbacks as soon as they arrive
+     * @throws MaestroConnectionException if unable to subscribe to the stats topics
+     */
+    public void subscribeStats() throws MaestroConnectionException {
+        collectorExecutor.subscribe(MaestroTopics.MAESTRO_STATS_TOPICS);
+    }
+
+
     /**
      * Get the collector receiving the messages
      * @return the collector receiving the messages
@@ -101,11 +101,12 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
     }
 
     public void pingResponse(long sec, long uSec) {
+        final long receiveMicros = epochMicroClock.microTime();
+
         logger.trace("Creation seconds.micro: {}.{}", sec, uSec);
 
         final long creationEpochMicros = TimeUnit.SECONDS.toMicros(sec) + uSec;
-        final long nowMicros = epochMicroClock.microTime();
-        final long elapsedMicros = nowMicros - creationEpochMicros;
+        final long elapsedMicros = receiveMicros - creationEpochMicros;
 
         logger.trace("Elapsed: {}", elapsedMicros);
         PingResponse response = new PingResponse();
@@ -114,6 +115,11 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
         response.setName(clientName + "@" + host);
         response.setId(id);
 
+        // Used by the front-end to estimate the offset between its clock and ours
+        response.setOriginateTime(creationEpochMicros);
+        response.setReceiveTime(receiveMicros);
+        response.setTransmitTime(epochMicroClock.microTime());
+
         super.publish(MaestroTopics.MAESTRO_TOPIC, response);
     }
 
@@ -173,6 +179,22 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
     }
 
 
+    /**
+     * Pushes the periodic stats of this peer on its stats topic
+     * @param statsResponse the stats to publish
+     */
+    public void statsPush(final StatsResponse statsResponse) {
+        statsResponse.setName(clientName + "@" + host);
+        statsResponse.setId(id);
+
+        try {
+            super.publish(MaestroTopics.statsTopic(clientName, host), statsResponse, 0, false);
+        } catch (Exception e) {
+            logger.error("Unable to publish the stats: {}", e.getMessage(), e);
+        }
+    }
+
+
     /**
      * Publishes a get response as a reply to a get request
      * @param getResponse the get response to publish
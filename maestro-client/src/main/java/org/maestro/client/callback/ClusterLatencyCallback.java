@@ -0,0 +1,178 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.client.callback;
+
+import org.HdrHistogram.Histogram;
+import org.maestro.client.notes.StatsResponse;
+import org.maestro.common.NodeUtils;
+import org.maestro.common.client.notes.MaestroNote;
+import org.maestro.common.writers.LatencyWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+/**
+ * A callback that merges the interval latency histograms pushed by the receivers into a cluster-wide
+ * histogram per interval, which is saved in the HdrHistogram log format while the test is running.
+ * <p>
+ * The histograms are bucketed using the timestamp of the stats note. Buckets are kept open for one
+ * additional interval in order to account for peers pushing their stats slightly later than the others.
+ * A histogram arriving after that is merged into the oldest bucket still open.
+ */
+public class ClusterLatencyCallback implements MaestroNoteCallback {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterLatencyCallback.class);
+
+    private final long intervalMillis;
+    private final TreeMap<Long, Histogram> buckets = new TreeMap<>();
+    private LatencyWriter writer;
+    private long lastPeriod = Long.MIN_VALUE;
+    private Histogram last;
+
+    /**
+     * Constructor
+     * @param intervalMillis the merge interval in milliseconds
+     */
+    public ClusterLatencyCallback(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("The merge interval must be greater than 0");
+        }
+
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Starts merging the histograms into a new file
+     * @param reportFile the file where the merged histograms will be saved
+     * @throws IOException on I/O errors
+     */
+    public synchronized void start(final File reportFile) throws IOException {
+        stop();
+
+        final File reportDir = reportFile.getParentFile();
+        if (reportDir != null && !reportDir.exists() && !reportDir.mkdirs()) {
+            throw new IOException("Unable to create the report directory " + reportDir);
+        }
+
+        logger.info("Saving the cluster-wide latency histograms to {}", reportFile);
+        writer = new LatencyWriter(reportFile);
+        writer.outputLegend(System.currentTimeMillis());
+    }
+
+    /**
+     * Writes the pending histograms and closes the file
+     */
+    public synchronized void stop() {
+        if (writer == null) {
+            return;
+        }
+
+        flushBefore(Long.MAX_VALUE);
+        writer.close();
+        writer = null;
+        lastPeriod = Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets the last cluster-wide histogram written
+     * @return a copy of the last cluster-wide histogram or null if none has been written yet
+     */
+    public synchronized Histogram getLast() {
+        return last == null ? null : last.copy();
+    }
+
+    @Override
+    public synchronized void call(MaestroNote note) {
+        if (writer == null || !(note instanceof StatsResponse)) {
+            return;
+        }
+
+        final StatsResponse statsResponse = (StatsResponse) note;
+        if (statsResponse.getLatencyHistogram() == null || !isReceiver(statsResponse)) {
+            return;
+        }
+
+        try {
+            final Histogram histogram = statsResponse.decodeLatencyHistogram();
+            final long timestamp = Long.parseLong(statsResponse.getTimestamp());
+
+            merge(timestamp, histogram);
+        }
+        catch (DataFormatException | NumberFormatException e) {
+            logger.warn("Ignoring the invalid latency histogram sent by {}: {}", statsResponse.getName(),
+                    e.getMessage());
+        }
+    }
+
+    private static boolean isReceiver(final StatsResponse statsResponse) {
+        return statsResponse.getName() != null
+                && NodeUtils.getTypeFromName(statsResponse.getName()).equals("receiver");
+    }
+
+    private void merge(long timestamp, final Histogram histogram) {
+        final long period = Math.floorDiv(timestamp, intervalMillis) * intervalMillis;
+
+        // late histograms go into the oldest bucket that is still open
+        final long key = period < lastPeriod - intervalMillis && !buckets.isEmpty() ? buckets.firstKey() : period;
+
+        Histogram bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new Histogram(3);
+
+            bucket.setStartTimeStamp(key);
+            bucket.setEndTimeStamp(key + intervalMillis);
+            buckets.put(key, bucket);
+        }
+
+        bucket.add(histogram);
+
+        if (period > lastPeriod) {
+            lastPeriod = period;
+
+            flushBefore(lastPeriod - intervalMillis);
+        }
+    }
+
+    private void flushBefore(long period) {
+        final Iterator<Map.Entry<Long, Histogram>> it = buckets.entrySet().iterator();
+
+        while (it.hasNext()) {
+            final Map.Entry<Long, Histogram> entry = it.next();
+
+            if (entry.getKey() >= period) {
+                break;
+            }
+
+            final Histogram histogram = entry.getValue();
+            writer.outputIntervalHistogram(histogram);
+
+            if (logger.isInfoEnabled()) {
+                logger.info("Cluster-wide latency at {}: count {}, p50 {} us, p99 {} us, max {} us",
+                        entry.getKey(), histogram.getTotalCount(), histogram.getValueAtPercentile(50),
+                        histogram.getValueAtPercentile(99), histogram.getMaxValue());
+            }
+
+            last = histogram;
+            it.remove();
+        }
+    }
+}
@@ -20,6 +20,8 @@ import org.maestro.common.exceptions.MaestroConnectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+
 
 /**
  * Provides an abstract interface that can be used to receive data from a Maestro broker.
@@ -28,7 +30,7 @@ public class AbstractMaestroExecutor implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(AbstractMaestroExecutor.class);
 
     private final AbstractMaestroPeer maestroPeer;
-    private String[] topics;
+    private volatile String[] topics;
 
     /**
      * Constructor
@@ -67,6 +69,21 @@ public class AbstractMaestroExecutor implements Runnable {
         }
     }
 
+    /**
+     * Subscribes to additional topics after the executor has been started. They are also subscribed again
+     * on reconnection
+     * @param topics the topics to subscribe to
+     * @throws MaestroConnectionException if unable to subscribe to the topics
+     */
+    public synchronized void subscribe(final String[] topics) throws MaestroConnectionException {
+        final String[] current = this.topics == null ? new String[0] : this.topics;
+        final String[] merged = Arrays.copyOf(current, current.length + topics.length);
+
+        System.arraycopy(topics, 0, merged, current.length, topics.length);
+        maestroPeer.subscribe(topics);
+        this.topics = merged;
+    }
+
     /**
      * Runs the executor
      */
@@ -181,7 +181,7 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
             logger.trace("Message type: {}", note.getClass());
 
             if (!note.hasNext()) {
-                noteArrived(note);
+                noteArrived(s, note);
             }
         } catch (MalformedNoteException e) {
             logger.error("Invalid message type: {}", e.getMessage(), e);
@@ -206,6 +206,18 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
      */
     protected abstract void noteArrived(T note) throws MaestroConnectionException;
 
+    /**
+     * The entry point for handling Maestro messages for peers that need to know the topic the note
+     * arrived on. By default it just calls {@link #noteArrived(MaestroNote)}
+     * @param topic the topic the note arrived on
+     * @param note the note that arrived
+     *
+     * @throws MaestroConnectionException for Maestro related errors
+     */
+    protected void noteArrived(final String topic, T note) throws MaestroConnectionException {
+        noteArrived(note);
+    }
+
     public abstract boolean isRunning();
 
 
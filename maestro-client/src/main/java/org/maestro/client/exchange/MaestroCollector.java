@@ -49,6 +49,21 @@ public class MaestroCollector extends AbstractMaestroPeer<MaestroNote> {
         collected.add(note);
     }
 
+    @Override
+    protected void noteArrived(final String topic, MaestroNote note) {
+        // The stats pushed by the peers are consumed as they arrive by the callbacks. They are not queued, so
+        // they don't get mixed with the replies to the requests
+        if (MaestroTopics.isStatsTopic(topic)) {
+            for (MaestroNoteCallback callback : callbacks) {
+                callback.call(note);
+            }
+
+            return;
+        }
+
+        noteArrived(note);
+    }
+
     public void setRunning(boolean running) {
         this.running = running;
     }
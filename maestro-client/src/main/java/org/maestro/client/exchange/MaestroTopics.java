@@ -65,11 +65,21 @@ public class MaestroTopics {
      */
     public final static String PEER_TOPIC = "/mpt/peer";
 
+    /**
+     * This topic is the root of the per-peer topics on which the workers push their periodic stats
+     */
+    public final static String STATS_TOPIC = "/mpt/stats";
+
     /**
      * These topics are the ones subscribed by a Maestro client
      */
     public final static String[] MAESTRO_TOPICS = {MAESTRO_TOPIC, NOTIFICATION_TOPIC};
 
+    /**
+     * These topics are the ones subscribed by a Maestro client that consumes the stats pushed by the peers
+     */
+    public final static String[] MAESTRO_STATS_TOPICS = {STATS_TOPIC + "/#"};
+
     /**
      * These topics are the ones subscribed by a Maestro sender
      */
@@ -135,4 +145,24 @@ public class MaestroTopics {
     public static String peerTopic(final String id) {
         return PEER_TOPIC + "/by-id/" + id;
     }
+
+
+    /**
+     * Get the topic on which a peer pushes its periodic stats
+     * @param clientName the client name
+     * @param host the hostname for the peer
+     * @return The peer-specific stats topic
+     */
+    public static String statsTopic(final String clientName, final String host) {
+        return STATS_TOPIC + "/" + host + "/" + clientName;
+    }
+
+    /**
+     * Checks whether a topic is a stats topic
+     * @param topic the topic to check
+     * @return true if it is a topic on which the peers push their periodic stats
+     */
+    public static boolean isStatsTopic(final String topic) {
+        return topic != null && topic.startsWith(STATS_TOPIC + "/");
+    }
 }
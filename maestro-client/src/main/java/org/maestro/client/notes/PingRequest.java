@@ -17,22 +17,27 @@
 package org.maestro.client.notes;
 
 import org.maestro.common.client.notes.MaestroCommand;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
 import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessageUnpacker;
 
 import java.io.IOException;
-import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 public class PingRequest extends MaestroRequest<MaestroEventListener> {
+    // The same (microsecond) clock used by the peers to timestamp the ping, so that the round trip can be measured
+    private static final EpochMicroClock clock = EpochClocks.sharedMicro();
+
     private long sec;
     private long usec;
 
     public PingRequest() {
         super(MaestroCommand.MAESTRO_NOTE_PING);
 
-        Instant instant = Instant.now();
-        sec = instant.getEpochSecond();
-        usec = instant.getNano() / 1000;
+        final long micros = clock.microTime();
+        sec = TimeUnit.MICROSECONDS.toSeconds(micros);
+        usec = micros - TimeUnit.SECONDS.toMicros(sec);
     }
 
     public PingRequest(MessageUnpacker unpacker) throws IOException {
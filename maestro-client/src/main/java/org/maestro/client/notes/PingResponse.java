@@ -17,14 +17,32 @@
 package org.maestro.client.notes;
 
 import org.maestro.common.client.notes.MaestroCommand;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
 import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessageUnpacker;
 
 import java.io.IOException;
 
+/**
+ * The response to a ping request. Along with the elapsed time, newer peers also send the timestamps required
+ * to estimate the offset between their clock and the one of the front-end (see
+ * {@link org.maestro.common.duration.ClockOffsetEstimator}). All the timestamps are in microseconds since epoch.
+ */
 public class PingResponse extends MaestroResponse {
+    private static final long NO_TIMESTAMP = -1;
+    // Same clock used for the originate time (see PingRequest)
+    private static final EpochMicroClock clock = EpochClocks.sharedMicro();
+
     private long elapsed;
 
+    private long originateTime = NO_TIMESTAMP;
+    private long receiveTime = NO_TIMESTAMP;
+    private long transmitTime = NO_TIMESTAMP;
+
+    // Not serialized: the time, on the local clock, the response arrived
+    private long arrivalTime = NO_TIMESTAMP;
+
     public PingResponse() {
         super(MaestroCommand.MAESTRO_NOTE_PING);
     }
@@ -32,7 +50,16 @@ public class PingResponse extends MaestroResponse {
     public PingResponse(MessageUnpacker unpacker) throws IOException {
         super(MaestroCommand.MAESTRO_NOTE_PING, unpacker);
 
+        arrivalTime = clock.microTime();
+
         elapsed = unpacker.unpackLong();
+
+        // Older peers do not send the timestamps
+        if (unpacker.hasNext()) {
+            originateTime = unpacker.unpackLong();
+            receiveTime = unpacker.unpackLong();
+            transmitTime = unpacker.unpackLong();
+        }
     }
 
     public long getElapsed() {
@@ -43,11 +70,71 @@ public class PingResponse extends MaestroResponse {
         this.elapsed = elapsed;
     }
 
+    /**
+     * Gets the time the ping request was created (on the requester clock)
+     * @return the originate time
+     */
+    public long getOriginateTime() {
+        return originateTime;
+    }
+
+    public void setOriginateTime(long originateTime) {
+        this.originateTime = originateTime;
+    }
+
+    /**
+     * Gets the time the ping request was received (on the peer clock)
+     * @return the receive time
+     */
+    public long getReceiveTime() {
+        return receiveTime;
+    }
+
+    public void setReceiveTime(long receiveTime) {
+        this.receiveTime = receiveTime;
+    }
+
+    /**
+     * Gets the time the response was sent (on the peer clock)
+     * @return the transmit time
+     */
+    public long getTransmitTime() {
+        return transmitTime;
+    }
+
+    public void setTransmitTime(long transmitTime) {
+        this.transmitTime = transmitTime;
+    }
+
+    /**
+     * Gets the time the response arrived (on the requester clock)
+     * @return the arrival time
+     */
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(long arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    /**
+     * Checks whether the response carries the timestamps required to estimate the clock offset
+     * @return true if it does or false otherwise (ie.: responses from older peers)
+     */
+    public boolean hasTimestamps() {
+        return originateTime != NO_TIMESTAMP && receiveTime != NO_TIMESTAMP && transmitTime != NO_TIMESTAMP
+                && arrivalTime != NO_TIMESTAMP;
+    }
+
     @Override
     protected MessageBufferPacker pack() throws IOException {
         MessageBufferPacker packer = super.pack();
 
         packer.packLong(this.elapsed);
+        packer.packLong(this.originateTime);
+        packer.packLong(this.receiveTime);
+        packer.packLong(this.transmitTime);
 
         return packer;
     }
@@ -56,6 +143,10 @@ public class PingResponse extends MaestroResponse {
     public String toString() {
         return "PingResponse{" +
                 "elapsed=" + elapsed +
+                ", originateTime=" + originateTime +
+                ", receiveTime=" + receiveTime +
+                ", transmitTime=" + transmitTime +
+                ", arrivalTime=" + arrivalTime +
                 "} " + super.toString();
     }
 }
@@ -41,7 +41,11 @@ public class SetRequest extends MaestroRequest<MaestroEventListener> {
         /** Set fail condition  */
         MAESTRO_NOTE_OPT_FCL(7),
         /** Sets the management interface */
-        MAESTRO_NOTE_OPT_SET_MI(8);
+        MAESTRO_NOTE_OPT_SET_MI(8),
+        /** Set the send scheduler */
+        MAESTRO_NOTE_OPT_SET_SEND_SCHEDULER(9),
+        /** Set the clock correction (offset,uncertainty in microseconds) */
+        MAESTRO_NOTE_OPT_SET_CLOCK_OFFSET(10);
 
         private long value;
 
@@ -68,6 +72,8 @@ public class SetRequest extends MaestroRequest<MaestroEventListener> {
                 case 6: return MAESTRO_NOTE_OPT_SET_RATE;
                 case 7: return MAESTRO_NOTE_OPT_FCL;
                 case 8: return MAESTRO_NOTE_OPT_SET_MI;
+                case 9: return MAESTRO_NOTE_OPT_SET_SEND_SCHEDULER;
+                case 10: return MAESTRO_NOTE_OPT_SET_CLOCK_OFFSET;
             }
 
             return null;
@@ -129,6 +135,14 @@ public class SetRequest extends MaestroRequest<MaestroEventListener> {
         set(Option.MAESTRO_NOTE_OPT_SET_MI, value);
     }
 
+    public void setSendScheduler(final String value) {
+        set(Option.MAESTRO_NOTE_OPT_SET_SEND_SCHEDULER, value);
+    }
+
+    public void setClockOffset(long offsetMicros, long uncertaintyMicros) {
+        set(Option.MAESTRO_NOTE_OPT_SET_CLOCK_OFFSET, offsetMicros + "," + uncertaintyMicros);
+    }
+
     public Option getOption() {
         return option;
     }
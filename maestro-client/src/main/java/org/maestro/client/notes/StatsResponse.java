@@ -16,11 +16,14 @@
 
 package org.maestro.client.notes;
 
+import org.HdrHistogram.Histogram;
 import org.maestro.common.client.notes.MaestroCommand;
 import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessageUnpacker;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
 
 public class StatsResponse extends MaestroResponse {
     private int childCount;
@@ -33,6 +36,14 @@ public class StatsResponse extends MaestroResponse {
     private double rate;
     private double latency;
 
+    // Latency percentiles of the last interval (in microseconds). Not sent by older peers
+    private double latencyPercentile50;
+    private double latencyPercentile99;
+    private double latencyMax;
+
+    // The compressed HDR histogram of the last interval. Only sent along with the pushed stats
+    private byte[] latencyHistogram;
+
     public StatsResponse() {
         super(MaestroCommand.MAESTRO_NOTE_STATS);
     }
@@ -49,6 +60,20 @@ public class StatsResponse extends MaestroResponse {
         count = unpacker.unpackLong();
         rate = unpacker.unpackDouble();
         latency = unpacker.unpackDouble();
+
+        if (unpacker.hasNext()) {
+            latencyPercentile50 = unpacker.unpackDouble();
+            latencyPercentile99 = unpacker.unpackDouble();
+            latencyMax = unpacker.unpackDouble();
+        }
+
+        if (unpacker.hasNext()) {
+            final int length = unpacker.unpackBinaryHeader();
+
+            if (length > 0) {
+                latencyHistogram = unpacker.readPayload(length);
+            }
+        }
     }
 
     @Override
@@ -63,6 +88,14 @@ public class StatsResponse extends MaestroResponse {
         packer.packLong(this.count);
         packer.packDouble(this.rate);
         packer.packDouble(this.latency);
+        packer.packDouble(this.latencyPercentile50);
+        packer.packDouble(this.latencyPercentile99);
+        packer.packDouble(this.latencyMax);
+
+        if (this.latencyHistogram != null) {
+            packer.packBinaryHeader(this.latencyHistogram.length);
+            packer.writePayload(this.latencyHistogram);
+        }
 
         return packer;
     }
@@ -83,6 +116,35 @@ public class StatsResponse extends MaestroResponse {
         return latency;
     }
 
+    public double getLatencyPercentile50() {
+        return latencyPercentile50;
+    }
+
+    public double getLatencyPercentile99() {
+        return latencyPercentile99;
+    }
+
+    public double getLatencyMax() {
+        return latencyMax;
+    }
+
+    public byte[] getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * Decodes the latency histogram of the last interval
+     * @return the latency histogram or null if the peer did not send one
+     * @throws DataFormatException if the histogram cannot be decoded
+     */
+    public Histogram decodeLatencyHistogram() throws DataFormatException {
+        if (latencyHistogram == null) {
+            return null;
+        }
+
+        return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(latencyHistogram), 0);
+    }
+
     public int getChildCount() {
         return childCount;
     }
@@ -131,6 +193,22 @@ public class StatsResponse extends MaestroResponse {
         this.latency = latency;
     }
 
+    public void setLatencyPercentile50(double latencyPercentile50) {
+        this.latencyPercentile50 = latencyPercentile50;
+    }
+
+    public void setLatencyPercentile99(double latencyPercentile99) {
+        this.latencyPercentile99 = latencyPercentile99;
+    }
+
+    public void setLatencyMax(double latencyMax) {
+        this.latencyMax = latencyMax;
+    }
+
+    public void setLatencyHistogram(byte[] latencyHistogram) {
+        this.latencyHistogram = latencyHistogram;
+    }
+
     @Override
     public String toString() {
         return "StatsResponse{" +
@@ -142,6 +220,10 @@ public class StatsResponse extends MaestroResponse {
                 ", count=" + count +
                 ", rate=" + rate +
                 ", latency=" + latency +
+                ", latencyPercentile50=" + latencyPercentile50 +
+                ", latencyPercentile99=" + latencyPercentile99 +
+                ", latencyMax=" + latencyMax +
+                ", latencyHistogram=" + (latencyHistogram == null ? "none" : latencyHistogram.length + " bytes") +
                 "} " + super.toString();
     }
 }
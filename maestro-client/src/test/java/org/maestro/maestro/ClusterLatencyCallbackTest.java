@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.maestro;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.client.callback.ClusterLatencyCallback;
+import org.maestro.client.notes.StatsResponse;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClusterLatencyCallbackTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private static StatsResponse newStats(final String name, long timestamp, long latency, long count) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(latency, count);
+
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] encoded = new byte[length];
+        buffer.flip();
+        buffer.get(encoded);
+
+        StatsResponse statsResponse = new StatsResponse();
+        statsResponse.setName(name);
+        statsResponse.setTimestamp(Long.toString(timestamp));
+        statsResponse.setLatencyHistogram(encoded);
+
+        return statsResponse;
+    }
+
+    @Test
+    public void testMergeIntervals() throws Exception {
+        final long start = 1_500_000_000_000L;
+        final File reportFile = new File(tempFolder.newFolder(), "receiverd-latency.hdr");
+
+        ClusterLatencyCallback callback = new ClusterLatencyCallback(1000);
+        callback.start(reportFile);
+
+        callback.call(newStats("receiver@host1", start + 100, 100, 10));
+        callback.call(newStats("receiver@host2", start + 900, 300, 20));
+        // Not merged: the sender latencies are not end-to-end latencies
+        callback.call(newStats("sender@host3", start + 500, 50000, 100));
+        callback.call(newStats("receiver@host1", start + 1100, 200, 30));
+        // Late, but the interval is still open
+        callback.call(newStats("receiver@host3", start + 950, 400, 5));
+        callback.call(newStats("receiver@host1", start + 2100, 200, 40));
+
+        Histogram first = callback.getLast();
+        assertEquals(35, first.getTotalCount());
+        assertEquals(start, first.getStartTimeStamp());
+
+        callback.stop();
+
+        List<Histogram> histograms = new ArrayList<>();
+        HistogramLogReader reader = new HistogramLogReader(reportFile);
+        while (reader.hasNext()) {
+            EncodableHistogram histogram = reader.nextIntervalHistogram();
+
+            if (histogram instanceof Histogram) {
+                histograms.add((Histogram) histogram);
+            }
+        }
+
+        assertEquals(3, histograms.size());
+        assertEquals(35, histograms.get(0).getTotalCount());
+        assertEquals(30, histograms.get(1).getTotalCount());
+        assertEquals(40, histograms.get(2).getTotalCount());
+    }
+}
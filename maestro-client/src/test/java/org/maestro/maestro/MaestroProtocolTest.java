@@ -16,6 +16,7 @@
 
 package org.maestro.maestro;
 
+import org.HdrHistogram.Histogram;
 import org.junit.Test;
 import org.maestro.client.exchange.MaestroDeserializer;
 import org.maestro.client.notes.*;
@@ -24,7 +25,10 @@ import org.maestro.common.client.notes.MaestroCommand;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.client.notes.MaestroNoteType;
 
+import java.nio.ByteBuffer;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class MaestroProtocolTest {
@@ -47,6 +51,43 @@ public class MaestroProtocolTest {
         assertTrue(((PingRequest) parsed).getUsec() != 0);
     }
 
+    @Test
+    public void serializePingResponse() throws Exception {
+        PingResponse pingResponse = new PingResponse();
+
+        pingResponse.setName("receiver@localhost");
+        pingResponse.setId("asfas45");
+        pingResponse.setElapsed(1);
+        pingResponse.setOriginateTime(1521027548000000L);
+        pingResponse.setReceiveTime(1521027548001000L);
+        pingResponse.setTransmitTime(1521027548001010L);
+
+        MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(pingResponse));
+
+        assertTrue(parsed instanceof PingResponse);
+        assertTrue(parsed.getMaestroCommand() == MaestroCommand.MAESTRO_NOTE_PING);
+
+        PingResponse parsedResponse = (PingResponse) parsed;
+        assertEquals(1, parsedResponse.getElapsed());
+        assertEquals(1521027548000000L, parsedResponse.getOriginateTime());
+        assertEquals(1521027548001000L, parsedResponse.getReceiveTime());
+        assertEquals(1521027548001010L, parsedResponse.getTransmitTime());
+        assertTrue("The arrival time should be set on reception", parsedResponse.hasTimestamps());
+    }
+
+    @Test
+    public void serializeSetClockOffsetRequest() throws Exception {
+        SetRequest setRequest = new SetRequest();
+
+        setRequest.setClockOffset(-1500, 120);
+
+        MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(setRequest));
+
+        assertTrue(parsed instanceof SetRequest);
+        assertEquals(SetRequest.Option.MAESTRO_NOTE_OPT_SET_CLOCK_OFFSET, ((SetRequest) parsed).getOption());
+        assertEquals("-1500,120", ((SetRequest) parsed).getValue());
+    }
+
     @Test
     public void serializeFlushRequest() throws Exception {
         MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(new FlushRequest()));
@@ -156,6 +197,9 @@ public class MaestroProtocolTest {
         statsResponse.setRate(1122);
         statsResponse.setRoleInfo("");
         statsResponse.setTimestamp("1521027548");
+        statsResponse.setLatencyPercentile50(850);
+        statsResponse.setLatencyPercentile99(2100);
+        statsResponse.setLatencyMax(15000);
 
         MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(statsResponse));
 
@@ -166,5 +210,38 @@ public class MaestroProtocolTest {
         assertEquals("tester", ((StatsResponse) parsed).getRole());
         assertTrue(1.123 == ((StatsResponse) parsed).getLatency());
         assertEquals("1521027548", ((StatsResponse) parsed).getTimestamp());
+        assertTrue(850 == ((StatsResponse) parsed).getLatencyPercentile50());
+        assertTrue(2100 == ((StatsResponse) parsed).getLatencyPercentile99());
+        assertTrue(15000 == ((StatsResponse) parsed).getLatencyMax());
+        assertNull(((StatsResponse) parsed).decodeLatencyHistogram());
+    }
+
+    @Test
+    public void serializeStatsResponseWithHistogram() throws Exception {
+        StatsResponse statsResponse = new StatsResponse();
+
+        statsResponse.setRole("tester");
+        statsResponse.setRoleInfo("");
+        statsResponse.setTimestamp("1521027548");
+        statsResponse.setCount(300);
+
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(100, 200);
+        histogram.recordValueWithCount(5000, 100);
+
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] encoded = new byte[length];
+        buffer.flip();
+        buffer.get(encoded);
+        statsResponse.setLatencyHistogram(encoded);
+
+        MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(statsResponse));
+
+        assertTrue(parsed instanceof StatsResponse);
+        assertEquals(300, ((StatsResponse) parsed).getCount());
+
+        Histogram decoded = ((StatsResponse) parsed).decodeLatencyHistogram();
+        assertEquals(histogram, decoded);
     }
 }
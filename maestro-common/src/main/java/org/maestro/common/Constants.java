@@ -56,6 +56,11 @@ public final class Constants {
      */
     public static final String FILE_EXTENSION_MPT_COMPRESSED = "gz";
 
+    /**
+     * File extension for Maestro binary rate files
+     */
+    public static final String FILE_EXTENSION_MPT_BINARY = "bin";
+
     /**
      * File extension for Maestro inspector uncompressed files
      */
@@ -66,6 +71,12 @@ public final class Constants {
      */
     public static final String FILE_HINT_INSPECTOR = "inspector";
 
+    /**
+     * Name of the directory, within the front-end report directory, where the data collected while the test
+     * is running is saved. It is not part of the report layout, so it is skipped when generating the reports
+     */
+    public static final String LIVE_REPORT_DIRNAME = "live";
+
     /**
      * Restricted constructor
      */
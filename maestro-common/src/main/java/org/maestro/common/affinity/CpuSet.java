@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.affinity;
+
+import java.util.BitSet;
+
+/**
+ * An immutable set of CPUs, as used to set the affinity of a thread. It is parsed from the same list format
+ * used by taskset and by the Linux kernel (ie.: 0,2,4-7)
+ */
+public final class CpuSet {
+    private final BitSet cpus;
+
+    private CpuSet(final BitSet cpus) {
+        this.cpus = cpus;
+    }
+
+    /**
+     * Parses a CPU list
+     * @param list the CPU list (ie.: 0,2,4-7)
+     * @return the CPU set
+     * @throws IllegalArgumentException if the list is invalid or empty
+     */
+    public static CpuSet parse(final String list) {
+        if (list == null || list.trim().isEmpty()) {
+            throw new IllegalArgumentException("The CPU list must not be empty");
+        }
+
+        final BitSet cpus = new BitSet();
+
+        for (String item : list.split(",")) {
+            final String range = item.trim();
+            final int separator = range.indexOf('-');
+
+            try {
+                if (separator < 0) {
+                    cpus.set(parseCpu(range));
+                }
+                else {
+                    final int first = parseCpu(range.substring(0, separator).trim());
+                    final int last = parseCpu(range.substring(separator + 1).trim());
+
+                    if (last < first) {
+                        throw new IllegalArgumentException("Invalid CPU range: " + range);
+                    }
+
+                    cpus.set(first, last + 1);
+                }
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CPU list: " + list, e);
+            }
+        }
+
+        return new CpuSet(cpus);
+    }
+
+    private static int parseCpu(final String value) {
+        final int cpu = Integer.parseInt(value);
+
+        if (cpu < 0) {
+            throw new IllegalArgumentException("Invalid CPU number: " + value);
+        }
+
+        return cpu;
+    }
+
+    /**
+     * Creates a set with all the CPUs available to the JVM that are not in the given set
+     * @param cpuSet the CPUs to exclude
+     * @return the remaining CPUs or null if there are none
+     */
+    public static CpuSet complementOf(final CpuSet cpuSet) {
+        final BitSet cpus = new BitSet();
+
+        cpus.set(0, Runtime.getRuntime().availableProcessors());
+        cpus.andNot(cpuSet.cpus);
+
+        return cpus.isEmpty() ? null : new CpuSet(cpus);
+    }
+
+    /**
+     * Gets the number of CPUs in the set
+     * @return the number of CPUs in the set
+     */
+    public int size() {
+        return cpus.cardinality();
+    }
+
+    /**
+     * Gets a set containing only one of the CPUs of this set. It can be used to spread a group of threads
+     * over the CPUs of the set, one thread per CPU
+     * @param index the index of the thread (it wraps around if it is greater than the size of the set)
+     * @return a set containing a single CPU
+     */
+    public CpuSet single(int index) {
+        int cpu = cpus.nextSetBit(0);
+
+        for (int i = 0; i < index % size(); i++) {
+            cpu = cpus.nextSetBit(cpu + 1);
+        }
+
+        final BitSet single = new BitSet();
+        single.set(cpu);
+
+        return new CpuSet(single);
+    }
+
+    /**
+     * Gets the CPU mask in the format used by sched_setaffinity
+     * @return the CPU mask
+     */
+    long[] toMask() {
+        return cpus.toLongArray();
+    }
+
+    /**
+     * Checks whether a CPU is in the set
+     * @param cpu the CPU number
+     * @return true if the CPU is in the set or false otherwise
+     */
+    public boolean contains(int cpu) {
+        return cpus.get(cpu);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return cpus.equals(((CpuSet) o).cpus);
+    }
+
+    @Override
+    public int hashCode() {
+        return cpus.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        int first = cpus.nextSetBit(0);
+
+        while (first >= 0) {
+            final int last = cpus.nextClearBit(first) - 1;
+
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+
+            builder.append(first);
+            if (last > first) {
+                builder.append('-').append(last);
+            }
+
+            first = cpus.nextSetBit(last + 1);
+        }
+
+        return builder.toString();
+    }
+}
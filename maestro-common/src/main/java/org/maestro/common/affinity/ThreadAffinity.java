@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.affinity;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sets the CPU affinity of the threads. It calls sched_setaffinity via JNA, so it is only supported on Linux: on
+ * other platforms the threads just run unpinned.
+ */
+public final class ThreadAffinity {
+    private static final Logger logger = LoggerFactory.getLogger(ThreadAffinity.class);
+
+    private static final class LinuxAffinity {
+        static {
+            Native.register(Platform.C_LIBRARY_NAME);
+        }
+
+        public static native int sched_setaffinity(int pid, int cpusetsize, long[] mask) throws LastErrorException;
+    }
+
+    private ThreadAffinity() {}
+
+    /**
+     * Sets the CPU affinity of the calling thread
+     * @param cpuSet the CPUs the thread is allowed to run on
+     * @return true if the affinity was set or false otherwise
+     */
+    public static boolean setAffinity(final CpuSet cpuSet) {
+        if (!Platform.isLinux()) {
+            logger.warn("Setting the CPU affinity is not supported on this platform");
+
+            return false;
+        }
+
+        try {
+            final long[] mask = cpuSet.toMask();
+
+            // pid 0 is the calling thread
+            LinuxAffinity.sched_setaffinity(0, mask.length * Long.BYTES, mask);
+            logger.debug("Thread {} is pinned to the CPUs {}", Thread.currentThread().getName(), cpuSet);
+
+            return true;
+        }
+        catch (LastErrorException e) {
+            logger.warn("Unable to pin the thread {} to the CPUs {}: error {}", Thread.currentThread().getName(),
+                    cpuSet, e.getErrorCode());
+        }
+        catch (UnsatisfiedLinkError e) {
+            logger.warn("Unable to pin the thread {} to the CPUs {}: {}", Thread.currentThread().getName(),
+                    cpuSet, e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Wraps a task so that the thread running it is pinned to the given CPUs before it starts
+     * @param task the task to run
+     * @param cpuSet the CPUs the thread is allowed to run on (or null to run unpinned)
+     * @return the wrapped task or the task itself if the CPU set is null
+     */
+    public static Runnable pinned(final Runnable task, final CpuSet cpuSet) {
+        if (cpuSet == null) {
+            return task;
+        }
+
+        return () -> {
+            setAffinity(cpuSet);
+            task.run();
+        };
+    }
+}
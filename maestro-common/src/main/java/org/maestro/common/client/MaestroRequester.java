@@ -185,6 +185,34 @@ public interface MaestroRequester {
     void setFCL(final int value) throws MaestroConnectionException;
 
 
+    /**
+     * Sends a set send scheduler request
+     * @param value The send scheduler specification (ie.: fixed, batch:N, poisson, replay:file)
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void setSendScheduler(final String value) throws MaestroConnectionException;
+
+
+    /**
+     * Sends a set send scheduler request
+     * @param topic the topic to send the request to
+     * @param value The send scheduler specification (ie.: fixed, batch:N, poisson, replay:file)
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void setSendScheduler(final String topic, final String value) throws MaestroConnectionException;
+
+
+    /**
+     * Sends a set clock offset request
+     * @param topic the topic to send the request to (usually a peer-specific topic)
+     * @param offsetMicros the clock offset (receiver clock - sender clock) in microseconds
+     * @param uncertaintyMicros the maximum error of the clock offset in microseconds
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void setClockOffset(final String topic, long offsetMicros, long uncertaintyMicros)
+            throws MaestroConnectionException;
+
+
     /**
      * Sends a start inspector request
      * @param value the name of the inspector to start
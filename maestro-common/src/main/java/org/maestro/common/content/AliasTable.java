@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2017 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples a discrete distribution in constant time, without allocating, using the alias method (Vose's variant).
+ * The table is built once from the weights of each outcome.
+ */
+final class AliasTable {
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * Constructor
+     * @param weights the (non-negative) weight of each outcome. They don't need to sum to 1
+     */
+    AliasTable(final double[] weights) {
+        final int n = weights.length;
+
+        if (n == 0) {
+            throw new IllegalArgumentException("The distribution must have at least one outcome");
+        }
+
+        double sum = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+
+            sum += weight;
+        }
+
+        if (sum <= 0) {
+            throw new IllegalArgumentException("The sum of the weights must be greater than 0");
+        }
+
+        probabilities = new double[n];
+        aliases = new int[n];
+
+        final double[] scaled = new double[n];
+        final Deque<Integer> small = new ArrayDeque<>();
+        final Deque<Integer> large = new ArrayDeque<>();
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+
+            if (scaled[i] < 1.0) {
+                small.push(i);
+            }
+            else {
+                large.push(i);
+            }
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            final int less = small.pop();
+            final int more = large.pop();
+
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small.push(more);
+            }
+            else {
+                large.push(more);
+            }
+        }
+
+        // whatever is left has (up to rounding errors) a probability of 1
+        while (!large.isEmpty()) {
+            probabilities[large.pop()] = 1.0;
+        }
+
+        while (!small.isEmpty()) {
+            probabilities[small.pop()] = 1.0;
+        }
+    }
+
+    /**
+     * Gets the number of outcomes
+     * @return the number of outcomes
+     */
+    int size() {
+        return probabilities.length;
+    }
+
+    /**
+     * Samples the distribution
+     * @param random the random number generator
+     * @return the index of the outcome
+     */
+    int next(final ThreadLocalRandom random) {
+        final int column = random.nextInt(probabilities.length);
+
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Describes the benchmark payload written at the beginning of the message content. All the values
+ * use the {@link ContentStrategy#CONTENT_ENDIANNESS}.
+ * <pre>
+ * send time epoch micros (long) | expected send time epoch micros (long)
+ * </pre>
+ * The expected (scheduled) send time is only written when the content is large enough to hold it, so
+ * that the receivers can measure the response time from the intended start of the send, correcting
+ * the coordinated omission caused by a sender that falls behind its schedule.
+ */
+public final class BenchmarkPayload {
+    public static final int SEND_TIME_OFFSET = 0;
+    public static final int EXPECTED_SEND_TIME_OFFSET = SEND_TIME_OFFSET + Long.BYTES;
+
+    /**
+     * The minimum length of the payload (ie.: only the send time)
+     */
+    public static final int MIN_LENGTH = EXPECTED_SEND_TIME_OFFSET;
+
+    /**
+     * The length of the payload containing both the send and the expected send times
+     */
+    public static final int LENGTH = EXPECTED_SEND_TIME_OFFSET + Long.BYTES;
+
+    private BenchmarkPayload() {}
+
+    /**
+     * Checks whether a content of the given length can hold the expected send time
+     * @param length the content length
+     * @return true if the expected send time fits on the content or false otherwise
+     */
+    public static boolean hasExpectedSendTime(int length) {
+        return length >= LENGTH;
+    }
+
+    /**
+     * Writes the payload at the current position of the content, without changing it
+     * @param content the message content, as returned by the content strategy
+     * @param sendTimeEpochMicros the send time in micros since epoch
+     * @param expectedSendTimeEpochMicros the expected send time in micros since epoch
+     */
+    public static void write(final ByteBuffer content, long sendTimeEpochMicros, long expectedSendTimeEpochMicros) {
+        final int position = content.position();
+
+        content.putLong(position + SEND_TIME_OFFSET, sendTimeEpochMicros);
+        if (hasExpectedSendTime(content.remaining())) {
+            content.putLong(position + EXPECTED_SEND_TIME_OFFSET, expectedSendTimeEpochMicros);
+        }
+    }
+}
@@ -16,7 +16,7 @@
 
 package org.maestro.common.content;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Random content filler
@@ -31,7 +31,7 @@ public class ContentFiller {
      * @param capacity the buffer capacity
      */
     public static void randomFill(StringBuffer buffer, int capacity) {
-        Random r =  new Random();
+        final ThreadLocalRandom r = ThreadLocalRandom.current();
 
         int limit = dict.length() - 1;
         for (int i = 0; i < capacity; i++) {
@@ -40,4 +40,14 @@ public interface ContentStrategy {
      * @return the message content to send
      */
     ByteBuffer prepareContent();
+
+    /**
+     * Checks whether every call to {@link #prepareContent()} returns the same content, with the same size. In this
+     * case the content could be written once and reused, as long as the benchmark payload is updated.
+     *
+     * @return true if the content has a fixed size or false otherwise
+     */
+    default boolean isFixedSize() {
+        return false;
+    }
 }
@@ -24,14 +24,23 @@ public class ContentStrategyFactory {
     private ContentStrategyFactory() {}
 
     /**
-     * Parse a content size specification string and creates the respective ContentStrategy.
+     * Parse a content size specification string and creates the respective ContentStrategy. If the content pool is
+     * enabled (see {@link PooledContent}), the content is taken from a pool of pre-generated random contents. See
+     * {@link MessageSize} for the supported size specifications.
      * @param sizeSpec The size specification string
      * @return A ContentStrategy instance for the size spec string
      */
     public static ContentStrategy parse(final String sizeSpec) {
-        ContentStrategy ret;
+        ContentStrategy ret = PooledContent.create(sizeSpec);
 
-        if (sizeSpec.startsWith("~")) {
+        if (ret != null) {
+            return ret;
+        }
+
+        if (SizeDistributions.isDistribution(sizeSpec)) {
+            ret = new DistributedSizeContent(SizeDistributions.parse(sizeSpec));
+        }
+        else if (sizeSpec.startsWith("~")) {
             ret = new VariableSizeContent(sizeSpec);
         }
         else {
@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2017 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A message content whose size follows a size distribution. A single buffer, large enough for the largest size,
+ * backs every content
+ */
+final class DistributedSizeContent implements ContentStrategy {
+    private final SizeDistribution distribution;
+    private final ByteBuffer buffer;
+
+    DistributedSizeContent(final SizeDistribution distribution) {
+        this.distribution = distribution;
+
+        final int capacity = distribution.maxSize();
+        this.buffer = ByteBuffer.allocate(capacity).order(CONTENT_ENDIANNESS);
+        for (int i = 0; i < capacity; i++) {
+            this.buffer.put(i, (byte) i);
+        }
+    }
+
+    /*
+     * @see ContentStrategy#prepareContent()
+     */
+    @Override
+    public ByteBuffer prepareContent() {
+        buffer.clear();
+        buffer.limit(distribution.nextSize());
+        return buffer;
+    }
+}
@@ -56,4 +56,9 @@ final class FixedSizeContent implements ContentStrategy {
     public ByteBuffer prepareContent() {
         return buffer;
     }
+
+    @Override
+    public boolean isFixedSize() {
+        return true;
+    }
 }
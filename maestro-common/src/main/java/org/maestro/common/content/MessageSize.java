@@ -20,7 +20,9 @@ package org.maestro.common.content;
  * Builds a message/content size specification String. The size specification is a specially-formatted string that
  * determines the content size and other aspects of it (ie.: like whether it's variable or not). The format of the
  * string is either "~num" (for variable size message content) or "num" (for fixed size message content), such as "~256"
- * or "256"
+ * or "256". The content size can also follow a distribution: a weighted mix (ie.: "256:70%,4096:25%,1M:5%"),
+ * a log-normal distribution (ie.: "lognormal(1K,0.5)") or an empirical distribution loaded from a histogram file
+ * (ie.: "empirical(/path/to/histogram)"). See {@link SizeDistributions} for the details.
  */
 public class MessageSize {
     private MessageSize() {}
@@ -43,21 +45,41 @@ public class MessageSize {
         return Long.toString(value);
     }
 
+    /**
+     * Checks whether the size specification is for a variable size message content
+     * @param sizeSpec A message size specification string
+     * @return true if the content size is variable (including when it follows a distribution)
+     */
     public static boolean isVariable(final String sizeSpec) {
-        return sizeSpec.startsWith("~");
+        return sizeSpec.startsWith("~") || isDistribution(sizeSpec);
+
+    }
 
+    /**
+     * Checks whether the size specification is for a content size following a distribution
+     * @param sizeSpec A message size specification string
+     * @return true if it's a weighted mix, log-normal or empirical size specification
+     */
+    public static boolean isDistribution(final String sizeSpec) {
+        return SizeDistributions.isDistribution(sizeSpec);
     }
 
     /**
-     * Given a content/message size specification string, return it's base size
+     * Given a content/message size specification string, return it's base size. The sizes accept the K (KiB) and
+     * M (MiB) suffixes
      * @param sizeSpec A message size specification string
-     * @return The content size
+     * @return The content size (the mean size, rounded, for the distributions)
      */
     public static int toSizeFromSpec(final String sizeSpec) {
+        if (isDistribution(sizeSpec)) {
+            // the distribution is only built once per specification
+            return (int) Math.round(SizeDistributions.parse(sizeSpec).meanSize());
+        }
+
         if (isVariable(sizeSpec)) {
-            return Integer.parseInt(sizeSpec.replace("~", ""));
+            return SizeDistributions.parseSize(sizeSpec.replace("~", ""));
         }
 
-        return Integer.parseInt(sizeSpec);
+        return SizeDistributions.parseSize(sizeSpec);
     }
 }
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2017 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+import org.maestro.common.ConfigurationWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A message content that cycles through a pool of pre-generated random contents, instead of sending the same
+ * content over and over. This prevents compression or deduplication along the path from flattering the results.
+ * <p>
+ * The pool is generated once, at start up, on a single backing array. Each call to {@link #prepareContent()}
+ * returns the next pre-built view of it, so no allocation or random generation happens when sending. The entropy,
+ * in bits per byte, controls how compressible the content is: 8 makes it incompressible while 0 makes it all zeros.
+ * <p>
+ * The pool is enabled by setting maestro.worker.content.pool.size (the number of contents in the pool) and tuned
+ * with maestro.worker.content.entropy (defaults to 8) and maestro.worker.content.pool.max.bytes (the maximum
+ * memory used by each pool, defaults to 64MiB). This class is not thread-safe.
+ */
+final class PooledContent implements ContentStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(PooledContent.class);
+    private static final long DEFAULT_MAX_POOL_BYTES = 64L * 1024 * 1024;
+
+    private final ByteBuffer[] contents;
+    private final SizeDistribution distribution;
+    private final boolean fixedSize;
+    private int next;
+
+    /**
+     * Constructor
+     * @param distribution the distribution of the content sizes
+     * @param poolSize the number of contents in the pool
+     * @param entropyBits the number of random bits in each byte of the contents (from 0 to 8)
+     * @param seed the seed used to generate the contents
+     */
+    PooledContent(final SizeDistribution distribution, int poolSize, int entropyBits, long seed) {
+        if (distribution.minSize() < Long.BYTES) {
+            throw new IllegalStateException("The size is too small: please configure an bigger one");
+        }
+
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("The pool size must be greater than 0");
+        }
+
+        if (entropyBits < 0 || entropyBits > Byte.SIZE) {
+            throw new IllegalArgumentException("The entropy must be between 0 and 8 bits per byte");
+        }
+
+        this.distribution = distribution;
+        this.fixedSize = distribution.minSize() == distribution.maxSize();
+
+        final int capacity = distribution.maxSize();
+        final byte[] pool = new byte[Math.multiplyExact(capacity, poolSize)];
+        fill(pool, entropyBits, new SplittableRandom(seed));
+
+        contents = new ByteBuffer[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            contents[i] = ByteBuffer.wrap(pool, i * capacity, capacity).slice().order(CONTENT_ENDIANNESS);
+        }
+    }
+
+    private static void fill(final byte[] pool, int entropyBits, final SplittableRandom random) {
+        final int mask = (1 << entropyBits) - 1;
+
+        for (int i = 0; i < pool.length; i += Long.BYTES) {
+            long bits = random.nextLong();
+
+            for (int j = i; j < Math.min(i + Long.BYTES, pool.length); j++) {
+                pool[j] = (byte) (bits & mask);
+                bits >>>= Byte.SIZE;
+            }
+        }
+    }
+
+    /**
+     * Creates a pooled content for the given size specification, if the pool is enabled in the configuration
+     * @param sizeSpec the size specification
+     * @return the pooled content or null if the pool is not enabled
+     */
+    static PooledContent create(final String sizeSpec) {
+        final int poolSize = ConfigurationWrapper.getConfig().getInt("maestro.worker.content.pool.size", 0);
+
+        if (poolSize <= 0) {
+            return null;
+        }
+
+        final SizeDistribution distribution = SizeDistributions.parse(sizeSpec);
+        final int entropyBits = ConfigurationWrapper.getConfig().getInt("maestro.worker.content.entropy", Byte.SIZE);
+        final long maxPoolBytes = ConfigurationWrapper.getConfig().getLong("maestro.worker.content.pool.max.bytes",
+                DEFAULT_MAX_POOL_BYTES);
+
+        final int capacity = distribution.maxSize();
+        final int effectivePoolSize = (int) Math.max(1, Math.min(poolSize, maxPoolBytes / capacity));
+        if (effectivePoolSize < poolSize) {
+            logger.warn("Reducing the content pool from {} to {} contents to fit in {} bytes", poolSize,
+                    effectivePoolSize, maxPoolBytes);
+        }
+
+        logger.info("Generating a pool of {} contents with {} bits of entropy per byte", effectivePoolSize,
+                entropyBits);
+        return new PooledContent(distribution, effectivePoolSize, entropyBits,
+                ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Gets the number of contents in the pool
+     * @return the pool size
+     */
+    int poolSize() {
+        return contents.length;
+    }
+
+    /*
+     * @see ContentStrategy#prepareContent()
+     */
+    @Override
+    public ByteBuffer prepareContent() {
+        final ByteBuffer buffer = contents[next];
+
+        next = next + 1 == contents.length ? 0 : next + 1;
+        buffer.clear();
+        if (!fixedSize) {
+            buffer.limit(distribution.nextSize());
+        }
+
+        return buffer;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2017 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+/**
+ * Breaks the message sizes down in classes, so that the results of the tests whose message size follows a
+ * distribution can be reported per size class. The classes are the powers of two: each one holds the sizes up to
+ * its own power of two and greater than the previous one (ie.: the 4K class holds the sizes from 2049 to 4096 bytes).
+ */
+public final class SizeClasses {
+    /**
+     * The number of size classes
+     */
+    public static final int COUNT = Integer.SIZE;
+
+    private SizeClasses() {}
+
+    /**
+     * Checks whether the results of a test should be broken down per size class. It's only the case for the
+     * sizes following a distribution: the fixed and the variable sizes fall in a single class (or two)
+     * @param sizeSpec A message size specification string
+     * @return true if the results should be broken down per size class
+     */
+    public static boolean isBrokenDown(final String sizeSpec) {
+        return sizeSpec != null && MessageSize.isDistribution(sizeSpec);
+    }
+
+    /**
+     * Gets the class of a message size
+     * @param size the message size
+     * @return the size class, between 0 and {@link #COUNT} (exclusive)
+     */
+    public static int of(int size) {
+        return size <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    /**
+     * Gets the name of a size class, which is its largest size using the K (KiB) and M (MiB) suffixes when
+     * possible (ie.: "256", "4K" or "1M")
+     * @param sizeClass the size class
+     * @return the name of the size class
+     */
+    public static String name(int sizeClass) {
+        if (sizeClass < 0 || sizeClass >= COUNT) {
+            throw new IllegalArgumentException("Invalid size class: " + sizeClass);
+        }
+
+        final long size = 1L << sizeClass;
+        if (size >= 1024 * 1024) {
+            return (size / (1024 * 1024)) + "M";
+        }
+
+        if (size >= 1024) {
+            return (size / 1024) + "K";
+        }
+
+        return Long.toString(size);
+    }
+}
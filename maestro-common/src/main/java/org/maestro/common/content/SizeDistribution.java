@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2017 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+/**
+ * A distribution of message content sizes. Sampling a size must not allocate
+ */
+interface SizeDistribution {
+
+    /**
+     * Gets the smallest size that can be sampled
+     * @return the smallest size
+     */
+    int minSize();
+
+    /**
+     * Gets the largest size that can be sampled
+     * @return the largest size
+     */
+    int maxSize();
+
+    /**
+     * Gets the mean size, which is used to describe the distribution in the test properties
+     * @return the mean size
+     */
+    double meanSize();
+
+    /**
+     * Samples the next size
+     * @return a size between {@link #minSize()} and {@link #maxSize()} (inclusive)
+     */
+    int nextSize();
+}
@@ -0,0 +1,415 @@
+/*
+ *  Copyright 2017 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parses the size specifications into size distributions. Besides the fixed ("N") and the variable ("~N",
+ * a uniform spread of &plusmn;5%) sizes, the following specifications are supported:
+ * <ul>
+ *     <li>weighted mix: "256:70%,4096:25%,1M:5%". The weights don't need to sum to 100</li>
+ *     <li>log-normal: "lognormal(median,sigma)" or "lognormal(median,sigma,max)". The max defaults to the
+ *     99.9th percentile and larger sizes are capped at it</li>
+ *     <li>empirical: "empirical(/path/to/histogram)". Each line of the file has a size and its weight (or
+ *     count), separated by a comma. Empty lines and lines starting with # are ignored</li>
+ * </ul>
+ * The sizes accept the K (KiB) and M (MiB) suffixes.<p>
+ * The last distribution parsed is kept, so that the workers and the test properties of a test share the same
+ * distribution instead of building it (ie.: reading the histogram file) again. An empirical distribution is built
+ * again if its histogram file was modified since.
+ */
+final class SizeDistributions {
+    private static final String LOG_NORMAL = "lognormal(";
+    private static final String EMPIRICAL = "empirical(";
+
+    // the z-score of the 99.9th percentile of the standard normal distribution
+    private static final double Z_999 = 3.09;
+
+    private static volatile ParsedSpec lastParsed;
+
+    private SizeDistributions() {}
+
+    /**
+     * A size specification and the distribution built from it
+     */
+    private static final class ParsedSpec {
+        private final String spec;
+        private final long version;
+        private final SizeDistribution distribution;
+
+        ParsedSpec(final String spec, long version, final SizeDistribution distribution) {
+            this.spec = spec;
+            this.version = version;
+            this.distribution = distribution;
+        }
+    }
+
+    /**
+     * A distribution with only one size
+     */
+    static final class Fixed implements SizeDistribution {
+        private final int size;
+
+        Fixed(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int minSize() {
+            return size;
+        }
+
+        @Override
+        public int maxSize() {
+            return size;
+        }
+
+        @Override
+        public double meanSize() {
+            return size;
+        }
+
+        @Override
+        public int nextSize() {
+            return size;
+        }
+    }
+
+    /**
+     * A uniform distribution between two sizes
+     */
+    static final class Uniform implements SizeDistribution {
+        private final int lowerLimitInclusive;
+        private final int upperLimitExclusive;
+
+        Uniform(int lowerLimitInclusive, int upperLimitExclusive) {
+            this.lowerLimitInclusive = lowerLimitInclusive;
+            this.upperLimitExclusive = upperLimitExclusive;
+        }
+
+        @Override
+        public int minSize() {
+            return lowerLimitInclusive;
+        }
+
+        @Override
+        public int maxSize() {
+            return upperLimitExclusive - 1;
+        }
+
+        @Override
+        public double meanSize() {
+            return (lowerLimitInclusive + upperLimitExclusive - 1) / 2.0;
+        }
+
+        @Override
+        public int nextSize() {
+            return ThreadLocalRandom.current().nextInt(lowerLimitInclusive, upperLimitExclusive);
+        }
+    }
+
+    /**
+     * A discrete distribution of sizes, sampled with an alias table
+     */
+    static final class Weighted implements SizeDistribution {
+        private final int[] sizes;
+        private final AliasTable aliasTable;
+        private final int minSize;
+        private final int maxSize;
+        private final double meanSize;
+
+        Weighted(final int[] sizes, final double[] weights) {
+            if (sizes.length != weights.length) {
+                throw new IllegalArgumentException("Each size must have a weight");
+            }
+
+            this.sizes = sizes.clone();
+            this.aliasTable = new AliasTable(weights);
+
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            double sum = 0;
+            double weightedSum = 0;
+
+            for (int i = 0; i < sizes.length; i++) {
+                min = Math.min(min, sizes[i]);
+                max = Math.max(max, sizes[i]);
+                sum += weights[i];
+                weightedSum += sizes[i] * weights[i];
+            }
+
+            this.minSize = min;
+            this.maxSize = max;
+            this.meanSize = weightedSum / sum;
+        }
+
+        @Override
+        public int minSize() {
+            return minSize;
+        }
+
+        @Override
+        public int maxSize() {
+            return maxSize;
+        }
+
+        @Override
+        public double meanSize() {
+            return meanSize;
+        }
+
+        @Override
+        public int nextSize() {
+            return sizes[aliasTable.next(ThreadLocalRandom.current())];
+        }
+    }
+
+    /**
+     * A log-normal distribution of sizes, capped at the given min and max sizes
+     */
+    static final class LogNormal implements SizeDistribution {
+        private final double mu;
+        private final double sigma;
+        private final int minSize;
+        private final int maxSize;
+
+        LogNormal(int median, double sigma, int minSize, int maxSize) {
+            if (sigma <= 0) {
+                throw new IllegalArgumentException("The sigma of the log-normal distribution must be greater than 0");
+            }
+
+            if (maxSize < median) {
+                throw new IllegalArgumentException("The max size must not be smaller than the median");
+            }
+
+            this.mu = Math.log(median);
+            this.sigma = sigma;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int minSize() {
+            return minSize;
+        }
+
+        @Override
+        public int maxSize() {
+            return maxSize;
+        }
+
+        /*
+         * The mean of the uncapped distribution, limited to the max size. It's an approximation of the mean of
+         * the sampled sizes, which are capped
+         */
+        @Override
+        public double meanSize() {
+            return Math.min(maxSize, Math.exp(mu + (sigma * sigma / 2)));
+        }
+
+        @Override
+        public int nextSize() {
+            final double size = Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+
+            return (int) Math.max(minSize, Math.min(maxSize, Math.round(size)));
+        }
+    }
+
+    /**
+     * Checks whether the specification is for one of the distributions other than fixed and variable
+     * @param sizeSpec the size specification
+     * @return true if it's a weighted mix, log-normal or empirical specification
+     */
+    static boolean isDistribution(final String sizeSpec) {
+        return sizeSpec.startsWith(LOG_NORMAL) || sizeSpec.startsWith(EMPIRICAL) || sizeSpec.indexOf(':') >= 0;
+    }
+
+    /**
+     * Parses a size specification
+     * @param sizeSpec the size specification
+     * @return the size distribution
+     */
+    static SizeDistribution parse(final String sizeSpec) {
+        final String spec = sizeSpec.trim();
+        final long version = version(spec);
+
+        final ParsedSpec parsed = lastParsed;
+        if (parsed != null && parsed.spec.equals(spec) && parsed.version == version) {
+            return parsed.distribution;
+        }
+
+        final SizeDistribution distribution = build(spec);
+        lastParsed = new ParsedSpec(spec, version, distribution);
+        return distribution;
+    }
+
+    /*
+     * The histogram file modification time for the empirical distributions or 0 for the others
+     */
+    private static long version(final String spec) {
+        if (!spec.startsWith(EMPIRICAL)) {
+            return 0;
+        }
+
+        try {
+            return Files.getLastModifiedTime(Paths.get(arguments(spec, EMPIRICAL))).toMillis();
+        } catch (IOException e) {
+            // reported when building the distribution
+            return -1;
+        }
+    }
+
+    private static SizeDistribution build(final String spec) {
+        if (spec.startsWith(LOG_NORMAL)) {
+            return parseLogNormal(arguments(spec, LOG_NORMAL));
+        }
+
+        if (spec.startsWith(EMPIRICAL)) {
+            return parseEmpirical(arguments(spec, EMPIRICAL));
+        }
+
+        if (spec.indexOf(':') >= 0) {
+            return parseMix(spec);
+        }
+
+        if (MessageSize.isVariable(spec)) {
+            final int size = parseSize(spec.substring(1));
+
+            return new Uniform(VariableSizeContent.lowerLimitFor(size), VariableSizeContent.upperLimitFor(size));
+        }
+
+        return new Fixed(parseSize(spec));
+    }
+
+    private static String arguments(final String spec, final String function) {
+        if (!spec.endsWith(")")) {
+            throw new IllegalArgumentException("Invalid size specification: " + spec);
+        }
+
+        return spec.substring(function.length(), spec.length() - 1).trim();
+    }
+
+    /**
+     * Parses a size, which may use the K (KiB) or M (MiB) suffixes
+     * @param value the size
+     * @return the size in bytes
+     */
+    static int parseSize(final String value) {
+        final String size = value.trim();
+
+        if (size.isEmpty()) {
+            throw new IllegalArgumentException("Invalid empty size");
+        }
+
+        final char suffix = Character.toUpperCase(size.charAt(size.length() - 1));
+        switch (suffix) {
+            case 'K':
+                return Math.multiplyExact(Integer.parseInt(size.substring(0, size.length() - 1).trim()), 1024);
+            case 'M':
+                return Math.multiplyExact(Integer.parseInt(size.substring(0, size.length() - 1).trim()), 1024 * 1024);
+            default:
+                return Integer.parseInt(size);
+        }
+    }
+
+    private static int checkSize(int size) {
+        if (size < BenchmarkPayload.MIN_LENGTH) {
+            throw new IllegalStateException("The size is too small: please configure an bigger one");
+        }
+
+        return size;
+    }
+
+    private static SizeDistribution parseMix(final String spec) {
+        final String[] entries = spec.split(",");
+        final int[] sizes = new int[entries.length];
+        final double[] weights = new double[entries.length];
+
+        for (int i = 0; i < entries.length; i++) {
+            final String[] parts = entries[i].split(":");
+
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid weighted size: " + entries[i]);
+            }
+
+            sizes[i] = checkSize(parseSize(parts[0]));
+
+            final String weight = parts[1].trim();
+            weights[i] = Double.parseDouble(weight.endsWith("%") ? weight.substring(0, weight.length() - 1) : weight);
+        }
+
+        return new Weighted(sizes, weights);
+    }
+
+    private static SizeDistribution parseLogNormal(final String arguments) {
+        final String[] parts = arguments.split(",");
+
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Invalid log-normal size specification: " + arguments);
+        }
+
+        final int median = checkSize(parseSize(parts[0]));
+        final double sigma = Double.parseDouble(parts[1].trim());
+        final int maxSize;
+
+        if (parts.length == 3) {
+            maxSize = parseSize(parts[2]);
+        }
+        else {
+            maxSize = (int) Math.min(Integer.MAX_VALUE - 8, Math.round(median * Math.exp(Z_999 * sigma)));
+        }
+
+        return new LogNormal(median, sigma, BenchmarkPayload.MIN_LENGTH, maxSize);
+    }
+
+    private static SizeDistribution parseEmpirical(final String path) {
+        final List<Integer> sizes = new ArrayList<>();
+        final List<Double> weights = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                final String[] parts = line.split(",");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid histogram line: " + line);
+                }
+
+                sizes.add(checkSize(parseSize(parts[0])));
+                weights.add(Double.parseDouble(parts[1].trim()));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read the size histogram " + path + ": " + e.getMessage(), e);
+        }
+
+        return new Weighted(sizes.stream().mapToInt(Integer::intValue).toArray(),
+                weights.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+}
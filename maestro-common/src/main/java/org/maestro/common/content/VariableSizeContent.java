@@ -43,18 +43,36 @@ final class VariableSizeContent implements ContentStrategy {
         return this.upperLimitExclusive - 1;
     }
 
-    private void setSize(int size) {
-        final int lowerBoundInclusive;
-        final int upperBoundExclusive;
+    /**
+     * Gets the smallest content size for a variable size specification
+     * @param size the base content size
+     * @return the smallest content size (inclusive)
+     */
+    static int lowerLimitFor(int size) {
+        if (size >= 100) {
+            return size - ((size / 100) * 5) + 1;
+        }
+
+        return size;
+    }
 
+    /**
+     * Gets the upper limit of the content size for a variable size specification
+     * @param size the base content size
+     * @return the upper limit of the content size (exclusive)
+     */
+    static int upperLimitFor(int size) {
         if (size >= 100) {
-            final int bound = ((size / 100) * 5);
-            lowerBoundInclusive = size - bound + 1;
-            upperBoundExclusive = size + bound + 1;
-        } else {
-            lowerBoundInclusive = size;
-            upperBoundExclusive = size + 2;
+            return size + ((size / 100) * 5) + 1;
         }
+
+        return size + 2;
+    }
+
+    private void setSize(int size) {
+        final int lowerBoundInclusive = lowerLimitFor(size);
+        final int upperBoundExclusive = upperLimitFor(size);
+
         //TODO document the minimum expected size of the content
         if (lowerBoundInclusive < Long.BYTES) {
             throw new IllegalStateException("The size is too small: please configure an bigger one");
@@ -0,0 +1,92 @@
+/*
+  Licensed to the Apache Software Foundation (ASF) under one or more
+  contributor license agreements. See the NOTICE file distributed with
+  this work for additional information regarding copyright ownership.
+  The ASF licenses this file to You under the Apache License, Version 2.0
+  (the "License"); you may not use this file except in compliance with
+  the License. You may obtain a copy of the License at
+  <p>
+  http://www.apache.org/licenses/LICENSE-2.0
+  <p>
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package org.maestro.common.duration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * An {@link EpochMicroClock} that anchors {@link System#nanoTime()} to the wall-clock time, so that reading the
+ * time costs as little as reading the monotonic clock instead of calling into the native realtime clock.
+ * <p>
+ * The anchor is taken from a reference clock, which is read in between two monotonic clock readings in order
+ * to bound the error of the anchor. Because the monotonic clock is not adjusted by NTP, the anchor is refreshed
+ * every calibration interval, which bounds the drift from the realtime clock. The returned time never goes
+ * backwards, even if the realtime clock does.
+ * <p>
+ * This class is not thread-safe and is meant to be used by a single thread.
+ */
+public final class CalibratedEpochMicroClock implements EpochMicroClock {
+    private final EpochMicroClock referenceClock;
+    private final LongSupplier nanoClock;
+    private final long calibrationIntervalNanos;
+
+    private long anchorNanos;
+    private long anchorMicros;
+    private long lastMicros = Long.MIN_VALUE;
+
+    /**
+     * Constructor
+     * @param referenceClock the wall-clock reference
+     * @param calibrationIntervalMillis the interval, in milliseconds, between calibrations
+     */
+    public CalibratedEpochMicroClock(final EpochMicroClock referenceClock, long calibrationIntervalMillis) {
+        this(referenceClock, System::nanoTime, TimeUnit.MILLISECONDS.toNanos(calibrationIntervalMillis));
+    }
+
+    CalibratedEpochMicroClock(final EpochMicroClock referenceClock, final LongSupplier nanoClock,
+                              long calibrationIntervalNanos) {
+        if (calibrationIntervalNanos <= 0) {
+            throw new IllegalArgumentException("The calibration interval must be greater than 0");
+        }
+
+        this.referenceClock = referenceClock;
+        this.nanoClock = nanoClock;
+        this.calibrationIntervalNanos = calibrationIntervalNanos;
+
+        calibrate();
+    }
+
+    private void calibrate() {
+        final long before = nanoClock.getAsLong();
+        final long referenceMicros = referenceClock.microTime();
+        final long after = nanoClock.getAsLong();
+
+        // the reference clock was read, at best guess, halfway between the two readings
+        anchorNanos = before + ((after - before) / 2);
+        anchorMicros = referenceMicros;
+    }
+
+    @Override
+    public long microTime() {
+        final long nowNanos = nanoClock.getAsLong();
+
+        if (nowNanos - anchorNanos >= calibrationIntervalNanos) {
+            calibrate();
+        }
+
+        final long micros = anchorMicros + ((nowNanos - anchorNanos) / 1000L);
+
+        // a calibration may move the time backwards
+        if (micros < lastMicros) {
+            return lastMicros;
+        }
+
+        lastMicros = micros;
+        return micros;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.duration;
+
+/**
+ * Estimates the offset between a local and a remote clock out of timestamped request/response exchanges, in
+ * the same way NTP does. For each exchange:
+ * <ul>
+ *     <li>t1: the time, on the local clock, the request was sent</li>
+ *     <li>t2: the time, on the remote clock, the request was received</li>
+ *     <li>t3: the time, on the remote clock, the response was sent</li>
+ *     <li>t4: the time, on the local clock, the response was received</li>
+ * </ul>
+ * The offset (remote - local) is ((t2 - t1) + (t3 - t4)) / 2 and the round-trip delay is (t4 - t1) - (t3 - t2).
+ * The error of an individual offset is bounded by half of its round-trip delay, so out of the last window
+ * samples the estimator keeps the one with the smallest delay (NTP's clock filter), which is the one least
+ * affected by queueing on the network and on the broker.
+ * <p>
+ * All the timestamps are in microseconds. This class is not thread-safe.
+ */
+public final class ClockOffsetEstimator {
+    public static final int DEFAULT_WINDOW = 8;
+
+    private final long[] offsets;
+    private final long[] delays;
+    private int count;
+    private int next;
+
+    public ClockOffsetEstimator() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructor
+     * @param window the number of (most recent) samples considered for the estimate
+     */
+    public ClockOffsetEstimator(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("The sample window must be greater than 0");
+        }
+
+        offsets = new long[window];
+        delays = new long[window];
+    }
+
+    /**
+     * Adds a sample
+     * @param t1 the time the request was sent (local clock)
+     * @param t2 the time the request was received (remote clock)
+     * @param t3 the time the response was sent (remote clock)
+     * @param t4 the time the response was received (local clock)
+     * @return true if the sample was accepted or false if it was discarded because it is inconsistent
+     */
+    public boolean add(long t1, long t2, long t3, long t4) {
+        final long delay = (t4 - t1) - (t3 - t2);
+
+        if (delay < 0 || t3 < t2) {
+            return false;
+        }
+
+        offsets[next] = ((t2 - t1) + (t3 - t4)) / 2;
+        delays[next] = delay;
+
+        next = (next + 1) % offsets.length;
+        if (count < offsets.length) {
+            count++;
+        }
+
+        return true;
+    }
+
+    private int best() {
+        if (count == 0) {
+            throw new IllegalStateException("There are no samples to estimate the clock offset");
+        }
+
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (delays[i] < delays[best]) {
+                best = i;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Checks whether there are enough samples for an estimate
+     * @return true if at least one sample was accepted
+     */
+    public boolean hasEstimate() {
+        return count > 0;
+    }
+
+    /**
+     * Gets the number of samples in the window
+     * @return the number of samples in the window
+     */
+    public int sampleCount() {
+        return count;
+    }
+
+    /**
+     * Gets the estimated offset
+     * @return the estimated offset (remote - local) in microseconds
+     */
+    public long offsetMicros() {
+        return offsets[best()];
+    }
+
+    /**
+     * Gets the round-trip delay of the sample used for the estimate
+     * @return the round-trip delay in microseconds
+     */
+    public long roundTripMicros() {
+        return delays[best()];
+    }
+
+    /**
+     * Gets the uncertainty of the estimate
+     * @return the maximum error of the estimated offset, in microseconds
+     */
+    public long uncertaintyMicros() {
+        return (delays[best()] + 1) / 2;
+    }
+
+    @Override
+    public String toString() {
+        if (count == 0) {
+            return "ClockOffsetEstimator{no samples}";
+        }
+
+        return "ClockOffsetEstimator{" +
+                "offset=" + offsetMicros() +
+                ", roundTrip=" + roundTripMicros() +
+                ", samples=" + count +
+                '}';
+    }
+}
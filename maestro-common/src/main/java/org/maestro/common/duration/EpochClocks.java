@@ -17,6 +17,7 @@
 
 package org.maestro.common.duration;
 
+import org.maestro.common.ConfigurationWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,19 +25,30 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Factory to create different implementations of {@link EpochMicroClock} depending on the precision allowed by the OS.
+ * <p>
+ * On Linux the clocks are, by default, {@link CalibratedEpochMicroClock} instances anchored to the native realtime
+ * clock and re-calibrated every maestro.worker.clock.calibration.interval milliseconds (defaults to 100). Setting
+ * maestro.worker.clock to 'native' reads the native realtime clock on every call instead.
  */
 public final class EpochClocks {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EpochClocks.class);
+    private static final long DEFAULT_CALIBRATION_INTERVAL_MILLIS = 100;
     private static final EpochMicroClock SHARED_CLOCK;
     private static final boolean SUPPORT_MICRO_CLOCKS;
+    private static final boolean CALIBRATED;
+    private static final long CALIBRATION_INTERVAL_MILLIS;
 
     static {
-        //TODO handle any failures while loading the native libs
+        CALIBRATED = !"native".equalsIgnoreCase(ConfigurationWrapper.getConfig()
+                .getString("maestro.worker.clock", "calibrated"));
+        CALIBRATION_INTERVAL_MILLIS = ConfigurationWrapper.getConfig()
+                .getLong("maestro.worker.clock.calibration.interval", DEFAULT_CALIBRATION_INTERVAL_MILLIS);
+
         final String OS_NAME = System.getProperty("os.name").toLowerCase();
-        if (OS_NAME.indexOf("linux") >= 0) {
+        if (OS_NAME.indexOf("linux") >= 0 && canLoadNativeMicro()) {
             SUPPORT_MICRO_CLOCKS = true;
-            SHARED_CLOCK = new ThreadLocalEpochMicroClock(JnaDirectNativeClock::new);
+            SHARED_CLOCK = new ThreadLocalEpochMicroClock(EpochClocks::nativeMicro);
         } else {
             SUPPORT_MICRO_CLOCKS = false;
             SHARED_CLOCK = null;
@@ -44,6 +56,24 @@ public final class EpochClocks {
         }
     }
 
+    private static boolean canLoadNativeMicro() {
+        try {
+            new JnaDirectNativeClock().microTime();
+            return true;
+        } catch (Throwable t) {
+            LOGGER.warn("Unable to load the native clock: {}", t.getMessage());
+            return false;
+        }
+    }
+
+    private static EpochMicroClock nativeMicro() {
+        if (CALIBRATED) {
+            return new CalibratedEpochMicroClock(new JnaDirectNativeClock(), CALIBRATION_INTERVAL_MILLIS);
+        }
+
+        return new JnaDirectNativeClock();
+    }
+
     private static EpochMicroClock vanillaMillis() {
         return () -> TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
     }
@@ -70,7 +100,7 @@ public final class EpochClocks {
      */
     public static EpochMicroClock exclusiveMicro() {
         if (SUPPORT_MICRO_CLOCKS) {
-            return new JnaDirectNativeClock();
+            return nativeMicro();
         } else {
             return vanillaMillis();
         }
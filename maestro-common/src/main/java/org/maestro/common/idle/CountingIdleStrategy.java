@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.idle;
+
+import org.agrona.concurrent.IdleStrategy;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An idle strategy that counts the busy (some work done) and idle (no work done) cycles of the thread using it.
+ * <p>
+ * It is meant to be used by a single thread. The counters can be read by other threads, but they are only
+ * accurate after the thread using the strategy has stopped.
+ */
+public final class CountingIdleStrategy implements IdleStrategy {
+    private final String name;
+    private final IdleStrategy delegate;
+    private final boolean parking;
+
+    private long busyCycles;
+    private long idleCycles;
+
+    CountingIdleStrategy(final String name, final IdleStrategy delegate, boolean parking) {
+        this.name = name;
+        this.delegate = delegate;
+        this.parking = parking;
+    }
+
+    /**
+     * Gets the name of the strategy (ie.: as set in the configuration)
+     * @return the strategy name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Whether this is the parking strategy. When it is, the threads that can block waiting for work (ie.: on a
+     * receive call with a timeout) should do that instead of polling
+     * @return true if this is the parking strategy
+     */
+    public boolean isParking() {
+        return parking;
+    }
+
+    @Override
+    public void idle(int workCount) {
+        record(workCount);
+        delegate.idle(workCount);
+    }
+
+    /**
+     * Counts a cycle without idling. It is used by the threads that block waiting for work instead of idling
+     * @param workCount the amount of work done in the cycle
+     */
+    public void record(int workCount) {
+        if (workCount > 0) {
+            busyCycles++;
+        }
+        else {
+            idleCycles++;
+        }
+    }
+
+    @Override
+    public void idle() {
+        idleCycles++;
+        delegate.idle();
+    }
+
+    @Override
+    public void reset() {
+        delegate.reset();
+    }
+
+    /**
+     * Idles until the given deadline. The parking strategy parks the thread for the remaining time, while the
+     * others idle as usual until the deadline is reached
+     * @param deadlineNanos the deadline, as given by System.nanoTime()
+     * @return the current time, as given by System.nanoTime()
+     */
+    public long idleUntil(long deadlineNanos) {
+        long now = System.nanoTime();
+
+        if (now - deadlineNanos >= 0) {
+            busyCycles++;
+
+            return now;
+        }
+
+        do {
+            idleCycles++;
+
+            if (parking) {
+                LockSupport.parkNanos(deadlineNanos - now);
+            }
+            else {
+                delegate.idle();
+            }
+
+            now = System.nanoTime();
+        } while (now - deadlineNanos < 0);
+
+        delegate.reset();
+        return now;
+    }
+
+    /**
+     * Gets the number of cycles in which some work was done
+     * @return the number of busy cycles
+     */
+    public long getBusyCycles() {
+        return busyCycles;
+    }
+
+    /**
+     * Gets the number of cycles in which no work was done
+     * @return the number of idle cycles
+     */
+    public long getIdleCycles() {
+        return idleCycles;
+    }
+
+    @Override
+    public String toString() {
+        return "CountingIdleStrategy{" +
+                "name='" + name + '\'' +
+                ", busyCycles=" + busyCycles +
+                ", idleCycles=" + idleCycles +
+                '}';
+    }
+}
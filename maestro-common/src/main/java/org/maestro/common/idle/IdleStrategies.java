@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.idle;
+
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.SleepingIdleStrategy;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.maestro.common.ConfigurationWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the idle strategies used by the worker threads and keeps track of them, per thread role, so that their
+ * counters can be reported after the test. The strategy of each role is set via maestro.worker.idle.{role} and
+ * has the format name[:argument]:
+ * <ul>
+ *     <li>park: the thread parks until the next deadline or, when it can, blocks waiting for work. It parks for
+ *     1 microsecond when there is no deadline. This is the default</li>
+ *     <li>busy-spin: the thread spins on the CPU. It should only be used on dedicated cores</li>
+ *     <li>yielding: the thread yields the CPU</li>
+ *     <li>backoff: the thread spins, then yields and then parks for an increasing period of time (up to 1
+ *     millisecond)</li>
+ *     <li>sleeping[:nanos]: the thread sleeps for the given period (defaults to 1000 nanoseconds)</li>
+ * </ul>
+ */
+public final class IdleStrategies {
+    private static final Logger logger = LoggerFactory.getLogger(IdleStrategies.class);
+
+    public static final String ROLE_SENDER = "sender";
+    public static final String ROLE_RECEIVER = "receiver";
+    public static final String ROLE_WRITER = "writer";
+
+    private static final String DEFAULT = "park";
+    private static final long DEFAULT_SLEEP_NANOS = 1000L;
+
+    private static final Map<String, Collection<CountingIdleStrategy>> registry = new LinkedHashMap<>();
+
+    private IdleStrategies() {}
+
+    /**
+     * Parses an idle strategy specification
+     * @param spec the idle strategy specification (or null for the default one)
+     * @return a new idle strategy instance
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public static CountingIdleStrategy parse(final String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return parse(DEFAULT);
+        }
+
+        final String trimmed = spec.trim();
+        final int separator = trimmed.indexOf(':');
+        final String name = (separator < 0 ? trimmed : trimmed.substring(0, separator)).toLowerCase();
+        final String argument = separator < 0 ? null : trimmed.substring(separator + 1);
+
+        switch (name) {
+            case "park": {
+                return new CountingIdleStrategy(name, new SleepingIdleStrategy(DEFAULT_SLEEP_NANOS), true);
+            }
+            case "busy-spin": {
+                return new CountingIdleStrategy(name, new BusySpinIdleStrategy(), false);
+            }
+            case "yielding": {
+                return new CountingIdleStrategy(name, new YieldingIdleStrategy(), false);
+            }
+            case "backoff": {
+                return new CountingIdleStrategy(name, new BackoffIdleStrategy(100, 10,
+                        TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1)), false);
+            }
+            case "sleeping": {
+                final long sleepNanos = argument == null ? DEFAULT_SLEEP_NANOS : Long.parseLong(argument);
+
+                return new CountingIdleStrategy(trimmed, new SleepingIdleStrategy(sleepNanos), false);
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid idle strategy: " + spec);
+    }
+
+    /**
+     * Creates a new idle strategy for a thread role, as configured via maestro.worker.idle.{role}, and
+     * registers it so that its counters are included in the role totals
+     * @param role the thread role (ie.: sender, receiver or writer)
+     * @return a new idle strategy instance
+     */
+    public static CountingIdleStrategy forRole(final String role) {
+        final String spec = ConfigurationWrapper.getConfig().getString("maestro.worker.idle." + role, DEFAULT);
+
+        CountingIdleStrategy idleStrategy;
+        try {
+            idleStrategy = parse(spec);
+        }
+        catch (IllegalArgumentException e) {
+            logger.error("Invalid idle strategy {} for the {} threads. Using {} instead", spec, role, DEFAULT);
+            idleStrategy = parse(DEFAULT);
+        }
+
+        synchronized (registry) {
+            registry.computeIfAbsent(role, r -> new ConcurrentLinkedQueue<>()).add(idleStrategy);
+        }
+
+        return idleStrategy;
+    }
+
+    /**
+     * Gets the idle strategies created for each thread role since the last reset
+     * @return a map of the thread role to its idle strategies
+     */
+    public static Map<String, Collection<CountingIdleStrategy>> registered() {
+        synchronized (registry) {
+            return new LinkedHashMap<>(registry);
+        }
+    }
+
+    /**
+     * Forgets the idle strategies created so far (ie.: when starting a new test)
+     */
+    public static void reset() {
+        synchronized (registry) {
+            registry.clear();
+        }
+    }
+}
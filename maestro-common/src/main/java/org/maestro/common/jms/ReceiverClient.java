@@ -29,4 +29,30 @@ public interface ReceiverClient extends Client {
      * @throws Exception client specific exceptions
      */
     long receiveMessages(int acknowledge) throws Exception;
+
+    /**
+     * Returns the expected (scheduled) send time epoch micros of the last received message
+     * @return the expected send time epoch micros of the last received message or {@link #noMessagePayload()} if
+     * the message does not carry it
+     */
+    default long expectedSendTimeEpochMicros() {
+        return noMessagePayload();
+    }
+
+    /**
+     * Returns the size of the body of the last received message
+     * @return the body size in bytes or -1 if unknown
+     */
+    default int messageSize() {
+        return -1;
+    }
+
+    /**
+     * Acknowledges (or commits) all the messages received so far
+     * @param sessionMode the session mode of the client
+     * @throws Exception client specific exceptions
+     */
+    default void acknowledge(int sessionMode) throws Exception {
+        // NO-OP
+    }
 }
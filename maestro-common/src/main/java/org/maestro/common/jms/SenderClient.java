@@ -22,5 +22,33 @@ import org.maestro.common.content.ContentStrategy;
 public interface SenderClient extends Client {
     void sendMessages(long sendTimeEpochInMicros, boolean commitTransaction) throws Exception;
 
+    /**
+     * Sends the messages carrying both the actual and the expected (scheduled) send times
+     * @param sendTimeEpochInMicros the send time in micros since epoch
+     * @param expectedSendTimeEpochInMicros the expected send time in micros since epoch
+     * @param commitTransaction whether to commit the transaction after sending
+     * @throws Exception client specific exceptions
+     */
+    default void sendMessages(long sendTimeEpochInMicros, long expectedSendTimeEpochInMicros,
+                              boolean commitTransaction) throws Exception {
+        sendMessages(sendTimeEpochInMicros, commitTransaction);
+    }
+
     void setContentStrategy(ContentStrategy contentStrategy);
+
+    /**
+     * Returns the size of the content of the last message sent
+     * @return the content size in bytes or -1 if unknown
+     */
+    default int messageSize() {
+        return -1;
+    }
+
+    /**
+     * Commits the messages sent so far (when applicable)
+     * @throws Exception client specific exceptions
+     */
+    default void commit() throws Exception {
+        // NO-OP
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.readers;
+
+import org.maestro.common.writers.BinaryRateFormat;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the rate data saved in the binary format
+ *
+ * @see BinaryRateFormat
+ */
+public final class BinaryRateReader implements AutoCloseable {
+
+    /**
+     * Receives the decoded rate samples
+     */
+    @FunctionalInterface
+    public interface SampleHandler {
+        void handle(long expectedEpochMicros, long actualEpochMicros);
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer block;
+    private final boolean sender;
+    private final long createdEpochMillis;
+
+    public BinaryRateReader(final File file) throws IOException {
+        this.channel = new FileInputStream(file).getChannel();
+        this.block = ByteBuffer.allocateDirect(BinaryRateFormat.MAX_BLOCK_LENGTH)
+                .order(BinaryRateFormat.BYTE_ORDER);
+
+        try {
+            readFully(BinaryRateFormat.FILE_HEADER_LENGTH);
+
+            final int magic = block.getInt();
+            if (magic != BinaryRateFormat.MAGIC) {
+                throw new IOException("The file " + file.getPath() + " is not a binary rate file");
+            }
+
+            final short version = block.getShort();
+            if (version != BinaryRateFormat.VERSION) {
+                throw new IOException("Unsupported binary rate file version: " + version);
+            }
+
+            final short flags = block.getShort();
+            this.sender = (flags & BinaryRateFormat.FLAG_SENDER) != 0;
+            this.createdEpochMillis = block.getLong();
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private boolean readFully(int length) throws IOException {
+        block.clear();
+        block.limit(length);
+
+        while (block.hasRemaining()) {
+            if (channel.read(block) < 0) {
+                if (block.position() == 0) {
+                    return false;
+                }
+
+                throw new EOFException("Truncated binary rate file");
+            }
+        }
+
+        block.flip();
+        return true;
+    }
+
+    /**
+     * Whether the file contains sender data
+     * @return true if it contains sender data or false if it contains receiver data
+     */
+    public boolean isSender() {
+        return sender;
+    }
+
+    /**
+     * The time the file was created
+     * @return the creation time in milliseconds since epoch
+     */
+    public long createdEpochMillis() {
+        return createdEpochMillis;
+    }
+
+    /**
+     * Reads all the remaining samples in the file
+     * @param handler the handler for the samples
+     * @return the number of samples read
+     * @throws IOException on I/O errors or if the file is truncated
+     */
+    public long read(final SampleHandler handler) throws IOException {
+        long count = 0;
+
+        while (readFully(BinaryRateFormat.BLOCK_HEADER_LENGTH)) {
+            final int records = block.getInt();
+            long expected = block.getLong();
+            long actual = block.getLong();
+
+            if (records <= 0 || records > BinaryRateFormat.MAX_BLOCK_RECORDS) {
+                throw new IOException("Invalid block record count: " + records);
+            }
+
+            if (!readFully(records * BinaryRateFormat.RECORD_LENGTH)) {
+                throw new EOFException("Truncated binary rate file");
+            }
+
+            for (int i = 0; i < records; i++) {
+                expected += block.getInt();
+                actual += block.getInt();
+
+                handler.handle(expected, actual);
+            }
+
+            count += records;
+        }
+
+        return count;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.scheduler;
+
+import org.maestro.common.idle.CountingIdleStrategy;
+
+/**
+ * Keeps the same schedule of the fixed interval scheduler, but only wakes up once every batch of messages:
+ * it waits until the last message of the batch is due and then sends the whole batch. This reduces the number
+ * of wake ups on high rates, at the cost of sending the first messages of each batch slightly late.
+ */
+final class BatchPerTickScheduler implements SendScheduler {
+    private final long intervalInNanos;
+    private final long tickNanos;
+    private final CountingIdleStrategy idleStrategy;
+    private long startNanos;
+    private long elapsedIntervalsNanos;
+
+    BatchPerTickScheduler(long intervalInNanos, int batchSize, final CountingIdleStrategy idleStrategy) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+
+        this.intervalInNanos = intervalInNanos;
+        this.tickNanos = (batchSize - 1) * intervalInNanos;
+        this.idleStrategy = idleStrategy;
+    }
+
+    @Override
+    public void start(long startNanos) {
+        this.startNanos = startNanos;
+        this.elapsedIntervalsNanos = 0;
+    }
+
+    @Override
+    public long nextFireTime() {
+        final long fireTime = startNanos + elapsedIntervalsNanos + intervalInNanos;
+
+        //if the next message is not due yet, the sender waits for the whole batch to be due
+        return System.nanoTime() - fireTime < 0 ? fireTime + tickNanos : fireTime;
+    }
+
+    @Override
+    public long awaitNext() {
+        elapsedIntervalsNanos += intervalInNanos;
+
+        final long fireTime = startNanos + elapsedIntervalsNanos;
+        //if the next message is not due yet, wait for the whole batch to be due
+        idleStrategy.idleUntil(System.nanoTime() - fireTime < 0 ? fireTime + tickNanos : fireTime);
+
+        return elapsedIntervalsNanos;
+    }
+}
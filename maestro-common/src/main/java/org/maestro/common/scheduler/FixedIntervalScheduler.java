@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.scheduler;
+
+import org.maestro.common.idle.CountingIdleStrategy;
+
+/**
+ * Sends one message on every interval
+ */
+final class FixedIntervalScheduler implements SendScheduler {
+    private final long intervalInNanos;
+    private final CountingIdleStrategy idleStrategy;
+    private long startNanos;
+    //to avoid accumulated approx errors on the expected send time calculations
+    private long elapsedIntervalsNanos;
+
+    FixedIntervalScheduler(long intervalInNanos, final CountingIdleStrategy idleStrategy) {
+        assert intervalInNanos > 0;
+        this.intervalInNanos = intervalInNanos;
+        this.idleStrategy = idleStrategy;
+    }
+
+    @Override
+    public void start(long startNanos) {
+        this.startNanos = startNanos;
+        this.elapsedIntervalsNanos = 0;
+    }
+
+    @Override
+    public long nextFireTime() {
+        return startNanos + elapsedIntervalsNanos + intervalInNanos;
+    }
+
+    @Override
+    public long awaitNext() {
+        elapsedIntervalsNanos += intervalInNanos;
+        idleStrategy.idleUntil(startNanos + elapsedIntervalsNanos);
+
+        return elapsedIntervalsNanos;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.scheduler;
+
+import org.maestro.common.idle.CountingIdleStrategy;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sends the messages with exponentially distributed intervals, which models the arrivals of many
+ * independent clients (ie.: a Poisson process)
+ */
+final class PoissonScheduler implements SendScheduler {
+    private final double meanIntervalNanos;
+    private final SplittableRandom random;
+    private final CountingIdleStrategy idleStrategy;
+    private long startNanos;
+    private double nextElapsedNanos;
+
+    PoissonScheduler(long meanIntervalNanos, final CountingIdleStrategy idleStrategy) {
+        this(meanIntervalNanos, new SplittableRandom(), idleStrategy);
+    }
+
+    PoissonScheduler(long meanIntervalNanos, long seed, final CountingIdleStrategy idleStrategy) {
+        this(meanIntervalNanos, new SplittableRandom(seed), idleStrategy);
+    }
+
+    private PoissonScheduler(long meanIntervalNanos, final SplittableRandom random,
+                             final CountingIdleStrategy idleStrategy) {
+        this.meanIntervalNanos = meanIntervalNanos;
+        this.random = random;
+        this.idleStrategy = idleStrategy;
+    }
+
+    @Override
+    public void start(long startNanos) {
+        this.startNanos = startNanos;
+        this.nextElapsedNanos = nextInterval();
+    }
+
+    /**
+     * Gets the interval until the next message
+     * @return the interval in nanoseconds
+     */
+    double nextInterval() {
+        return -Math.log(1.0 - random.nextDouble()) * meanIntervalNanos;
+    }
+
+    @Override
+    public long nextFireTime() {
+        return startNanos + (long) nextElapsedNanos;
+    }
+
+    @Override
+    public long awaitNext() {
+        final long expectedElapsedNanos = (long) nextElapsedNanos;
+        //the intervals are accumulated as doubles to avoid accumulating the truncation errors
+        nextElapsedNanos += nextInterval();
+
+        idleStrategy.idleUntil(startNanos + expectedElapsedNanos);
+
+        return expectedElapsedNanos;
+    }
+}
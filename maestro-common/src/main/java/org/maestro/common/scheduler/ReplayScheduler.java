@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.scheduler;
+
+import org.maestro.common.idle.CountingIdleStrategy;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the messages at the times read from a trace file. The trace is a text file with one time, in
+ * microseconds, per line: the times are relative to the first one, so both offsets and epoch timestamps can be
+ * used. Blank lines and lines starting with # are ignored. The schedule ends when the trace ends.
+ */
+final class ReplayScheduler implements SendScheduler {
+    private final long[] offsetsNanos;
+    private final CountingIdleStrategy idleStrategy;
+    private long startNanos;
+    private int next;
+
+    ReplayScheduler(final long[] offsetsNanos, final CountingIdleStrategy idleStrategy) {
+        this.offsetsNanos = offsetsNanos;
+        this.idleStrategy = idleStrategy;
+    }
+
+    /**
+     * Reads the trace file
+     * @param traceFile the trace file
+     * @return the offsets, in nanoseconds, of every message in the trace
+     * @throws IOException if unable to read the file
+     */
+    static long[] readTrace(final File traceFile) throws IOException {
+        long[] offsets = new long[1024];
+        int count = 0;
+        long first = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(traceFile))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                final long time = Long.parseLong(line);
+                if (count == 0) {
+                    first = time;
+                }
+
+                final long offsetNanos = TimeUnit.MICROSECONDS.toNanos(time - first);
+                if (offsetNanos < 0 || (count > 0 && offsetNanos < offsets[count - 1])) {
+                    throw new IOException("The trace file " + traceFile + " is not sorted: " + line);
+                }
+
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = offsetNanos;
+            }
+        }
+
+        if (count == 0) {
+            throw new IOException("The trace file " + traceFile + " is empty");
+        }
+
+        return Arrays.copyOf(offsets, count);
+    }
+
+    @Override
+    public void start(long startNanos) {
+        this.startNanos = startNanos;
+        this.next = 0;
+    }
+
+    @Override
+    public long nextFireTime() {
+        return hasNext() ? startNanos + offsetsNanos[next] : System.nanoTime();
+    }
+
+    @Override
+    public long awaitNext() {
+        final long offsetNanos = offsetsNanos[next++];
+        idleStrategy.idleUntil(startNanos + offsetNanos);
+
+        return offsetNanos;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next < offsetsNanos.length;
+    }
+}
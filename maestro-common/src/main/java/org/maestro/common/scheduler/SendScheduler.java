@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.scheduler;
+
+/**
+ * Decides when the messages should be sent. The scheduler is used by a single sender thread, which calls
+ * {@link #awaitNext()} before sending each message.
+ *
+ * @see SendSchedulers
+ */
+public interface SendScheduler {
+    /**
+     * Returned by {@link #awaitNext()} when the messages are sent as fast as possible (ie.: there is no
+     * expected send time)
+     */
+    long UNSCHEDULED = -1;
+
+    /**
+     * Starts the schedule
+     * @param startNanos the start of the schedule, as given by System.nanoTime()
+     */
+    void start(long startNanos);
+
+    /**
+     * Waits until the next message is due to be sent
+     * @return the expected send time of the message, in nanoseconds elapsed since the start of the schedule, or
+     * {@link #UNSCHEDULED} if the message is not scheduled
+     */
+    long awaitNext();
+
+    /**
+     * Gets the time at which the next call to {@link #awaitNext()} is expected to return, without advancing
+     * the schedule
+     * @return the time, as given by System.nanoTime(), at which the next message will be sent
+     */
+    long nextFireTime();
+
+    /**
+     * Checks whether there are more messages to send
+     * @return true if there are more messages to send or false if the schedule has ended
+     */
+    default boolean hasNext() {
+        return true;
+    }
+}
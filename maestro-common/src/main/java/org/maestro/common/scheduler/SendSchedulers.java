@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.scheduler;
+
+import org.maestro.common.idle.CountingIdleStrategy;
+import org.maestro.common.idle.IdleStrategies;
+import org.maestro.common.worker.WorkerUtils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Creates the appropriate {@link SendScheduler} based on a scheduler specification. The specification has the
+ * format name[:argument]:
+ * <ul>
+ *     <li>fixed: sends one message every 1/rate seconds (or as fast as possible if the rate is 0). This is the
+ *     default</li>
+ *     <li>batch[:N]: sends N messages on every wake up, keeping the same average rate as fixed. Without N, the
+ *     batch size is chosen so that the sender wakes up about once every 20 microseconds</li>
+ *     <li>poisson[:seed]: sends the messages with exponentially distributed intervals (ie.: Poisson arrivals)
+ *     averaging the rate</li>
+ *     <li>replay:file: sends the messages at the offsets (in microseconds) read from a trace file. The rate
+ *     is ignored</li>
+ * </ul>
+ * While waiting for the next message to be due, the sender idles according to the given idle strategy
+ * (by default, it parks until the message is due).
+ *
+ * @see IdleStrategies
+ */
+public final class SendSchedulers {
+    private static final long TICK_NANOS = 20_000;
+
+    private SendSchedulers() {}
+
+    /**
+     * Parses a scheduler specification string and creates the respective SendScheduler
+     * @param schedulerSpec the scheduler specification string (or null for the default one)
+     * @param rate the target rate in messages per second (0 for unbounded)
+     * @return a SendScheduler instance for the scheduler spec string
+     * @throws IOException if unable to read the trace file of a replay scheduler
+     */
+    public static SendScheduler parse(final String schedulerSpec, long rate) throws IOException {
+        return parse(schedulerSpec, rate, IdleStrategies.parse(null));
+    }
+
+    /**
+     * Parses a scheduler specification string and creates the respective SendScheduler
+     * @param schedulerSpec the scheduler specification string (or null for the default one)
+     * @param rate the target rate in messages per second (0 for unbounded)
+     * @param idleStrategy the idle strategy used while waiting for the messages to be due
+     * @return a SendScheduler instance for the scheduler spec string
+     * @throws IOException if unable to read the trace file of a replay scheduler
+     */
+    public static SendScheduler parse(final String schedulerSpec, long rate,
+                                      final CountingIdleStrategy idleStrategy) throws IOException {
+        if (schedulerSpec == null || schedulerSpec.trim().isEmpty()) {
+            return fixed(rate, idleStrategy);
+        }
+
+        final String spec = schedulerSpec.trim();
+        final int separator = spec.indexOf(':');
+        final String name = separator < 0 ? spec : spec.substring(0, separator);
+        final String argument = separator < 0 ? null : spec.substring(separator + 1);
+
+        switch (name.toLowerCase()) {
+            case "fixed": {
+                return fixed(rate, idleStrategy);
+            }
+            case "batch": {
+                final long intervalInNanos = requireInterval(name, rate);
+                final int batchSize = argument == null ? (int) Math.max(1, TICK_NANOS / intervalInNanos)
+                        : Integer.parseInt(argument);
+
+                return new BatchPerTickScheduler(intervalInNanos, batchSize, idleStrategy);
+            }
+            case "poisson": {
+                final long intervalInNanos = requireInterval(name, rate);
+
+                return argument == null ? new PoissonScheduler(intervalInNanos, idleStrategy)
+                        : new PoissonScheduler(intervalInNanos, Long.parseLong(argument), idleStrategy);
+            }
+            case "replay": {
+                if (argument == null) {
+                    throw new IllegalArgumentException("The replay scheduler requires a trace file");
+                }
+
+                return new ReplayScheduler(ReplayScheduler.readTrace(new File(argument)), idleStrategy);
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid send scheduler: " + schedulerSpec);
+    }
+
+    private static SendScheduler fixed(long rate, final CountingIdleStrategy idleStrategy) {
+        final long intervalInNanos = WorkerUtils.getExchangeInterval(rate);
+
+        if (intervalInNanos > 0) {
+            return new FixedIntervalScheduler(intervalInNanos, idleStrategy);
+        }
+
+        return new UnboundedScheduler();
+    }
+
+    private static long requireInterval(final String name, long rate) {
+        final long intervalInNanos = WorkerUtils.getExchangeInterval(rate);
+
+        if (intervalInNanos <= 0) {
+            throw new IllegalArgumentException("The " + name + " scheduler requires a target rate");
+        }
+
+        return intervalInNanos;
+    }
+}
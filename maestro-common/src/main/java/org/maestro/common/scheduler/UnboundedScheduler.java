@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.scheduler;
+
+/**
+ * Sends the messages as fast as possible
+ */
+final class UnboundedScheduler implements SendScheduler {
+
+    @Override
+    public void start(long startNanos) {
+        // NO-OP
+    }
+
+    @Override
+    public long nextFireTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long awaitNext() {
+        return UNSCHEDULED;
+    }
+}
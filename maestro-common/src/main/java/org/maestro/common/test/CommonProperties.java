@@ -23,6 +23,7 @@ import java.util.Properties;
 abstract class CommonProperties implements MaestroTestProperties {
     private int parallelCount;
     private long messageSize;
+    private String messageSizeSpec;
     private boolean variableSize;
     private int rate;
 
@@ -35,9 +36,22 @@ abstract class CommonProperties implements MaestroTestProperties {
             setVariableSize(true);
         }
 
+        // the distributions are not fully described by their mean size
+        if (MessageSize.isDistribution(messageSize)) {
+            this.messageSizeSpec = messageSize;
+        }
+
         this.messageSize = MessageSize.toSizeFromSpec(messageSize);
     }
 
+    /**
+     * Gets the message size specification, if the message size follows a distribution
+     * @return the message size specification or null if the size is fixed or variable (&plusmn;5%)
+     */
+    public final String getMessageSizeSpec() {
+        return messageSizeSpec;
+    }
+
     @Override
     public final long getMessageSize() {
         return messageSize;
@@ -82,6 +96,9 @@ abstract class CommonProperties implements MaestroTestProperties {
         prop.setProperty("parallelCount", Integer.toString(getParallelCount()));
         prop.setProperty("messageSize", Long.toString(getMessageSize()));
         prop.setProperty("variableSize", isVariableSize() ? "1" : "0");
+        if (messageSizeSpec != null) {
+            prop.setProperty("messageSizeSpec", messageSizeSpec);
+        }
         prop.setProperty("rate", Integer.toString(getRate()));
     }
 
@@ -97,6 +114,9 @@ abstract class CommonProperties implements MaestroTestProperties {
         }
 
         setRate(prop.getProperty("rate"));
+
+        // Optional
+        messageSizeSpec = prop.getProperty("messageSizeSpec");
     }
 
     @Override
@@ -104,6 +124,7 @@ abstract class CommonProperties implements MaestroTestProperties {
         return "CommonProperties{" +
                 "parallelCount=" + parallelCount +
                 ", messageSize=" + messageSize +
+                ", messageSizeSpec='" + messageSizeSpec + '\'' +
                 ", variableSize=" + variableSize +
                 ", rate=" + rate +
                 '}';
@@ -27,7 +27,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 
 /**
@@ -38,6 +40,7 @@ public class TestProperties extends CommonProperties {
     public static String FILENAME = "test.properties";
     
     private static final Logger logger = LoggerFactory.getLogger(TestProperties.class);
+    private static final String IDLE_PREFIX = "idle.";
 
     private String brokerUri;
     private String durationType;
@@ -47,10 +50,18 @@ public class TestProperties extends CommonProperties {
     private String apiName;
     private String apiVersion;
     private String protocol;
+    private String sendScheduler;
+
+    // the clock correction, in microseconds, applied to the latency samples (receivers only)
+    private Long clockOffset;
+    private Long clockOffsetUncertainty;
 
     // 1 = legacy behavior
     private int limitDestinations = 1;
 
+    // the idle strategy and the busy/idle cycles of each thread role (ie.: idle.sender.busyCycles)
+    private final Map<String, String> idleStats = new TreeMap<>();
+
     public void load(final File testProperties) throws IOException {
         logger.debug("Reading properties from {}", testProperties.getPath());
 
@@ -73,12 +84,29 @@ public class TestProperties extends CommonProperties {
             apiName = prop.getProperty("apiName");
             apiVersion = prop.getProperty("apiVersion");
             protocol = prop.getProperty("protocol");
+            sendScheduler = prop.getProperty("sendScheduler");
+
+            String clockOffsetStr = prop.getProperty("clockOffset");
+            if (clockOffsetStr != null) {
+                clockOffset = Long.parseLong(clockOffsetStr);
+            }
+
+            String clockOffsetUncertaintyStr = prop.getProperty("clockOffsetUncertainty");
+            if (clockOffsetUncertaintyStr != null) {
+                clockOffsetUncertainty = Long.parseLong(clockOffsetUncertaintyStr);
+            }
 
             String limitDestinationsStr = prop.getProperty("limitDestinations");
             if (limitDestinationsStr != null) {
                 limitDestinations = Integer.parseInt(limitDestinationsStr);
             }
 
+            for (String name : prop.stringPropertyNames()) {
+                if (name.startsWith(IDLE_PREFIX)) {
+                    idleStats.put(name, prop.getProperty(name));
+                }
+            }
+
             super.load(prop);
         } catch (Throwable t) {
             logger.error("Invalid data when processing file {}", testProperties.getPath(), t);
@@ -103,6 +131,19 @@ public class TestProperties extends CommonProperties {
         prop.setProperty("apiVersion", apiVersion);
         prop.setProperty("protocol", protocol);
         prop.setProperty("limitDestinations", Integer.toString(limitDestinations));
+        if (sendScheduler != null) {
+            prop.setProperty("sendScheduler", sendScheduler);
+        }
+
+        if (clockOffset != null) {
+            prop.setProperty("clockOffset", Long.toString(clockOffset));
+        }
+
+        if (clockOffsetUncertainty != null) {
+            prop.setProperty("clockOffsetUncertainty", Long.toString(clockOffsetUncertainty));
+        }
+
+        prop.putAll(idleStats);
 
         super.write(prop);
 
@@ -178,6 +219,60 @@ public class TestProperties extends CommonProperties {
         this.protocol = protocol;
     }
 
+    public String getSendScheduler() {
+        return sendScheduler;
+    }
+
+    public void setSendScheduler(final String sendScheduler) {
+        this.sendScheduler = sendScheduler;
+    }
+
+    /**
+     * Gets the clock correction applied to the latency samples
+     * @return the clock correction in microseconds or null if the clocks were not synchronized
+     */
+    public Long getClockOffset() {
+        return clockOffset;
+    }
+
+    public void setClockOffset(final Long clockOffset) {
+        this.clockOffset = clockOffset;
+    }
+
+    /**
+     * Gets the uncertainty of the clock correction applied to the latency samples
+     * @return the maximum error of the clock correction in microseconds or null if the clocks were not
+     * synchronized
+     */
+    public Long getClockOffsetUncertainty() {
+        return clockOffsetUncertainty;
+    }
+
+    public void setClockOffsetUncertainty(final Long clockOffsetUncertainty) {
+        this.clockOffsetUncertainty = clockOffsetUncertainty;
+    }
+
+    /**
+     * Sets the idle statistics of the threads of a role
+     * @param role the thread role (ie.: sender)
+     * @param strategy the idle strategy used by the threads
+     * @param busyCycles the number of cycles in which the threads did some work
+     * @param idleCycles the number of cycles in which the threads had nothing to do
+     */
+    public void setIdleStats(final String role, final String strategy, long busyCycles, long idleCycles) {
+        idleStats.put(IDLE_PREFIX + role + ".strategy", strategy);
+        idleStats.put(IDLE_PREFIX + role + ".busyCycles", Long.toString(busyCycles));
+        idleStats.put(IDLE_PREFIX + role + ".idleCycles", Long.toString(idleCycles));
+    }
+
+    /**
+     * Gets the idle statistics of the threads
+     * @return a map of the property name (ie.: idle.sender.busyCycles) to its value
+     */
+    public Map<String, String> getIdleStats() {
+        return idleStats;
+    }
+
     public int getLimitDestinations() {
         return limitDestinations;
     }
@@ -196,7 +291,11 @@ public class TestProperties extends CommonProperties {
                 ", apiName='" + apiName + '\'' +
                 ", apiVersion='" + apiVersion + '\'' +
                 ", protocol='" + protocol + '\'' +
+                ", sendScheduler='" + sendScheduler + '\'' +
                 ", limitDestinations=" + limitDestinations +
+                ", clockOffset=" + clockOffset +
+                ", clockOffsetUncertainty=" + clockOffsetUncertainty +
+                ", idleStats=" + idleStats +
                 "} " + super.toString();
     }
 }
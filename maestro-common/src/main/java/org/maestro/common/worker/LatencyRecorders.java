@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.HdrHistogram.SingleWriterRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the latency recorders used by the workers and records the samples on them, keeping the samples
+ * within the trackable range
+ */
+public final class LatencyRecorders {
+    private static final Logger logger = LoggerFactory.getLogger(LatencyRecorders.class);
+
+    //TODO it could be injected by outside because the precision could be improved using ad-hoc clock timers
+    public static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
+
+    private LatencyRecorders() {}
+
+    /**
+     * Creates a new recorder for latencies in microseconds
+     * @return a new recorder instance
+     */
+    public static SingleWriterRecorder newRecorder() {
+        return new SingleWriterRecorder(HIGHEST_TRACKABLE_VALUE, 3);
+    }
+
+    /**
+     * Records an elapsed time measured by the worker itself (ie.: the time blocked on a send or a commit)
+     * @param recorder the recorder
+     * @param elapsedMicros the elapsed time in microseconds. It's clamped to the trackable range
+     */
+    public static void recordElapsed(final SingleWriterRecorder recorder, long elapsedMicros) {
+        recorder.recordValue(Math.max(0, Math.min(elapsedMicros, HIGHEST_TRACKABLE_VALUE)));
+    }
+
+    /**
+     * Records the latency of a message sent by a peer. The samples above the trackable range are normalized and
+     * the negative ones (ie.: because the clocks of the peers are not in sync) are dropped
+     * @param recorder the recorder
+     * @param sendTimeEpochMicros the send time, in microseconds since the epoch
+     * @param nowInMicros the receive time, in microseconds since the epoch
+     */
+    public static void recordLatency(final SingleWriterRecorder recorder, final long sendTimeEpochMicros,
+                                     final long nowInMicros) {
+        long elapsedMicros = nowInMicros - sendTimeEpochMicros;
+
+        if (elapsedMicros >= 0) {
+            if (elapsedMicros > HIGHEST_TRACKABLE_VALUE) {
+                logger.error("Normalized sample: (ReceivedTimeEpochMicros {} - SendTimeEpochMicros {}) > {}",
+                        nowInMicros, sendTimeEpochMicros, HIGHEST_TRACKABLE_VALUE);
+                elapsedMicros = HIGHEST_TRACKABLE_VALUE;
+            }
+
+            recorder.recordValue(elapsedMicros);
+        }
+        else {
+            logger.error("Dropped sample: SendTimeEpochMicros {} > ReceivedTimeEpochMicros {}",
+                    sendTimeEpochMicros, nowInMicros);
+        }
+    }
+}
@@ -21,11 +21,16 @@ import org.maestro.common.stats.PerfStats;
 import java.time.Duration;
 
 /**
- * A container for latency statistics
+ * A container for latency statistics. All the latencies are in microseconds
  */
 public class LatencyStats implements PerfStats {
     private Duration duration;
     private double latency;
+    private long count;
+    private double percentile50;
+    private double percentile99;
+    private double maxLatency;
+    private byte[] histogram;
 
     public Duration getDuration() {
         return duration;
@@ -43,11 +48,63 @@ public class LatencyStats implements PerfStats {
         this.latency = latency;
     }
 
+    /**
+     * Gets the number of latency samples
+     * @return the number of latency samples
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getPercentile50() {
+        return percentile50;
+    }
+
+    public void setPercentile50(double percentile50) {
+        this.percentile50 = percentile50;
+    }
+
+    public double getPercentile99() {
+        return percentile99;
+    }
+
+    public void setPercentile99(double percentile99) {
+        this.percentile99 = percentile99;
+    }
+
+    public double getMaxLatency() {
+        return maxLatency;
+    }
+
+    public void setMaxLatency(double maxLatency) {
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Gets the latency histogram of the interval
+     * @return the compressed HdrHistogram encoding of the interval or null if it was not kept
+     */
+    public byte[] getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(byte[] histogram) {
+        this.histogram = histogram;
+    }
+
     @Override
     public String toString() {
         return "LatencyStats{" +
                 "duration=" + duration +
                 ", latency=" + latency +
+                ", count=" + count +
+                ", percentile50=" + percentile50 +
+                ", percentile99=" + percentile99 +
+                ", maxLatency=" + maxLatency +
                 '}';
     }
 }
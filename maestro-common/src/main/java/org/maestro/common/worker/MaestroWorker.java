@@ -18,7 +18,7 @@ package org.maestro.common.worker;
 
 import org.HdrHistogram.Histogram;
 import org.maestro.common.duration.TestDuration;
-import org.maestro.common.writers.OneToOneWorkerChannel;
+import org.maestro.common.writers.WorkerChannel;
 
 /**
  * A common interface for any type of Maestro worker.
@@ -73,7 +73,7 @@ public interface MaestroWorker extends Runnable, TestDuration.TestProgress {
      * It can be {@code null} if not emission is supported.
      * @return The one-to-one channel used for statistics communication
      */
-    default OneToOneWorkerChannel workerChannel() {
+    default WorkerChannel workerChannel() {
         return null;
     }
 
@@ -89,6 +89,40 @@ public interface MaestroWorker extends Runnable, TestDuration.TestProgress {
     }
 
 
+    /**
+     * It is able to take a snapshot of the current recorded response times: unlike the latencies, they are
+     * measured from the expected (scheduled) send time and are not affected by coordinated omission.
+     *
+     * @param intervalHistogram the new histogram to be used to record response times from now on
+     * @return the old response times histogram or {@code null} if none has been recorded.
+     */
+    default Histogram takeResponseTimesSnapshot(Histogram intervalHistogram) {
+        return null;
+    }
+
+    /**
+     * It is able to take a snapshot of the current recorded commit (or batch acknowledge) latencies.
+     *
+     * @param intervalHistogram the new histogram to be used to record commit latencies from now on
+     * @return the old commit latencies histogram or {@code null} if none has been recorded.
+     */
+    default Histogram takeCommitLatenciesSnapshot(Histogram intervalHistogram) {
+        return null;
+    }
+
+    /**
+     * It is able to take a snapshot of the current recorded latencies of a message size class, when the results
+     * are broken down per size class (see {@link org.maestro.common.content.SizeClasses}).
+     *
+     * @param sizeClass the size class
+     * @param intervalHistogram the new histogram to be used to record the size class latencies from now on
+     * @return the old latencies histogram or {@code null} if none has been recorded for the size class.
+     */
+    default Histogram takeSizeClassLatenciesSnapshot(int sizeClass, Histogram intervalHistogram) {
+        return null;
+    }
+
+
     /**
      * When multiple workers are involved, set the number of the worker
      *
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tracks the messages sent asynchronously that are still waiting for the client library (or the peer) to
+ * complete them.<p>
+ * The sends are registered by the sender thread, completed by a single completing thread (ie.: the provider or
+ * the I/O thread) and then drained again by the sender thread. The window has a fixed capacity, so the sender
+ * must drain completed sends to be able to send more.<p>
+ * The completions don't need to happen in the same order as the sends, as long as the completing thread
+ * provides the times (and the message size) of the send it completes.
+ */
+public final class SendCompletionWindow {
+    private static final Logger logger = LoggerFactory.getLogger(SendCompletionWindow.class);
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long FAILED = Long.MIN_VALUE;
+
+    /**
+     * Handles a successfully completed send
+     */
+    @FunctionalInterface
+    public interface CompletedSendHandler {
+        void onCompleted(long expectedSendTimeEpochMicros, long sendTimeEpochMicros, long completionTimeEpochMicros,
+                         int messageSize);
+    }
+
+    private final int capacity;
+    private final long[] expectedSendTimes;
+    private final long[] sendTimes;
+    private final long[] completionTimes;
+    private final int[] messageSizes;
+    private final EpochMicroClock completionClock;
+
+    // owned by the sender thread
+    private long sendSequence;
+    private long drainedSequence;
+    private long failedSends;
+
+    // written by the completing thread
+    private final AtomicLong completedSequence = new AtomicLong();
+    private volatile Exception failure;
+
+    public SendCompletionWindow(int capacity) {
+        this(capacity, EpochClocks.sharedMicro());
+    }
+
+    /**
+     * Constructor
+     * @param capacity the max number of sends in-flight
+     * @param completionClock the clock used to get the completion time. It's used by the completing thread
+     */
+    public SendCompletionWindow(int capacity, final EpochMicroClock completionClock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The max in-flight value must be greater than 0");
+        }
+
+        this.capacity = capacity;
+        this.completionClock = completionClock;
+        this.expectedSendTimes = new long[capacity];
+        this.sendTimes = new long[capacity];
+        this.completionTimes = new long[capacity];
+        this.messageSizes = new int[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of sends not yet drained
+     */
+    public int inFlight() {
+        return (int) (sendSequence - drainedSequence);
+    }
+
+    public boolean isFull() {
+        return inFlight() == capacity;
+    }
+
+    /**
+     * Registers a send. It must be called by the sender thread before the message is handed to the client library
+     */
+    public void register(long expectedSendTimeEpochMicros, long sendTimeEpochMicros) {
+        assert !isFull() : "the window is full";
+        final int slot = (int) (sendSequence % capacity);
+        expectedSendTimes[slot] = expectedSendTimeEpochMicros;
+        sendTimes[slot] = sendTimeEpochMicros;
+        messageSizes[slot] = 0;
+        sendSequence++;
+    }
+
+    /**
+     * Sets the message size of the latest registered send, once the client has prepared the message. It must be
+     * called by the sender thread and only when the sends are completed in order (see {@link #complete()})
+     * @param messageSize the message size
+     */
+    public void setMessageSize(int messageSize) {
+        messageSizes[(int) ((sendSequence - 1) % capacity)] = messageSize;
+    }
+
+    /**
+     * Completes the oldest send not yet completed. It must be used only when the completions happen in the same
+     * order as the sends (ie.: JMS completions within a session)
+     */
+    public void complete() {
+        final long sequence = completedSequence.get();
+        completionTimes[(int) (sequence % capacity)] = completionClock.microTime();
+        completedSequence.lazySet(sequence + 1);
+    }
+
+    /**
+     * Completes a send with the given times. It can be used when the completions happen out of order
+     * @param expectedSendTimeEpochMicros the expected send time of the completed send
+     * @param sendTimeEpochMicros the send time of the completed send
+     * @param completionTimeEpochMicros the completion time
+     * @param messageSize the message size of the completed send
+     */
+    public void complete(long expectedSendTimeEpochMicros, long sendTimeEpochMicros, long completionTimeEpochMicros,
+                         int messageSize) {
+        final long sequence = completedSequence.get();
+        final int slot = (int) (sequence % capacity);
+        expectedSendTimes[slot] = expectedSendTimeEpochMicros;
+        sendTimes[slot] = sendTimeEpochMicros;
+        completionTimes[slot] = completionTimeEpochMicros;
+        messageSizes[slot] = messageSize;
+        completedSequence.lazySet(sequence + 1);
+    }
+
+    /**
+     * Completes the oldest send not yet completed as a failure. The send is released from the window, but it is
+     * not passed to the handler when drained
+     * @param exception the send error
+     */
+    public void fail(final Exception exception) {
+        abort(exception);
+
+        final long sequence = completedSequence.get();
+        completionTimes[(int) (sequence % capacity)] = FAILED;
+        completedSequence.lazySet(sequence + 1);
+    }
+
+    /**
+     * Records an error that prevents the in-flight sends from completing (ie.: the connection was lost), so that
+     * the sender thread does not wait for them
+     * @param exception the error
+     */
+    public void abort(final Exception exception) {
+        if (failure == null) {
+            logger.error("Failed to complete an asynchronous send: {}", exception.getMessage(), exception);
+            failure = exception;
+        }
+    }
+
+    /**
+     * Gets the error of the first send that failed to complete
+     * @return the error or null if none of the sends has failed
+     */
+    public Exception failure() {
+        return failure;
+    }
+
+    /**
+     * Gets the number of drained sends that have failed
+     * @return the number of failed sends
+     */
+    public long failedSends() {
+        return failedSends;
+    }
+
+    /**
+     * Drains the completed sends
+     * @param handler the handler for each successfully completed send
+     * @return the number of completed sends drained, including the failed ones
+     */
+    public int drain(final CompletedSendHandler handler) {
+        // the volatile load makes visible the completion times written by the completing thread
+        final long completed = completedSequence.get();
+        final int count = (int) (completed - drainedSequence);
+
+        for (long sequence = drainedSequence; sequence < completed; sequence++) {
+            final int slot = (int) (sequence % capacity);
+            final long completionTime = completionTimes[slot];
+
+            if (completionTime == FAILED) {
+                failedSends++;
+            }
+            else {
+                handler.onCompleted(expectedSendTimes[slot], sendTimes[slot], completionTime, messageSizes[slot]);
+            }
+        }
+
+        drainedSequence = completed;
+        return count;
+    }
+
+    private void checkFailure() throws Exception {
+        final Exception failure = this.failure;
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Drains the completed sends, waiting until there is room for a new send
+     * @param handler the handler for each successfully completed send
+     * @throws Exception the error of the first send that failed to complete
+     */
+    public void awaitCapacity(final CompletedSendHandler handler) throws Exception {
+        drain(handler);
+
+        while (isFull()) {
+            checkFailure();
+            LockSupport.parkNanos(PARK_NANOS);
+            drain(handler);
+        }
+
+        checkFailure();
+    }
+
+    /**
+     * Drains the completed sends, waiting up to the given timeout for all the in-flight sends to complete
+     * @param handler the handler for each successfully completed send
+     * @param timeoutNanos the max time to wait
+     * @return true if all the sends have completed or false otherwise
+     * @throws Exception the error of the first send that failed to complete
+     */
+    public boolean awaitCompletion(final CompletedSendHandler handler, long timeoutNanos) throws Exception {
+        final long deadline = System.nanoTime() + timeoutNanos;
+
+        drain(handler);
+        while (inFlight() > 0 && System.nanoTime() - deadline < 0) {
+            checkFailure();
+            LockSupport.parkNanos(PARK_NANOS);
+            drain(handler);
+        }
+
+        if (inFlight() > 0) {
+            logger.warn("There are still {} asynchronous sends waiting for completion", inFlight());
+        }
+
+        checkFailure();
+        return inFlight() == 0;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.maestro.common.content.SizeClasses;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the latencies of a worker per message size class (see {@link SizeClasses}). The recorder of a class is
+ * only created when the first sample of that class is recorded, so that only the classes actually sent cost memory.
+ * Like the recorders, it has a single writer: the thread recording the samples. The samples of unknown
+ * (negative) message sizes are ignored.
+ */
+public final class SizeClassRecorders {
+    private final AtomicReferenceArray<SingleWriterRecorder> recorders =
+            new AtomicReferenceArray<>(SizeClasses.COUNT);
+
+    private SingleWriterRecorder recorder(int messageSize) {
+        final int sizeClass = SizeClasses.of(messageSize);
+        SingleWriterRecorder recorder = recorders.get(sizeClass);
+
+        if (recorder == null) {
+            recorder = LatencyRecorders.newRecorder();
+            recorders.lazySet(sizeClass, recorder);
+        }
+
+        return recorder;
+    }
+
+    /**
+     * Records an elapsed time in the class of the given message size
+     * @param messageSize the message size
+     * @param elapsedMicros the elapsed time in microseconds
+     * @see LatencyRecorders#recordElapsed(SingleWriterRecorder, long)
+     */
+    public void recordElapsed(int messageSize, long elapsedMicros) {
+        if (messageSize < 0) {
+            return;
+        }
+
+        LatencyRecorders.recordElapsed(recorder(messageSize), elapsedMicros);
+    }
+
+    /**
+     * Records the latency of a message in the class of its size
+     * @param messageSize the message size
+     * @param sendTimeEpochMicros the send time, in microseconds since the epoch
+     * @param nowInMicros the receive time, in microseconds since the epoch
+     * @see LatencyRecorders#recordLatency(SingleWriterRecorder, long, long)
+     */
+    public void recordLatency(int messageSize, long sendTimeEpochMicros, long nowInMicros) {
+        if (messageSize < 0) {
+            return;
+        }
+
+        LatencyRecorders.recordLatency(recorder(messageSize), sendTimeEpochMicros, nowInMicros);
+    }
+
+    /**
+     * Takes a snapshot of the latencies recorded for a size class
+     * @param sizeClass the size class
+     * @param intervalHistogram the new histogram to be used to record latencies from now on
+     * @return the old latencies histogram or {@code null} if none has been recorded for the class
+     */
+    public Histogram takeSnapshot(int sizeClass, Histogram intervalHistogram) {
+        final SingleWriterRecorder recorder = recorders.get(sizeClass);
+
+        if (recorder == null) {
+            return null;
+        }
+
+        return recorder.getIntervalHistogram(intervalHistogram);
+    }
+}
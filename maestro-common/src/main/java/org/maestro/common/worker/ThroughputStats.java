@@ -27,6 +27,8 @@ import java.time.Duration;
 public class ThroughputStats implements PerfStats {
     private Duration duration;
     private long count;
+    private Duration intervalDuration;
+    private long intervalCount;
 
     public Duration getDuration() {
         return duration;
@@ -44,12 +46,44 @@ public class ThroughputStats implements PerfStats {
         this.count = count;
     }
 
+    /**
+     * Gets the average rate since the start of the test
+     * @return the average rate in messages per second
+     */
     public double getRate() {
-        if (duration.getSeconds() == 0) {
+        return rate(count, duration);
+    }
+
+    public Duration getIntervalDuration() {
+        return intervalDuration;
+    }
+
+    public void setIntervalDuration(Duration intervalDuration) {
+        this.intervalDuration = intervalDuration;
+    }
+
+    public long getIntervalCount() {
+        return intervalCount;
+    }
+
+    public void setIntervalCount(long intervalCount) {
+        this.intervalCount = intervalCount;
+    }
+
+    /**
+     * Gets the rate since the previous statistics were taken
+     * @return the interval rate in messages per second
+     */
+    public double getIntervalRate() {
+        return rate(intervalCount, intervalDuration);
+    }
+
+    private static double rate(long count, final Duration duration) {
+        if (duration == null || duration.toMillis() == 0) {
             return 0;
         }
 
-        return count / duration.getSeconds();
+        return (count * 1000.0) / duration.toMillis();
     }
 
     @Override
@@ -57,6 +91,8 @@ public class ThroughputStats implements PerfStats {
         return "ThroughputStats{" +
                 "duration=" + duration +
                 ", count=" + count +
+                ", intervalDuration=" + intervalDuration +
+                ", intervalCount=" + intervalCount +
                 '}';
     }
 }
@@ -33,6 +33,8 @@ public class WorkerOptions {
     private String throttle;
     private String rate;
     private String fcl;
+    private String sendScheduler;
+    private String clockOffset;
 
     /**
      * Gets the broker URL
@@ -156,6 +158,25 @@ public class WorkerOptions {
     }
 
 
+    /**
+     * Gets the send scheduler specification
+     * @return the send scheduler specification or null if the default one should be used
+     * @see org.maestro.common.scheduler.SendSchedulers
+     */
+    public String getSendScheduler() {
+        return sendScheduler;
+    }
+
+
+    /**
+     * Sets the send scheduler specification
+     * @param sendScheduler the send scheduler specification (ie.: fixed, batch:N, poisson, replay:file)
+     */
+    public void setSendScheduler(String sendScheduler) {
+        this.sendScheduler = sendScheduler;
+    }
+
+
     /**
      * Gets the FCL value
      * @return the FCL value
@@ -190,4 +211,66 @@ public class WorkerOptions {
     public void setFcl(final String fcl) {
         this.fcl = fcl;
     }
+
+
+    /**
+     * Gets the clock correction set by the front-end
+     * @return the clock correction in the format offset,uncertainty (both in microseconds) or null if unset
+     */
+    public String getClockOffset() {
+        return clockOffset;
+    }
+
+
+    /**
+     * Gets the clock offset (receiver clock - sender clock) that should be subtracted from the receive time
+     * of the messages
+     * @return the clock offset in microseconds or 0 if unset or invalid
+     */
+    public long getClockOffsetMicros() {
+        return parseClockOffset(0);
+    }
+
+
+    /**
+     * Gets the uncertainty (maximum error) of the clock offset
+     * @return the clock offset uncertainty in microseconds or null if unset or invalid
+     */
+    public Long getClockOffsetUncertaintyMicros() {
+        if (clockOffset == null) {
+            return null;
+        }
+
+        return parseClockOffset(1);
+    }
+
+
+    private long parseClockOffset(int field) {
+        if (clockOffset != null) {
+            final String[] parts = clockOffset.split(",");
+
+            if (parts.length == 2) {
+                try {
+                    return Long.parseLong(parts[field].trim());
+                }
+                catch (NumberFormatException e) {
+                    logger.warn("Unable to parse the provided clock offset {}", clockOffset);
+                }
+            }
+            else {
+                logger.warn("Invalid clock offset {}: expected offset,uncertainty", clockOffset);
+            }
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Sets the clock correction
+     * @param clockOffset the clock correction in the format offset,uncertainty (both in microseconds)
+     */
+    public void setClockOffset(final String clockOffset) {
+        this.clockOffset = clockOffset;
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.affinity.CpuSet;
+import org.maestro.common.affinity.ThreadAffinity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the named threads used during the test and pins them to the configured CPUs.
+ * <p>
+ * The worker (load) threads run on the CPUs set via maestro.worker.affinity. If maestro.worker.affinity.exclusive
+ * is true, each worker runs on a single CPU of that set, so that the OS does not migrate them. The service threads
+ * (ie.: the latency and rate writers and the watchdog) run on the CPUs set via maestro.writer.affinity. If that is
+ * not set and maestro.writer.affinity.isolate is true, they run on the CPUs not used by the workers. The threads
+ * created by the client libraries on behalf of the workers (ie.: the I/O event loops) run on the whole worker CPU
+ * set. Threads without a CPU set run unpinned.
+ */
+public final class WorkerThreads {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerThreads.class);
+    private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+    private static final CpuSet WORKER_CPUS;
+    private static final boolean WORKER_EXCLUSIVE;
+    private static final CpuSet SERVICE_CPUS;
+
+    static {
+        WORKER_CPUS = parse("maestro.worker.affinity");
+        WORKER_EXCLUSIVE = config.getBoolean("maestro.worker.affinity.exclusive", false);
+
+        final CpuSet serviceCpus = parse("maestro.writer.affinity");
+        if (serviceCpus == null && WORKER_CPUS != null && config.getBoolean("maestro.writer.affinity.isolate", false)) {
+            SERVICE_CPUS = CpuSet.complementOf(WORKER_CPUS);
+
+            if (SERVICE_CPUS == null) {
+                logger.warn("There are no CPUs left to isolate the writer threads from the workers");
+            }
+        }
+        else {
+            SERVICE_CPUS = serviceCpus;
+        }
+    }
+
+    private WorkerThreads() {}
+
+    private static CpuSet parse(final String key) {
+        final String value = config.getString(key, null);
+
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+
+        try {
+            return CpuSet.parse(value);
+        }
+        catch (IllegalArgumentException e) {
+            logger.error("Ignoring the invalid CPU affinity {}={}: {}", key, value, e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a thread for a worker
+     * @param worker the worker
+     * @param number the worker number
+     * @return a new (not started) thread
+     */
+    public static Thread newWorkerThread(final Runnable worker, int number) {
+        CpuSet cpuSet = WORKER_CPUS;
+
+        if (cpuSet != null && WORKER_EXCLUSIVE) {
+            cpuSet = cpuSet.single(number);
+        }
+
+        return new Thread(ThreadAffinity.pinned(worker, cpuSet), "maestro-worker-" + number);
+    }
+
+    /**
+     * Creates a thread for a service task that should not compete with the workers (ie.: the writers)
+     * @param task the task to run
+     * @param name the thread name
+     * @return a new (not started) thread
+     */
+    public static Thread newServiceThread(final Runnable task, final String name) {
+        return new Thread(ThreadAffinity.pinned(task, SERVICE_CPUS), name);
+    }
+
+    /**
+     * Wraps a thread factory, so that the threads it creates run on the worker CPUs. It is meant for the
+     * threads that do the work of the workers within the client libraries (ie.: the I/O event loops)
+     * @param factory the thread factory that names and creates the threads
+     * @return a thread factory for pinned worker threads
+     */
+    public static ThreadFactory newWorkerThreadFactory(final ThreadFactory factory) {
+        return task -> factory.newThread(ThreadAffinity.pinned(task, WORKER_CPUS));
+    }
+}
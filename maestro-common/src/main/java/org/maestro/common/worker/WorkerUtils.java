@@ -16,10 +16,15 @@
 
 package org.maestro.common.worker;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Worker utilities
  */
 public class WorkerUtils {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerUtils.class);
+
     private WorkerUtils() {}
 
     /**
@@ -30,4 +35,39 @@ public class WorkerUtils {
     public static long getExchangeInterval(final long rate) {
         return rate > 0 ? (1_000_000_000L / rate) : 0;
     }
+
+    /**
+     * Gets the name of the destination used by a client when the number of destinations is limited. The
+     * clients are spread over the destinations by appending the client number modulo the limit to the name
+     * @param destinationName the requested destination name
+     * @param limitDestinations the max number of destinations (or 0 to use the requested one for every client)
+     * @param clientNumber the client number
+     * @return the destination name
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public static String setupLimitDestinations(final String destinationName, final int limitDestinations,
+                                                final int clientNumber) {
+        String ret = destinationName;
+
+        if (limitDestinations >= 1) {
+            logger.debug("Client requested a client-specific limit to the number of destinations: {}",
+                    limitDestinations);
+
+            final int destinationId = clientNumber % limitDestinations;
+            ret = destinationName + '.' + destinationId;
+            logger.info("Requested destination name after using client-specific limit to the number of destinations: {}",
+                    ret);
+
+            return ret;
+        } else {
+            if (limitDestinations < 0) {
+                throw new IllegalArgumentException("Negative number of limit destinations is invalid");
+            }
+
+            //original behaviour maintained for backward compatibility
+            logger.info("Requested destination name: {}", destinationName);
+        }
+
+        return ret;
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A writer class for performance rate data that, instead of saving every sample, aggregates them in
+ * fixed-size intervals. Each interval is saved as a single record containing the number of samples and
+ * the minimum, maximum and mean lag (actual - expected timestamp) in microseconds. The period of each
+ * record is the start of the interval in milliseconds since epoch. This data is saved
+ * to a compressed file in the format {role}-rate-aggregated.csv.gz
+ * <p>
+ * The samples are bucketed using their actual timestamp (ie.: atd/ata). Buckets are kept open for one
+ * additional interval in order to account for samples arriving slightly out of order. A sample arriving
+ * after that results in an additional record for the same period, so readers should sum the records
+ * that share the same period.
+ */
+public final class AggregatedRateWriter implements RateSampleWriter {
+    public static final String FILE_SUFFIX = "-rate-aggregated.csv.gz";
+    public static final char SEPARATOR = ',';
+
+    private static final class Bucket {
+        private long count;
+        private long minLag = Long.MAX_VALUE;
+        private long maxLag = Long.MIN_VALUE;
+        private long sumLag;
+
+        void add(long lag) {
+            count++;
+            minLag = Math.min(minLag, lag);
+            maxLag = Math.max(maxLag, lag);
+            sumLag += lag;
+        }
+    }
+
+    private final File reportFile;
+    private final Writer writer;
+    private final long intervalMicros;
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+    private long lastPeriod = Long.MIN_VALUE;
+    private long currentPeriod = Long.MIN_VALUE;
+    private Bucket currentBucket;
+
+    /**
+     * Constructor
+     * @param reportFolder the directory where the report will be saved
+     * @param sender whether it is a sender file
+     * @param intervalMillis the aggregation interval in milliseconds
+     * @throws IOException on I/O errors
+     */
+    public AggregatedRateWriter(final File reportFolder, boolean sender, long intervalMillis) throws IOException {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("The aggregation interval must be greater than 0");
+        }
+
+        this.reportFile = new File(reportFolder, fileName(sender));
+        this.intervalMicros = intervalMillis * 1000L;
+        this.writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(reportFile)), StandardCharsets.US_ASCII));
+
+        writeHeader();
+    }
+
+    /**
+     * Gets the file name for the aggregated rate file
+     * @param sender whether it is a sender file
+     * @return the file name
+     */
+    public static String fileName(boolean sender) {
+        return (sender ? "senderd" : "receiverd") + FILE_SUFFIX;
+    }
+
+    /**
+     * Checks whether a file is an aggregated rate file
+     * @param file the file to check
+     * @return true if it is an aggregated rate file or false otherwise
+     */
+    public static boolean isAggregated(final File file) {
+        return file.getName().endsWith(FILE_SUFFIX);
+    }
+
+    private void writeHeader() throws IOException {
+        writer.write("period");
+        writer.write(SEPARATOR);
+        writer.write("count");
+        writer.write(SEPARATOR);
+        writer.write("minLag");
+        writer.write(SEPARATOR);
+        writer.write("maxLag");
+        writer.write(SEPARATOR);
+        writer.write("meanLag");
+    }
+
+    @Override
+    public File reportFile() {
+        return reportFile;
+    }
+
+    @Override
+    public void write(long startTimeStampEpochMicros, long endTimeStampEpochMicros) {
+        final long period = Math.floorDiv(endTimeStampEpochMicros, intervalMicros) * intervalMicros;
+
+        // most of the samples fall in the same bucket as the previous one
+        if (period != currentPeriod || currentBucket == null) {
+            currentBucket = buckets.computeIfAbsent(period, p -> new Bucket());
+            currentPeriod = period;
+        }
+
+        currentBucket.add(endTimeStampEpochMicros - startTimeStampEpochMicros);
+
+        if (period > lastPeriod) {
+            lastPeriod = period;
+
+            try {
+                flushBefore(lastPeriod - intervalMicros);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void flushBefore(long period) throws IOException {
+        final Iterator<Map.Entry<Long, Bucket>> it = buckets.entrySet().iterator();
+
+        while (it.hasNext()) {
+            final Map.Entry<Long, Bucket> entry = it.next();
+
+            if (entry.getKey() >= period) {
+                break;
+            }
+
+            writeRecord(entry.getKey(), entry.getValue());
+            if (entry.getValue() == currentBucket) {
+                currentBucket = null;
+            }
+            it.remove();
+        }
+    }
+
+    private void writeRecord(long period, final Bucket bucket) throws IOException {
+        writer.write('\n');
+        writer.write(Long.toString(period / 1000L));
+        writer.write(SEPARATOR);
+        writer.write(Long.toString(bucket.count));
+        writer.write(SEPARATOR);
+        writer.write(Long.toString(bucket.minLag));
+        writer.write(SEPARATOR);
+        writer.write(Long.toString(bucket.maxLag));
+        writer.write(SEPARATOR);
+        writer.write(Long.toString(bucket.sumLag / bucket.count));
+    }
+
+    @Override
+    public void close() {
+        try {
+            flushBefore(Long.MAX_VALUE);
+            writer.flush();
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.maestro.common.Constants;
+
+import java.nio.ByteOrder;
+
+/**
+ * Describes the layout of the binary rate files. All the values are little-endian.
+ * <p>
+ * The file starts with a header:
+ * <pre>
+ * magic (int) | version (short) | flags (short) | created epoch millis (long)
+ * </pre>
+ * followed by any number of blocks:
+ * <pre>
+ * record count (int) | base expected epoch micros (long) | base actual epoch micros (long) | records ...
+ * </pre>
+ * Each record is fixed-width and holds the delta of the expected and actual timestamps in relation to the
+ * previous record in the same block (the first record of a block is relative to the block base).
+ */
+public final class BinaryRateFormat {
+    /**
+     * The byte order used to encode the data
+     */
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Magic number for the format ("MPTR")
+     */
+    public static final int MAGIC = 0x4D505452;
+
+    public static final short VERSION = 1;
+
+    /**
+     * Flag set on the header when the file contains sender data
+     */
+    public static final short FLAG_SENDER = 0x01;
+
+    public static final int FILE_HEADER_LENGTH = Integer.BYTES + Short.BYTES + Short.BYTES + Long.BYTES;
+    public static final int BLOCK_HEADER_LENGTH = Integer.BYTES + Long.BYTES + Long.BYTES;
+    public static final int RECORD_LENGTH = Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Maximum number of records per block
+     */
+    public static final int MAX_BLOCK_RECORDS = 4096;
+
+    public static final int MAX_BLOCK_LENGTH = BLOCK_HEADER_LENGTH + (MAX_BLOCK_RECORDS * RECORD_LENGTH);
+
+    /**
+     * File extension for the binary rate files
+     */
+    public static final String FILE_EXTENSION = Constants.FILE_EXTENSION_MPT_BINARY;
+
+    private BinaryRateFormat() {}
+
+    /**
+     * Gets the file name for the binary rate file
+     * @param sender whether it is a sender file
+     * @return the file name
+     */
+    public static String fileName(boolean sender) {
+        return (sender ? "senderd" : "receiverd") + "-rate." + FILE_EXTENSION;
+    }
+}
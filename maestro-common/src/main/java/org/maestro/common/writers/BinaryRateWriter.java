@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A writer class for performance rate data that saves the samples in a compact binary format. This
+ * data is saved to a file in the format {role}-rate.bin
+ *
+ * @see BinaryRateFormat
+ */
+public final class BinaryRateWriter implements RateSampleWriter {
+    private final File reportFile;
+    private final FileChannel channel;
+    private final ByteBuffer block;
+
+    private int blockRecords;
+    private long previousExpected;
+    private long previousActual;
+
+    public BinaryRateWriter(final File reportFolder, boolean sender) throws IOException {
+        this.reportFile = new File(reportFolder, BinaryRateFormat.fileName(sender));
+        this.channel = new FileOutputStream(reportFile).getChannel();
+        this.block = ByteBuffer.allocateDirect(BinaryRateFormat.MAX_BLOCK_LENGTH)
+                .order(BinaryRateFormat.BYTE_ORDER);
+
+        writeHeader(sender);
+    }
+
+    private void writeHeader(boolean sender) throws IOException {
+        block.clear();
+        block.putInt(BinaryRateFormat.MAGIC);
+        block.putShort(BinaryRateFormat.VERSION);
+        block.putShort(sender ? BinaryRateFormat.FLAG_SENDER : 0);
+        block.putLong(System.currentTimeMillis());
+        block.flip();
+
+        writeFully(block);
+        block.clear();
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public File reportFile() {
+        return reportFile;
+    }
+
+    private static boolean fitsInt(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void write(long startTimeStampEpochMicros, long endTimeStampEpochMicros) {
+        try {
+            if (blockRecords > 0) {
+                final long expectedDelta = startTimeStampEpochMicros - previousExpected;
+                final long actualDelta = endTimeStampEpochMicros - previousActual;
+
+                if (!fitsInt(expectedDelta) || !fitsInt(actualDelta)) {
+                    flushBlock();
+                }
+            }
+
+            if (blockRecords == 0) {
+                startBlock(startTimeStampEpochMicros, endTimeStampEpochMicros);
+            }
+
+            block.putInt((int) (startTimeStampEpochMicros - previousExpected));
+            block.putInt((int) (endTimeStampEpochMicros - previousActual));
+            previousExpected = startTimeStampEpochMicros;
+            previousActual = endTimeStampEpochMicros;
+            blockRecords++;
+
+            if (blockRecords == BinaryRateFormat.MAX_BLOCK_RECORDS) {
+                flushBlock();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void startBlock(long baseExpected, long baseActual) {
+        block.clear();
+        // the record count is only known when flushing
+        block.putInt(0);
+        block.putLong(baseExpected);
+        block.putLong(baseActual);
+
+        previousExpected = baseExpected;
+        previousActual = baseActual;
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRecords == 0) {
+            return;
+        }
+
+        block.putInt(0, blockRecords);
+        block.flip();
+        writeFully(block);
+
+        block.clear();
+        blockRecords = 0;
+    }
+
+    @Override
+    public void close() {
+        try {
+            flushBlock();
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
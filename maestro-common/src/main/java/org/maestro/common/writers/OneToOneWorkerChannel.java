@@ -18,7 +18,6 @@
 package org.maestro.common.writers;
 
 import org.agrona.BitUtil;
-import org.agrona.DirectBuffer;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.broadcast.BroadcastBufferDescriptor;
@@ -29,38 +28,28 @@ import org.agrona.concurrent.ringbuffer.RecordDescriptor;
 import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 
-public final class OneToOneWorkerChannel {
-
-    /**
-     * Flyweight class that wrap a sample data.<p>
-     * It can't be collected or retained, but just used to read sample data.
-     */
-    public static final class Sample {
-
-        private DirectBuffer buffer;
-        private int offset;
-
-        public long timestampEpochMicros() {
-            return buffer.getLong(offset);
-        }
-
-        public long value() {
-            return buffer.getLong(offset + Long.BYTES);
-        }
-
-    }
+/**
+ * A {@link WorkerChannel} backed by a broadcast buffer: the worker never blocks, but the samples not read
+ * in time are lapped and lost (see {@link #missedSamples()}).
+ */
+public final class OneToOneWorkerChannel implements WorkerChannel {
 
     private final BroadcastTransmitter writeBuffer;
     private final BroadcastReceiver receiver;
-    private final UnsafeBuffer sampleBuffer;
+    // the writer and the reader run on different threads: each one must have its own scratch buffer
+    private final UnsafeBuffer writerSampleBuffer;
+    private final UnsafeBuffer readerSampleBuffer;
+    private final UnsafeBuffer batchBuffer;
     private final Sample currentSample;
     private final int footprintInBytes;
 
     public OneToOneWorkerChannel(int capacity) {
         //agrona doesn't allow too small ring buffers
         capacity = Math.max(8, capacity);
-        final int contentLength = Long.BYTES * 2;
-        this.sampleBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(contentLength));
+        final int contentLength = SAMPLE_LENGTH;
+        this.writerSampleBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(contentLength));
+        this.readerSampleBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(contentLength));
+        this.batchBuffer = new UnsafeBuffer(new byte[0]);
         final int requiredRingBufferCapacity =
                 BitUtil.findNextPositivePowerOfTwo(
                         BitUtil.findNextPositivePowerOfTwo(capacity) *
@@ -71,27 +60,23 @@ public final class OneToOneWorkerChannel {
         this.currentSample = new Sample();
         this.receiver = new BroadcastReceiver(buffer);
         this.footprintInBytes = buffer.capacity();
-        this.currentSample.buffer = this.sampleBuffer;
-        this.currentSample.offset = 0;
+        this.currentSample.wrap(this.readerSampleBuffer, 0);
     }
 
-    /**
-     * Safe to be used by just one thread
-     */
+    @Override
     public void emitRate(long startTimestampEpochMicros, long endTimestampEpochMicros) {
         assert startTimestampEpochMicros - endTimestampEpochMicros <= 0 : "startTimestampEpochMicros <= endTimestampEpochMicros";
-        sampleBuffer.putLong(0, startTimestampEpochMicros);
-        sampleBuffer.putLong(Long.BYTES, endTimestampEpochMicros);
-        this.writeBuffer.transmit(1, sampleBuffer, 0, sampleBuffer.capacity());
+        writerSampleBuffer.putLong(TIMESTAMP_OFFSET, startTimestampEpochMicros);
+        writerSampleBuffer.putLong(VALUE_OFFSET, endTimestampEpochMicros);
+        this.writeBuffer.transmit(1, writerSampleBuffer, 0, SAMPLE_LENGTH);
     }
 
+    @Override
     public int footprintInBytes() {
         return this.footprintInBytes;
     }
 
-    /**
-     * Safe to be used by just one thread
-     */
+    @Override
     public int readRate(Consumer<Sample> onRate, int limit) {
         for (int i = 0; i < limit; i++) {
             boolean valid;
@@ -100,7 +85,7 @@ public final class OneToOneWorkerChannel {
                 if (!receiveNext) {
                     return i;
                 }
-                this.sampleBuffer.putBytes(0, this.receiver.buffer(), this.receiver.offset(), this.receiver.length());
+                this.readerSampleBuffer.putBytes(0, this.receiver.buffer(), this.receiver.offset(), this.receiver.length());
                 valid = this.receiver.validate();
             } while (!valid);
             onRate.accept(currentSample);
@@ -108,9 +93,37 @@ public final class OneToOneWorkerChannel {
         return limit;
     }
 
-    /**
-     * Safe to be called concurrently
-     */
+    @Override
+    public int readRates(SampleBatchHandler onRates, int limit) {
+        final UnsafeBuffer batch = batchBuffer(limit);
+        int count = 0;
+        while (count < limit) {
+            final boolean receiveNext = this.receiver.receiveNext();
+            if (!receiveNext) {
+                break;
+            }
+            final int offset = count * SAMPLE_LENGTH;
+            batch.putBytes(offset, this.receiver.buffer(), this.receiver.offset(), this.receiver.length());
+            // if it has been lapped the slot is just overwritten by the next sample
+            if (this.receiver.validate()) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            onRates.onSamples(batch, count);
+        }
+        return count;
+    }
+
+    private UnsafeBuffer batchBuffer(int limit) {
+        final int requiredCapacity = limit * SAMPLE_LENGTH;
+        if (batchBuffer.capacity() < requiredCapacity) {
+            batchBuffer.wrap(ByteBuffer.allocateDirect(requiredCapacity));
+        }
+        return batchBuffer;
+    }
+
+    @Override
     public long missedSamples() {
         return receiver.lappedCount();
     }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.maestro.common.ConfigurationWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The formats in which the performance rate data can be saved
+ */
+public enum RateFormat {
+    /**
+     * Compressed CSV with human-readable timestamps ({role}-rate.csv.gz)
+     */
+    CSV {
+        @Override
+        public String fileName(boolean sender) {
+            return RateWriter.fileName(sender, true);
+        }
+
+        @Override
+        public RateSampleWriter newWriter(final File reportFolder, boolean sender) throws IOException {
+            return new RateWriter(reportFolder, sender, true);
+        }
+    },
+
+    /**
+     * Compact, block-based, binary format ({role}-rate.bin)
+     */
+    BINARY {
+        @Override
+        public String fileName(boolean sender) {
+            return BinaryRateFormat.fileName(sender);
+        }
+
+        @Override
+        public RateSampleWriter newWriter(final File reportFolder, boolean sender) throws IOException {
+            return new BinaryRateWriter(reportFolder, sender);
+        }
+    },
+
+    /**
+     * Compressed CSV with one record per aggregation interval ({role}-rate-aggregated.csv.gz). The interval
+     * is set in milliseconds via maestro.worker.rate.aggregation.interval (defaults to 1000)
+     */
+    AGGREGATED {
+        @Override
+        public String fileName(boolean sender) {
+            return AggregatedRateWriter.fileName(sender);
+        }
+
+        @Override
+        public RateSampleWriter newWriter(final File reportFolder, boolean sender) throws IOException {
+            final long interval = ConfigurationWrapper.getConfig()
+                    .getLong("maestro.worker.rate.aggregation.interval", 1000);
+
+            return new AggregatedRateWriter(reportFolder, sender, interval);
+        }
+    };
+
+    private static final Logger logger = LoggerFactory.getLogger(RateFormat.class);
+
+    /**
+     * Gets the name of the rate file
+     * @param sender whether it is a sender file
+     * @return the file name
+     */
+    public abstract String fileName(boolean sender);
+
+    /**
+     * Creates a new writer for this format
+     * @param reportFolder the directory where the report will be saved
+     * @param sender whether it is a sender file
+     * @return a new writer instance
+     * @throws IOException on I/O errors
+     */
+    public abstract RateSampleWriter newWriter(final File reportFolder, boolean sender) throws IOException;
+
+    /**
+     * Parses the format name
+     * @param name the format name (case insensitive)
+     * @return the rate format or CSV if the name is invalid or null
+     */
+    public static RateFormat parse(final String name) {
+        if (name == null) {
+            return CSV;
+        }
+
+        try {
+            return RateFormat.valueOf(name.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            logger.warn("Invalid rate format {}. Using CSV instead", name);
+        }
+
+        return CSV;
+    }
+}
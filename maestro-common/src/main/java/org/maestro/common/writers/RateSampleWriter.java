@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.agrona.DirectBuffer;
+
+import java.io.File;
+
+/**
+ * A common interface for the writers of the performance rate data
+ */
+public interface RateSampleWriter extends AutoCloseable {
+
+    /**
+     * Writes a rate sample
+     * @param startTimeStampEpochMicros the expected (ie.: etd/eta) timestamp in micros from epoch
+     * @param endTimeStampEpochMicros the actual (ie.: atd/ata) timestamp in micros from epoch
+     */
+    void write(long startTimeStampEpochMicros, long endTimeStampEpochMicros);
+
+
+    /**
+     * Writes a batch of rate samples laid out as in {@link WorkerChannel.SampleBatchHandler}
+     * @param samples the buffer containing the samples
+     * @param count the number of samples in the buffer
+     */
+    default void write(DirectBuffer samples, int count) {
+        for (int i = 0; i < count; i++) {
+            final int offset = i * WorkerChannel.SAMPLE_LENGTH;
+
+            write(samples.getLong(offset + WorkerChannel.TIMESTAMP_OFFSET),
+                    samples.getLong(offset + WorkerChannel.VALUE_OFFSET));
+        }
+    }
+
+
+    /**
+     * Gets the report file
+     * @return the report file being written
+     */
+    File reportFile();
+
+
+    /**
+     * Flushes and closes the writer
+     */
+    @Override
+    void close();
+}
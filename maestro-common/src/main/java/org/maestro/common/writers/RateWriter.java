@@ -16,6 +16,8 @@
 
 package org.maestro.common.writers;
 
+import org.agrona.DirectBuffer;
+
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -30,7 +32,7 @@ import java.util.zip.GZIPOutputStream;
  * A writer class for performance rate data. This data is saved to a compressed file in the format
  * {role}-rate.gz
  */
-public final class RateWriter implements AutoCloseable {
+public final class RateWriter implements RateSampleWriter {
     private static final int MICROS_PART_LENGTH = "000\"".length();
     private static final String DATE_FORMAT_PATTERN = "\"yyyy-MM-dd HH:mm:ss.SSS";
     /**
@@ -50,19 +52,30 @@ public final class RateWriter implements AutoCloseable {
     private final Date date = new Date();
     private final StringBuffer lineBuilder = new StringBuffer(ESTIMATED_LINE_LENGTH);
     private final byte[] writeBuffer = new byte[ESTIMATED_LINE_LENGTH];
+    private byte[] batchWriteBuffer = new byte[0];
     private final FieldPosition fullFieldPosition = new FieldPosition(DateFormat.FULL);
     private final File reportFile;
 
     public RateWriter(final File reportFolder, boolean sender, boolean compressed) throws IOException {
-        final String role = sender ? "sender" : "receiver";
-        final String fileName = role + (compressed ? "d-rate.csv.gz" : "d-rate.csv");
-        this.reportFile = new File(reportFolder, fileName);
+        this.reportFile = new File(reportFolder, fileName(sender, compressed));
 
         outputStream = createOutputStream(compressed);
 
         writeHeader(sender);
     }
 
+    /**
+     * Gets the file name for the CSV rate file
+     * @param sender whether it is a sender file
+     * @param compressed whether the file is compressed
+     * @return the file name
+     */
+    public static String fileName(boolean sender, boolean compressed) {
+        final String role = sender ? "sender" : "receiver";
+
+        return role + (compressed ? "d-rate.csv.gz" : "d-rate.csv");
+    }
+
     private OutputStream createOutputStream(boolean compressed) throws IOException {
         final FileOutputStream fileStream = new FileOutputStream(reportFile);
 
@@ -90,10 +103,12 @@ public final class RateWriter implements AutoCloseable {
         outputStream.write(writeBuffer, 0, encodedSize);
     }
 
+    @Override
     public File reportFile() {
         return reportFile;
     }
 
+    @Override
     public void write(long startTimeStampEpochMicros, long endTimeStampEpochMicros) {
         final int encodedSize = encodeAscii(appendOn(startTimeStampEpochMicros, endTimeStampEpochMicros), writeBuffer);
         try {
@@ -103,6 +118,29 @@ public final class RateWriter implements AutoCloseable {
         }
     }
 
+    @Override
+    public void write(DirectBuffer samples, int count) {
+        final int requiredLength = count * ESTIMATED_LINE_LENGTH;
+        if (batchWriteBuffer.length < requiredLength) {
+            batchWriteBuffer = new byte[requiredLength];
+        }
+
+        int encodedSize = 0;
+        for (int i = 0; i < count; i++) {
+            final int offset = i * WorkerChannel.SAMPLE_LENGTH;
+            final StringBuffer line = appendOn(samples.getLong(offset + WorkerChannel.TIMESTAMP_OFFSET),
+                    samples.getLong(offset + WorkerChannel.VALUE_OFFSET));
+
+            encodedSize += encodeAscii(line, batchWriteBuffer, encodedSize);
+        }
+
+        try {
+            outputStream.write(batchWriteBuffer, 0, encodedSize);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static int digitOf(long microseconds) {
         final int digits;
         if (microseconds < 10) {
@@ -154,6 +192,10 @@ public final class RateWriter implements AutoCloseable {
     }
 
     private static int encodeAscii(StringBuffer buffer, byte[] encodedBuffer) {
+        return encodeAscii(buffer, encodedBuffer, 0);
+    }
+
+    private static int encodeAscii(StringBuffer buffer, byte[] encodedBuffer, int encodedOffset) {
         final int bufferLength = buffer.length();
 
         for (int i = 0; i < bufferLength; i++) {
@@ -162,12 +204,13 @@ public final class RateWriter implements AutoCloseable {
             if (b < 0) {
                 b = '?';
             }
-            encodedBuffer[i] = b;
+            encodedBuffer[encodedOffset + i] = b;
         }
 
         return bufferLength;
     }
 
+    @Override
     public void close() {
         try {
             outputStream.flush();
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RecordDescriptor;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.agrona.hints.ThreadHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A {@link WorkerChannel} backed by a single producer/single consumer ring buffer. Differently from the
+ * {@link OneToOneWorkerChannel}, the samples are never overwritten: what happens when the ring buffer is full
+ * is defined by the {@link OverflowPolicy}.
+ */
+public final class RingBufferWorkerChannel implements WorkerChannel {
+
+    /**
+     * What to do when the worker emits a sample and there is no space left on the channel
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drops the sample and counts it as missed
+         */
+        DROP,
+
+        /**
+         * Spins the emitting thread until the sample can be written (or the thread is interrupted)
+         */
+        SPIN,
+
+        /**
+         * Accumulates the samples in an overflow bucket that is published as soon as there is space. The
+         * bucket keeps the count and the first and the last sample, so the reader gets back the right number
+         * of samples with the timestamps interpolated between them.
+         */
+        AGGREGATE;
+
+        private static final Logger logger = LoggerFactory.getLogger(OverflowPolicy.class);
+
+        /**
+         * Parses the policy name
+         * @param name the policy name (case insensitive)
+         * @return the overflow policy or DROP if the name is invalid or null
+         */
+        public static OverflowPolicy parse(final String name) {
+            if (name == null) {
+                return DROP;
+            }
+
+            try {
+                return OverflowPolicy.valueOf(name.trim().toUpperCase());
+            }
+            catch (IllegalArgumentException e) {
+                logger.warn("Invalid overflow policy {}. Using DROP instead", name);
+            }
+
+            return DROP;
+        }
+    }
+
+    private static final long DEFAULT_FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int SAMPLE_MSG_TYPE_ID = 1;
+    private static final int OVERFLOW_MSG_TYPE_ID = 2;
+
+    // count (long) | first sample | last sample
+    private static final int OVERFLOW_COUNT_OFFSET = 0;
+    private static final int OVERFLOW_FIRST_OFFSET = Long.BYTES;
+    private static final int OVERFLOW_LAST_OFFSET = OVERFLOW_FIRST_OFFSET + SAMPLE_LENGTH;
+    private static final int OVERFLOW_LENGTH = OVERFLOW_LAST_OFFSET + SAMPLE_LENGTH;
+
+    private final RingBuffer ringBuffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int footprintInBytes;
+    private final AtomicLong droppedSamples = new AtomicLong();
+
+    // emitting side
+    private final UnsafeBuffer writerBuffer;
+    private long overflowCount;
+    private long overflowFirstTimestamp;
+    private long overflowFirstValue;
+    private long overflowLastTimestamp;
+    private long overflowLastValue;
+
+    // reading side
+    private final UnsafeBuffer batchBuffer;
+    private final MessageHandler onMessage;
+    private final SampleBatchHandler onSampleBatch;
+    private final Sample currentSample;
+    private SampleBatchHandler batchHandler;
+    private Consumer<Sample> sampleConsumer;
+    private int batchLimit;
+    private int batchCount;
+    private int samplesRead;
+
+    public RingBufferWorkerChannel(int capacity, final OverflowPolicy overflowPolicy) {
+        //agrona doesn't allow too small ring buffers and it must fit the overflow records too
+        capacity = Math.max(16, capacity);
+        final int requiredRingBufferCapacity =
+                BitUtil.findNextPositivePowerOfTwo(
+                        BitUtil.findNextPositivePowerOfTwo(capacity) *
+                                (BitUtil.align(SAMPLE_LENGTH + RecordDescriptor.HEADER_LENGTH, RecordDescriptor.ALIGNMENT)))
+                        + RingBufferDescriptor.TRAILER_LENGTH;
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(requiredRingBufferCapacity));
+        this.ringBuffer = new OneToOneRingBuffer(buffer);
+        this.overflowPolicy = overflowPolicy;
+        this.footprintInBytes = buffer.capacity();
+        this.writerBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(OVERFLOW_LENGTH));
+        this.batchBuffer = new UnsafeBuffer(new byte[0]);
+        this.onMessage = this::onMessage;
+        this.onSampleBatch = this::onSampleBatch;
+        this.currentSample = new Sample();
+    }
+
+    public OverflowPolicy overflowPolicy() {
+        return overflowPolicy;
+    }
+
+    @Override
+    public void emitRate(long startTimestampEpochMicros, long endTimestampEpochMicros) {
+        assert startTimestampEpochMicros - endTimestampEpochMicros <= 0 : "startTimestampEpochMicros <= endTimestampEpochMicros";
+        // the pending overflow bucket goes first, to keep the samples in order
+        if (overflowCount > 0 && !writeOverflow()) {
+            aggregate(startTimestampEpochMicros, endTimestampEpochMicros);
+            return;
+        }
+        if (!writeSample(startTimestampEpochMicros, endTimestampEpochMicros)) {
+            onOverflow(startTimestampEpochMicros, endTimestampEpochMicros);
+        }
+    }
+
+    private boolean writeSample(long startTimestampEpochMicros, long endTimestampEpochMicros) {
+        writerBuffer.putLong(TIMESTAMP_OFFSET, startTimestampEpochMicros);
+        writerBuffer.putLong(VALUE_OFFSET, endTimestampEpochMicros);
+        return ringBuffer.write(SAMPLE_MSG_TYPE_ID, writerBuffer, 0, SAMPLE_LENGTH);
+    }
+
+    private void onOverflow(long startTimestampEpochMicros, long endTimestampEpochMicros) {
+        switch (overflowPolicy) {
+            case SPIN: {
+                final Thread currentThread = Thread.currentThread();
+                do {
+                    if (currentThread.isInterrupted()) {
+                        drop(1);
+                        return;
+                    }
+                    ThreadHints.onSpinWait();
+                } while (!writeSample(startTimestampEpochMicros, endTimestampEpochMicros));
+                break;
+            }
+            case AGGREGATE: {
+                aggregate(startTimestampEpochMicros, endTimestampEpochMicros);
+                break;
+            }
+            default: {
+                drop(1);
+            }
+        }
+    }
+
+    private void drop(long samples) {
+        // single writer: no need of an atomic increment
+        droppedSamples.lazySet(droppedSamples.get() + samples);
+    }
+
+    private void aggregate(long startTimestampEpochMicros, long endTimestampEpochMicros) {
+        if (overflowCount == 0) {
+            overflowFirstTimestamp = startTimestampEpochMicros;
+            overflowFirstValue = endTimestampEpochMicros;
+        }
+        overflowLastTimestamp = startTimestampEpochMicros;
+        overflowLastValue = endTimestampEpochMicros;
+        overflowCount++;
+    }
+
+    private boolean writeOverflow() {
+        writerBuffer.putLong(OVERFLOW_COUNT_OFFSET, overflowCount);
+        writerBuffer.putLong(OVERFLOW_FIRST_OFFSET + TIMESTAMP_OFFSET, overflowFirstTimestamp);
+        writerBuffer.putLong(OVERFLOW_FIRST_OFFSET + VALUE_OFFSET, overflowFirstValue);
+        writerBuffer.putLong(OVERFLOW_LAST_OFFSET + TIMESTAMP_OFFSET, overflowLastTimestamp);
+        writerBuffer.putLong(OVERFLOW_LAST_OFFSET + VALUE_OFFSET, overflowLastValue);
+        if (ringBuffer.write(OVERFLOW_MSG_TYPE_ID, writerBuffer, 0, OVERFLOW_LENGTH)) {
+            overflowCount = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}<p>
+     * It waits up to 1 second for the reader to make room for the overflow bucket: see {@link #flush(long)}.
+     */
+    @Override
+    public void flush() {
+        flush(DEFAULT_FLUSH_TIMEOUT_NANOS);
+    }
+
+    /**
+     * Publishes the pending overflow bucket, waiting for the reader to make room for it. If the reader doesn't
+     * do it within the timeout (or the thread is interrupted), the samples of the bucket are dropped and counted
+     * as missed
+     * @param timeoutNanos the max time to wait
+     * @return true if the pending samples were published or false if they were dropped
+     */
+    public boolean flush(long timeoutNanos) {
+        if (overflowCount == 0) {
+            return true;
+        }
+        final Thread currentThread = Thread.currentThread();
+        final long deadline = System.nanoTime() + timeoutNanos;
+        while (!writeOverflow()) {
+            if (currentThread.isInterrupted() || System.nanoTime() - deadline >= 0) {
+                drop(overflowCount);
+                overflowCount = 0;
+                return false;
+            }
+            ThreadHints.onSpinWait();
+        }
+        return true;
+    }
+
+    @Override
+    public int footprintInBytes() {
+        return this.footprintInBytes;
+    }
+
+    @Override
+    public int readRate(Consumer<Sample> onRate, int limit) {
+        this.sampleConsumer = onRate;
+        try {
+            return readRates(this.onSampleBatch, limit);
+        } finally {
+            this.sampleConsumer = null;
+        }
+    }
+
+    private void onSampleBatch(DirectBuffer samples, int count) {
+        for (int i = 0; i < count; i++) {
+            currentSample.wrap(samples, i * SAMPLE_LENGTH);
+            sampleConsumer.accept(currentSample);
+        }
+    }
+
+    /**
+     * {@inheritDoc}<p>
+     * An overflow bucket is always read as a whole, hence the number of samples drained could be greater
+     * than {@code limit}.
+     */
+    @Override
+    public int readRates(SampleBatchHandler onRates, int limit) {
+        this.batchHandler = onRates;
+        this.batchLimit = limit;
+        this.batchCount = 0;
+        this.samplesRead = 0;
+        batchBuffer(limit);
+        try {
+            final int messagesRead = ringBuffer.read(this.onMessage, limit);
+            // a read stops at the end of the buffer: continue from the start to not report an empty channel
+            if (messagesRead < limit) {
+                ringBuffer.read(this.onMessage, limit - messagesRead);
+            }
+            flushBatch();
+            return samplesRead;
+        } finally {
+            this.batchHandler = null;
+        }
+    }
+
+    private void onMessage(int msgTypeId, MutableDirectBuffer buffer, int index, int length) {
+        if (msgTypeId == SAMPLE_MSG_TYPE_ID) {
+            appendToBatch(buffer.getLong(index + TIMESTAMP_OFFSET), buffer.getLong(index + VALUE_OFFSET));
+        } else if (msgTypeId == OVERFLOW_MSG_TYPE_ID) {
+            final long count = buffer.getLong(index + OVERFLOW_COUNT_OFFSET);
+            final long firstTimestamp = buffer.getLong(index + OVERFLOW_FIRST_OFFSET + TIMESTAMP_OFFSET);
+            final long firstValue = buffer.getLong(index + OVERFLOW_FIRST_OFFSET + VALUE_OFFSET);
+            final long lastTimestamp = buffer.getLong(index + OVERFLOW_LAST_OFFSET + TIMESTAMP_OFFSET);
+            final long lastValue = buffer.getLong(index + OVERFLOW_LAST_OFFSET + VALUE_OFFSET);
+
+            for (long i = 0; i < count; i++) {
+                final double position = count > 1 ? (double) i / (count - 1) : 0;
+
+                appendToBatch(firstTimestamp + (long) ((lastTimestamp - firstTimestamp) * position),
+                        firstValue + (long) ((lastValue - firstValue) * position));
+            }
+        }
+    }
+
+    private void appendToBatch(long timestampEpochMicros, long value) {
+        if (batchCount == batchLimit) {
+            flushBatch();
+        }
+        final int offset = batchCount * SAMPLE_LENGTH;
+        batchBuffer.putLong(offset + TIMESTAMP_OFFSET, timestampEpochMicros);
+        batchBuffer.putLong(offset + VALUE_OFFSET, value);
+        batchCount++;
+        samplesRead++;
+    }
+
+    private void flushBatch() {
+        if (batchCount > 0) {
+            batchHandler.onSamples(batchBuffer, batchCount);
+            batchCount = 0;
+        }
+    }
+
+    private void batchBuffer(int limit) {
+        final int requiredCapacity = limit * SAMPLE_LENGTH;
+        if (batchBuffer.capacity() < requiredCapacity) {
+            batchBuffer.wrap(ByteBuffer.allocateDirect(requiredCapacity));
+        }
+    }
+
+    @Override
+    public long missedSamples() {
+        return droppedSamples.get();
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.agrona.DirectBuffer;
+
+import java.util.function.Consumer;
+
+/**
+ * A single producer/single consumer channel used by the workers to emit the rate samples to the
+ * thread that records them.
+ */
+public interface WorkerChannel {
+
+    /**
+     * Flyweight class that wrap a sample data.<p>
+     * It can't be collected or retained, but just used to read sample data.
+     */
+    final class Sample {
+
+        private DirectBuffer buffer;
+        private int offset;
+
+        void wrap(DirectBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        public long timestampEpochMicros() {
+            return buffer.getLong(offset + TIMESTAMP_OFFSET);
+        }
+
+        public long value() {
+            return buffer.getLong(offset + VALUE_OFFSET);
+        }
+
+    }
+
+    /**
+     * Handles a batch of samples drained from the channel.<p>
+     * The samples are laid out contiguously on the buffer, starting at offset 0, each one taking
+     * {@link #SAMPLE_LENGTH} bytes: the timestamp at {@link #TIMESTAMP_OFFSET} and the value at
+     * {@link #VALUE_OFFSET}. The buffer can't be retained after the call returns.
+     */
+    @FunctionalInterface
+    interface SampleBatchHandler {
+        void onSamples(DirectBuffer samples, int count);
+    }
+
+    int TIMESTAMP_OFFSET = 0;
+    int VALUE_OFFSET = Long.BYTES;
+    int SAMPLE_LENGTH = Long.BYTES * 2;
+
+    /**
+     * Safe to be used by just one thread
+     */
+    void emitRate(long startTimestampEpochMicros, long endTimestampEpochMicros);
+
+    /**
+     * Safe to be used by just one thread
+     *
+     * @return the number of samples read
+     */
+    int readRate(Consumer<Sample> onRate, int limit);
+
+    /**
+     * Drains up to {@code limit} samples and hands them to the handler in batches of at most {@code limit}
+     * samples.<p>
+     * Safe to be used by just one thread (and not concurrently with {@link #readRate(Consumer, int)})
+     *
+     * @return the number of samples drained
+     */
+    int readRates(SampleBatchHandler onRates, int limit);
+
+    /**
+     * Publishes any sample held by the emitting side of the channel. It should be called by the emitting
+     * thread after it has emitted the last sample.
+     */
+    default void flush() {
+        // NO-OP
+    }
+
+    /**
+     * Safe to be called concurrently
+     *
+     * @return the number of samples that were emitted but will never be read
+     */
+    long missedSamples();
+
+    int footprintInBytes();
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.common.ConfigurationWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the worker channels as set in the configuration:
+ * <ul>
+ *     <li>maestro.worker.channel.type: either 'broadcast' (default: may lose samples, but never blocks the
+ *     worker) or 'ring' (lossless, subject to the overflow policy)</li>
+ *     <li>maestro.worker.channel.capacity: the number of samples the channel can hold</li>
+ *     <li>maestro.worker.channel.overflow: the {@link RingBufferWorkerChannel.OverflowPolicy} used by
+ *     the ring channel (drop, spin or aggregate)</li>
+ * </ul>
+ */
+public final class WorkerChannels {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerChannels.class);
+
+    public static final int DEFAULT_CAPACITY = 128 * 1024;
+
+    private WorkerChannels() {}
+
+    /**
+     * Gets the configured channel capacity
+     * @return the channel capacity
+     */
+    public static int capacity() {
+        return ConfigurationWrapper.getConfig().getInt("maestro.worker.channel.capacity", DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new channel with the configured capacity
+     * @return a new worker channel
+     */
+    public static WorkerChannel newChannel() {
+        return newChannel(capacity());
+    }
+
+    /**
+     * Creates a new channel
+     * @param capacity the number of samples the channel can hold
+     * @return a new worker channel
+     */
+    public static WorkerChannel newChannel(int capacity) {
+        final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+        final String type = config.getString("maestro.worker.channel.type", "broadcast");
+
+        if ("ring".equalsIgnoreCase(type)) {
+            final RingBufferWorkerChannel.OverflowPolicy overflowPolicy = RingBufferWorkerChannel.OverflowPolicy
+                    .parse(config.getString("maestro.worker.channel.overflow", "drop"));
+
+            return new RingBufferWorkerChannel(capacity, overflowPolicy);
+        }
+
+        if (!"broadcast".equalsIgnoreCase(type)) {
+            logger.warn("Invalid worker channel type {}. Using broadcast instead", type);
+        }
+
+        return new OneToOneWorkerChannel(capacity);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.affinity;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CpuSetTest {
+
+    @Test
+    public void testParse() {
+        CpuSet cpuSet = CpuSet.parse("0, 2,4-7");
+
+        assertEquals(6, cpuSet.size());
+        assertTrue(cpuSet.contains(0));
+        assertFalse(cpuSet.contains(1));
+        assertTrue(cpuSet.contains(7));
+        assertEquals("0,2,4-7", cpuSet.toString());
+        assertArrayEquals(new long[]{0xF5}, cpuSet.toMask());
+    }
+
+    @Test
+    public void testMaskAboveSixtyFourCpus() {
+        CpuSet cpuSet = CpuSet.parse("65");
+
+        assertArrayEquals(new long[]{0, 2}, cpuSet.toMask());
+    }
+
+    @Test
+    public void testSingle() {
+        CpuSet cpuSet = CpuSet.parse("2-3,8");
+
+        assertEquals(CpuSet.parse("2"), cpuSet.single(0));
+        assertEquals(CpuSet.parse("3"), cpuSet.single(1));
+        assertEquals(CpuSet.parse("8"), cpuSet.single(2));
+        assertEquals(CpuSet.parse("2"), cpuSet.single(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        CpuSet.parse("7-4");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidList() {
+        CpuSet.parse("1,a");
+    }
+}
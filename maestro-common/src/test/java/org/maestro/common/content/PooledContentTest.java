@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+public class PooledContentTest {
+
+    private static int compressedSize(final ByteBuffer content) {
+        final Deflater deflater = new Deflater();
+        final byte[] output = new byte[content.remaining() * 2];
+
+        deflater.setInput(content.array(), content.arrayOffset() + content.position(), content.remaining());
+        deflater.finish();
+        final int length = deflater.deflate(output);
+        deflater.end();
+
+        return length;
+    }
+
+    @Test
+    public void testFixedSize() {
+        final PooledContent content = new PooledContent(new SizeDistributions.Fixed(1024), 4, 8, 1L);
+
+        final ByteBuffer first = content.prepareContent();
+        assertEquals(1024, first.remaining());
+        assertEquals(ContentStrategy.CONTENT_ENDIANNESS, first.order());
+        assertTrue(first.hasArray());
+
+        final long firstValue = first.getLong(0);
+        for (int i = 1; i < content.poolSize(); i++) {
+            final ByteBuffer other = content.prepareContent();
+
+            assertEquals(1024, other.remaining());
+            assertNotEquals(firstValue, other.getLong(0));
+        }
+
+        // it cycles back to the first content
+        assertSame(first, content.prepareContent());
+    }
+
+    @Test
+    public void testVariableSize() {
+        final PooledContent content = new PooledContent(SizeDistributions.parse("~1000"), 8, 8, 1L);
+
+        for (int i = 0; i < 100; i++) {
+            final int size = content.prepareContent().remaining();
+
+            assertTrue("Unexpected content size: " + size, size >= 951 && size <= 1050);
+        }
+    }
+
+    @Test
+    public void testEntropy() {
+        final ByteBuffer random = new PooledContent(new SizeDistributions.Fixed(4096), 1, 8, 1L).prepareContent();
+        assertTrue("The random content should be incompressible", compressedSize(random) > 4000);
+
+        final ByteBuffer lowEntropy = new PooledContent(new SizeDistributions.Fixed(4096), 1, 2, 1L).prepareContent();
+        assertTrue("The low entropy content should be compressible", compressedSize(lowEntropy) < 2048);
+
+        final ByteBuffer zeros = new PooledContent(new SizeDistributions.Fixed(4096), 1, 0, 1L).prepareContent();
+        for (int i = 0; i < zeros.remaining(); i++) {
+            assertEquals(0, zeros.get(i));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.content;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SizeDistributionsTest {
+    private static final int SAMPLES = 100_000;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testParseSize() {
+        assertEquals(256, SizeDistributions.parseSize("256"));
+        assertEquals(4096, SizeDistributions.parseSize("4K"));
+        assertEquals(1024 * 1024, SizeDistributions.parseSize("1M"));
+
+        assertEquals(1024, MessageSize.toSizeFromSpec("1K"));
+        assertEquals(4096, MessageSize.toSizeFromSpec("~4K"));
+        assertEquals(1024, ContentStrategyFactory.parse("1K").prepareContent().remaining());
+    }
+
+    @Test
+    public void testWeightedMix() {
+        final String spec = "256:70%,4096:25%,1M:5%";
+        assertTrue(MessageSize.isDistribution(spec));
+        assertTrue(MessageSize.isVariable(spec));
+
+        final SizeDistribution distribution = SizeDistributions.parse(spec);
+        assertEquals(256, distribution.minSize());
+        assertEquals(1024 * 1024, distribution.maxSize());
+
+        final int[] counts = new int[3];
+        for (int i = 0; i < SAMPLES; i++) {
+            final int size = distribution.nextSize();
+
+            if (size == 256) {
+                counts[0]++;
+            }
+            else if (size == 4096) {
+                counts[1]++;
+            }
+            else {
+                assertEquals(1024 * 1024, size);
+                counts[2]++;
+            }
+        }
+
+        assertEquals(0.70, counts[0] / (double) SAMPLES, 0.01);
+        assertEquals(0.25, counts[1] / (double) SAMPLES, 0.01);
+        assertEquals(0.05, counts[2] / (double) SAMPLES, 0.01);
+        assertEquals(Math.round(256 * 0.7 + 4096 * 0.25 + 1024 * 1024 * 0.05), MessageSize.toSizeFromSpec(spec));
+    }
+
+    @Test
+    public void testLogNormal() {
+        final SizeDistribution distribution = SizeDistributions.parse("lognormal(1K,0.5)");
+        final int[] sizes = new int[SAMPLES];
+
+        for (int i = 0; i < SAMPLES; i++) {
+            sizes[i] = distribution.nextSize();
+
+            assertTrue(sizes[i] >= distribution.minSize());
+            assertTrue(sizes[i] <= distribution.maxSize());
+        }
+
+        Arrays.sort(sizes);
+        assertEquals(1024, sizes[SAMPLES / 2], 30);
+    }
+
+    @Test
+    public void testEmpirical() throws Exception {
+        final File histogram = tempFolder.newFile("histogram.csv");
+        Files.write(histogram.toPath(), Arrays.asList("# size,count", "100,1", "", "2K,3"), StandardCharsets.UTF_8);
+
+        final ContentStrategy content = ContentStrategyFactory.parse("empirical(" + histogram.getPath() + ")");
+
+        int large = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            final ByteBuffer buffer = content.prepareContent();
+
+            if (buffer.remaining() == 2048) {
+                large++;
+            }
+            else {
+                assertEquals(100, buffer.remaining());
+            }
+        }
+
+        assertEquals(0.75, large / (double) SAMPLES, 0.01);
+
+        // the distribution is not built again for the same histogram
+        final String spec = "empirical(" + histogram.getPath() + ")";
+        assertSame(SizeDistributions.parse(spec), SizeDistributions.parse(spec));
+        assertEquals(Math.round((100 + 2048 * 3) / 4.0), MessageSize.toSizeFromSpec(spec));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSizeTooSmall() {
+        SizeDistributions.parse("4:50%,1K:50%");
+    }
+
+    @Test
+    public void testSizeClasses() {
+        assertEquals(0, SizeClasses.of(1));
+        assertEquals(8, SizeClasses.of(256));
+        assertEquals(9, SizeClasses.of(257));
+        assertEquals(12, SizeClasses.of(4096));
+        assertEquals(SizeClasses.COUNT - 1, SizeClasses.of(Integer.MAX_VALUE));
+
+        assertEquals("256", SizeClasses.name(SizeClasses.of(256)));
+        assertEquals("4K", SizeClasses.name(SizeClasses.of(4000)));
+        assertEquals("1M", SizeClasses.name(SizeClasses.of(1024 * 1024)));
+
+        assertTrue(SizeClasses.isBrokenDown("256:70%,4096:25%,1M:5%"));
+        assertFalse(SizeClasses.isBrokenDown("~256"));
+        assertFalse(SizeClasses.isBrokenDown("256"));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.duration;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CalibratedEpochMicroClockTest {
+    private static final long START_MICROS = 1_500_000_000_000_000L;
+
+    private long nanos = 1_000_000L;
+    private long referenceMicros = START_MICROS;
+
+    @Test
+    public void testAnchoring() {
+        final CalibratedEpochMicroClock clock = new CalibratedEpochMicroClock(() -> referenceMicros, () -> nanos,
+                TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(START_MICROS, clock.microTime());
+
+        nanos += 1_500;
+        assertEquals(START_MICROS + 1, clock.microTime());
+
+        nanos += TimeUnit.MILLISECONDS.toNanos(10);
+        assertEquals(START_MICROS + 10_001, clock.microTime());
+    }
+
+    @Test
+    public void testRecalibration() {
+        final CalibratedEpochMicroClock clock = new CalibratedEpochMicroClock(() -> referenceMicros, () -> nanos,
+                TimeUnit.MILLISECONDS.toNanos(100));
+
+        // the realtime clock runs 1ms ahead of the monotonic one over the interval
+        nanos += TimeUnit.MILLISECONDS.toNanos(100);
+        referenceMicros += 101_000;
+        assertEquals(START_MICROS + 101_000, clock.microTime());
+
+        nanos += TimeUnit.MILLISECONDS.toNanos(1);
+        assertEquals(START_MICROS + 102_000, clock.microTime());
+    }
+
+    @Test
+    public void testNeverGoesBackwards() {
+        final CalibratedEpochMicroClock clock = new CalibratedEpochMicroClock(() -> referenceMicros, () -> nanos,
+                TimeUnit.MILLISECONDS.toNanos(100));
+
+        nanos += TimeUnit.MILLISECONDS.toNanos(99);
+        final long before = clock.microTime();
+
+        // the realtime clock is stepped back
+        nanos += TimeUnit.MILLISECONDS.toNanos(1);
+        referenceMicros -= 50_000;
+        assertEquals(before, clock.microTime());
+
+        // it catches up once the realtime clock moves past the last returned time
+        nanos += TimeUnit.MILLISECONDS.toNanos(150);
+        referenceMicros += 150_000;
+        assertEquals(referenceMicros, clock.microTime());
+        assertTrue(clock.microTime() > before);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.duration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClockOffsetEstimatorTest {
+
+    @Test
+    public void testSymmetricExchange() {
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+
+        // remote clock 5000us ahead, 100us each way, 20us of processing on the remote
+        assertTrue(estimator.add(1000, 6100, 6120, 1220));
+
+        assertEquals(5000, estimator.offsetMicros());
+        assertEquals(200, estimator.roundTripMicros());
+        assertEquals(100, estimator.uncertaintyMicros());
+    }
+
+    @Test
+    public void testPicksTheSampleWithTheSmallestDelay() {
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+
+        // remote clock 3000us behind: the first sample was queued for 2000us on the way back
+        estimator.add(10000, 7100, 7100, 12200);
+        estimator.add(20000, 17100, 17100, 20200);
+        estimator.add(30000, 27900, 27900, 31000);
+
+        assertEquals(3, estimator.sampleCount());
+        assertEquals(-3000, estimator.offsetMicros());
+        assertEquals(200, estimator.roundTripMicros());
+    }
+
+    @Test
+    public void testWindow() {
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator(2);
+
+        estimator.add(0, 1010, 1010, 20);
+        estimator.add(100, 1200, 1200, 300);
+        estimator.add(400, 1500, 1500, 600);
+
+        // the best sample (20us delay) is no longer in the window
+        assertEquals(2, estimator.sampleCount());
+        assertEquals(200, estimator.roundTripMicros());
+        assertEquals(1000, estimator.offsetMicros());
+    }
+
+    @Test
+    public void testDiscardsInconsistentSamples() {
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+
+        // the remote took longer to reply than the whole exchange
+        assertFalse(estimator.add(0, 100, 500, 200));
+        assertFalse(estimator.hasEstimate());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoSamples() {
+        new ClockOffsetEstimator().offsetMicros();
+    }
+}
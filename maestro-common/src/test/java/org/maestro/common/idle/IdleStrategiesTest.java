@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.idle;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class IdleStrategiesTest {
+
+    @Test
+    public void testParse() {
+        assertTrue(IdleStrategies.parse(null).isParking());
+        assertEquals("park", IdleStrategies.parse(" PARK ").getName());
+        assertFalse(IdleStrategies.parse("busy-spin").isParking());
+        assertEquals("yielding", IdleStrategies.parse("yielding").getName());
+        assertEquals("backoff", IdleStrategies.parse("backoff").getName());
+        assertEquals("sleeping:500", IdleStrategies.parse("sleeping:500").getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalid() {
+        IdleStrategies.parse("sleepy");
+    }
+
+    @Test
+    public void testCounters() {
+        CountingIdleStrategy idleStrategy = IdleStrategies.parse("busy-spin");
+
+        idleStrategy.idle(10);
+        idleStrategy.idle(0);
+        idleStrategy.idle(0);
+        idleStrategy.idle();
+        idleStrategy.record(1);
+
+        assertEquals(2, idleStrategy.getBusyCycles());
+        assertEquals(3, idleStrategy.getIdleCycles());
+    }
+
+    @Test
+    public void testIdleUntil() {
+        for (String spec : new String[] {"park", "busy-spin", "yielding", "backoff", "sleeping"}) {
+            CountingIdleStrategy idleStrategy = IdleStrategies.parse(spec);
+
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2);
+            final long now = idleStrategy.idleUntil(deadline);
+
+            assertTrue(spec, now - deadline >= 0);
+            assertTrue(spec, idleStrategy.getIdleCycles() > 0);
+
+            // Already past the deadline: nothing to wait for
+            idleStrategy.idleUntil(deadline);
+            assertEquals(spec, 1, idleStrategy.getBusyCycles());
+        }
+    }
+}
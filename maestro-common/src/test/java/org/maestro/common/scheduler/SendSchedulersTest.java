@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.scheduler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.idle.IdleStrategies;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SendSchedulersTest {
+    private static final long RATE = 1000;
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / RATE;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /*
+     * Starts the schedule in the past, so that the messages are already due and the tests don't wait
+     */
+    private static void startInThePast(final SendScheduler scheduler) {
+        scheduler.start(System.nanoTime() - TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testParse() throws IOException {
+        assertTrue(SendSchedulers.parse(null, RATE) instanceof FixedIntervalScheduler);
+        assertTrue(SendSchedulers.parse("fixed", RATE) instanceof FixedIntervalScheduler);
+        assertTrue(SendSchedulers.parse(null, 0) instanceof UnboundedScheduler);
+        assertTrue(SendSchedulers.parse("batch", RATE) instanceof BatchPerTickScheduler);
+        assertTrue(SendSchedulers.parse("batch:10", RATE) instanceof BatchPerTickScheduler);
+        assertTrue(SendSchedulers.parse("Poisson:42", RATE) instanceof PoissonScheduler);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalid() throws IOException {
+        SendSchedulers.parse("invalid", RATE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParsePoissonWithoutRate() throws IOException {
+        SendSchedulers.parse("poisson", 0);
+    }
+
+    @Test
+    public void testUnbounded() throws IOException {
+        final SendScheduler scheduler = SendSchedulers.parse(null, 0);
+
+        scheduler.start(System.nanoTime());
+        assertEquals(SendScheduler.UNSCHEDULED, scheduler.awaitNext());
+    }
+
+    @Test
+    public void testFixedInterval() throws IOException {
+        final SendScheduler scheduler = SendSchedulers.parse("fixed", RATE);
+
+        startInThePast(scheduler);
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i * INTERVAL_NANOS, scheduler.awaitNext());
+        }
+    }
+
+    @Test
+    public void testBatchPerTick() throws IOException {
+        final SendScheduler scheduler = SendSchedulers.parse("batch:10", RATE);
+
+        // the expected send times are the same of the fixed interval scheduler
+        startInThePast(scheduler);
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i * INTERVAL_NANOS, scheduler.awaitNext());
+        }
+
+        // when the next message is not due, the sender wakes up when the whole batch is due
+        final long slowInterval = TimeUnit.SECONDS.toNanos(1);
+        final SendScheduler slowScheduler = new BatchPerTickScheduler(slowInterval, 10,
+                IdleStrategies.parse(null));
+        final long start = System.nanoTime();
+        slowScheduler.start(start);
+        assertEquals(start + (10 * slowInterval), slowScheduler.nextFireTime());
+    }
+
+    @Test
+    public void testPoissonMeanInterval() {
+        final PoissonScheduler scheduler = new PoissonScheduler(INTERVAL_NANOS, 42, IdleStrategies.parse(null));
+        final int samples = 100_000;
+        double total = 0;
+
+        for (int i = 0; i < samples; i++) {
+            final double interval = scheduler.nextInterval();
+
+            assertTrue(interval >= 0);
+            total += interval;
+        }
+
+        assertEquals(INTERVAL_NANOS, total / samples, INTERVAL_NANOS * 0.02);
+    }
+
+    @Test
+    public void testPoissonSchedule() {
+        final PoissonScheduler scheduler = new PoissonScheduler(INTERVAL_NANOS, 42, IdleStrategies.parse(null));
+        long last = -1;
+
+        startInThePast(scheduler);
+        for (int i = 0; i < 100; i++) {
+            final long expected = scheduler.awaitNext();
+
+            assertTrue(expected >= last);
+            last = expected;
+        }
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        final File trace = tempFolder.newFile("trace.txt");
+
+        try (Writer writer = new FileWriter(trace)) {
+            writer.write("# epoch micros\n1500000000000000\n1500000000000010\n\n1500000000000500\n");
+        }
+
+        final SendScheduler scheduler = SendSchedulers.parse("replay:" + trace.getPath(), 0);
+
+        startInThePast(scheduler);
+        assertTrue(scheduler.hasNext());
+        assertEquals(0, scheduler.awaitNext());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(10), scheduler.awaitNext());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(500), scheduler.awaitNext());
+        assertFalse(scheduler.hasNext());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReplayUnsorted() throws IOException {
+        final File trace = tempFolder.newFile("trace.txt");
+
+        try (Writer writer = new FileWriter(trace)) {
+            writer.write("100\n50\n");
+        }
+
+        SendSchedulers.parse("replay:" + trace.getPath(), 0);
+    }
+}
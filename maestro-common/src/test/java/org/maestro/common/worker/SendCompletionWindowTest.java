@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SendCompletionWindowTest {
+
+    @Test
+    public void testWindow() throws Exception {
+        final SendCompletionWindow window = new SendCompletionWindow(4, System::currentTimeMillis);
+        final List<long[]> completed = new ArrayList<>();
+        final SendCompletionWindow.CompletedSendHandler handler = (expected, sent, completion, size) ->
+                completed.add(new long[] {expected, sent, completion, size});
+
+        for (int i = 0; i < 4; i++) {
+            window.register(i, i + 100);
+            window.setMessageSize(i + 1000);
+        }
+        assertTrue(window.isFull());
+
+        // the sends are completed on another thread
+        final Thread provider = new Thread(() -> {
+            window.complete();
+            window.complete();
+        });
+        provider.start();
+        provider.join();
+
+        assertEquals(2, window.drain(handler));
+        assertFalse(window.isFull());
+        assertEquals(2, window.inFlight());
+
+        window.register(4, 104);
+        window.setMessageSize(1004);
+        window.register(5, 105);
+        window.setMessageSize(1005);
+        assertTrue(window.isFull());
+
+        for (int i = 0; i < 4; i++) {
+            window.complete();
+        }
+
+        assertTrue(window.awaitCompletion(handler, 0));
+        assertEquals(0, window.inFlight());
+        assertNull(window.failure());
+
+        assertEquals(6, completed.size());
+        for (int i = 0; i < completed.size(); i++) {
+            assertEquals(i, completed.get(i)[0]);
+            assertEquals(i + 100, completed.get(i)[1]);
+            assertTrue(completed.get(i)[2] > 0);
+            assertEquals(i + 1000, completed.get(i)[3]);
+        }
+    }
+
+    @Test
+    public void testOutOfOrderCompletion() throws Exception {
+        final SendCompletionWindow window = new SendCompletionWindow(2, System::currentTimeMillis);
+        final List<long[]> completed = new ArrayList<>();
+
+        window.register(0, 100);
+        window.register(1, 101);
+        window.complete(1, 101, 201, 1001);
+        window.awaitCapacity((expected, sent, completion, size) ->
+                completed.add(new long[] {expected, sent, completion, size}));
+
+        assertEquals(1, window.inFlight());
+        assertArrayEquals(new long[] {1, 101, 201, 1001}, completed.get(0));
+    }
+
+    @Test
+    public void testFailure() {
+        final SendCompletionWindow window = new SendCompletionWindow(2, System::currentTimeMillis);
+        final Exception exception = new Exception("failed");
+        final List<long[]> completed = new ArrayList<>();
+
+        window.register(0, 0);
+        window.register(1, 1);
+        window.fail(exception);
+        window.complete();
+
+        assertEquals(2, window.drain((expected, sent, completion, size) -> completed.add(new long[] {expected})));
+        assertEquals(1, window.failedSends());
+        assertEquals(1, completed.size());
+        assertSame(exception, window.failure());
+
+        try {
+            window.awaitCompletion((expected, sent, completion, size) -> {}, 0);
+            fail("The failure was not thrown");
+        }
+        catch (Exception e) {
+            assertSame(exception, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class AggregatedRateWriterTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private static List<String> readLines(final File file) throws IOException {
+        final List<String> lines = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(file)), StandardCharsets.US_ASCII))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        return lines;
+    }
+
+    @Test
+    public void testAggregation() throws Exception {
+        final long start = 1_500_000_000_000_000L;
+
+        File reportFile;
+        try (AggregatedRateWriter writer = new AggregatedRateWriter(tempFolder.newFolder(), false, 1000)) {
+            reportFile = writer.reportFile();
+
+            // 3 seconds worth of data, 100 samples per second and lag growing from 10 to 109 micros
+            for (int second = 0; second < 3; second++) {
+                for (int i = 0; i < 100; i++) {
+                    final long ata = start + (second * 1_000_000L) + (i * 10_000L);
+
+                    writer.write(ata - (10 + i), ata);
+                }
+            }
+        }
+
+        assertTrue(AggregatedRateWriter.isAggregated(reportFile));
+
+        final List<String> lines = readLines(reportFile);
+        assertEquals(4, lines.size());
+        assertEquals("period,count,minLag,maxLag,meanLag", lines.get(0));
+
+        for (int second = 0; second < 3; second++) {
+            final long period = (start / 1000L) + (second * 1000L);
+
+            assertEquals(period + ",100,10,109,59", lines.get(second + 1));
+        }
+    }
+
+    @Test
+    public void testLateSamples() throws Exception {
+        final long start = 1_500_000_000_000_000L;
+
+        File reportFile;
+        try (AggregatedRateWriter writer = new AggregatedRateWriter(tempFolder.newFolder(), true, 1000)) {
+            reportFile = writer.reportFile();
+
+            writer.write(start, start);
+            // within the grace period: goes to the same bucket
+            writer.write(start + 1_000_000L, start + 1_000_000L);
+            writer.write(start - 10, start + 10);
+            // past the grace period: closes the first bucket
+            writer.write(start + 2_000_000L, start + 2_000_000L);
+            writer.write(start - 20, start + 20);
+        }
+
+        final List<String> lines = readLines(reportFile);
+        final long period = start / 1000L;
+
+        assertEquals(5, lines.size());
+        assertEquals(period + ",2,0,20,10", lines.get(1));
+        assertEquals(period + ",1,40,40,40", lines.get(2));
+    }
+}
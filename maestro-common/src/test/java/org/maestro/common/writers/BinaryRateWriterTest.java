@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.readers.BinaryRateReader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BinaryRateWriterTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        final File reportFolder = tempFolder.newFolder();
+        final int samples = (BinaryRateFormat.MAX_BLOCK_RECORDS * 3) + 7;
+        final long start = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        final List<long[]> expected = new ArrayList<>(samples);
+
+        File reportFile;
+        try (BinaryRateWriter writer = new BinaryRateWriter(reportFolder, true)) {
+            reportFile = writer.reportFile();
+
+            for (int i = 0; i < samples; i++) {
+                long etd = start + (i * 10);
+                long atd = etd + (i % 13);
+
+                // forces a new block due to a huge gap between the samples
+                if (i == 100) {
+                    etd += TimeUnit.HOURS.toMicros(2);
+                    atd += TimeUnit.HOURS.toMicros(2);
+                }
+
+                writer.write(etd, atd);
+                expected.add(new long[] {etd, atd});
+            }
+        }
+
+        assertEquals(BinaryRateFormat.fileName(true), reportFile.getName());
+
+        final List<long[]> actual = new ArrayList<>(samples);
+        try (BinaryRateReader reader = new BinaryRateReader(reportFile)) {
+            assertTrue(reader.isSender());
+
+            long count = reader.read((etd, atd) -> actual.add(new long[] {etd, atd}));
+            assertEquals(samples, count);
+        }
+
+        for (int i = 0; i < samples; i++) {
+            assertArrayEquals("Sample " + i + " does not match", expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        final File reportFolder = tempFolder.newFolder();
+
+        File reportFile;
+        try (BinaryRateWriter writer = new BinaryRateWriter(reportFolder, false)) {
+            reportFile = writer.reportFile();
+        }
+
+        try (BinaryRateReader reader = new BinaryRateReader(reportFile)) {
+            assertFalse(reader.isSender());
+            assertEquals(0, reader.read((etd, atd) -> fail("There should be no samples")));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OneToOneWorkerChannelTest {
+
+    @Test
+    public void testBatchedDrain() {
+        final OneToOneWorkerChannel channel = new OneToOneWorkerChannel(64);
+        final int samples = 50;
+
+        for (int i = 0; i < samples; i++) {
+            channel.emitRate(i, i + 1000);
+        }
+
+        final List<long[]> drained = new ArrayList<>();
+        final WorkerChannel.SampleBatchHandler handler = (buffer, count) -> {
+            for (int i = 0; i < count; i++) {
+                final int offset = i * WorkerChannel.SAMPLE_LENGTH;
+
+                drained.add(new long[] {buffer.getLong(offset + WorkerChannel.TIMESTAMP_OFFSET),
+                        buffer.getLong(offset + WorkerChannel.VALUE_OFFSET)});
+            }
+        };
+
+        assertEquals(32, channel.readRates(handler, 32));
+        assertEquals(samples - 32, channel.readRates(handler, 32));
+        assertEquals(0, channel.readRates(handler, 32));
+        assertEquals(0, channel.missedSamples());
+
+        assertEquals(samples, drained.size());
+        for (int i = 0; i < samples; i++) {
+            assertEquals(i, drained.get(i)[0]);
+            assertEquals(i + 1000, drained.get(i)[1]);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class RateWriterTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testBatchedWriteMatchesSingleWrites() throws Exception {
+        final int samples = 100;
+        final long start = 1_500_000_000_000_000L;
+        final UnsafeBuffer batch = new UnsafeBuffer(new byte[samples * WorkerChannel.SAMPLE_LENGTH]);
+
+        File singleFile;
+        try (RateWriter writer = new RateWriter(tempFolder.newFolder(), true, false)) {
+            singleFile = writer.reportFile();
+
+            for (int i = 0; i < samples; i++) {
+                final long etd = start + (i * 1001);
+
+                writer.write(etd, etd + i);
+                batch.putLong((i * WorkerChannel.SAMPLE_LENGTH) + WorkerChannel.TIMESTAMP_OFFSET, etd);
+                batch.putLong((i * WorkerChannel.SAMPLE_LENGTH) + WorkerChannel.VALUE_OFFSET, etd + i);
+            }
+        }
+
+        File batchFile;
+        try (RateWriter writer = new RateWriter(tempFolder.newFolder(), true, false)) {
+            batchFile = writer.reportFile();
+
+            writer.write(batch, samples);
+        }
+
+        assertArrayEquals(Files.readAllBytes(singleFile.toPath()), Files.readAllBytes(batchFile.toPath()));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RingBufferWorkerChannelTest {
+    private static final int CAPACITY = 16;
+
+    private static List<long[]> drain(final WorkerChannel channel) {
+        final List<long[]> drained = new ArrayList<>();
+
+        while (channel.readRate(sample -> drained.add(new long[] {sample.timestampEpochMicros(), sample.value()}), 8) > 0) {
+            // NO-OP
+        }
+
+        return drained;
+    }
+
+    @Test
+    public void testDropOnOverflow() {
+        final RingBufferWorkerChannel channel = new RingBufferWorkerChannel(CAPACITY, RingBufferWorkerChannel.OverflowPolicy.DROP);
+        final int samples = CAPACITY * 4;
+
+        for (int i = 0; i < samples; i++) {
+            channel.emitRate(i, i + 1);
+        }
+
+        final List<long[]> drained = drain(channel);
+        assertEquals(samples, drained.size() + channel.missedSamples());
+        assertTrue(channel.missedSamples() > 0);
+
+        // lossless up to the point the channel got full
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i)[0]);
+            assertEquals(i + 1, drained.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void testAggregateOnOverflow() {
+        final RingBufferWorkerChannel channel = new RingBufferWorkerChannel(CAPACITY, RingBufferWorkerChannel.OverflowPolicy.AGGREGATE);
+        final int samples = CAPACITY * 4;
+
+        for (int i = 0; i < samples; i++) {
+            channel.emitRate(i * 10, (i * 10) + 1);
+        }
+
+        final List<long[]> drained = drain(channel);
+        // frees the space for the overflow bucket
+        channel.flush();
+        drained.addAll(drain(channel));
+
+        assertEquals(0, channel.missedSamples());
+        assertEquals(samples, drained.size());
+
+        long previous = Long.MIN_VALUE;
+        for (long[] sample : drained) {
+            assertTrue(sample[0] >= previous);
+            assertEquals(sample[0] + 1, sample[1]);
+            previous = sample[0];
+        }
+
+        assertEquals((samples - 1) * 10, drained.get(samples - 1)[0]);
+    }
+
+    @Test(timeout = 60_000L)
+    public void testFlushDropsOverflowOnTimeout() {
+        final RingBufferWorkerChannel channel = new RingBufferWorkerChannel(CAPACITY, RingBufferWorkerChannel.OverflowPolicy.AGGREGATE);
+        final int samples = CAPACITY * 4;
+
+        for (int i = 0; i < samples; i++) {
+            channel.emitRate(i * 10, (i * 10) + 1);
+        }
+
+        // nobody reads the channel, so the overflow bucket can't be published
+        assertFalse(channel.flush(TimeUnit.MILLISECONDS.toNanos(10)));
+        assertTrue(channel.missedSamples() > 0);
+
+        final List<long[]> drained = drain(channel);
+        assertEquals(samples, drained.size() + channel.missedSamples());
+
+        // nothing is left to be published
+        assertTrue(channel.flush(0));
+        assertTrue(drain(channel).isEmpty());
+    }
+
+    @Test(timeout = 60_000L)
+    public void testSpinOnOverflow() throws InterruptedException {
+        final RingBufferWorkerChannel channel = new RingBufferWorkerChannel(CAPACITY, RingBufferWorkerChannel.OverflowPolicy.SPIN);
+        final int samples = CAPACITY * 1000;
+
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < samples; i++) {
+                channel.emitRate(i, i);
+            }
+        });
+        producer.setDaemon(true);
+        producer.start();
+
+        final long[] next = {0};
+        while (next[0] < samples) {
+            channel.readRates((buffer, count) -> {
+                for (int i = 0; i < count; i++) {
+                    assertEquals(next[0], buffer.getLong((i * WorkerChannel.SAMPLE_LENGTH) + WorkerChannel.TIMESTAMP_OFFSET));
+                    next[0]++;
+                }
+            }, 8);
+        }
+
+        producer.join();
+        assertEquals(0, channel.missedSamples());
+    }
+}
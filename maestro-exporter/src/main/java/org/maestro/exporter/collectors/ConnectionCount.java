@@ -40,7 +40,7 @@ public class ConnectionCount extends Collector {
         return instance;
     }
 
-    public List<MetricFamilySamples> collect() {
+    public synchronized List<MetricFamilySamples> collect() {
         List<MetricFamilySamples> mfs = new ArrayList<>();
 
         GaugeMetricFamily labeledGauge = new GaugeMetricFamily("maestro_connection_count",
@@ -58,7 +58,7 @@ public class ConnectionCount extends Collector {
         return mfs;
     }
 
-    public void record(StatsResponse stats) {
+    public synchronized void record(StatsResponse stats) {
         logger.trace("Recording connection count for {}/{}", stats.getName(), stats.getId());
         records.put(stats.getId(), stats);
     }
@@ -40,7 +40,7 @@ public class MessageCount extends Collector {
         return instance;
     }
 
-    public List<Collector.MetricFamilySamples> collect() {
+    public synchronized List<Collector.MetricFamilySamples> collect() {
         List<Collector.MetricFamilySamples> mfs = new ArrayList<>();
 
         GaugeMetricFamily labeledGauge = new GaugeMetricFamily("maestro_message_count",
@@ -58,7 +58,7 @@ public class MessageCount extends Collector {
         return mfs;
     }
 
-    public void record(StatsResponse stats) {
+    public synchronized void record(StatsResponse stats) {
         logger.trace("Recording message count for {}/{}", stats.getName(), stats.getId());
         records.put(stats.getId(), stats);
     }
@@ -42,7 +42,7 @@ public class RateCount extends Collector {
     }
 
 
-    public List<Collector.MetricFamilySamples> collect() {
+    public synchronized List<Collector.MetricFamilySamples> collect() {
         List<Collector.MetricFamilySamples> mfs = new ArrayList<>();
 
         GaugeMetricFamily labeledGauge = new GaugeMetricFamily("maestro_rate",
@@ -60,7 +60,7 @@ public class RateCount extends Collector {
         return mfs;
     }
 
-    public void record(StatsResponse stats) {
+    public synchronized void record(StatsResponse stats) {
         logger.trace("Recording rate for {}/{}", stats.getName(), stats.getId());
         records.put(stats.getId(), stats);
     }
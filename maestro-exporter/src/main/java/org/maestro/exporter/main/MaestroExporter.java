@@ -52,6 +52,7 @@ public class MaestroExporter {
     private static final Counter abnormal;
 
     private Maestro maestro;
+    private final boolean pollStats;
 
     static {
         messageCounter = MessageCount.getInstance();
@@ -80,16 +81,29 @@ public class MaestroExporter {
         rateCounter.register();
         connectionCounter.register();
         pingInfo.register();
+
+        pollStats = config.getBoolean("maestro.exporter.stats.poll", false);
+        if (!pollStats) {
+            // The stats pushed by the peers are recorded as soon as they arrive
+            maestro.subscribeStats();
+            maestro.getCollector().getCallbacks().add(note -> {
+                if (note instanceof StatsResponse) {
+                    recordStats((StatsResponse) note);
+                }
+            });
+        }
+    }
+
+    private static void recordStats(final StatsResponse statsResponse) {
+        rateCounter.record(statsResponse);
+        messageCounter.record(statsResponse);
+        connectionCounter.record(statsResponse);
     }
 
     private void processNotes(List<MaestroNote> notes) {
         for (MaestroNote note : notes) {
             if (note instanceof StatsResponse) {
-                StatsResponse statsResponse = (StatsResponse) note;
-
-                rateCounter.record(statsResponse);
-                messageCounter.record(statsResponse);
-                connectionCounter.record(statsResponse);
+                recordStats((StatsResponse) note);
             }
             else {
                 if (note instanceof PingResponse) {
@@ -131,7 +145,9 @@ public class MaestroExporter {
             boolean running = true;
             while (running) {
                 logger.debug("Sending requests");
-                maestro.statsRequest();
+                if (pollStats) {
+                    maestro.statsRequest();
+                }
                 maestro.pingRequest();
 
                 final int collectionInterval = 1000;
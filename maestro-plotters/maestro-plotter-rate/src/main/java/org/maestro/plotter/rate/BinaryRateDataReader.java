@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.rate;
+
+import org.maestro.common.readers.BinaryRateReader;
+import org.maestro.plotter.common.ReportReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A reader for the rate information saved in the binary format
+ */
+public class BinaryRateDataReader implements ReportReader<RateData> {
+    private static final Logger logger = LoggerFactory.getLogger(BinaryRateDataReader.class);
+    private final RateDataProcessor processor;
+
+    public BinaryRateDataReader(final RateDataProcessor processor) {
+        this.processor = processor;
+
+        logger.debug("Reading records using the binary rate reader");
+    }
+
+    @Override
+    public RateData read(final File file) throws IOException {
+        logger.debug("Reading file {}", file);
+
+        try (BinaryRateReader reader = new BinaryRateReader(file)) {
+            reader.read(processor::process);
+        }
+
+        return processor.getRateData();
+    }
+}
@@ -32,6 +32,7 @@ public class RateDataProcessor implements RecordProcessor {
     private static final Logger logger = LoggerFactory.getLogger(RateDataProcessor.class);
 
     private final Map<String, RateRecord> cache = new HashMap<>();
+    private final Map<Long, RateRecord> epochCache = new HashMap<>();
     private long errorCount = 0;
 
     @Override
@@ -70,8 +71,41 @@ public class RateDataProcessor implements RecordProcessor {
         }
     }
 
+    /**
+     * Process a record whose timestamps are already decoded (ie.: from the binary rate files)
+     * @param startEpochMicros the expected (etd/eta) timestamp in micros since epoch
+     * @param endEpochMicros the actual (atd/ata) timestamp in micros since epoch
+     */
+    public void process(long startEpochMicros, long endEpochMicros) {
+        addCount(Math.floorDiv(endEpochMicros, 1_000_000L), 1);
+    }
+
+    /**
+     * Process a record that has been aggregated by the worker
+     * @param periodEpochMillis the start of the aggregation period in milliseconds since epoch
+     * @param count the number of messages within the period
+     */
+    public void processAggregated(long periodEpochMillis, int count) {
+        addCount(Math.floorDiv(periodEpochMillis, 1_000L), count);
+    }
+
+    private void addCount(long epochSecond, int count) {
+        RateRecord rateRecord = epochCache.get(epochSecond);
+        if (rateRecord == null) {
+            rateRecord = new RateRecord(Instant.ofEpochSecond(epochSecond), count);
+            epochCache.put(epochSecond, rateRecord);
+        } else {
+            int i = rateRecord.getCount();
+
+            i += count;
+            assert i>=0;
+            rateRecord.setCount(i);
+        }
+    }
+
     public RateData getRateData() {
         Set<RateRecord> ret = new TreeSet<>(cache.values());
+        ret.addAll(epochCache.values());
         RateData rateData = new RateData(ret);
 
         rateData.setErrorCount(errorCount);
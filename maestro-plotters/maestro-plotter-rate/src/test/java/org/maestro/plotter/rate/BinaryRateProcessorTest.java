@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.rate;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.writers.BinaryRateWriter;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+
+public class BinaryRateProcessorTest extends CommonRateProcessorTest {
+    private static final int PERIODS = 11;
+    private static final int RATE = 1000;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private RateData rateData;
+
+    @Before
+    public void setUp() throws Exception {
+        final long start = 1_500_000_000_000_000L;
+        final long interval = 1_000_000L / RATE;
+
+        File reportFile;
+        try (BinaryRateWriter writer = new BinaryRateWriter(tempFolder.newFolder(), false)) {
+            reportFile = writer.reportFile();
+
+            for (int i = 0; i < PERIODS * RATE; i++) {
+                final long eta = start + (i * interval);
+
+                writer.write(eta, eta + 100);
+            }
+        }
+
+        RateDataProcessor processor = new RateDataProcessor();
+        BinaryRateDataReader reader = new BinaryRateDataReader(processor);
+
+        rateData = reader.read(reportFile);
+    }
+
+    @Test
+    public void testRecordCount() {
+        super.testRecordCount(PERIODS, rateData);
+    }
+
+    @Test
+    public void testRateValues() {
+        for (Integer rate : rateData.getRateValues()) {
+            assertEquals(RATE, rate.intValue());
+        }
+    }
+}
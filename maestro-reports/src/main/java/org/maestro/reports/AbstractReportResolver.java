@@ -16,6 +16,9 @@
 
 package org.maestro.reports;
 
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.writers.RateFormat;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,6 +29,12 @@ public abstract class AbstractReportResolver implements ReportResolver {
     protected static final String LAST_SUCCESSFUL_DIR = "lastSuccessful";
     protected static final String LAST_FAILED_DIR = "lastFailed";
     protected static final String CONTEXT = "/logs/tests/";
+    protected static final RateFormat RATE_FORMAT;
+
+    static {
+        RATE_FORMAT = RateFormat.parse(ConfigurationWrapper.getConfig().getString("maestro.reports.rate.format",
+                RateFormat.CSV.name()));
+    }
 
     private final String[] fileArray;
 
@@ -19,7 +19,8 @@ package org.maestro.reports;
 import org.maestro.common.test.TestProperties;
 
 public class ReceiverReportResolver extends AbstractReportResolver {
-    private static final String[] FILES = { "receiverd-rate.csv.gz", TestProperties.FILENAME, "receiverd-latency.hdr"};
+    private static final String[] FILES = { RATE_FORMAT.fileName(false), TestProperties.FILENAME, "receiverd-latency.hdr",
+            "receiverd-response-time.hdr", "receiverd-commit-latency.hdr"};
 
     public ReceiverReportResolver() {
         super(FILES);
@@ -21,8 +21,12 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.QuoteMode;
+import org.maestro.common.Constants;
 import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.readers.BinaryRateReader;
 import org.maestro.common.test.TestProperties;
+import org.maestro.common.writers.AggregatedRateWriter;
+import org.maestro.common.writers.BinaryRateWriter;
 import org.maestro.common.writers.LatencyWriter;
 import org.maestro.reports.data.rate.RateToHistogram;
 import org.maestro.reports.files.MptReportFile;
@@ -85,9 +89,99 @@ public class ReportAggregator {
         }
     }
 
+    private static boolean isBinary(final File file) {
+        return file.getName().endsWith(Constants.FILE_EXTENSION_MPT_BINARY);
+    }
+
     private void aggregateSet(File currentTestNumDir, Set<MptReportFile> currentReports) throws IOException {
         logger.info("Producing aggregated report for directory : {} ({} report(s))", currentTestNumDir, currentReports.size());
 
+        final Map<Boolean, List<MptReportFile>> reportsByFormat = currentReports.stream()
+                .collect(Collectors.partitioningBy(report -> isBinary(report.getSourceFile())));
+
+        if (!reportsByFormat.get(false).isEmpty()) {
+            aggregateCsvSet(currentTestNumDir, reportsByFormat.get(false));
+        }
+
+        if (!reportsByFormat.get(true).isEmpty()) {
+            aggregateBinarySet(currentTestNumDir, reportsByFormat.get(true));
+        }
+    }
+
+    private void aggregateBinarySet(File currentTestNumDir, List<MptReportFile> currentReports) throws IOException {
+        NodeType nodeType = null;
+        BinaryRateWriter writer = null;
+        Boolean sender = null;
+        File aggregatedReportRoot = new File(currentTestNumDir, AGGREGATED_REPORT_DIRNAME);
+        Properties props = null;
+
+        try {
+            for (MptReportFile currentReport : currentReports) {
+                logger.debug("Processing {}", currentReport.getSourceFile());
+
+                final File file = currentReport.getSourceFile();
+
+                try (BinaryRateReader reader = new BinaryRateReader(file)) {
+                    if (writer == null) {
+                        aggregatedReportRoot.mkdirs();
+
+                        sender = reader.isSender();
+                        writer = new BinaryRateWriter(aggregatedReportRoot, sender);
+                    } else {
+                        if (sender != reader.isSender()) {
+                            throw new MaestroException(String.format("The binary report '%s' does not contain " +
+                                    "the same type of data as the aggregated report", file.getName()));
+                        }
+                    }
+
+                    reader.read(writer::write);
+
+                    nodeType = currentReport.getNodeType();
+
+                    if (props == null) {
+                        props = loadTestProperties(currentReport);
+                    }
+                } catch (IOException e) {
+                    throw new IOException(String.format("Failed to aggregate '%s'", file.getPath()), e);
+                }
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+
+        if (nodeType == NodeType.RECEIVER) {
+            createHistogram(aggregatedReportRoot, writer.reportFile());
+        }
+
+        writeTestProperties(aggregatedReportRoot, props);
+    }
+
+    private static Properties loadTestProperties(final MptReportFile report) throws IOException {
+        File testProps = new File(report.getReportDir(), TestProperties.FILENAME);
+        if (testProps.isFile()) {
+            Properties props = new Properties();
+            try (InputStream is = new FileInputStream(testProps)) {
+                props.load(is);
+            }
+
+            return props;
+        }
+
+        return null;
+    }
+
+    private static void writeTestProperties(final File aggregatedReportRoot, final Properties props) throws IOException {
+        if (props != null) {
+            File f = new File(aggregatedReportRoot, TestProperties.FILENAME);
+            try (OutputStream os = new FileOutputStream(f)) {
+                props.store(os, "");
+            }
+        }
+    }
+
+    private void aggregateCsvSet(File currentTestNumDir, List<MptReportFile> currentReports) throws IOException {
         CSVPrinter csvPrinter = null;
         NodeType nodeType = null;
         File aggregatedReport = null;
@@ -136,13 +230,7 @@ public class ReportAggregator {
                     nodeType = currentReport.getNodeType();
 
                     if (props == null) {
-                        File testProps = new File(currentReport.getReportDir(), TestProperties.FILENAME);
-                        if (testProps.isFile()) {
-                            props = new Properties();
-                            try (InputStream is = new FileInputStream(testProps)) {
-                                props.load(is);
-                            }
-                        }
+                        props = loadTestProperties(currentReport);
                     }
                 } catch (IOException e) {
                     throw new IOException(String.format("Failed to aggregate '%s'", fileName), e);
@@ -159,16 +247,16 @@ public class ReportAggregator {
             createHistogram(aggregatedReportRoot, aggregatedReport);
         }
 
-        if (props != null) {
-            File f = new File(aggregatedReportRoot, TestProperties.FILENAME);
-            try (OutputStream os = new FileOutputStream(f)) {
-                props.store(os, "");
-            }
-        }
-
+        writeTestProperties(aggregatedReportRoot, props);
     }
 
     private void createHistogram(File aggregateReportRoot, File aggregatedReport) throws IOException {
+        if (AggregatedRateWriter.isAggregated(aggregatedReport)) {
+            logger.info("Skipping the aggregated histogram for {} because it does not contain the individual samples",
+                    aggregatedReport);
+            return;
+        }
+
         File aggregatedHistogram = new File(aggregateReportRoot, "receiverd-latency.hdr");
         logger.info("Creating aggregated histogram : {}", aggregatedHistogram);
 
@@ -178,8 +266,15 @@ public class ReportAggregator {
             final boolean compressed = fileName.endsWith(".gz");
             final File file = new File(fileName);
 
-            try (Reader in = getReader(file, compressed)) {
-                RateToHistogram.rebuildHistogram(in, histogram);
+            if (isBinary(file)) {
+                try (BinaryRateReader reader = new BinaryRateReader(file)) {
+                    RateToHistogram.rebuildHistogram(reader, histogram);
+                }
+            }
+            else {
+                try (Reader in = getReader(file, compressed)) {
+                    RateToHistogram.rebuildHistogram(in, histogram);
+                }
             }
             writer.outputLegend(0);
             writer.outputIntervalHistogram(histogram);
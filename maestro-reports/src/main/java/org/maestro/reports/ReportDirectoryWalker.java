@@ -60,6 +60,17 @@ final class ReportDirectoryWalker extends DirectoryWalker<ReportFile> {
         results.add(new InspectorReportFile(file, new File(normalizedName)));
     }
 
+    @Override
+    protected boolean handleDirectory(final File directory, int depth, Collection<ReportFile> results) {
+        if (depth == 1 && Constants.LIVE_REPORT_DIRNAME.equals(directory.getName())) {
+            logger.trace("Skipping the live data directory {}", directory.getPath());
+
+            return false;
+        }
+
+        return true;
+    }
+
     @Override
     protected void handleFile(final File file, int depth, Collection<ReportFile> results) {
         logger.trace("Processing file {}", file.getPath());
@@ -71,7 +82,7 @@ final class ReportDirectoryWalker extends DirectoryWalker<ReportFile> {
             return;
         }
 
-        if (Constants.FILE_EXTENSION_MPT_COMPRESSED.equals(ext)) {
+        if (Constants.FILE_EXTENSION_MPT_COMPRESSED.equals(ext) || Constants.FILE_EXTENSION_MPT_BINARY.equals(ext)) {
             if (!file.getPath().contains(Constants.FILE_HINT_INSPECTOR)) {
                 processMaestroReport(file, results);
 
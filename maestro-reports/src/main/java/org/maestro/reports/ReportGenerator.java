@@ -19,6 +19,7 @@ package org.maestro.reports;
 
 import net.orpiske.hhp.plot.exceptions.HdrEmptyDataSet;
 import org.apache.commons.io.FileUtils;
+import org.maestro.common.Constants;
 import org.maestro.common.exceptions.MaestroException;
 import org.maestro.plotter.common.exceptions.EmptyDataSet;
 import org.maestro.plotter.common.exceptions.IncompatibleDataSet;
@@ -158,7 +159,7 @@ public class ReportGenerator {
     }
 
     private boolean isMaestroReport(ReportFile item) {
-        String[] maestroFilesExt = { "csv.gz", "csv", "hdr"};
+        String[] maestroFilesExt = { "csv.gz", "csv", "hdr", Constants.FILE_EXTENSION_MPT_BINARY};
 
         for (String maestroFileExt : maestroFilesExt) {
             if (item.getSourceFile().getName().endsWith(maestroFileExt)) {
@@ -19,7 +19,8 @@ package org.maestro.reports;
 import org.maestro.common.test.TestProperties;
 
 public class SenderReportResolver extends AbstractReportResolver {
-    private static final String[] FILES = { "senderd-rate.csv.gz", TestProperties.FILENAME};
+    private static final String[] FILES = { RATE_FORMAT.fileName(true), TestProperties.FILENAME, "senderd-latency.hdr",
+            "senderd-commit-latency.hdr"};
 
     public SenderReportResolver() {
         super(FILES);
@@ -22,6 +22,9 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.csv.QuoteMode;
 import org.apache.commons.io.IOUtils;
+import org.maestro.common.Constants;
+import org.maestro.common.readers.BinaryRateReader;
+import org.maestro.common.writers.AggregatedRateWriter;
 import org.maestro.common.writers.RateWriter;
 
 import java.io.*;
@@ -49,8 +52,21 @@ public class RateToHistogram {
 
 
     private static void appendLatenciesTo(String fileName, Histogram histogram) throws IOException {
+        if (fileName.endsWith(Constants.FILE_EXTENSION_MPT_BINARY)) {
+            try (BinaryRateReader reader = new BinaryRateReader(new File(fileName))) {
+                rebuildHistogram(reader, histogram);
+            }
+
+            return;
+        }
+
         final boolean compressed = fileName.endsWith(".gz");
         final File file = new File(fileName);
+        if (AggregatedRateWriter.isAggregated(file)) {
+            throw new IOException(String.format("The file '%s' contains aggregated rate data and cannot be " +
+                    "converted to a histogram", fileName));
+        }
+
         final InputStream inputStream;
 
         if (compressed) {
@@ -93,4 +109,15 @@ public class RateToHistogram {
             }
         }
     }
+
+    public static void rebuildHistogram(final BinaryRateReader reader, final Histogram histogram) throws IOException {
+        reader.read((start, end) -> {
+            //append it to histogram
+            if (start > end) {
+                System.err.println("ERROR:\t" + start + " > " + end);
+            } else {
+                histogram.recordValue(end - start);
+            }
+        });
+    }
 }
@@ -33,6 +33,7 @@ public class DefaultOrganizer implements Organizer {
         this.baseDir = baseDir;
     }
 
+    @Override
     public String getBaseDir() {
         return baseDir;
     }
@@ -21,6 +21,12 @@ package org.maestro.reports.organizer;
  */
 public interface Organizer {
 
+    /**
+     * Gets the base directory of the report layout
+     * @return the base directory
+     */
+    String getBaseDir();
+
     /**
      * Gets the result type string (ie.: success, failed, etc)
      * @return the result type string
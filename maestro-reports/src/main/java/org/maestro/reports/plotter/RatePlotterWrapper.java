@@ -17,8 +17,14 @@
 package org.maestro.reports.plotter;
 
 import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.Constants;
+import org.maestro.common.writers.AggregatedRateWriter;
 import org.maestro.plotter.common.BasicPlotter;
+import org.maestro.plotter.common.ReportReader;
+import org.maestro.plotter.rate.AggregatedRateReader;
+import org.maestro.plotter.rate.BinaryRateDataReader;
 import org.maestro.plotter.rate.DefaultRateReader;
+import org.maestro.plotter.rate.RateData;
 import org.maestro.plotter.rate.RateDataProcessor;
 import org.maestro.plotter.rate.graph.RatePlotter;
 import org.slf4j.Logger;
@@ -31,11 +37,22 @@ public class RatePlotterWrapper implements PlotterWrapper {
 
     @Override
     public boolean plot(final File file) throws MaestroException {
-        final DefaultRateReader rateReader = new DefaultRateReader(new RateDataProcessor());
+        final ReportReader<RateData> rateReader;
 
-        logger.debug("Plotting Maestro compressed file {}", file.getPath());
+        if (file.getName().endsWith(Constants.FILE_EXTENSION_MPT_BINARY)) {
+            logger.debug("Plotting Maestro binary file {}", file.getPath());
+            rateReader = new BinaryRateDataReader(new RateDataProcessor());
+        }
+        else if (AggregatedRateWriter.isAggregated(file)) {
+            logger.debug("Plotting Maestro aggregated file {}", file.getPath());
+            rateReader = new AggregatedRateReader(new RateDataProcessor());
+        }
+        else {
+            logger.debug("Plotting Maestro compressed file {}", file.getPath());
+            rateReader = new DefaultRateReader(new RateDataProcessor());
+        }
 
-        BasicPlotter<DefaultRateReader, RatePlotter> basicPlotter = new BasicPlotter<>(rateReader, new RatePlotter());
+        BasicPlotter<ReportReader<RateData>, RatePlotter> basicPlotter = new BasicPlotter<>(rateReader, new RatePlotter());
 
         File propertiesFile = new File(file.getParentFile(), "rate.properties");
         File outputFile = new File(file.getParentFile(), "rate.png");
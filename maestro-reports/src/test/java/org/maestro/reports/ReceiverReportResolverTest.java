@@ -31,7 +31,7 @@ public class ReceiverReportResolverTest {
         ReportResolver reportResolver = new ReceiverReportResolver();
 
         List<String> successFiles = reportResolver.getSuccessFiles(BASE_URL);
-        assertEquals("List size does not match the expected size", 3, successFiles.size());
+        assertEquals("List size does not match the expected size", 5, successFiles.size());
 
         assertEquals("The sender rate file does not match the expected sender rate file",
                 BASE_URL + "/logs/tests/lastSuccessful/receiverd-rate.csv.gz", successFiles.get(0));
@@ -39,6 +39,10 @@ public class ReceiverReportResolverTest {
                 BASE_URL + "/logs/tests/lastSuccessful/" + TestProperties.FILENAME, successFiles.get(1));
         assertEquals("The HDR file does not match the expected file",
                 BASE_URL + "/logs/tests/lastSuccessful/receiverd-latency.hdr", successFiles.get(2));
+        assertEquals("The HDR file does not match the expected file",
+                BASE_URL + "/logs/tests/lastSuccessful/receiverd-response-time.hdr", successFiles.get(3));
+        assertEquals("The HDR file does not match the expected file",
+                BASE_URL + "/logs/tests/lastSuccessful/receiverd-commit-latency.hdr", successFiles.get(4));
     }
 
     @Test
@@ -46,7 +50,7 @@ public class ReceiverReportResolverTest {
         ReportResolver reportResolver = new ReceiverReportResolver();
 
         List<String> failedFiles = reportResolver.getFailedFiles(BASE_URL);
-        assertEquals("List size does not match the expected size", 3, failedFiles.size());
+        assertEquals("List size does not match the expected size", 5, failedFiles.size());
 
         assertEquals("The sender rate file does not match the expected sender rate file",
                 BASE_URL + "/logs/tests/lastFailed/receiverd-rate.csv.gz", failedFiles.get(0));
@@ -54,5 +58,9 @@ public class ReceiverReportResolverTest {
                 BASE_URL + "/logs/tests/lastFailed/" + TestProperties.FILENAME, failedFiles.get(1));
         assertEquals("The HDR file does not match the expected file",
                 BASE_URL + "/logs/tests/lastFailed/receiverd-latency.hdr", failedFiles.get(2));
+        assertEquals("The HDR file does not match the expected file",
+                BASE_URL + "/logs/tests/lastFailed/receiverd-response-time.hdr", failedFiles.get(3));
+        assertEquals("The HDR file does not match the expected file",
+                BASE_URL + "/logs/tests/lastFailed/receiverd-commit-latency.hdr", failedFiles.get(4));
     }
 }
@@ -31,12 +31,16 @@ public class SenderReportResolverTest {
         ReportResolver reportResolver = new SenderReportResolver();
 
         List<String> successFiles = reportResolver.getSuccessFiles(BASE_URL);
-        assertEquals("List size does not match the expected size", 2, successFiles.size());
+        assertEquals("List size does not match the expected size", 4, successFiles.size());
 
         assertEquals("The sender rate file does not match the expected sender rate file",
                 BASE_URL + "/logs/tests/lastSuccessful/senderd-rate.csv.gz", successFiles.get(0));
         assertEquals("The test properties file does not match the expected file",
                 BASE_URL + "/logs/tests/lastSuccessful/" + TestProperties.FILENAME, successFiles.get(1));
+        assertEquals("The HDR file does not match the expected file",
+                BASE_URL + "/logs/tests/lastSuccessful/senderd-latency.hdr", successFiles.get(2));
+        assertEquals("The HDR file does not match the expected file",
+                BASE_URL + "/logs/tests/lastSuccessful/senderd-commit-latency.hdr", successFiles.get(3));
     }
 
     @Test
@@ -44,11 +48,15 @@ public class SenderReportResolverTest {
         ReportResolver reportResolver = new SenderReportResolver();
 
         List<String> failedFiles = reportResolver.getFailedFiles(BASE_URL);
-        assertEquals("List size does not match the expected size", 2, failedFiles.size());
+        assertEquals("List size does not match the expected size", 4, failedFiles.size());
 
         assertEquals("The sender rate file does not match the expected sender rate file",
                 BASE_URL + "/logs/tests/lastFailed/senderd-rate.csv.gz", failedFiles.get(0));
         assertEquals("The test properties file does not match the expected file",
                 BASE_URL + "/logs/tests/lastFailed/" + TestProperties.FILENAME, failedFiles.get(1));
+        assertEquals("The HDR file does not match the expected file",
+                BASE_URL + "/logs/tests/lastFailed/senderd-latency.hdr", failedFiles.get(2));
+        assertEquals("The HDR file does not match the expected file",
+                BASE_URL + "/logs/tests/lastFailed/senderd-commit-latency.hdr", failedFiles.get(3));
     }
 }
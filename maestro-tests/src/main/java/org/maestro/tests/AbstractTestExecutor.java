@@ -17,6 +17,7 @@
 package org.maestro.tests;
 
 import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.client.ClockSynchronizer;
 import org.maestro.client.Maestro;
 import org.maestro.client.exchange.MaestroProcessedInfo;
 import org.maestro.client.notes.MaestroNotification;
@@ -59,11 +60,35 @@ public abstract class AbstractTestExecutor implements TestExecutor {
         return reportsDownloader;
     }
 
+    /**
+     * Estimates the offset between the sender and receiver clocks and sends the corrections to the receivers,
+     * so that the latency of multi-host tests is not skewed by the clock differences. The number of rounds is
+     * set via executor.clock.sync.rounds (defaults to 8, 0 disables it) and the interval between them, in
+     * milliseconds, via executor.clock.sync.interval (defaults to 250)
+     * @throws MaestroConnectionException if there's a connection error while communicating w/ the Maestro broker
+     */
+    protected void synchronizeClocks() throws MaestroConnectionException {
+        final int rounds = config.getInt("executor.clock.sync.rounds", 8);
+
+        if (rounds <= 0) {
+            logger.debug("The clock synchronization is disabled");
+            return;
+        }
+
+        final long interval = config.getLong("executor.clock.sync.interval", 250);
+        final ClockSynchronizer clockSynchronizer = new ClockSynchronizer(maestro);
+
+        final int receivers = clockSynchronizer.synchronize(rounds, interval);
+        logger.info("Sent the clock corrections to {} receivers", receivers);
+    }
+
     /**
      * Start connected peers
      * @throws MaestroConnectionException if there's a connection error while communicating w/ the Maestro broker
      */
     protected void startServices() throws MaestroConnectionException {
+        synchronizeClocks();
+
         maestro.startReceiver();
         maestro.startSender();
     }
@@ -74,6 +99,8 @@ public abstract class AbstractTestExecutor implements TestExecutor {
      * @throws MaestroConnectionException if there's a connection error while communicating w/ the Maestro broker
      */
     protected void startServices(final String inspectorName) throws MaestroConnectionException {
+        synchronizeClocks();
+
         maestro.startInspector(inspectorName);
         maestro.startReceiver();
         maestro.startSender();
@@ -18,11 +18,13 @@ package org.maestro.tests.rate;
 
 import org.apache.commons.configuration.AbstractConfiguration;
 import org.maestro.client.Maestro;
+import org.maestro.client.callback.ClusterLatencyCallback;
 import org.maestro.client.callback.MaestroNoteCallback;
 import org.maestro.client.notes.StatsResponse;
 import org.maestro.client.notes.TestFailedNotification;
 import org.maestro.client.notes.TestSuccessfulNotification;
 import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.Constants;
 import org.maestro.common.NodeUtils;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.duration.DurationCount;
@@ -32,6 +34,8 @@ import org.maestro.tests.rate.singlepoint.FixedRateTestProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
@@ -66,6 +70,11 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
                 StatsResponse statsResponse = (StatsResponse) note;
                 logger.debug("Received stats {}", statsResponse);
 
+                // Only the stats pushed by the peers carry the interval histogram
+                if (statsResponse.getLatencyHistogram() != null) {
+                    executor.lastPushedStats = System.currentTimeMillis();
+                }
+
                 int targetRate = executor.testProfile.getRate();
                 if (statsResponse.getRate() < (targetRate / 2) && statsResponse.getRate() > 0) {
                     logger.warn("The warm-up duration might expire of time instead of count because the current " +
@@ -87,7 +96,7 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
                     final int maxDuration = 3;
                     Instant now = Instant.now();
 
-                    Duration elapsed = Duration.between(now, executor.startTime);
+                    Duration elapsed = Duration.between(executor.startTime, now);
                     if (elapsed.getSeconds() > (Duration.ofMinutes(maxDuration).getSeconds())) {
                         logger.warn("Stopping the warm-up because the maximum duration was reached");
 
@@ -105,14 +114,8 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
                 return;
             }
 
-            Long nodeCount = counters.get(name);
-            if (nodeCount == null) {
-                nodeCount = statsResponse.getCount();
-            }
-            else {
-                nodeCount += statsResponse.getCount();
-            }
-            counters.put(name, nodeCount);
+            // The count is cumulative: only the latest one of each peer matters
+            counters.put(statsResponse.getId(), statsResponse.getCount());
         }
     }
 
@@ -157,7 +160,10 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
     private final FixedRateTestProfile testProfile;
 
     private static final long coolDownPeriod;
+    private static final long statsPushTimeout;
+    private static final long clusterLatencyInterval;
     private final FixedRateTestProcessor testProcessor;
+    private final ClusterLatencyCallback clusterLatencyCallback;
 
     private int numPeers = 0;
     private volatile int successNotifications = 0;
@@ -165,9 +171,12 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
     private volatile boolean running = false;
     private Instant startTime;
     private volatile boolean warmUp = false;
+    private volatile long lastPushedStats = 0;
 
     static {
         coolDownPeriod = config.getLong("test.fixedrate.cooldown.period", 1) * 1000;
+        statsPushTimeout = config.getLong("test.fixedrate.stats.push.timeout", 3000);
+        clusterLatencyInterval = config.getLong("test.fixedrate.cluster.latency.interval", 1000);
     }
 
     public FixedRateTestExecutor(final Maestro maestro, final ReportsDownloader reportsDownloader,
@@ -180,6 +189,39 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
         List<MaestroNoteCallback> callbackList = getMaestro().getCollector().getCallbacks();
         callbackList.add(new StatsCallBack(this));
         callbackList.add(new TestNotificationCallBack(this));
+
+        if (clusterLatencyInterval > 0) {
+            clusterLatencyCallback = new ClusterLatencyCallback(clusterLatencyInterval);
+            callbackList.add(clusterLatencyCallback);
+        }
+        else {
+            clusterLatencyCallback = null;
+        }
+
+        getMaestro().subscribeStats();
+    }
+
+    private void startClusterLatency() {
+        if (clusterLatencyCallback == null) {
+            return;
+        }
+
+        // ie.: ${basedir}/live/${test number}/receiverd-latency.hdr
+        final File reportFile = new File(getReportsDownloader().getOrganizer().getBaseDir() + File.separator +
+                Constants.LIVE_REPORT_DIRNAME + File.separator +
+                getReportsDownloader().getOrganizer().getTracker().currentTestString(), "receiverd-latency.hdr");
+
+        try {
+            clusterLatencyCallback.start(reportFile);
+        } catch (IOException e) {
+            logger.warn("Unable to save the cluster-wide latency: {}", e.getMessage(), e);
+        }
+    }
+
+    private void stopClusterLatency() {
+        if (clusterLatencyCallback != null) {
+            clusterLatencyCallback.stop();
+        }
     }
 
     private void reset() {
@@ -214,6 +256,7 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
                 testProfile.apply(getMaestro());
             }
 
+            startClusterLatency();
             if (testProfile.getInspectorName() != null) {
                 startServices(testProfile.getInspectorName());
             }
@@ -225,7 +268,11 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
 
             long repeatCounter = getRepeat();
             while (running) {
-                getMaestro().statsRequest();
+                // The peers push their stats periodically. Only poll them if they don't (ie.: older peers)
+                if (System.currentTimeMillis() - lastPushedStats > statsPushTimeout) {
+                    getMaestro().statsRequest();
+                }
+
                 Thread.sleep(1000);
                 repeatCounter--;
                 if (repeatCounter == 0) {
@@ -253,6 +300,7 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
         finally {
             reset();
             stopServices();
+            stopClusterLatency();
         }
 
         return false;
@@ -44,6 +44,7 @@ public class FixedRateTestProfile extends AbstractTestProfile implements SingleP
     private int maximumLatency = 0;
     private TestDuration duration;
     private String messageSize;
+    private String sendScheduler;
 
     private String extPointSource;
     private String extPointBranch;
@@ -136,6 +137,14 @@ public class FixedRateTestProfile extends AbstractTestProfile implements SingleP
         this.messageSize = messageSize;
     }
 
+    public String getSendScheduler() {
+        return sendScheduler;
+    }
+
+    public void setSendScheduler(String sendScheduler) {
+        this.sendScheduler = sendScheduler;
+    }
+
     public String getBrokerURL() {
         return getSendReceiveURL();
     }
@@ -202,6 +211,11 @@ public class FixedRateTestProfile extends AbstractTestProfile implements SingleP
         logger.info("Setting message size to {}", getMessageSize());
         maestro.setMessageSize(getMessageSize());
 
+        if (getSendScheduler() != null) {
+            logger.info("Setting the send scheduler to {}", getSendScheduler());
+            maestro.setSendScheduler(getSendScheduler());
+        }
+
         if (getManagementInterface() != null) {
             if (getInspectorName() != null) {
                 logger.info("Setting the management interface to {} using inspector {}", getManagementInterface(),
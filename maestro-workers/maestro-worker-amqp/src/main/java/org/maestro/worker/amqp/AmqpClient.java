@@ -0,0 +1,248 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import io.netty.channel.EventLoop;
+import org.apache.qpid.proton.amqp.Symbol;
+import org.apache.qpid.proton.engine.Link;
+import org.apache.qpid.proton.engine.Receiver;
+import org.apache.qpid.proton.engine.Sender;
+import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.jms.Client;
+import org.maestro.common.worker.WorkerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A basic native AMQP client. Each client opens connections * linksPerConnection links, all of them driven by
+ * the same event loop. The links are numbered like the JMS clients destinations when fanning out: link i of
+ * client n uses the destination number n * links + i (when limiting the number of destinations).
+ */
+abstract class AmqpClient implements Client, AmqpConnection.Listener {
+    private static final Logger logger = LoggerFactory.getLogger(AmqpClient.class);
+    private static final long EVENT_LOOP_TIMEOUT_SECONDS = 10;
+
+    protected String url = null;
+    protected AmqpOptions opts;
+    protected EventLoop eventLoop;
+    protected Symbol capability;
+    protected int number = -1;
+
+    private AmqpConnection[] connections;
+    private CountDownLatch linksOpened;
+    private volatile Exception error;
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public AmqpOptions getOpts() {
+        return opts;
+    }
+
+    @Override
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Gets the total number of links of this client
+     * @return the number of links
+     */
+    protected int links() {
+        return opts.getConnections() * opts.getLinksPerConnection();
+    }
+
+    /**
+     * Sets up the client state once the options are parsed, before connecting
+     */
+    protected void setup() {
+
+    }
+
+    /**
+     * Opens a link. Called from the event loop
+     * @param connection the connection
+     * @param address the link address
+     * @param index the index of the link among the links of this client
+     */
+    protected abstract void openLink(AmqpConnection connection, String address, int index);
+
+    /**
+     * Notifies the client of a failure. Called from the event loop
+     * @param e the failure
+     */
+    protected void failed(Exception e) {
+
+    }
+
+    @Override
+    public void start() throws Exception {
+        logger.debug("Starting the AMQP client");
+
+        try {
+            opts = new AmqpOptions(url);
+            validate(opts);
+
+            capability = getCapability(opts.getType());
+            eventLoop = AmqpEventLoops.next();
+            setup();
+
+            final int links = links();
+            logger.info("Opening {} links over {} connections to {}:{}", links, opts.getConnections(),
+                    opts.getHost(), opts.getPort());
+
+            linksOpened = new CountDownLatch(links);
+            connections = new AmqpConnection[opts.getConnections()];
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = new AmqpConnection(opts, i, eventLoop, this);
+                connections[i].connect();
+            }
+
+            if (!linksOpened.await(opts.getConnectTimeout(), TimeUnit.MILLISECONDS)) {
+                throw new MaestroException("Timed out waiting for the links to open: " + linksOpened.getCount() +
+                        " of " + links + " links are still pending");
+            }
+
+            final Exception e = error;
+            if (e != null) {
+                throw e;
+            }
+        } catch (Throwable t) {
+            logger.warn("Something wrong happened while initializing the AMQP client: {}", t.getMessage(), t);
+
+            stop();
+            throw t;
+        }
+    }
+
+    private static void validate(final AmqpOptions opts) {
+        if (opts.getHost() == null) {
+            throw new IllegalArgumentException("Invalid AMQP URL: the host is missing");
+        }
+
+        if (opts.getConnections() < 1 || opts.getLinksPerConnection() < 1) {
+            throw new IllegalArgumentException("The number of connections and of links per connection must be " +
+                    "greater than 0");
+        }
+
+        if (opts.getCredit() < 1) {
+            throw new IllegalArgumentException("The credit must be greater than 0");
+        }
+    }
+
+    private static Symbol getCapability(final String type) {
+        switch (type) {
+            case "queue":
+            case "topic":
+                return Symbol.valueOf(type);
+            default:
+                throw new UnsupportedOperationException("not supported destination type: " + type);
+        }
+    }
+
+    @Override
+    public void onConnected(final AmqpConnection connection) {
+        final String path = opts.getPath().substring(1);
+        final int links = links();
+
+        for (int i = 0; i < opts.getLinksPerConnection(); i++) {
+            final int index = connection.index() * opts.getLinksPerConnection() + i;
+            final String address = WorkerUtils.setupLimitDestinations(path, opts.getConfiguredLimitDestinations(),
+                    number * links + index);
+
+            openLink(connection, address, index);
+        }
+    }
+
+    @Override
+    public void onLinkOpened(final Link link) {
+        // a link refused by the peer is opened without a terminus and then closed
+        final boolean attached = link instanceof Sender ? link.getRemoteTarget() != null :
+                ((Receiver) link).getRemoteSource() != null;
+
+        if (attached) {
+            linksOpened.countDown();
+        }
+    }
+
+    @Override
+    public void onError(final Exception e) {
+        if (error != null) {
+            logger.debug("Additional AMQP client error: {}", e.getMessage(), e);
+            return;
+        }
+
+        logger.error("AMQP client error: {}", e.getMessage(), e);
+        error = e;
+
+        // releases the thread waiting for the links
+        while (linksOpened.getCount() > 0) {
+            linksOpened.countDown();
+        }
+
+        failed(e);
+    }
+
+    /**
+     * Gets the first failure of the client
+     * @return the failure or null if the client didn't fail
+     */
+    Exception error() {
+        return error;
+    }
+
+    /**
+     * Runs a task on the event loop of the client and waits for it to complete
+     * @param task the task
+     * @return true if the task completed or false if it timed out
+     */
+    boolean runOnEventLoop(final Runnable task) {
+        return eventLoop.submit(task).awaitUninterruptibly(EVENT_LOOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        logger.debug("Stopping the AMQP client");
+
+        final AmqpConnection[] connections = this.connections;
+        this.connections = null;
+
+        if (connections == null) {
+            return;
+        }
+
+        final boolean closed = runOnEventLoop(() -> {
+            for (AmqpConnection connection : connections) {
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+        });
+
+        if (!closed) {
+            logger.warn("Timed out closing the AMQP connections");
+        }
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.amqp.Symbol;
+import org.apache.qpid.proton.amqp.messaging.Source;
+import org.apache.qpid.proton.amqp.messaging.Target;
+import org.apache.qpid.proton.amqp.transport.ErrorCondition;
+import org.apache.qpid.proton.amqp.transport.ReceiverSettleMode;
+import org.apache.qpid.proton.amqp.transport.SenderSettleMode;
+import org.apache.qpid.proton.engine.Collector;
+import org.apache.qpid.proton.engine.Connection;
+import org.apache.qpid.proton.engine.Delivery;
+import org.apache.qpid.proton.engine.EndpointState;
+import org.apache.qpid.proton.engine.Event;
+import org.apache.qpid.proton.engine.Link;
+import org.apache.qpid.proton.engine.Receiver;
+import org.apache.qpid.proton.engine.Sasl;
+import org.apache.qpid.proton.engine.Sender;
+import org.apache.qpid.proton.engine.Session;
+import org.apache.qpid.proton.engine.Transport;
+import org.maestro.common.exceptions.MaestroException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An AMQP connection driven by a proton-j engine on a Netty event loop. Everything, except for
+ * {@link #connect()}, must be called from the event loop of the connection.
+ */
+final class AmqpConnection extends ChannelInboundHandlerAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(AmqpConnection.class);
+    private static final long TICK_INTERVAL_MILLIS = 1000L;
+    private static final AtomicLong LINK_SEQUENCE = new AtomicLong();
+
+    /**
+     * Handles the events of the connection and of its links
+     */
+    interface Listener {
+        /**
+         * The connection is ready to open its links
+         */
+        void onConnected(AmqpConnection connection);
+
+        /**
+         * A link was opened by the remote peer
+         */
+        void onLinkOpened(Link link);
+
+        /**
+         * The remote peer granted credit to a sender link
+         */
+        void onLinkFlow(Sender sender);
+
+        /**
+         * A delivery was received or updated by the remote peer
+         */
+        void onDelivery(Delivery delivery);
+
+        /**
+         * The connection or one of its links failed or was closed by the remote peer
+         */
+        void onError(Exception e);
+    }
+
+    private final AmqpOptions opts;
+    private final int index;
+    private final EventLoop eventLoop;
+    private final Listener listener;
+
+    private final Transport transport = Proton.transport();
+    private final Connection connection = Proton.connection();
+    private final Collector collector = Proton.collector();
+    private final Runnable flushTask = this::scheduledFlush;
+
+    private Channel channel;
+    private Session session;
+    private ScheduledFuture<?> tickFuture;
+    private boolean flushScheduled;
+    private boolean closing;
+
+    /**
+     * Constructor
+     * @param opts the AMQP options
+     * @param index the index of the connection among the connections of its client
+     * @param eventLoop the event loop driving the connection
+     * @param listener the listener for the events of the connection
+     */
+    AmqpConnection(final AmqpOptions opts, int index, final EventLoop eventLoop, final Listener listener) {
+        this.opts = opts;
+        this.index = index;
+        this.eventLoop = eventLoop;
+        this.listener = listener;
+    }
+
+    int index() {
+        return index;
+    }
+
+    /**
+     * Connects to the remote peer. The listener is notified once the connection is ready or if it fails
+     */
+    ChannelFuture connect() {
+        final Bootstrap bootstrap = new Bootstrap()
+                .group(eventLoop)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(this);
+
+        final ChannelFuture future = bootstrap.connect(opts.getHost(), opts.getPort());
+        future.addListener(f -> {
+            if (!f.isSuccess()) {
+                listener.onError(new MaestroException("Unable to connect to " + opts.getHost() + ":" +
+                        opts.getPort(), f.cause()));
+            }
+        });
+
+        return future;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) {
+        if (closing) {
+            ctx.close();
+            return;
+        }
+
+        channel = ctx.channel();
+
+        final Sasl sasl = transport.sasl();
+        sasl.client();
+        if (opts.getUsername() != null) {
+            sasl.plain(opts.getUsername(), opts.getPassword());
+        }
+        else {
+            sasl.setMechanisms("ANONYMOUS");
+        }
+
+        transport.setIdleTimeout(opts.getIdleTimeout());
+        connection.collect(collector);
+        connection.setHostname(opts.getHost());
+        connection.setContainer("maestro-" + UUID.randomUUID());
+        transport.bind(connection);
+        connection.open();
+
+        session = connection.session();
+        session.open();
+
+        listener.onConnected(this);
+
+        tickFuture = eventLoop.scheduleAtFixedRate(this::tick, TICK_INTERVAL_MILLIS, TICK_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        processEvents();
+        flush();
+    }
+
+    /**
+     * Opens a sender link
+     * @param address the target address
+     * @param capability the capability of the target (ie.: queue or topic)
+     * @param settleMode the settlement mode of the link
+     * @param context the context attached to the link
+     * @return the sender link
+     */
+    Sender openSender(final String address, final Symbol capability, final SenderSettleMode settleMode,
+                      final Object context) {
+        final Sender sender = session.sender(linkName(address));
+        final Target target = new Target();
+
+        target.setAddress(address);
+        target.setCapabilities(capability);
+        sender.setTarget(target);
+        sender.setSource(new Source());
+        sender.setSenderSettleMode(settleMode);
+        sender.setReceiverSettleMode(ReceiverSettleMode.FIRST);
+        sender.setContext(context);
+        sender.open();
+
+        return sender;
+    }
+
+    /**
+     * Opens a receiver link and grants it the initial credit
+     * @param address the source address
+     * @param capability the capability of the source (ie.: queue or topic)
+     * @param settleMode the settlement mode requested for the deliveries sent by the peer
+     * @param credit the initial credit
+     * @param context the context attached to the link
+     * @return the receiver link
+     */
+    Receiver openReceiver(final String address, final Symbol capability, final SenderSettleMode settleMode,
+                          int credit, final Object context) {
+        final Receiver receiver = session.receiver(linkName(address));
+        final Source source = new Source();
+
+        source.setAddress(address);
+        source.setCapabilities(capability);
+        receiver.setSource(source);
+        receiver.setTarget(new Target());
+        receiver.setSenderSettleMode(settleMode);
+        receiver.setReceiverSettleMode(ReceiverSettleMode.FIRST);
+        receiver.setContext(context);
+        receiver.open();
+        receiver.flow(credit);
+
+        return receiver;
+    }
+
+    private static String linkName(final String address) {
+        return address + "-" + LINK_SEQUENCE.incrementAndGet();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        final ByteBuf buffer = (ByteBuf) msg;
+
+        try {
+            while (buffer.isReadable()) {
+                if (transport.capacity() <= 0) {
+                    logger.warn("Discarding {} bytes received after the transport was closed", buffer.readableBytes());
+                    break;
+                }
+
+                final ByteBuffer tail = transport.tail();
+                final int length = Math.min(tail.remaining(), buffer.readableBytes());
+
+                tail.limit(tail.position() + length);
+                buffer.readBytes(tail);
+                transport.process();
+            }
+        }
+        finally {
+            buffer.release();
+        }
+
+        processEvents();
+        flush();
+    }
+
+    private void processEvents() {
+        Event event;
+
+        while ((event = collector.peek()) != null) {
+            switch (event.getType()) {
+                case LINK_REMOTE_OPEN: {
+                    listener.onLinkOpened(event.getLink());
+                    break;
+                }
+                case LINK_FLOW: {
+                    final Link link = event.getLink();
+                    if (link instanceof Sender) {
+                        listener.onLinkFlow((Sender) link);
+                    }
+                    break;
+                }
+                case DELIVERY: {
+                    listener.onDelivery(event.getDelivery());
+                    break;
+                }
+                case LINK_REMOTE_CLOSE: {
+                    onRemoteClose("link", event.getLink().getRemoteCondition());
+                    break;
+                }
+                case SESSION_REMOTE_CLOSE: {
+                    onRemoteClose("session", session.getRemoteCondition());
+                    break;
+                }
+                case CONNECTION_REMOTE_CLOSE: {
+                    onRemoteClose("connection", connection.getRemoteCondition());
+                    break;
+                }
+                case TRANSPORT_ERROR: {
+                    onRemoteClose("transport", transport.getCondition());
+                    break;
+                }
+                default: {
+                    break;
+                }
+            }
+
+            collector.pop();
+        }
+    }
+
+    private void onRemoteClose(final String endpoint, final ErrorCondition condition) {
+        if (closing) {
+            return;
+        }
+
+        final String description = condition != null && condition.getCondition() != null ?
+                condition.getCondition() + ": " + condition.getDescription() : "no error condition";
+
+        listener.onError(new MaestroException("The remote peer closed the " + endpoint + " (" + description + ")"));
+    }
+
+    /**
+     * Requests the pending output to be written. The writes requested by the tasks already queued on the event
+     * loop are coalesced into a single flush
+     */
+    void requestFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            eventLoop.execute(flushTask);
+        }
+    }
+
+    private void scheduledFlush() {
+        flushScheduled = false;
+        processEvents();
+        flush();
+    }
+
+    private void flush() {
+        if (channel == null || !channel.isActive()) {
+            return;
+        }
+
+        int pending;
+        boolean written = false;
+
+        while ((pending = transport.pending()) > 0) {
+            final ByteBuffer head = transport.head();
+            final ByteBuf output = channel.alloc().ioBuffer(pending);
+
+            output.writeBytes(head);
+            transport.pop(pending);
+            channel.write(output, channel.voidPromise());
+            written = true;
+        }
+
+        if (written) {
+            channel.flush();
+        }
+    }
+
+    private void tick() {
+        transport.tick(TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+        processEvents();
+        flush();
+    }
+
+    /**
+     * Closes the connection
+     */
+    void close() {
+        if (closing) {
+            return;
+        }
+
+        closing = true;
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+        }
+
+        if (connection.getLocalState() == EndpointState.ACTIVE) {
+            connection.close();
+            flush();
+        }
+
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+        }
+
+        if (!closing) {
+            closing = true;
+            listener.onError(new MaestroException("The connection to " + opts.getHost() + ":" + opts.getPort() +
+                    " was closed unexpectedly"));
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        logger.debug("Error on the connection to {}:{}: {}", opts.getHost(), opts.getPort(), cause.getMessage(), cause);
+
+        if (!closing) {
+            listener.onError(new MaestroException("Error on the connection to " + opts.getHost() + ":" +
+                    opts.getPort(), cause));
+        }
+
+        ctx.close();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.worker.WorkerThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The event loops shared by all the AMQP workers of the process. The number of event loops is set via
+ * maestro.worker.amqp.event.loops (defaults to the number of processors, up to 4). Every connection and link
+ * of a worker is bound to a single event loop, so that the worker recorders and channel keep a single writer.
+ * The event loops do the I/O of the workers, so they run on the worker CPUs.
+ */
+final class AmqpEventLoops {
+    private static final Logger logger = LoggerFactory.getLogger(AmqpEventLoops.class);
+
+    private static EventLoopGroup group;
+
+    private AmqpEventLoops() {}
+
+    private static synchronized EventLoopGroup group() {
+        if (group == null) {
+            final int defaultEventLoops = Math.min(4, Runtime.getRuntime().availableProcessors());
+            final int eventLoops = ConfigurationWrapper.getConfig()
+                    .getInt("maestro.worker.amqp.event.loops", defaultEventLoops);
+
+            logger.info("Creating {} event loops for the AMQP workers", eventLoops);
+            group = new NioEventLoopGroup(eventLoops, WorkerThreads.newWorkerThreadFactory(
+                    new DefaultThreadFactory("maestro-amqp-worker", true)));
+        }
+
+        return group;
+    }
+
+    /**
+     * Gets the next event loop to be used by a worker
+     * @return an event loop
+     */
+    static EventLoop next() {
+        return group().next();
+    }
+}
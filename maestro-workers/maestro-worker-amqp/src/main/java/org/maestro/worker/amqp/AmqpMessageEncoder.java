@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.message.Message;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes the benchmark messages. The sections preceding the body are the same for every message, so they are
+ * encoded only once and the content is then appended as a single data section.
+ */
+final class AmqpMessageEncoder {
+    private static final int DATA_SECTION_HEADER_LENGTH = 8;
+
+    private final byte[] prefix;
+
+    AmqpMessageEncoder(boolean durable, long ttl) {
+        final Message message = Proton.message();
+
+        if (durable) {
+            message.setDurable(true);
+        }
+
+        if (ttl > 0) {
+            message.setTtl(ttl);
+        }
+
+        prefix = encodePrefix(message);
+    }
+
+    private static byte[] encodePrefix(final Message message) {
+        byte[] buffer = new byte[64];
+
+        while (true) {
+            try {
+                final int length = message.encode(buffer, 0, buffer.length);
+
+                return Arrays.copyOf(buffer, length);
+            }
+            catch (BufferOverflowException e) {
+                buffer = new byte[buffer.length * 2];
+            }
+        }
+    }
+
+    /**
+     * Gets the length of an encoded message
+     * @param contentLength the length of the message content
+     * @return the length of the encoded message
+     */
+    int encodedLength(int contentLength) {
+        return prefix.length + DATA_SECTION_HEADER_LENGTH + contentLength;
+    }
+
+    /**
+     * Encodes a message
+     * @param content the message content, from its position up to its limit
+     * @return the encoded message
+     */
+    byte[] encode(final ByteBuffer content) {
+        final byte[] encoded = new byte[encodedLength(content.remaining())];
+
+        encode(content, encoded);
+        return encoded;
+    }
+
+    /**
+     * Encodes a message into the given buffer, from its start
+     * @param content the message content, from its position up to its limit
+     * @param encoded the buffer, which must be at least as long as the encoded message
+     * @return the length of the encoded message
+     */
+    int encode(final ByteBuffer content, final byte[] encoded) {
+        final int contentLength = content.remaining();
+
+        System.arraycopy(prefix, 0, encoded, 0, prefix.length);
+
+        int position = prefix.length;
+        encoded[position++] = AmqpPayloadReader.DESCRIPTOR;
+        encoded[position++] = (byte) AmqpPayloadReader.SMALL_ULONG;
+        encoded[position++] = (byte) AmqpPayloadReader.DATA_SECTION;
+        encoded[position++] = (byte) AmqpPayloadReader.VBIN32;
+        encoded[position++] = (byte) (contentLength >>> 24);
+        encoded[position++] = (byte) (contentLength >>> 16);
+        encoded[position++] = (byte) (contentLength >>> 8);
+        encoded[position++] = (byte) contentLength;
+
+        content.duplicate().get(encoded, position, contentLength);
+        return position + contentLength;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.amqp.messaging.Section;
+import org.apache.qpid.proton.message.Message;
+import org.maestro.common.content.BenchmarkPayload;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.jms.ReceiverClient;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the benchmark payload from an encoded AMQP message.<p>
+ * The sections preceding the body are skipped by their encoded size, without decoding them, and the payload
+ * is copied straight from the first data section. Messages that can't be handled that way (ie.: descriptors
+ * encoded as symbols) are fully decoded instead. This class is not thread-safe.
+ */
+final class AmqpPayloadReader {
+    static final int DESCRIPTOR = 0x00;
+    static final int SMALL_ULONG = 0x53;
+    static final int ULONG = 0x80;
+    static final int DATA_SECTION = 0x75;
+    static final int VBIN8 = 0xa0;
+    static final int VBIN32 = 0xb0;
+
+    private static final int NULL = 0x40;
+    private static final int LIST0 = 0x45;
+    private static final int LIST8 = 0xc0;
+    private static final int MAP8 = 0xc1;
+    private static final int LIST32 = 0xd0;
+    private static final int MAP32 = 0xd1;
+
+    private final ByteBuffer payloadBytes = ByteBuffer.allocate(BenchmarkPayload.LENGTH)
+            .order(ContentStrategy.CONTENT_ENDIANNESS);
+    private long expectedSendTimeEpochMicros = ReceiverClient.noMessagePayload();
+    private int messageSize = -1;
+
+    /**
+     * Reads the benchmark payload
+     * @param encoded the encoded message
+     * @param length the length of the encoded message
+     * @return the send time in micros since epoch
+     */
+    long read(final byte[] encoded, int length) {
+        final int dataOffset = findData(encoded, length);
+
+        if (dataOffset >= 0) {
+            final int dataLength;
+            final int start;
+
+            if ((encoded[dataOffset] & 0xff) == VBIN8) {
+                dataLength = encoded[dataOffset + 1] & 0xff;
+                start = dataOffset + 2;
+            }
+            else {
+                dataLength = readInt(encoded, dataOffset + 1);
+                start = dataOffset + 5;
+            }
+
+            messageSize = dataLength;
+            return readPayload(encoded, start, Math.min(dataLength, length - start));
+        }
+
+        return decodeAndRead(encoded, length);
+    }
+
+    /**
+     * Gets the expected send time of the last payload read
+     * @return the expected send time in micros since epoch or ReceiverClient.noMessagePayload() if the payload
+     * doesn't contain it
+     */
+    long expectedSendTimeEpochMicros() {
+        return expectedSendTimeEpochMicros;
+    }
+
+    /**
+     * Gets the size of the body of the last message read
+     * @return the size of the data section in bytes
+     */
+    int messageSize() {
+        return messageSize;
+    }
+
+    /*
+     * Finds the offset of the binary value of the first data section or -1 if the message has to be decoded
+     */
+    static int findData(final byte[] encoded, int length) {
+        int position = 0;
+
+        while (position + 3 < length) {
+            if ((encoded[position] & 0xff) != DESCRIPTOR) {
+                return -1;
+            }
+
+            final long code;
+            final int descriptorType = encoded[position + 1] & 0xff;
+            if (descriptorType == SMALL_ULONG) {
+                code = encoded[position + 2] & 0xff;
+                position += 3;
+            }
+            else if (descriptorType == ULONG && position + 10 < length) {
+                code = readLong(encoded, position + 2);
+                position += 10;
+            }
+            else {
+                return -1;
+            }
+
+            final int constructor = encoded[position] & 0xff;
+            if (code == DATA_SECTION) {
+                if ((constructor == VBIN8 && position + 2 <= length) || (constructor == VBIN32 && position + 5 <= length)) {
+                    return position;
+                }
+
+                return -1;
+            }
+
+            switch (constructor) {
+                case NULL:
+                case LIST0: {
+                    position += 1;
+                    break;
+                }
+                case LIST8:
+                case MAP8: {
+                    position += 2 + (encoded[position + 1] & 0xff);
+                    break;
+                }
+                case LIST32:
+                case MAP32: {
+                    if (position + 5 > length) {
+                        return -1;
+                    }
+
+                    position += 5 + readInt(encoded, position + 1);
+                    break;
+                }
+                default: {
+                    return -1;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private long decodeAndRead(final byte[] encoded, int length) {
+        final Message message = Proton.message();
+        message.decode(encoded, 0, length);
+
+        final Section body = message.getBody();
+        if (body instanceof Data) {
+            final Binary binary = ((Data) body).getValue();
+            messageSize = binary.getLength();
+
+            return readPayload(binary.getArray(), binary.getArrayOffset(), binary.getLength());
+        }
+
+        throw new IllegalStateException("the received message hasn't any benchmark payload");
+    }
+
+    private long readPayload(final byte[] bytes, int offset, int length) {
+        final int readBytes = Math.min(length, BenchmarkPayload.LENGTH);
+
+        if (readBytes < BenchmarkPayload.MIN_LENGTH) {
+            throw new IllegalStateException("the received message hasn't any benchmark payload");
+        }
+
+        System.arraycopy(bytes, offset, payloadBytes.array(), 0, readBytes);
+        if (BenchmarkPayload.hasExpectedSendTime(readBytes)) {
+            expectedSendTimeEpochMicros = payloadBytes.getLong(BenchmarkPayload.EXPECTED_SEND_TIME_OFFSET);
+        }
+        else {
+            expectedSendTimeEpochMicros = ReceiverClient.noMessagePayload();
+        }
+
+        return payloadBytes.getLong(BenchmarkPayload.SEND_TIME_OFFSET);
+    }
+
+    private static int readInt(final byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) |
+                ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static long readLong(final byte[] bytes, int offset) {
+        return ((long) readInt(bytes, offset) << 32) | (readInt(bytes, offset + 4) & 0xffffffffL);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.apache.qpid.proton.amqp.messaging.Accepted;
+import org.apache.qpid.proton.amqp.transport.SenderSettleMode;
+import org.apache.qpid.proton.engine.Delivery;
+import org.apache.qpid.proton.engine.Receiver;
+import org.apache.qpid.proton.engine.Sender;
+
+/**
+ * A native AMQP receiver. The messages are read on the event loop and their payloads are handed to the
+ * listener from there, so the listener must not block.
+ */
+final class AmqpReceiverClient extends AmqpClient {
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /**
+     * Listens to the payloads of the messages received. It is called from the event loop
+     */
+    interface PayloadListener {
+        void onPayload(long sendTimeEpochMicros, long expectedSendTimeEpochMicros, int messageSize) throws Exception;
+
+        void onError(Exception e);
+    }
+
+    private final AmqpPayloadReader payloadReader = new AmqpPayloadReader();
+    private PayloadListener payloadListener;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private boolean presettled;
+    private int credit;
+
+    /**
+     * Sets the payload listener. It must be set before the client is started
+     * @param payloadListener the payload listener
+     */
+    void setPayloadListener(final PayloadListener payloadListener) {
+        this.payloadListener = payloadListener;
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (payloadListener == null) {
+            throw new IllegalStateException("The payload listener must be set before starting the receiver");
+        }
+
+        super.start();
+    }
+
+    @Override
+    protected void setup() {
+        presettled = opts.getSettlement() == AmqpOptions.Settlement.PRESETTLED;
+        credit = opts.getCredit();
+    }
+
+    @Override
+    protected void openLink(final AmqpConnection connection, final String address, int index) {
+        connection.openReceiver(address, capability,
+                presettled ? SenderSettleMode.SETTLED : SenderSettleMode.UNSETTLED, credit, null);
+    }
+
+    @Override
+    public void onLinkFlow(final Sender sender) {
+
+    }
+
+    @Override
+    public void onDelivery(final Delivery delivery) {
+        if (!delivery.isReadable() || delivery.isPartial()) {
+            return;
+        }
+
+        final Receiver receiver = (Receiver) delivery.getLink();
+        final int size = delivery.pending();
+        if (size > buffer.length) {
+            buffer = new byte[Math.max(size, buffer.length * 2)];
+        }
+
+        final int length = receiver.recv(buffer, 0, size);
+        receiver.advance();
+
+        if (!delivery.remotelySettled()) {
+            delivery.disposition(Accepted.getInstance());
+        }
+        delivery.settle();
+
+        //replenishes the credit once half of it is used
+        final int remainingCredit = receiver.getCredit();
+        if (remainingCredit <= credit / 2) {
+            receiver.flow(credit - remainingCredit);
+        }
+
+        try {
+            final long sendTimeEpochMicros = payloadReader.read(buffer, length);
+
+            payloadListener.onPayload(sendTimeEpochMicros, payloadReader.expectedSendTimeEpochMicros(),
+                    payloadReader.messageSize());
+        } catch (Exception e) {
+            onError(e);
+        }
+    }
+
+    @Override
+    protected void failed(final Exception e) {
+        payloadListener.onError(e);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.maestro.common.content.SizeClasses;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.TestDuration;
+import org.maestro.common.duration.TestDurationBuilder;
+import org.maestro.common.exceptions.DurationParseException;
+import org.maestro.common.jms.ReceiverClient;
+import org.maestro.common.worker.LatencyRecorders;
+import org.maestro.common.worker.MaestroReceiverWorker;
+import org.maestro.common.worker.SizeClassRecorders;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+import org.maestro.common.writers.WorkerChannel;
+import org.maestro.common.writers.WorkerChannels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A receiver worker that drives a proton-j engine directly, without the JMS layer. The messages are handled on
+ * the event loop of the client, while the worker thread only waits for the test to finish
+ */
+public class AmqpReceiverWorker implements MaestroReceiverWorker {
+    private static final Logger logger = LoggerFactory.getLogger(AmqpReceiverWorker.class);
+    private static final long COMPLETION_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private TestDuration duration;
+    private final AtomicLong messageCount = new AtomicLong(0);
+    private volatile long startedEpochMillis = Long.MIN_VALUE;
+    private final SingleWriterRecorder latencyRecorder = LatencyRecorders.newRecorder();
+    private final SingleWriterRecorder responseTimeRecorder = LatencyRecorders.newRecorder();
+    // only when the message size follows a distribution
+    private SizeClassRecorders sizeClassRecorders;
+    private final WorkerChannel workerChannel = WorkerChannels.newChannel();
+    private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
+
+    private String url;
+    private int number;
+    // receiver clock - sender clock, as estimated by the front-end
+    private long clockOffsetMicros;
+
+    @Override
+    public WorkerChannel workerChannel() {
+        return workerChannel;
+    }
+
+    @Override
+    public long messageCount() {
+        return messageCount.get();
+    }
+
+    @Override
+    public WorkerStateInfo getWorkerState() {
+        return workerStateInfo;
+    }
+
+    @Override
+    public long startedEpochMillis() {
+        return startedEpochMillis;
+    }
+
+    private void setDuration(String duration) {
+        try {
+            this.duration = TestDurationBuilder.build(duration);
+        } catch (DurationParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void setWorkerNumber(int number) {
+        this.number = number;
+    }
+
+    @Override
+    public void setWorkerOptions(WorkerOptions workerOptions) {
+        this.url = workerOptions.getBrokerURL();
+        setDuration(workerOptions.getDuration());
+        this.clockOffsetMicros = workerOptions.getClockOffsetMicros();
+        this.sizeClassRecorders = SizeClasses.isBrokenDown(workerOptions.getMessageSize()) ?
+                new SizeClassRecorders() : null;
+    }
+
+    public void start() {
+        startedEpochMillis = System.currentTimeMillis();
+        logger.info("Starting the AMQP receiver worker");
+
+        final AmqpReceiverClient client = new AmqpReceiverClient();
+        final PayloadReceiver receiver = new PayloadReceiver(Thread.currentThread());
+        final long id = Thread.currentThread().getId();
+        boolean started = false;
+        try {
+            client.setUrl(url);
+            workerStateInfo.setState(true, null, null);
+            client.setNumber(number);
+            client.setPayloadListener(receiver);
+            client.start();
+            started = true;
+
+            awaitCompletion(client, receiver);
+
+            logger.info("Worker {} completed running successfully with {} messages received", id,
+                    messageCount);
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_SUCCESS, null);
+        } catch (Exception e) {
+            if (!started) {
+                logger.error("Unable to start the receiver worker: {}", e.getMessage(), e);
+            }
+            else {
+                logger.error("Unexpected error while running the receiver worker: {}", e.getMessage(), e);
+            }
+
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
+        } finally {
+            receiver.done = true;
+            client.stop();
+            logger.info("Finalized worker {} after receiving {} messages", id, messageCount);
+        }
+    }
+
+    private void awaitCompletion(final AmqpReceiverClient client, final PayloadReceiver receiver) throws Exception {
+        try {
+            while (!receiver.done && duration.canContinue(this) && isRunning()) {
+                LockSupport.parkNanos(COMPLETION_CHECK_INTERVAL_NANOS);
+            }
+        } finally {
+            receiver.done = true;
+
+            //the rate samples are written by the event loop, so it is the one that must flush them
+            if (!client.runOnEventLoop(workerChannel::flush)) {
+                logger.warn("Timed out flushing the rate samples");
+            }
+        }
+
+        if (receiver.error != null) {
+            throw receiver.error;
+        }
+    }
+
+    private final class PayloadReceiver implements AmqpReceiverClient.PayloadListener {
+        private final Thread worker;
+        private EpochMicroClock epochMicroClock;
+        private long count;
+        private volatile boolean done;
+        private volatile Exception error;
+
+        PayloadReceiver(final Thread worker) {
+            this.worker = worker;
+        }
+
+        @Override
+        public void onPayload(long sendTimeEpochMicros, long expectedSendTimeEpochMicros, int messageSize) {
+            if (done) {
+                return;
+            }
+
+            //the clock can only be used by the event loop
+            if (epochMicroClock == null) {
+                epochMicroClock = EpochClocks.exclusiveMicro();
+            }
+
+            final long nowInMicros = epochMicroClock.microTime() - clockOffsetMicros;
+
+            //the service latency: from the actual send time
+            LatencyRecorders.recordLatency(latencyRecorder, sendTimeEpochMicros, nowInMicros);
+            if (sizeClassRecorders != null) {
+                sizeClassRecorders.recordLatency(messageSize, sendTimeEpochMicros, nowInMicros);
+            }
+
+            //the response time: from the intended send time, to account for a sender falling behind its schedule
+            LatencyRecorders.recordLatency(responseTimeRecorder,
+                    expectedSendTimeEpochMicros != ReceiverClient.noMessagePayload() ?
+                            expectedSendTimeEpochMicros : sendTimeEpochMicros, nowInMicros);
+
+            workerChannel.emitRate(sendTimeEpochMicros, nowInMicros);
+            count++;
+            messageCount.lazySet(count);
+
+            if (!duration.canContinue(AmqpReceiverWorker.this)) {
+                finish();
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            if (error == null) {
+                error = e;
+            }
+
+            finish();
+        }
+
+        private void finish() {
+            done = true;
+            LockSupport.unpark(worker);
+        }
+    }
+
+    @Override
+    public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
+        return latencyRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeResponseTimesSnapshot(Histogram intervalHistogram) {
+        return responseTimeRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeSizeClassLatenciesSnapshot(int sizeClass, Histogram intervalHistogram) {
+        final SizeClassRecorders sizeClassRecorders = this.sizeClassRecorders;
+
+        return sizeClassRecorders == null ? null : sizeClassRecorders.takeSnapshot(sizeClass, intervalHistogram);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workerStateInfo.isRunning();
+    }
+
+    @Override
+    public void stop() {
+        workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_STOPPED, null);
+    }
+
+    @Override
+    public void halt() {
+        stop();
+    }
+
+    @Override
+    public void run() {
+        start();
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.apache.qpid.proton.amqp.messaging.Accepted;
+import org.apache.qpid.proton.amqp.messaging.Rejected;
+import org.apache.qpid.proton.amqp.transport.DeliveryState;
+import org.apache.qpid.proton.amqp.transport.SenderSettleMode;
+import org.apache.qpid.proton.engine.Delivery;
+import org.apache.qpid.proton.engine.Sender;
+import org.maestro.common.content.BenchmarkPayload;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.jms.SenderClient;
+import org.maestro.common.worker.SendCompletionWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A native AMQP sender. The messages are encoded by the worker thread and handed to the event loop, which sends
+ * them over the links in a round-robin fashion as long as they have credit. A send is completed when the peer
+ * accepts it or, for pre-settled sends, as soon as it is handed to the engine.<p>
+ * The sends don't allocate: the send tasks (along with their encoding buffers and delivery tags) are pooled and
+ * handed to the event loop through a queue, which is drained by a single event loop task scheduled only when
+ * the queue was not already being drained.
+ */
+final class AmqpSenderClient extends AmqpClient implements SenderClient {
+    private static final Logger logger = LoggerFactory.getLogger(AmqpSenderClient.class);
+
+    /**
+     * The state of a sender link. The pending sends are only used by the event loop
+     */
+    private static final class SenderLink {
+        private final ArrayDeque<SendTask> pending = new ArrayDeque<>();
+        private AmqpConnection connection;
+        private Sender sender;
+    }
+
+    /**
+     * A send, reused once completed. The delivery tag never changes because proton-j keeps a reference to it
+     * until the transfer is written, and it is unique among the unsettled deliveries because a task is only
+     * reused after its delivery is settled
+     */
+    private static final class SendTask {
+        private final byte[] tag;
+        private SenderLink link;
+        private byte[] encoded;
+        private int length;
+        private int messageSize;
+        private long expectedSendTimeEpochMicros;
+        private long sendTimeEpochMicros;
+
+        SendTask(int id) {
+            tag = new byte[Integer.BYTES];
+            tag[0] = (byte) (id >>> 24);
+            tag[1] = (byte) (id >>> 16);
+            tag[2] = (byte) (id >>> 8);
+            tag[3] = (byte) id;
+        }
+    }
+
+    private ContentStrategy contentStrategy;
+    private AmqpMessageEncoder encoder;
+    private SendCompletionWindow completionWindow;
+    private SenderLink[] links;
+    private int nextLink;
+    private boolean presettled;
+
+    // the tasks to be sent, from the worker thread to the event loop
+    private OneToOneConcurrentArrayQueue<SendTask> sendQueue;
+    // the completed tasks, from the event loop back to the worker thread
+    private OneToOneConcurrentArrayQueue<SendTask> freeTasks;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Runnable drainSendQueue = this::drainSendQueue;
+    private int taskCount;
+
+    // only used by the event loop
+    private EpochMicroClock completionClock;
+
+    @Override
+    protected void setup() {
+        links = new SenderLink[links()];
+        for (int i = 0; i < links.length; i++) {
+            links[i] = new SenderLink();
+        }
+
+        presettled = opts.getSettlement() == AmqpOptions.Settlement.PRESETTLED;
+        encoder = new AmqpMessageEncoder(opts.isDurable(), opts.getTtl());
+        completionWindow = new SendCompletionWindow(opts.getMaxInFlight());
+        sendQueue = new OneToOneConcurrentArrayQueue<>(opts.getMaxInFlight());
+        freeTasks = new OneToOneConcurrentArrayQueue<>(opts.getMaxInFlight());
+
+        logger.info("The sender is using {} deliveries with up to {} messages in-flight",
+                presettled ? "pre-settled" : "at-least-once", opts.getMaxInFlight());
+    }
+
+    @Override
+    protected void openLink(final AmqpConnection connection, final String address, int index) {
+        final SenderLink link = links[index];
+
+        link.connection = connection;
+        link.sender = connection.openSender(address, capability,
+                presettled ? SenderSettleMode.SETTLED : SenderSettleMode.UNSETTLED, link);
+    }
+
+    /**
+     * Gets the window of the sends waiting to be completed
+     * @return the completion window
+     */
+    SendCompletionWindow completionWindow() {
+        return completionWindow;
+    }
+
+    @Override
+    public void sendMessages(long sendTimeEpochInMicros, boolean commitTransaction) {
+        sendMessages(sendTimeEpochInMicros, sendTimeEpochInMicros, commitTransaction);
+    }
+
+    /**
+     * Sends a message. The caller must register the send on the completion window before calling this
+     */
+    @Override
+    public void sendMessages(long sendTimeEpochInMicros, long expectedSendTimeEpochInMicros,
+                             boolean commitTransaction) {
+        final ByteBuffer content = contentStrategy.prepareContent();
+
+        //the timestamps are part of the message content
+        BenchmarkPayload.write(content, sendTimeEpochInMicros, expectedSendTimeEpochInMicros);
+
+        SendTask task = freeTasks.poll();
+        if (task == null) {
+            // there are never more tasks than sends in-flight
+            task = new SendTask(taskCount++);
+        }
+
+        task.messageSize = content.remaining();
+        final int length = encoder.encodedLength(content.remaining());
+        if (task.encoded == null || task.encoded.length < length) {
+            task.encoded = new byte[length];
+        }
+        task.length = encoder.encode(content, task.encoded);
+
+        task.link = links[nextLink];
+        nextLink = nextLink + 1 == links.length ? 0 : nextLink + 1;
+        task.expectedSendTimeEpochMicros = expectedSendTimeEpochInMicros;
+        task.sendTimeEpochMicros = sendTimeEpochInMicros;
+
+        sendQueue.offer(task);
+        if (!drainScheduled.get() && drainScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(drainSendQueue);
+        }
+    }
+
+    private void drainSendQueue() {
+        do {
+            SendTask task;
+
+            while ((task = sendQueue.poll()) != null) {
+                enqueue(task);
+            }
+
+            drainScheduled.set(false);
+            // a task offered after the last poll, but before the flag was cleared, did not schedule a new drain
+        } while (!sendQueue.isEmpty() && drainScheduled.compareAndSet(false, true));
+    }
+
+    private void enqueue(final SendTask task) {
+        final SenderLink link = task.link;
+
+        if (link.sender == null) {
+            return;
+        }
+
+        if (link.pending.isEmpty() && link.sender.getCredit() > 0) {
+            send(task);
+        }
+        else {
+            link.pending.add(task);
+        }
+    }
+
+    private void send(final SendTask task) {
+        final SenderLink link = task.link;
+        final Delivery delivery = link.sender.delivery(task.tag);
+
+        // the engine copies the encoded message
+        link.sender.send(task.encoded, 0, task.length);
+        link.sender.advance();
+
+        if (presettled) {
+            delivery.settle();
+            complete(task);
+        }
+        else {
+            delivery.setContext(task);
+        }
+
+        link.connection.requestFlush();
+    }
+
+    private void complete(final SendTask task) {
+        //the clock can only be used by the event loop
+        if (completionClock == null) {
+            completionClock = EpochClocks.exclusiveMicro();
+        }
+
+        final long expectedSendTimeEpochMicros = task.expectedSendTimeEpochMicros;
+        final long sendTimeEpochMicros = task.sendTimeEpochMicros;
+        final int messageSize = task.messageSize;
+
+        // the task is released before the window slot, so that the worker never needs more tasks than sends in-flight
+        release(task);
+        completionWindow.complete(expectedSendTimeEpochMicros, sendTimeEpochMicros, completionClock.microTime(),
+                messageSize);
+    }
+
+    private void fail(final SendTask task, final Exception exception) {
+        release(task);
+        completionWindow.fail(exception);
+    }
+
+    private void release(final SendTask task) {
+        task.link = null;
+        freeTasks.offer(task);
+    }
+
+    @Override
+    public void onLinkFlow(final Sender sender) {
+        final SenderLink link = (SenderLink) sender.getContext();
+
+        while (sender.getCredit() > 0 && !link.pending.isEmpty()) {
+            send(link.pending.poll());
+        }
+    }
+
+    @Override
+    public void onDelivery(final Delivery delivery) {
+        if (!delivery.remotelySettled()) {
+            return;
+        }
+
+        final SendTask task = (SendTask) delivery.getContext();
+        final DeliveryState state = delivery.getRemoteState();
+
+        delivery.settle();
+        if (task == null) {
+            return;
+        }
+
+        if (state instanceof Accepted) {
+            complete(task);
+        }
+        else if (state instanceof Rejected) {
+            fail(task, new MaestroException("The message was rejected by the peer: " + ((Rejected) state).getError()));
+        }
+        else {
+            // released, modified or settled without an outcome: the message was not delivered
+            fail(task, new MaestroException("The message was not accepted by the peer: " + state));
+        }
+    }
+
+    @Override
+    public void onError(final Exception e) {
+        super.onError(e);
+
+        // the in-flight sends will never complete
+        if (completionWindow != null) {
+            completionWindow.abort(e);
+        }
+    }
+
+    @Override
+    public void setContentStrategy(ContentStrategy contentStrategy) {
+        this.contentStrategy = contentStrategy;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.content.ContentStrategyFactory;
+import org.maestro.common.content.SizeClasses;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.TestDuration;
+import org.maestro.common.duration.TestDurationBuilder;
+import org.maestro.common.exceptions.DurationParseException;
+import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.idle.IdleStrategies;
+import org.maestro.common.scheduler.SendScheduler;
+import org.maestro.common.scheduler.SendSchedulers;
+import org.maestro.common.worker.LatencyRecorders;
+import org.maestro.common.worker.MaestroSenderWorker;
+import org.maestro.common.worker.SendCompletionWindow;
+import org.maestro.common.worker.SizeClassRecorders;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+import org.maestro.common.writers.WorkerChannel;
+import org.maestro.common.writers.WorkerChannels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A sender worker that drives a proton-j engine directly, without the JMS layer
+ */
+public class AmqpSenderWorker implements MaestroSenderWorker {
+    private static final Logger logger = LoggerFactory.getLogger(AmqpSenderWorker.class);
+    private static final long COMPLETION_DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private ContentStrategy contentStrategy;
+    private TestDuration duration;
+    private final WorkerChannel workerChannel = WorkerChannels.newChannel();
+    private final AtomicLong messageCount = new AtomicLong(0);
+    private volatile long startedEpochMillis = Long.MIN_VALUE;
+    private final SingleWriterRecorder sendLatencyRecorder = LatencyRecorders.newRecorder();
+    // only when the message size follows a distribution
+    private SizeClassRecorders sizeClassRecorders;
+    private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
+
+    private String url;
+    private long rate = 0;
+    private String sendSchedulerSpec;
+    private int number;
+
+    private final SendCompletionWindow.CompletedSendHandler completedSendHandler = this::onCompletedSend;
+
+    @Override
+    public WorkerChannel workerChannel() {
+        return workerChannel;
+    }
+
+    @Override
+    public long startedEpochMillis() {
+        return this.startedEpochMillis;
+    }
+
+    @Override
+    public WorkerStateInfo getWorkerState() {
+        return workerStateInfo;
+    }
+
+    @Override
+    public long messageCount() {
+        return messageCount.get();
+    }
+
+    private void setDuration(String duration) {
+        try {
+            this.duration = TestDurationBuilder.build(duration);
+        } catch (DurationParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void setWorkerNumber(int number) {
+        this.number = number;
+    }
+
+    @Override
+    public void setWorkerOptions(WorkerOptions workerOptions) {
+        if (workerOptions.getRate() != null) {
+            this.rate = Long.parseLong(workerOptions.getRate());
+        }
+
+        setDuration(workerOptions.getDuration());
+        this.url = workerOptions.getBrokerURL();
+        this.contentStrategy = ContentStrategyFactory.parse(workerOptions.getMessageSize());
+        this.sizeClassRecorders = SizeClasses.isBrokenDown(workerOptions.getMessageSize()) ?
+                new SizeClassRecorders() : null;
+        this.sendSchedulerSpec = workerOptions.getSendScheduler();
+    }
+
+    public void start() {
+        startedEpochMillis = System.currentTimeMillis();
+        logger.info("Starting the AMQP sender worker");
+
+        final AmqpSenderClient client = new AmqpSenderClient();
+        final long id = Thread.currentThread().getId();
+        boolean started = false;
+        try {
+            final SendScheduler sendScheduler = doClientStartup(client);
+            started = true;
+
+            try {
+                runLoadLoop(client, sendScheduler);
+            } finally {
+                //the samples emitted so far are flushed even if the loop fails
+                workerChannel.flush();
+            }
+
+            logger.info("Worker {} completed running successfully with {} messages sent", id,
+                    messageCount);
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_SUCCESS, null);
+        } catch (InterruptedException e) {
+            logger.error("AMQP sender worker {} interrupted while sending messages: {}", id,
+                    e.getMessage());
+
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
+        } catch (Exception e) {
+            if (!started) {
+                logger.error("Unable to start the sender worker: {}", e.getMessage(), e);
+            }
+            else {
+                logger.error("Unexpected error while running the sender worker: {}", e.getMessage(), e);
+            }
+
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
+        } finally {
+            client.stop();
+            logger.info("Finalized worker {} after sending {} messages", id, messageCount);
+        }
+    }
+
+    private void runLoadLoop(final AmqpSenderClient client, final SendScheduler sendScheduler) throws Exception {
+        long count = 0;
+
+        final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
+        final long startFireEpochMicros = epochMicroClock.microTime();
+        sendScheduler.start(System.nanoTime());
+
+        final SendCompletionWindow completionWindow = client.completionWindow();
+
+        while (duration.canContinue(this) && isRunning() && sendScheduler.hasNext()) {
+            final long expectedElapsedNanos = sendScheduler.awaitNext();
+            final long sendTimeEpochMicros = epochMicroClock.microTime();
+            final long expectedSendTimeEpochMicros;
+
+            if (expectedElapsedNanos != SendScheduler.UNSCHEDULED) {
+                expectedSendTimeEpochMicros = startFireEpochMicros + (expectedElapsedNanos / 1_000L);
+            } else {
+                expectedSendTimeEpochMicros = sendTimeEpochMicros;
+            }
+
+            completionWindow.awaitCapacity(this.completedSendHandler);
+            completionWindow.register(expectedSendTimeEpochMicros, sendTimeEpochMicros);
+            client.sendMessages(sendTimeEpochMicros, expectedSendTimeEpochMicros, false);
+
+            count++;
+            //update message sent count
+            this.messageCount.lazySet(count);
+        }
+
+        completionWindow.awaitCompletion(this.completedSendHandler, COMPLETION_DRAIN_TIMEOUT_NANOS);
+    }
+
+    private void onCompletedSend(long expectedSendTimeEpochMicros, long sendTimeEpochMicros,
+                                 long completionTimeEpochMicros, int messageSize) {
+        //the message is considered sent only when the peer settles it (or when it is handed to the engine, if pre-settled)
+        workerChannel.emitRate(expectedSendTimeEpochMicros, completionTimeEpochMicros);
+        LatencyRecorders.recordElapsed(sendLatencyRecorder, completionTimeEpochMicros - sendTimeEpochMicros);
+        if (sizeClassRecorders != null) {
+            sizeClassRecorders.recordElapsed(messageSize, completionTimeEpochMicros - sendTimeEpochMicros);
+        }
+    }
+
+    private SendScheduler doClientStartup(final AmqpSenderClient client) throws Exception {
+        if (contentStrategy == null) {
+            throw new MaestroException("Trying to run a test without defining the message size");
+        }
+
+        final SendScheduler sendScheduler = SendSchedulers.parse(sendSchedulerSpec, rate,
+                IdleStrategies.forRole(IdleStrategies.ROLE_SENDER));
+
+        client.setUrl(url);
+        client.setContentStrategy(contentStrategy);
+
+        workerStateInfo.setState(true, null, null);
+        client.setNumber(number);
+        client.start();
+
+        return sendScheduler;
+    }
+
+    @Override
+    public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
+        return sendLatencyRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeSizeClassLatenciesSnapshot(int sizeClass, Histogram intervalHistogram) {
+        final SizeClassRecorders sizeClassRecorders = this.sizeClassRecorders;
+
+        return sizeClassRecorders == null ? null : sizeClassRecorders.takeSnapshot(sizeClass, intervalHistogram);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workerStateInfo.isRunning();
+    }
+
+    @Override
+    public void stop() {
+        workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_STOPPED, null);
+    }
+
+    @Override
+    public void halt() {
+        stop();
+    }
+
+    @Override
+    public void run() {
+        start();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.messaging.AmqpValue;
+import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
+import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.message.Message;
+import org.junit.Test;
+import org.maestro.common.content.BenchmarkPayload;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.jms.ReceiverClient;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class AmqpPayloadReaderTest {
+
+    private static ByteBuffer content(int size, long sendTime, long expectedSendTime) {
+        final ByteBuffer content = ByteBuffer.allocate(size).order(ContentStrategy.CONTENT_ENDIANNESS);
+
+        BenchmarkPayload.write(content, sendTime, expectedSendTime);
+        return content;
+    }
+
+    private static byte[] encode(final Message message) {
+        final byte[] buffer = new byte[1024];
+        final int length = message.encode(buffer, 0, buffer.length);
+
+        final byte[] ret = new byte[length];
+        System.arraycopy(buffer, 0, ret, 0, length);
+        return ret;
+    }
+
+    @Test
+    public void testEncodedMessage() {
+        final AmqpMessageEncoder encoder = new AmqpMessageEncoder(true, 1000);
+        final byte[] encoded = encoder.encode(content(100, 1234L, 1200L));
+
+        assertTrue(AmqpPayloadReader.findData(encoded, encoded.length) > 0);
+
+        final AmqpPayloadReader reader = new AmqpPayloadReader();
+        assertEquals(1234L, reader.read(encoded, encoded.length));
+        assertEquals(1200L, reader.expectedSendTimeEpochMicros());
+        assertEquals(100, reader.messageSize());
+    }
+
+    @Test
+    public void testMessageFromAnotherClient() {
+        final Message message = Proton.message();
+        message.setDurable(true);
+        message.setMessageId("ID:1");
+        message.setApplicationProperties(new ApplicationProperties(Collections.singletonMap("key", "value")));
+        message.setBody(new Data(new Binary(content(BenchmarkPayload.MIN_LENGTH, 1234L, 1200L).array())));
+
+        final byte[] encoded = encode(message);
+        final AmqpPayloadReader reader = new AmqpPayloadReader();
+
+        assertTrue(AmqpPayloadReader.findData(encoded, encoded.length) > 0);
+        assertEquals(1234L, reader.read(encoded, encoded.length));
+        assertEquals(ReceiverClient.noMessagePayload(), reader.expectedSendTimeEpochMicros());
+        assertEquals(BenchmarkPayload.MIN_LENGTH, reader.messageSize());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMessageWithoutPayload() {
+        final Message message = Proton.message();
+        message.setBody(new AmqpValue("no payload"));
+
+        final byte[] encoded = encode(message);
+        new AmqpPayloadReader().read(encoded, encoded.length);
+    }
+}
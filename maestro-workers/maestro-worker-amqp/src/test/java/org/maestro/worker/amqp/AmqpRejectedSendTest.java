@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.maestro.common.content.ContentStrategyFactory;
+import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.worker.SendCompletionWindow;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AmqpRejectedSendTest {
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private RejectingPeer peer;
+    private String url;
+
+    @Before
+    public void setUp() throws Exception {
+        peer = new RejectingPeer();
+        url = "amqp://localhost:" + peer.port() + "/test.performance.queue?connectTimeout=10000";
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        peer.close();
+    }
+
+    @Test(timeout = 60_000L)
+    public void testRejectedSendFailsTheCompletionWindow() throws Exception {
+        final AmqpSenderClient client = new AmqpSenderClient();
+
+        client.setUrl(url);
+        client.setNumber(0);
+        client.setContentStrategy(ContentStrategyFactory.parse("256"));
+        client.start();
+        try {
+            final SendCompletionWindow completionWindow = client.completionWindow();
+            final long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+
+            completionWindow.register(now, now);
+            client.sendMessages(now, now, false);
+
+            try {
+                completionWindow.awaitCompletion((expected, sent, completion, size) ->
+                        fail("A rejected send must not be completed"), TIMEOUT_NANOS);
+                fail("Waiting for a rejected send must fail");
+            } catch (MaestroException e) {
+                assertSame(e, completionWindow.failure());
+            }
+
+            assertEquals(1, completionWindow.failedSends());
+            assertEquals(1, peer.rejected());
+        } finally {
+            client.stop();
+        }
+    }
+
+    @Test(timeout = 60_000L)
+    public void testRejectedSendFailsTheWorker() {
+        final WorkerOptions workerOptions = new WorkerOptions();
+        workerOptions.setBrokerURL(url);
+        workerOptions.setDuration("1000");
+        workerOptions.setMessageSize("256");
+
+        final AmqpSenderWorker worker = new AmqpSenderWorker();
+        worker.setWorkerOptions(workerOptions);
+        worker.run();
+
+        final WorkerStateInfo workerState = worker.getWorkerState();
+        assertFalse(workerState.isRunning());
+        assertEquals(WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, workerState.getExitStatus());
+        assertTrue("The worker must fail with the rejection",
+                workerState.getException() instanceof MaestroException);
+        assertTrue(workerState.getException().getMessage().startsWith("The message was rejected by the peer"));
+        assertTrue(peer.rejected() > 0);
+        assertEquals("A rejected message must not be counted as sent", 0,
+                worker.takeLatenciesSnapshot(null).getTotalCount());
+    }
+}
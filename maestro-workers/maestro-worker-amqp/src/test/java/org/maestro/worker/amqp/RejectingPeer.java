@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.amqp;
+
+import org.apache.qpid.proton.amqp.Symbol;
+import org.apache.qpid.proton.amqp.messaging.Rejected;
+import org.apache.qpid.proton.amqp.transport.ErrorCondition;
+import org.apache.qpid.proton.engine.Collector;
+import org.apache.qpid.proton.engine.Connection;
+import org.apache.qpid.proton.engine.Delivery;
+import org.apache.qpid.proton.engine.Event;
+import org.apache.qpid.proton.engine.Link;
+import org.apache.qpid.proton.engine.Receiver;
+import org.apache.qpid.proton.engine.Sasl;
+import org.apache.qpid.proton.engine.Transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal AMQP peer, driven by a proton-j engine over a blocking socket, that accepts any link and rejects
+ * every message it receives. It serves a single connection at a time.
+ */
+final class RejectingPeer implements AutoCloseable {
+    private static final int CREDIT = 100;
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final AtomicInteger rejected = new AtomicInteger();
+    private volatile Socket socket;
+
+    RejectingPeer() throws IOException {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::serve, "rejecting-amqp-peer");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of messages rejected so far
+     * @return the number of rejected messages
+     */
+    int rejected() {
+        return rejected.get();
+    }
+
+    private void serve() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                this.socket = socket;
+                runConnection(socket);
+            } catch (IOException e) {
+                // the peer was closed or the client went away
+            }
+        }
+    }
+
+    private void runConnection(final Socket socket) throws IOException {
+        final Transport transport = Transport.Factory.create();
+        final Connection connection = Connection.Factory.create();
+        final Collector collector = Collector.Factory.create();
+
+        final Sasl sasl = transport.sasl();
+        sasl.server();
+        sasl.setMechanisms("ANONYMOUS", "PLAIN");
+        connection.collect(collector);
+        transport.bind(connection);
+
+        final InputStream in = socket.getInputStream();
+        final OutputStream out = socket.getOutputStream();
+        final byte[] readBuffer = new byte[64 * 1024];
+        boolean authenticated = false;
+
+        while (true) {
+            writeOutput(transport, out);
+
+            final int read = in.read(readBuffer);
+            if (read < 0) {
+                transport.close_tail();
+                return;
+            }
+
+            int offset = 0;
+            while (offset < read) {
+                final ByteBuffer input = transport.getInputBuffer();
+                final int length = Math.min(input.remaining(), read - offset);
+
+                input.put(readBuffer, offset, length);
+                transport.processInput().checkIsOk();
+                offset += length;
+            }
+
+            //any client is allowed in, regardless of the mechanism
+            if (!authenticated && sasl.getRemoteMechanisms().length > 0) {
+                sasl.done(Sasl.SaslOutcome.PN_SASL_OK);
+                authenticated = true;
+            }
+
+            processEvents(collector);
+        }
+    }
+
+    private static void writeOutput(final Transport transport, final OutputStream out) throws IOException {
+        int pending;
+
+        while ((pending = transport.pending()) > 0) {
+            final ByteBuffer head = transport.head();
+            final byte[] bytes = new byte[pending];
+
+            head.get(bytes);
+            out.write(bytes);
+            transport.pop(pending);
+        }
+
+        out.flush();
+    }
+
+    private void processEvents(final Collector collector) {
+        Event event;
+
+        while ((event = collector.peek()) != null) {
+            switch (event.getType()) {
+                case CONNECTION_REMOTE_OPEN: {
+                    event.getConnection().setContainer("rejecting-peer");
+                    event.getConnection().open();
+                    break;
+                }
+                case SESSION_REMOTE_OPEN: {
+                    event.getSession().open();
+                    break;
+                }
+                case LINK_REMOTE_OPEN: {
+                    final Link link = event.getLink();
+
+                    link.setSource(link.getRemoteSource());
+                    link.setTarget(link.getRemoteTarget());
+                    link.open();
+                    if (link instanceof Receiver) {
+                        ((Receiver) link).flow(CREDIT);
+                    }
+                    break;
+                }
+                case DELIVERY: {
+                    onDelivery(event.getDelivery());
+                    break;
+                }
+                case LINK_REMOTE_CLOSE: {
+                    event.getLink().close();
+                    break;
+                }
+                case SESSION_REMOTE_CLOSE: {
+                    event.getSession().close();
+                    break;
+                }
+                case CONNECTION_REMOTE_CLOSE: {
+                    event.getConnection().close();
+                    break;
+                }
+                default: {
+                    break;
+                }
+            }
+
+            collector.pop();
+        }
+    }
+
+    private void onDelivery(final Delivery delivery) {
+        if (!(delivery.getLink() instanceof Receiver) || delivery.isPartial()) {
+            return;
+        }
+
+        final Receiver receiver = (Receiver) delivery.getLink();
+        final byte[] message = new byte[delivery.pending()];
+
+        receiver.recv(message, 0, message.length);
+        receiver.advance();
+
+        final Rejected rejectedState = new Rejected();
+        rejectedState.setError(new ErrorCondition(Symbol.valueOf("amqp:precondition-failed"), "rejected by the test"));
+        delivery.disposition(rejectedState);
+        delivery.settle();
+        rejected.incrementAndGet();
+
+        receiver.flow(1);
+    }
+
+    @Override
+    public void close() throws Exception {
+        serverSocket.close();
+
+        final Socket socket = this.socket;
+        if (socket != null) {
+            socket.close();
+        }
+
+        acceptor.join();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.artemis;
+
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.ActiveMQQueueExistsException;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.maestro.common.jms.Client;
+import org.maestro.common.worker.WorkerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A basic client using the Artemis core API, without the JMS layer
+ */
+class ArtemisClient implements Client {
+    private static final Logger logger = LoggerFactory.getLogger(ArtemisClient.class);
+
+    protected String url = null;
+    protected ArtemisOptions opts;
+    protected ServerLocator serverLocator = null;
+    protected ClientSessionFactory sessionFactory = null;
+    protected ClientSession session = null;
+    protected SimpleString address = null;
+    protected RoutingType routingType = null;
+
+    protected int number = -1;
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public ArtemisOptions getOpts() {
+        return opts;
+    }
+
+    /**
+     * Configures the server locator before the session factory is created
+     * @param serverLocator the server locator
+     */
+    protected void configure(final ServerLocator serverLocator) {
+
+    }
+
+    @Override
+    public void start() throws Exception {
+        logger.debug("Starting the Artemis core client");
+
+        try {
+            opts = new ArtemisOptions(url);
+
+            logger.debug("Artemis core client is running with connection url {}", opts.getConnectionUrl());
+            serverLocator = ActiveMQClient.createServerLocator(opts.getConnectionUrl());
+            configure(serverLocator);
+            sessionFactory = serverLocator.createSessionFactory();
+
+            final String addressName = WorkerUtils.setupLimitDestinations(opts.getPath().substring(1),
+                    opts.getConfiguredLimitDestinations(), getNumber());
+            address = SimpleString.toSimpleString(addressName);
+            routingType = getRoutingType(opts.getType());
+
+            logger.debug("Creating the session");
+            session = sessionFactory.createSession(true, true);
+            if (routingType == RoutingType.ANYCAST) {
+                createQueue(address);
+            }
+            session.start();
+        } catch (Throwable t) {
+            logger.warn("Something wrong happened while initializing the Artemis core client: {}", t.getMessage(), t);
+
+            stop();
+            throw t;
+        }
+    }
+
+    private static RoutingType getRoutingType(final String type) {
+        switch (type) {
+            case "queue":
+                return RoutingType.ANYCAST;
+            case "topic":
+                return RoutingType.MULTICAST;
+            default:
+                throw new UnsupportedOperationException("not supported destination type: " + type);
+        }
+    }
+
+    /*
+     * The messages sent to an anycast address without queues are dropped, therefore both the senders and the
+     * receivers make sure that the queue exists before the test starts
+     */
+    private void createQueue(final SimpleString queueName) throws ActiveMQException {
+        if (session.queueQuery(queueName).isExists()) {
+            return;
+        }
+
+        try {
+            logger.debug("Creating the queue {}", queueName);
+            session.createQueue(queueName, RoutingType.ANYCAST, queueName, true);
+        } catch (ActiveMQQueueExistsException e) {
+            logger.debug("The queue {} was created by another client", queueName);
+        }
+    }
+
+    protected static void capturingClose(final AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Throwable t) {
+                logger.debug("Error while closing the resource: {}", t.getMessage(), t);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        logger.debug("Stopping the Artemis core client");
+        capturingClose(session);
+        this.session = null;
+        capturingClose(sessionFactory);
+        this.sessionFactory = null;
+        capturingClose(serverLocator);
+        this.serverLocator = null;
+    }
+
+    @Override
+    public void setUrl(String url) {
+        this.url = url;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.artemis;
+
+import org.maestro.common.URLQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The options for the Artemis core clients, parsed from the test URL (ie.:
+ * tcp://host:61616/test.performance.queue?durable=true&amp;asyncSend=true).
+ * <p>
+ * Any query parameter that is not an option of the worker is passed on to the server locator, so the
+ * client settings, such as consumerWindowSize, confirmationWindowSize or ackBatchSize, can be set directly
+ * on the URL.
+ */
+class ArtemisOptions {
+    private static final Logger logger = LoggerFactory.getLogger(ArtemisOptions.class);
+
+    private static final Set<String> maestroOptions = new HashSet<>();
+
+    static {
+        maestroOptions.add("type");
+        maestroOptions.add("ttl");
+        maestroOptions.add("durable");
+        maestroOptions.add("priority");
+        maestroOptions.add("limitDestinations");
+        maestroOptions.add("reuseMessage");
+        maestroOptions.add("asyncSend");
+        maestroOptions.add("maxInFlight");
+    }
+
+    private String type;
+    private String connectionUrl;
+    private String path;
+    private int configuredLimitDestinations;
+    private long ttl;
+    private boolean durable;
+    private int priority;
+    private boolean reuseMessage;
+    private boolean asyncSend;
+    private int maxInFlight;
+
+    public ArtemisOptions(final String url) {
+        try {
+            final URI uri = new URI(url);
+            final URLQuery urlQuery = new URLQuery(uri);
+
+            path = uri.getPath();
+            type = urlQuery.getString("type", "queue");
+            configuredLimitDestinations = urlQuery.getInteger("limitDestinations", 0);
+
+            durable = urlQuery.getBoolean("durable", false);
+            priority = urlQuery.getInteger("priority", 4);
+            ttl = urlQuery.getLong("ttl", 0L);
+            reuseMessage = urlQuery.getBoolean("reuseMessage", false);
+            asyncSend = urlQuery.getBoolean("asyncSend", false);
+            maxInFlight = urlQuery.getInteger("maxInFlight", 1024);
+
+            connectionUrl = filterURL(uri, urlQuery);
+        } catch (Throwable t) {
+            logger.warn("Something wrong happened while parsing arguments from url : {}", t.getMessage(), t);
+        }
+    }
+
+    // the server locator URL must not have the address nor the worker options
+    private static String filterURL(final URI uri, final URLQuery query) {
+        final Map<String, String> params = query.getParams();
+        final StringBuilder queryStringBuilder = new StringBuilder();
+
+        final Iterator<Map.Entry<String, String>> it = params.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<String, String> param = it.next();
+
+            if (!maestroOptions.contains(param.getKey())) {
+                if (queryStringBuilder.length() > 0) {
+                    queryStringBuilder.append("&");
+                }
+
+                queryStringBuilder.append(param.getKey()).append("=").append(param.getValue());
+            }
+        }
+
+        final String queryString = queryStringBuilder.length() > 0 ? "?" + queryStringBuilder : "";
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort() + queryString;
+    }
+
+    public String getConnectionUrl() {
+        return connectionUrl;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getConfiguredLimitDestinations() {
+        return configuredLimitDestinations;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public boolean isDurable() {
+        return durable;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public boolean isReuseMessage() {
+        return reuseMessage;
+    }
+
+    public boolean isAsyncSend() {
+        return asyncSend;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.artemis;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.maestro.common.content.BenchmarkPayload;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.idle.CountingIdleStrategy;
+import org.maestro.common.idle.IdleStrategies;
+import org.maestro.common.jms.ReceiverClient;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * A receiver using the Artemis core API. The number of bytes buffered by the consumer is set with the
+ * consumerWindowSize URL parameter
+ */
+final class ArtemisReceiverClient extends ArtemisClient implements ReceiverClient {
+    private static final long RECEIVE_TIMEOUT_MILLIS = 1000L;
+
+    private ClientConsumer consumer;
+    private ByteBuffer payloadBytes;
+    private long expectedSendTimeEpochMicros = ReceiverClient.noMessagePayload();
+    private int messageSize = -1;
+    private CountingIdleStrategy idleStrategy;
+
+    @Override
+    public void start() throws Exception {
+        super.start();
+        try {
+            final SimpleString queueName;
+
+            if (routingType == RoutingType.MULTICAST) {
+                //each receiver gets its own subscription to the address
+                queueName = address.concat("." + UUID.randomUUID());
+                session.createTemporaryQueue(address, RoutingType.MULTICAST, queueName);
+            }
+            else {
+                queueName = address;
+            }
+
+            consumer = session.createConsumer(queueName);
+            payloadBytes = ByteBuffer.allocate(BenchmarkPayload.LENGTH).order(ContentStrategy.CONTENT_ENDIANNESS);
+            idleStrategy = IdleStrategies.forRole(IdleStrategies.ROLE_RECEIVER);
+        } catch (Throwable t) {
+            stop();
+            throw t;
+        }
+    }
+
+    @Override
+    public long receiveMessages(int sessionMode) throws Exception {
+        final ClientMessage message;
+
+        if (idleStrategy.isParking()) {
+            message = consumer.receive(RECEIVE_TIMEOUT_MILLIS);
+            idleStrategy.record(message == null ? 0 : 1);
+        }
+        else {
+            //only poll the consumer and idle according to the configured strategy
+            message = consumer.receiveImmediate();
+            idleStrategy.idle(message == null ? 0 : 1);
+        }
+
+        if (message == null) {
+            return ReceiverClient.noMessagePayload();
+        }
+
+        message.acknowledge();
+
+        //just copy the benchmark payload, without moving the reader index
+        final ActiveMQBuffer bodyBuffer = message.getBodyBuffer();
+        messageSize = bodyBuffer.readableBytes();
+        final int readBytes = Math.min(messageSize, BenchmarkPayload.LENGTH);
+        if (readBytes >= BenchmarkPayload.MIN_LENGTH) {
+            bodyBuffer.getBytes(bodyBuffer.readerIndex(), payloadBytes.array(), 0, readBytes);
+
+            if (BenchmarkPayload.hasExpectedSendTime(readBytes)) {
+                expectedSendTimeEpochMicros = payloadBytes.getLong(BenchmarkPayload.EXPECTED_SEND_TIME_OFFSET);
+            }
+            else {
+                expectedSendTimeEpochMicros = ReceiverClient.noMessagePayload();
+            }
+
+            return payloadBytes.getLong(BenchmarkPayload.SEND_TIME_OFFSET);
+        }
+        throw new IllegalStateException("the received message hasn't any benchmark payload");
+    }
+
+    @Override
+    public long expectedSendTimeEpochMicros() {
+        return expectedSendTimeEpochMicros;
+    }
+
+    @Override
+    public int messageSize() {
+        return messageSize;
+    }
+
+    @Override
+    public void stop() {
+        capturingClose(consumer);
+        this.consumer = null;
+        super.stop();
+    }
+}
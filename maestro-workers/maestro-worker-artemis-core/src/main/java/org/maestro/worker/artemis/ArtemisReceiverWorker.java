@@ -0,0 +1,207 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.artemis;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.maestro.common.content.SizeClasses;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.TestDuration;
+import org.maestro.common.duration.TestDurationBuilder;
+import org.maestro.common.exceptions.DurationParseException;
+import org.maestro.common.jms.ReceiverClient;
+import org.maestro.common.worker.LatencyRecorders;
+import org.maestro.common.worker.MaestroReceiverWorker;
+import org.maestro.common.worker.SizeClassRecorders;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+import org.maestro.common.writers.WorkerChannel;
+import org.maestro.common.writers.WorkerChannels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A receiver worker that uses the Artemis core API directly, without the JMS layer
+ */
+public class ArtemisReceiverWorker implements MaestroReceiverWorker {
+    private static final Logger logger = LoggerFactory.getLogger(ArtemisReceiverWorker.class);
+
+    private TestDuration duration;
+    private final AtomicLong messageCount = new AtomicLong(0);
+    private volatile long startedEpochMillis = Long.MIN_VALUE;
+    private final SingleWriterRecorder latencyRecorder = LatencyRecorders.newRecorder();
+    private final SingleWriterRecorder responseTimeRecorder = LatencyRecorders.newRecorder();
+    // only when the message size follows a distribution
+    private SizeClassRecorders sizeClassRecorders;
+    private final WorkerChannel workerChannel = WorkerChannels.newChannel();
+    private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
+
+    private String url;
+    private int number;
+    // receiver clock - sender clock, as estimated by the front-end
+    private long clockOffsetMicros;
+
+    @Override
+    public WorkerChannel workerChannel() {
+        return workerChannel;
+    }
+
+    @Override
+    public long messageCount() {
+        return messageCount.get();
+    }
+
+    @Override
+    public WorkerStateInfo getWorkerState() {
+        return workerStateInfo;
+    }
+
+    @Override
+    public long startedEpochMillis() {
+        return startedEpochMillis;
+    }
+
+    private void setDuration(String duration) {
+        try {
+            this.duration = TestDurationBuilder.build(duration);
+        } catch (DurationParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void setWorkerNumber(int number) {
+        this.number = number;
+    }
+
+    @Override
+    public void setWorkerOptions(WorkerOptions workerOptions) {
+        this.url = workerOptions.getBrokerURL();
+        setDuration(workerOptions.getDuration());
+        this.clockOffsetMicros = workerOptions.getClockOffsetMicros();
+        this.sizeClassRecorders = SizeClasses.isBrokenDown(workerOptions.getMessageSize()) ?
+                new SizeClassRecorders() : null;
+    }
+
+    public void start() {
+        startedEpochMillis = System.currentTimeMillis();
+        logger.info("Starting the Artemis core receiver worker");
+
+        final ArtemisReceiverClient client = new ArtemisReceiverClient();
+        final long id = Thread.currentThread().getId();
+        boolean started = false;
+        try {
+            client.setUrl(url);
+            workerStateInfo.setState(true, null, null);
+            client.setNumber(number);
+            client.start();
+            started = true;
+
+            try {
+                runReceiveLoop(client);
+            } finally {
+                //the samples emitted so far are flushed even if the loop fails
+                workerChannel.flush();
+            }
+
+            logger.info("Worker {} completed running successfully with {} messages received", id,
+                    messageCount);
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_SUCCESS, null);
+        } catch (Exception e) {
+            if (!started) {
+                logger.error("Unable to start the receiver worker: {}", e.getMessage(), e);
+            }
+            else {
+                logger.error("Unexpected error while running the receiver worker: {}", e.getMessage(), e);
+            }
+
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
+        } finally {
+            client.stop();
+            logger.info("Finalized worker {} after receiving {} messages", id, messageCount);
+        }
+    }
+
+    private void runReceiveLoop(final ArtemisReceiverClient client) throws Exception {
+        final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
+        long count = 0;
+
+        while (duration.canContinue(this) && isRunning()) {
+            final long sendTimeEpochMicros = client.receiveMessages(-1);
+
+            if (sendTimeEpochMicros != ReceiverClient.noMessagePayload()) {
+                final long nowInMicros = epochMicroClock.microTime() - clockOffsetMicros;
+
+                //the service latency: from the actual send time
+                LatencyRecorders.recordLatency(latencyRecorder, sendTimeEpochMicros, nowInMicros);
+                if (sizeClassRecorders != null) {
+                    sizeClassRecorders.recordLatency(client.messageSize(), sendTimeEpochMicros, nowInMicros);
+                }
+
+                //the response time: from the intended send time, to account for a sender falling behind its schedule
+                final long expectedSendTimeEpochMicros = client.expectedSendTimeEpochMicros();
+                LatencyRecorders.recordLatency(responseTimeRecorder,
+                        expectedSendTimeEpochMicros != ReceiverClient.noMessagePayload() ?
+                                expectedSendTimeEpochMicros : sendTimeEpochMicros, nowInMicros);
+
+                workerChannel.emitRate(sendTimeEpochMicros, nowInMicros);
+                count++;
+                messageCount.lazySet(count);
+            }
+        }
+    }
+
+    @Override
+    public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
+        return latencyRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeResponseTimesSnapshot(Histogram intervalHistogram) {
+        return responseTimeRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeSizeClassLatenciesSnapshot(int sizeClass, Histogram intervalHistogram) {
+        final SizeClassRecorders sizeClassRecorders = this.sizeClassRecorders;
+
+        return sizeClassRecorders == null ? null : sizeClassRecorders.takeSnapshot(sizeClass, intervalHistogram);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workerStateInfo.isRunning();
+    }
+
+    @Override
+    public void stop() {
+        workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_STOPPED, null);
+    }
+
+    @Override
+    public void halt() {
+        stop();
+    }
+
+    @Override
+    public void run() {
+        start();
+    }
+}
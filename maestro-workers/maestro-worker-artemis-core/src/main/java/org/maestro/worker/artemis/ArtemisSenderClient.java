@@ -0,0 +1,217 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.artemis;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.SendAcknowledgementHandler;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.maestro.common.content.BenchmarkPayload;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.jms.SenderClient;
+import org.maestro.common.worker.SendCompletionWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A sender using the Artemis core API
+ */
+final class ArtemisSenderClient extends ArtemisClient implements SenderClient {
+    private static final Logger logger = LoggerFactory.getLogger(ArtemisSenderClient.class);
+    private static final boolean REVERSE_BYTES = ContentStrategy.CONTENT_ENDIANNESS != ByteOrder.BIG_ENDIAN;
+    // the broker confirms the sends when this many bytes have been received, so one byte confirms every send
+    private static final int DEFAULT_CONFIRMATION_WINDOW_SIZE = 1;
+
+    private ContentStrategy contentStrategy;
+    private ClientProducer producer;
+    private SendCompletionWindow sendAckWindow;
+    private SendAcknowledgementHandler sendAcknowledgementHandler;
+
+    // the pre-allocated message, when reusing it
+    private ClientMessage reusableMessage;
+    private int timestampIndex;
+    private boolean hasExpectedSendTime;
+    private int messageSize = -1;
+
+    @Override
+    protected void configure(final ServerLocator serverLocator) {
+        if (!opts.isAsyncSend()) {
+            return;
+        }
+
+        /*
+         * The send acknowledgements are only sent by the broker when there is a confirmation window. The broker
+         * confirms the sends only once the window is full and flushes a partial window only when the session is
+         * closed: a window larger than the in-flight messages stalls the sender and leaves the last sends
+         * unconfirmed
+         */
+        if (serverLocator.getConfirmationWindowSize() <= 0) {
+            logger.info("Setting the confirmation window size to {} bytes for the asynchronous sends",
+                    DEFAULT_CONFIRMATION_WINDOW_SIZE);
+            serverLocator.setConfirmationWindowSize(DEFAULT_CONFIRMATION_WINDOW_SIZE);
+        }
+        else {
+            logger.warn("Using a confirmation window of {} bytes for the asynchronous sends: the sends are only " +
+                    "acknowledged when the window is full", serverLocator.getConfirmationWindowSize());
+        }
+
+        serverLocator.setBlockOnDurableSend(false);
+        serverLocator.setBlockOnNonDurableSend(false);
+    }
+
+    @Override
+    public void start() throws Exception {
+        super.start();
+        try {
+            producer = session.createProducer(address);
+
+            if (opts.isAsyncSend()) {
+                logger.info("The sender is using asynchronous sends with up to {} messages in-flight",
+                        opts.getMaxInFlight());
+                final SendCompletionWindow window = new SendCompletionWindow(opts.getMaxInFlight());
+
+                // the handler of the Artemis 2.4.0 client has no failure callback: the sends that fail are
+                // acknowledged as well, therefore they are counted as confirmed
+                sendAcknowledgementHandler = message -> window.complete();
+                sendAckWindow = window;
+            }
+
+            setupReusableMessage();
+        } catch (Throwable t) {
+            stop();
+            throw t;
+        }
+    }
+
+    private void setupReusableMessage() {
+        if (!opts.isReuseMessage()) {
+            return;
+        }
+
+        // the message can't be modified before the broker confirms it
+        if (sendAckWindow != null) {
+            logger.warn("Ignoring the request to reuse the message because the sender is using asynchronous sends");
+            return;
+        }
+
+        if (!contentStrategy.isFixedSize()) {
+            logger.warn("Ignoring the request to reuse the message because the message size is not fixed");
+            return;
+        }
+
+        logger.info("The sender is reusing the same message for every send");
+        final ByteBuffer content = contentStrategy.prepareContent();
+
+        messageSize = content.remaining();
+        reusableMessage = newMessage();
+        timestampIndex = reusableMessage.getBodyBuffer().readerIndex();
+        hasExpectedSendTime = BenchmarkPayload.hasExpectedSendTime(content.remaining());
+        reusableMessage.getBodyBuffer().writeBytes(content.array(), content.arrayOffset() + content.position(),
+                content.remaining());
+    }
+
+    private ClientMessage newMessage() {
+        final ClientMessage message = session.createMessage(Message.BYTES_TYPE, opts.isDurable());
+
+        message.setRoutingType(routingType);
+        message.setPriority((byte) opts.getPriority());
+        return message;
+    }
+
+    /**
+     * Gets the window of in-flight asynchronous sends
+     * @return the window or null if the sender is not using asynchronous sends
+     */
+    SendCompletionWindow sendAckWindow() {
+        return sendAckWindow;
+    }
+
+    private static long toBodyOrder(long value) {
+        // the body buffer is big endian while the content uses the content strategy endianness
+        return REVERSE_BYTES ? Long.reverseBytes(value) : value;
+    }
+
+    @Override
+    public void sendMessages(long sendTimeEpochInMicros, boolean commitTransaction) throws ActiveMQException {
+        sendMessages(sendTimeEpochInMicros, sendTimeEpochInMicros, commitTransaction);
+    }
+
+    @Override
+    public void sendMessages(long sendTimeEpochInMicros, long expectedSendTimeEpochInMicros,
+                             boolean commitTransaction) throws ActiveMQException {
+        final ClientMessage message;
+
+        if (reusableMessage != null) {
+            message = reusableMessage;
+
+            final ActiveMQBuffer bodyBuffer = message.getBodyBuffer();
+            bodyBuffer.setLong(timestampIndex + BenchmarkPayload.SEND_TIME_OFFSET, toBodyOrder(sendTimeEpochInMicros));
+            if (hasExpectedSendTime) {
+                bodyBuffer.setLong(timestampIndex + BenchmarkPayload.EXPECTED_SEND_TIME_OFFSET,
+                        toBodyOrder(expectedSendTimeEpochInMicros));
+            }
+        }
+        else {
+            message = newMessage();
+
+            final ByteBuffer content = contentStrategy.prepareContent();
+            messageSize = content.remaining();
+            //the timestamps are part of the message content
+            BenchmarkPayload.write(content, sendTimeEpochInMicros, expectedSendTimeEpochInMicros);
+            message.getBodyBuffer().writeBytes(content.array(), content.arrayOffset() + content.position(),
+                    content.remaining());
+        }
+
+        final long ttl = opts.getTtl();
+        if (ttl > 0) {
+            message.setExpiration(System.currentTimeMillis() + ttl);
+        }
+
+        if (sendAcknowledgementHandler != null) {
+            producer.send(message, sendAcknowledgementHandler);
+        }
+        else {
+            producer.send(message);
+        }
+    }
+
+    @Override
+    public void setContentStrategy(ContentStrategy contentStrategy) {
+        this.contentStrategy = contentStrategy;
+    }
+
+    @Override
+    public int messageSize() {
+        return messageSize;
+    }
+
+    @Override
+    public void stop() {
+        this.reusableMessage = null;
+        this.sendAckWindow = null;
+        this.sendAcknowledgementHandler = null;
+        capturingClose(producer);
+        this.producer = null;
+        super.stop();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.artemis;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.content.ContentStrategyFactory;
+import org.maestro.common.content.SizeClasses;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.TestDuration;
+import org.maestro.common.duration.TestDurationBuilder;
+import org.maestro.common.exceptions.DurationParseException;
+import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.idle.IdleStrategies;
+import org.maestro.common.scheduler.SendScheduler;
+import org.maestro.common.scheduler.SendSchedulers;
+import org.maestro.common.worker.LatencyRecorders;
+import org.maestro.common.worker.MaestroSenderWorker;
+import org.maestro.common.worker.SendCompletionWindow;
+import org.maestro.common.worker.SizeClassRecorders;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+import org.maestro.common.writers.WorkerChannel;
+import org.maestro.common.writers.WorkerChannels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A sender worker that uses the Artemis core API directly, without the JMS layer.<p>
+ * On asynchronous sends the messages are counted as sent when the broker acknowledges them. The Artemis 2.4.0
+ * client does not report the sends that fail (its acknowledgement handler has no failure callback), therefore
+ * those are counted as sent as well.
+ */
+public class ArtemisSenderWorker implements MaestroSenderWorker {
+    private static final Logger logger = LoggerFactory.getLogger(ArtemisSenderWorker.class);
+    private static final long ASYNC_SEND_DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private ContentStrategy contentStrategy;
+    private TestDuration duration;
+    private final WorkerChannel workerChannel = WorkerChannels.newChannel();
+    private final AtomicLong messageCount = new AtomicLong(0);
+    private volatile long startedEpochMillis = Long.MIN_VALUE;
+    private final SingleWriterRecorder sendLatencyRecorder = LatencyRecorders.newRecorder();
+    // only when the message size follows a distribution
+    private SizeClassRecorders sizeClassRecorders;
+    private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
+
+    private String url;
+    private long rate = 0;
+    private String sendSchedulerSpec;
+    private int number;
+
+    private final SendCompletionWindow.CompletedSendHandler confirmedSendHandler = this::onConfirmedSend;
+
+    @Override
+    public WorkerChannel workerChannel() {
+        return workerChannel;
+    }
+
+    @Override
+    public long startedEpochMillis() {
+        return this.startedEpochMillis;
+    }
+
+    @Override
+    public WorkerStateInfo getWorkerState() {
+        return workerStateInfo;
+    }
+
+    @Override
+    public long messageCount() {
+        return messageCount.get();
+    }
+
+    private void setDuration(String duration) {
+        try {
+            this.duration = TestDurationBuilder.build(duration);
+        } catch (DurationParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void setWorkerNumber(int number) {
+        this.number = number;
+    }
+
+    @Override
+    public void setWorkerOptions(WorkerOptions workerOptions) {
+        if (workerOptions.getRate() != null) {
+            this.rate = Long.parseLong(workerOptions.getRate());
+        }
+
+        setDuration(workerOptions.getDuration());
+        this.url = workerOptions.getBrokerURL();
+        this.contentStrategy = ContentStrategyFactory.parse(workerOptions.getMessageSize());
+        this.sizeClassRecorders = SizeClasses.isBrokenDown(workerOptions.getMessageSize()) ?
+                new SizeClassRecorders() : null;
+        this.sendSchedulerSpec = workerOptions.getSendScheduler();
+    }
+
+    public void start() {
+        startedEpochMillis = System.currentTimeMillis();
+        logger.info("Starting the Artemis core sender worker");
+
+        final ArtemisSenderClient client = new ArtemisSenderClient();
+        final long id = Thread.currentThread().getId();
+        boolean started = false;
+        try {
+            final SendScheduler sendScheduler = doClientStartup(client);
+            started = true;
+
+            try {
+                runLoadLoop(client, sendScheduler);
+            } finally {
+                //the samples emitted so far are flushed even if the loop fails
+                workerChannel.flush();
+            }
+
+            logger.info("Worker {} completed running successfully with {} messages sent", id,
+                    messageCount);
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_SUCCESS, null);
+        } catch (InterruptedException e) {
+            logger.error("Artemis core sender worker {} interrupted while sending messages: {}", id,
+                    e.getMessage());
+
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
+        } catch (Exception e) {
+            if (!started) {
+                logger.error("Unable to start the sender worker: {}", e.getMessage(), e);
+            }
+            else {
+                logger.error("Unexpected error while running the sender worker: {}", e.getMessage(), e);
+            }
+
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
+        } finally {
+            client.stop();
+            logger.info("Finalized worker {} after sending {} messages", id, messageCount);
+        }
+    }
+
+    private void runLoadLoop(final ArtemisSenderClient client, final SendScheduler sendScheduler) throws Exception {
+        long count = 0;
+
+        final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
+        final long startFireEpochMicros = epochMicroClock.microTime();
+        sendScheduler.start(System.nanoTime());
+
+        final SendCompletionWindow sendAckWindow = client.sendAckWindow();
+
+        while (duration.canContinue(this) && isRunning() && sendScheduler.hasNext()) {
+            final long expectedElapsedNanos = sendScheduler.awaitNext();
+            final long sendTimeEpochMicros = epochMicroClock.microTime();
+            final long expectedSendTimeEpochMicros;
+
+            if (expectedElapsedNanos != SendScheduler.UNSCHEDULED) {
+                expectedSendTimeEpochMicros = startFireEpochMicros + (expectedElapsedNanos / 1_000L);
+            } else {
+                expectedSendTimeEpochMicros = sendTimeEpochMicros;
+            }
+
+            if (sendAckWindow != null) {
+                sendAckWindow.awaitCapacity(this.confirmedSendHandler);
+                sendAckWindow.register(expectedSendTimeEpochMicros, sendTimeEpochMicros);
+                client.sendMessages(sendTimeEpochMicros, expectedSendTimeEpochMicros, false);
+                sendAckWindow.setMessageSize(client.messageSize());
+            }
+            else {
+                final long sendStartNanos = System.nanoTime();
+                client.sendMessages(sendTimeEpochMicros, expectedSendTimeEpochMicros, false);
+                final long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendStartNanos);
+
+                LatencyRecorders.recordElapsed(sendLatencyRecorder, elapsedMicros);
+                if (sizeClassRecorders != null) {
+                    sizeClassRecorders.recordElapsed(client.messageSize(), elapsedMicros);
+                }
+
+                workerChannel.emitRate(expectedSendTimeEpochMicros, sendTimeEpochMicros);
+            }
+
+            count++;
+            //update message sent count
+            this.messageCount.lazySet(count);
+        }
+
+        if (sendAckWindow != null) {
+            sendAckWindow.awaitCompletion(this.confirmedSendHandler, ASYNC_SEND_DRAIN_TIMEOUT_NANOS);
+        }
+    }
+
+    private void onConfirmedSend(long expectedSendTimeEpochMicros, long sendTimeEpochMicros,
+                                 long confirmationTimeEpochMicros, int messageSize) {
+        //on asynchronous sends the message is considered sent only when the broker confirms it
+        workerChannel.emitRate(expectedSendTimeEpochMicros, confirmationTimeEpochMicros);
+        LatencyRecorders.recordElapsed(sendLatencyRecorder, confirmationTimeEpochMicros - sendTimeEpochMicros);
+        if (sizeClassRecorders != null) {
+            sizeClassRecorders.recordElapsed(messageSize, confirmationTimeEpochMicros - sendTimeEpochMicros);
+        }
+    }
+
+    private SendScheduler doClientStartup(final ArtemisSenderClient client) throws Exception {
+        if (contentStrategy == null) {
+            throw new MaestroException("Trying to run a test without defining the message size");
+        }
+
+        final SendScheduler sendScheduler = SendSchedulers.parse(sendSchedulerSpec, rate,
+                IdleStrategies.forRole(IdleStrategies.ROLE_SENDER));
+
+        client.setUrl(url);
+        client.setContentStrategy(contentStrategy);
+
+        workerStateInfo.setState(true, null, null);
+        client.setNumber(number);
+        client.start();
+
+        return sendScheduler;
+    }
+
+    @Override
+    public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
+        return sendLatencyRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeSizeClassLatenciesSnapshot(int sizeClass, Histogram intervalHistogram) {
+        final SizeClassRecorders sizeClassRecorders = this.sizeClassRecorders;
+
+        return sizeClassRecorders == null ? null : sizeClassRecorders.takeSnapshot(sizeClass, intervalHistogram);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workerStateInfo.isRunning();
+    }
+
+    @Override
+    public void stop() {
+        workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_STOPPED, null);
+    }
+
+    @Override
+    public void halt() {
+        stop();
+    }
+
+    @Override
+    public void run() {
+        start();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.artemis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArtemisOptionsTest {
+
+    @Test
+    public void testDefaults() {
+        final ArtemisOptions options = new ArtemisOptions("tcp://hostname:61616/test.performance.queue");
+
+        assertEquals("The connection URL does not match the expected one", "tcp://hostname:61616",
+                options.getConnectionUrl());
+        assertEquals("/test.performance.queue", options.getPath());
+        assertEquals("queue", options.getType());
+        assertFalse(options.isDurable());
+        assertFalse(options.isAsyncSend());
+        assertFalse(options.isReuseMessage());
+        assertEquals(0, options.getConfiguredLimitDestinations());
+    }
+
+    @Test
+    public void testClientParametersArePassedOn() {
+        final ArtemisOptions options = new ArtemisOptions("tcp://hostname:61616/test.performance.topic?type=topic" +
+                "&durable=true&asyncSend=true&maxInFlight=32&consumerWindowSize=0");
+
+        assertEquals("The connection URL does not match the expected one",
+                "tcp://hostname:61616?consumerWindowSize=0", options.getConnectionUrl());
+        assertEquals("topic", options.getType());
+        assertTrue(options.isDurable());
+        assertTrue(options.isAsyncSend());
+        assertEquals(32, options.getMaxInFlight());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.artemis;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+
+import java.io.File;
+import java.net.ServerSocket;
+
+import static org.junit.Assert.*;
+
+public class ArtemisRoundTripTest {
+    private static final int MESSAGES = 500;
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private EmbeddedActiveMQ broker;
+    private String brokerUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        final File dataDir = tempFolder.newFolder("data");
+        final Configuration configuration = new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .setJournalDirectory(new File(dataDir, "journal").getPath())
+                .setBindingsDirectory(new File(dataDir, "bindings").getPath())
+                .setPagingDirectory(new File(dataDir, "paging").getPath())
+                .setLargeMessagesDirectory(new File(dataDir, "large-messages").getPath())
+                .addAcceptorConfiguration("tcp", "tcp://localhost:" + port);
+
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+
+        brokerUrl = "tcp://localhost:" + port + "/test.performance.queue";
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    private static WorkerOptions newWorkerOptions(final String url) {
+        final WorkerOptions workerOptions = new WorkerOptions();
+
+        workerOptions.setBrokerURL(url);
+        workerOptions.setDuration(Integer.toString(MESSAGES));
+        workerOptions.setMessageSize("256");
+        return workerOptions;
+    }
+
+    private void roundTrip(final String senderUrl) throws InterruptedException {
+        final ArtemisReceiverWorker receiver = new ArtemisReceiverWorker();
+        receiver.setWorkerOptions(newWorkerOptions(brokerUrl));
+        final ArtemisSenderWorker sender = new ArtemisSenderWorker();
+        sender.setWorkerOptions(newWorkerOptions(senderUrl));
+
+        final Thread receiverThread = new Thread(receiver, "artemis-receiver");
+        final Thread senderThread = new Thread(sender, "artemis-sender");
+        receiverThread.start();
+        senderThread.start();
+        senderThread.join();
+        receiverThread.join();
+
+        assertEquals("The sender did not complete successfully",
+                WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_SUCCESS, sender.getWorkerState().getExitStatus());
+        assertEquals("The receiver did not complete successfully",
+                WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_SUCCESS, receiver.getWorkerState().getExitStatus());
+
+        assertEquals(MESSAGES, sender.messageCount());
+        //there is one send latency sample per message acknowledged by the broker
+        assertEquals("Not every message sent was acknowledged", MESSAGES,
+                sender.takeLatenciesSnapshot(null).getTotalCount());
+        assertEquals(MESSAGES, receiver.messageCount());
+        assertEquals(MESSAGES, receiver.takeLatenciesSnapshot(null).getTotalCount());
+    }
+
+    @Test(timeout = 60_000L)
+    public void testBlockingSends() throws InterruptedException {
+        roundTrip(brokerUrl);
+    }
+
+    @Test(timeout = 60_000L)
+    public void testAsyncSends() throws InterruptedException {
+        //a window smaller than the messages sent, so that the sender waits for the acknowledgements to send more
+        roundTrip(brokerUrl + "?asyncSend=true&maxInFlight=16");
+    }
+}
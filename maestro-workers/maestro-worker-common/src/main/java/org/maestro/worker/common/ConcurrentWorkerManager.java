@@ -23,7 +23,11 @@ import org.maestro.common.evaluators.HardLatencyEvaluator;
 import org.maestro.common.evaluators.LatencyEvaluator;
 import org.maestro.common.evaluators.SoftLatencyEvaluator;
 import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.idle.CountingIdleStrategy;
+import org.maestro.common.idle.IdleStrategies;
+import org.maestro.common.test.TestProperties;
 import org.maestro.common.worker.*;
+import org.maestro.common.writers.RateFormat;
 import org.maestro.contrib.utils.digest.Sha1Digest;
 import org.maestro.worker.common.ds.MaestroDataServer;
 import org.slf4j.Logger;
@@ -32,7 +36,9 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static org.maestro.worker.common.WorkerStateInfoUtil.isCleanExit;
 
@@ -43,16 +49,24 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
     private static final Logger logger = LoggerFactory.getLogger(ConcurrentWorkerManager.class);
     private static final long TIMEOUT_STOP_WORKER_MILLIS;
     private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+    private static final RateFormat RATE_FORMAT;
+    private static final long STATS_INTERVAL_MILLIS;
+    private static final boolean STATS_PUSH;
 
     private final WorkerContainer container;
     private final Class<MaestroWorker> workerClass;
     private final File logDir;
+    private volatile File testLogDir;
     private Thread latencyWriterThread;
     private Thread rateWriterThread;
     private LatencyEvaluator latencyEvaluator;
+    private volatile LiveLatencyStats liveLatencyStats;
 
     static {
         TIMEOUT_STOP_WORKER_MILLIS = config.getLong("maestro.worker.stop.timeout", 1000);
+        RATE_FORMAT = RateFormat.parse(config.getString("maestro.worker.rate.format", RateFormat.CSV.name()));
+        STATS_INTERVAL_MILLIS = config.getLong("maestro.worker.stats.interval", 1000);
+        STATS_PUSH = config.getBoolean("maestro.worker.stats.push", true);
     }
 
     /**
@@ -92,6 +106,8 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
 
         try {
             super.writeTestProperties(testLogDir);
+            this.testLogDir = testLogDir;
+            IdleStrategies.reset();
 
             final List<MaestroWorker> workers = new ArrayList<>();
 
@@ -103,20 +119,19 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
             } else {
                 logger.debug("Creating the latency writer thread");
 
-                WorkerLatencyWriter latencyWriter;
-                if (latencyEvaluator == null) {
-                    latencyWriter = new WorkerLatencyWriter(testLogDir, workers);
-                }
-                else {
-                    long reportingInterval = config.getLong("maestro.worker.reporting.interval", 10000);
-                    latencyWriter = new WorkerLatencyWriter(testLogDir, workers, latencyEvaluator,
-                            reportingInterval);
-                }
-                this.latencyWriterThread = new Thread(latencyWriter);
+                //the latency writer is the only one allowed to take the latency snapshots of the workers
+                final LiveLatencyStats liveStats = STATS_PUSH ? new LiveLatencyStats(this::pushStats)
+                        : new LiveLatencyStats();
+                final long reportingInterval = config.getLong("maestro.worker.reporting.interval", 10000);
+                final WorkerLatencyWriter latencyWriter = new WorkerLatencyWriter(testLogDir, workers,
+                        latencyEvaluator, reportingInterval, liveStats, STATS_INTERVAL_MILLIS);
+
+                this.liveLatencyStats = liveStats;
+                this.latencyWriterThread = WorkerThreads.newServiceThread(latencyWriter, "maestro-latency-writer");
 
                 logger.debug("Creating the rate writer thread");
-                WorkerChannelWriter rateWriter = new WorkerChannelWriter(testLogDir, workers);
-                this.rateWriterThread = new Thread(rateWriter);
+                WorkerChannelWriter rateWriter = new WorkerChannelWriter(testLogDir, workers, RATE_FORMAT);
+                this.rateWriterThread = WorkerThreads.newServiceThread(rateWriter, "maestro-rate-writer");
 
                 logger.debug("Starting the writers threads");
                 this.latencyWriterThread.start();
@@ -226,6 +241,8 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
                 shutdownAndWaitWriters();
                 final long elapsedMillis = System.currentTimeMillis() - startWaitingWorkers;
                 logger.info("Awaiting workers and shutting down writers took {} ms", elapsedMillis);
+
+                writeIdleStats(this.testLogDir);
             }
 
             boolean failed = false;
@@ -245,6 +262,44 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         }
     }
 
+    /*
+     * Adds the busy and idle cycles of the threads of each role to the test properties. They are only accurate
+     * if all the threads have finished
+     */
+    private void writeIdleStats(final File testLogDir) {
+        final Map<String, Collection<CountingIdleStrategy>> idleStrategies = IdleStrategies.registered();
+
+        if (testLogDir == null || idleStrategies.isEmpty()) {
+            return;
+        }
+
+        final File testPropertiesFile = new File(testLogDir, TestProperties.FILENAME);
+        try {
+            final TestProperties testProperties = new TestProperties();
+            testProperties.load(testPropertiesFile);
+
+            for (Map.Entry<String, Collection<CountingIdleStrategy>> entry : idleStrategies.entrySet()) {
+                String strategy = null;
+                long busyCycles = 0;
+                long idleCycles = 0;
+
+                for (CountingIdleStrategy idleStrategy : entry.getValue()) {
+                    strategy = idleStrategy.getName();
+                    busyCycles += idleStrategy.getBusyCycles();
+                    idleCycles += idleStrategy.getIdleCycles();
+                }
+
+                logger.info("The {} threads ({}) had {} busy and {} idle cycles", entry.getKey(), strategy,
+                        busyCycles, idleCycles);
+                testProperties.setIdleStats(entry.getKey(), strategy, busyCycles, idleCycles);
+            }
+
+            testProperties.write(testPropertiesFile);
+        } catch (Exception e) {
+            logger.error("Unable to write the idle statistics to {}: {}", testPropertiesFile, e.getMessage(), e);
+        }
+    }
+
     @Override
     public void handle(SetRequest note) {
         super.handle(note);
@@ -309,6 +364,35 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
     @Override
     public void handle(StatsRequest note) {
         logger.trace("Stats request received");
+
+        final ThroughputStats throughputStats = container.throughputStats();
+
+        // The latencies of the last sampling interval, as taken by the latency writer
+        final LiveLatencyStats liveStats = this.liveLatencyStats;
+        final LatencyStats latencyStats = throughputStats != null && liveStats != null ? liveStats.last() : null;
+
+        getClient().statsResponse(newStatsResponse(throughputStats, latencyStats));
+    }
+
+    /**
+     * Pushes the stats of the last sampling interval on the stats topic of this peer. It is called by
+     * the latency writer thread
+     * @param latencyStats the latency statistics of the last sampling interval
+     */
+    private void pushStats(final LatencyStats latencyStats) {
+        final ThroughputStats throughputStats = container.throughputStats();
+
+        if (throughputStats == null) {
+            return;
+        }
+
+        final StatsResponse statsResponse = newStatsResponse(throughputStats, latencyStats);
+
+        statsResponse.setLatencyHistogram(latencyStats.getHistogram());
+        getClient().statsPush(statsResponse);
+    }
+
+    private StatsResponse newStatsResponse(final ThroughputStats throughputStats, final LatencyStats latencyStats) {
         StatsResponse statsResponse = new StatsResponse();
 
         String parallelCount = getWorkerOptions().getParallelCount();
@@ -323,28 +407,29 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         // Explanation: the role is the name as the role (ie: clientName@host)
         statsResponse.setRole(getClientName());
 
-        LatencyStats latencyStats = container.latencyStats();
-        if (latencyStats != null) {
-            statsResponse.setLatency(latencyStats.getLatency());
-        }
-        else {
-            statsResponse.setLatency(0);
-        }
-
-        ThroughputStats throughputStats = container.throughputStats();
-
         if (throughputStats != null) {
-            statsResponse.setRate(throughputStats.getRate());
+            statsResponse.setRate(throughputStats.getIntervalRate());
             statsResponse.setCount(throughputStats.getCount());
         }
         else {
             statsResponse.setRate(0);
             statsResponse.setCount(0);
         }
+
+        if (latencyStats != null) {
+            statsResponse.setLatency(latencyStats.getLatency());
+            statsResponse.setLatencyPercentile50(latencyStats.getPercentile50());
+            statsResponse.setLatencyPercentile99(latencyStats.getPercentile99());
+            statsResponse.setLatencyMax(latencyStats.getMaxLatency());
+        }
+        else {
+            statsResponse.setLatency(0);
+        }
+
         statsResponse.setRoleInfo("");
-        statsResponse.setTimestamp("0");
+        statsResponse.setTimestamp(Long.toString(System.currentTimeMillis()));
 
-        getClient().statsResponse(statsResponse);
+        return statsResponse;
     }
 
     @Override
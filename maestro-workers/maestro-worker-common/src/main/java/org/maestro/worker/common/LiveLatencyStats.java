@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import org.HdrHistogram.Histogram;
+import org.maestro.common.worker.LatencyStats;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the latency statistics of the last sampling interval, so that they can be reported while the test is
+ * running. The interval histograms are fed by the {@link WorkerLatencyWriter}, which is the only one allowed to
+ * take snapshots from the workers' recorders: this class never touches the recorders, so the latency files are
+ * not affected by the stats requests.
+ * <p>
+ * A new instance is used for every test. The record and publish methods must be called by the latency writer
+ * thread only. The published statistics can be read by any thread. If a listener is set, it is called by the
+ * latency writer thread with every published interval, which also carries the encoded interval histogram.
+ */
+public final class LiveLatencyStats {
+    private final Histogram current = new Histogram(3);
+    private final Consumer<LatencyStats> listener;
+    private ByteBuffer encodingBuffer;
+    private volatile LatencyStats last;
+
+    /**
+     * Constructor
+     */
+    public LiveLatencyStats() {
+        this(null);
+    }
+
+    /**
+     * Constructor
+     * @param listener a listener to be notified of every published interval (or null if not required)
+     */
+    public LiveLatencyStats(final Consumer<LatencyStats> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Adds an interval histogram, of any worker, to the current interval
+     * @param intervalHistogram the interval histogram
+     */
+    void record(final Histogram intervalHistogram) {
+        current.add(intervalHistogram);
+    }
+
+    /**
+     * Publishes the statistics of the current interval and starts a new one
+     * @param startMillis the start of the interval (in milliseconds since epoch)
+     * @param endMillis the end of the interval (in milliseconds since epoch)
+     */
+    void publish(long startMillis, long endMillis) {
+        final LatencyStats stats = new LatencyStats();
+
+        stats.setDuration(Duration.ofMillis(endMillis - startMillis));
+        stats.setCount(current.getTotalCount());
+        if (current.getTotalCount() > 0) {
+            stats.setLatency(current.getMean());
+            stats.setPercentile50(current.getValueAtPercentile(50));
+            stats.setPercentile99(current.getValueAtPercentile(99));
+            stats.setMaxLatency(current.getMaxValue());
+        }
+
+        if (listener != null) {
+            stats.setHistogram(encode(current));
+        }
+
+        current.reset();
+        last = stats;
+
+        if (listener != null) {
+            listener.accept(stats);
+        }
+    }
+
+    private byte[] encode(final Histogram histogram) {
+        final int capacity = histogram.getNeededByteBufferCapacity();
+
+        if (encodingBuffer == null || encodingBuffer.capacity() < capacity) {
+            encodingBuffer = ByteBuffer.allocate(capacity);
+        }
+
+        encodingBuffer.clear();
+        final int length = histogram.encodeIntoCompressedByteBuffer(encodingBuffer);
+        final byte[] ret = new byte[length];
+
+        encodingBuffer.flip();
+        encodingBuffer.get(ret);
+
+        return ret;
+    }
+
+    /**
+     * Gets the statistics of the last complete interval
+     * @return the latency statistics or null if no interval has been completed yet
+     */
+    public LatencyStats last() {
+        return last;
+    }
+}
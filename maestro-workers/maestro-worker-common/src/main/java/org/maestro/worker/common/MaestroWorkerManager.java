@@ -131,10 +131,13 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
 
         // Explanation: the role is the name as the role (ie: clientName@host)
         statsResponse.setRole(getClientName());
+
+        // There are no workers running on this peer (see ConcurrentWorkerManager for the test peers)
         statsResponse.setLatency(0);
         statsResponse.setRate(0);
+        statsResponse.setCount(0);
         statsResponse.setRoleInfo("");
-        statsResponse.setTimestamp("0");
+        statsResponse.setTimestamp(Long.toString(System.currentTimeMillis()));
 
         client.statsResponse(statsResponse);
     }
@@ -189,6 +192,15 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
             }
             case MAESTRO_NOTE_OPT_FCL: {
                 workerOptions.setFcl(note.getValue());
+                break;
+            }
+            case MAESTRO_NOTE_OPT_SET_SEND_SCHEDULER: {
+                workerOptions.setSendScheduler(note.getValue());
+                break;
+            }
+            case MAESTRO_NOTE_OPT_SET_CLOCK_OFFSET: {
+                workerOptions.setClockOffset(note.getValue());
+                break;
             }
         }
     }
@@ -224,6 +236,22 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
         logger.info("FCL for test {}: {}", testNumber, fcl);
         testProperties.setFcl(fcl);
 
+        final String sendScheduler = workerOptions.getSendScheduler();
+        if (sendScheduler != null) {
+            logger.info("Send scheduler for test {}: {}", testNumber, sendScheduler);
+            testProperties.setSendScheduler(sendScheduler);
+        }
+
+        final Long clockOffsetUncertainty = workerOptions.getClockOffsetUncertaintyMicros();
+        if (clockOffsetUncertainty != null) {
+            final long clockOffset = workerOptions.getClockOffsetMicros();
+
+            logger.info("Clock offset for test {}: {} us (+/- {} us)", testNumber, clockOffset,
+                    clockOffsetUncertainty);
+            testProperties.setClockOffset(clockOffset);
+            testProperties.setClockOffsetUncertainty(clockOffsetUncertainty);
+        }
+
         final URLQuery urlQuery;
         try {
             urlQuery = new URLQuery(brokerURL);
@@ -16,13 +16,15 @@
 
 package org.maestro.worker.common;
 
-import org.agrona.concurrent.IdleStrategy;
-import org.agrona.concurrent.SleepingIdleStrategy;
+import org.agrona.DirectBuffer;
+import org.maestro.common.idle.CountingIdleStrategy;
+import org.maestro.common.idle.IdleStrategies;
 import org.maestro.common.worker.MaestroReceiverWorker;
 import org.maestro.common.worker.MaestroSenderWorker;
 import org.maestro.common.worker.MaestroWorker;
-import org.maestro.common.writers.OneToOneWorkerChannel;
-import org.maestro.common.writers.RateWriter;
+import org.maestro.common.writers.WorkerChannel;
+import org.maestro.common.writers.RateFormat;
+import org.maestro.common.writers.RateSampleWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,51 +32,54 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
 
 public final class WorkerChannelWriter implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(WorkerChannelWriter.class);
 
     private static final class WorkerRateReport {
 
-        private final RateWriter rateWriter;
+        private final RateSampleWriter rateWriter;
         private final MaestroWorker worker;
-        private final Consumer<OneToOneWorkerChannel.Sample> onRate;
+        private final WorkerChannel.SampleBatchHandler onRates;
 
-        public WorkerRateReport(MaestroWorker worker, RateWriter rateWriter) {
+        public WorkerRateReport(MaestroWorker worker, RateSampleWriter rateWriter) {
             this.rateWriter = rateWriter;
             this.worker = worker;
-            this.onRate = this::onRate;
+            this.onRates = this::onRates;
         }
 
-        private void onRate(OneToOneWorkerChannel.Sample rate) {
-            this.rateWriter.write(rate.timestampEpochMicros(), rate.value());
+        private void onRates(DirectBuffer samples, int count) {
+            this.rateWriter.write(samples, count);
         }
 
         public int updateReport(int drainLimit) {
-            return this.worker.workerChannel().readRate(this.onRate, drainLimit);
+            return this.worker.workerChannel().readRates(this.onRates, drainLimit);
         }
     }
 
     private final List<? extends MaestroWorker> workers;
     private final File reportFolder;
-    private final boolean compressed;
+    private final RateFormat rateFormat;
 
     public WorkerChannelWriter(File reportFolder, List<? extends MaestroWorker> workers) {
+        this(reportFolder, workers, RateFormat.CSV);
+    }
+
+    public WorkerChannelWriter(File reportFolder, List<? extends MaestroWorker> workers, final RateFormat rateFormat) {
         this.reportFolder = reportFolder;
         this.workers = new ArrayList<>(workers);
-        this.compressed = true;
+        this.rateFormat = rateFormat;
     }
 
-    private RateWriter createRateWriter(boolean sender) throws IOException {
-        return new RateWriter(reportFolder, sender, compressed);
+    private RateSampleWriter createRateWriter(boolean sender) throws IOException {
+        return rateFormat.newWriter(reportFolder, sender);
     }
 
 
     @Override
     public void run() {
 
-        RateWriter rateWriter = null;
+        RateSampleWriter rateWriter = null;
 
         try {
             final int workersCount = workers.size();
@@ -110,7 +115,7 @@ public final class WorkerChannelWriter implements Runnable {
                     rateWriter.close();
                 }
             } finally {
-                final long totalMissed = workers.stream().filter(w -> w.workerChannel() != null).map(MaestroWorker::workerChannel).mapToLong(OneToOneWorkerChannel::missedSamples).sum();
+                final long totalMissed = workers.stream().filter(w -> w.workerChannel() != null).map(MaestroWorker::workerChannel).mapToLong(WorkerChannel::missedSamples).sum();
                 if (totalMissed > 0) {
                     logger.error("Total missed rate samples: {}", totalMissed);
                 }
@@ -130,7 +135,7 @@ public final class WorkerChannelWriter implements Runnable {
 
     private void update(List<WorkerRateReport> rateReports, int drainLimit, int rateReportsCount) {
         final Thread currentThread = Thread.currentThread();
-        final IdleStrategy idleStrategy = new SleepingIdleStrategy(1000L);
+        final CountingIdleStrategy idleStrategy = IdleStrategies.forRole(IdleStrategies.ROLE_WRITER);
         while (!currentThread.isInterrupted()) {
             int events = 0;
             for (int i = 0; i < rateReportsCount; i++) {
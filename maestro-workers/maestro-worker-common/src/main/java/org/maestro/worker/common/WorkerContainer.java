@@ -23,6 +23,7 @@ import org.maestro.common.worker.LatencyStats;
 import org.maestro.common.worker.MaestroWorker;
 import org.maestro.common.worker.ThroughputStats;
 import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerThreads;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -46,6 +47,8 @@ public final class WorkerContainer {
     private final MaestroReceiver endpoint;
     private LocalDateTime startTime;
     private Evaluator<?> evaluator;
+    private LocalDateTime lastStatsTime;
+    private long lastStatsCount;
 
     private WorkerContainer(MaestroReceiver endpoint) {
         this.endpoint = endpoint;
@@ -100,6 +103,8 @@ public final class WorkerContainer {
         //the workers are started
         workers.addAll(this.workerRuntimeInfos.stream().map(info -> info.worker).collect(Collectors.toList()));
         startTime = LocalDateTime.now();
+        lastStatsTime = startTime;
+        lastStatsCount = 0;
     }
 
     private void createAndStartWorkers(final Class<MaestroWorker> clazz, WorkerOptions workerOptions, int workers,
@@ -111,14 +116,14 @@ public final class WorkerContainer {
             ri.worker = clazz.newInstance();
             ri.worker.setWorkerOptions(workerOptions);
             ri.worker.setWorkerNumber(i);
-            ri.thread = new Thread(ri.worker);
+            ri.thread = WorkerThreads.newWorkerThread(ri.worker, i);
             ri.thread.start();
             workerRuntimeInfos.add(ri);
         }
 
         workerWatchdog = new WorkerWatchdog(workerRuntimeInfos, endpoint, onWorkersStopped, evaluator);
 
-        watchDogThread = new Thread(workerWatchdog);
+        watchDogThread = WorkerThreads.newServiceThread(workerWatchdog, "maestro-watchdog");
         watchDogThread.start();
     }
 
@@ -163,10 +168,10 @@ public final class WorkerContainer {
     }
 
     /**
-     * Gets the throughput statistics
+     * Gets the throughput statistics. The interval statistics cover the period since the previous call
      * @return the throughput statistics
      */
-    public ThroughputStats throughputStats() {
+    public synchronized ThroughputStats throughputStats() {
         if (!watchdogRunning()) {
             return null;
         }
@@ -183,6 +188,11 @@ public final class WorkerContainer {
         Duration duration = Duration.between(startTime, now);
         ret.setDuration(duration);
 
+        ret.setIntervalCount(messageCount - lastStatsCount);
+        ret.setIntervalDuration(Duration.between(lastStatsTime, now));
+        lastStatsCount = messageCount;
+        lastStatsTime = now;
+
         return ret;
     }
 
@@ -17,8 +17,10 @@
 package org.maestro.worker.common;
 
 import org.HdrHistogram.Histogram;
+import org.maestro.common.content.SizeClasses;
 import org.maestro.common.evaluators.LatencyEvaluator;
 import org.maestro.common.worker.MaestroReceiverWorker;
+import org.maestro.common.worker.MaestroSenderWorker;
 import org.maestro.common.worker.MaestroWorker;
 import org.maestro.common.writers.LatencyWriter;
 import org.slf4j.Logger;
@@ -34,18 +36,76 @@ import java.util.stream.Collectors;
 public final class WorkerLatencyWriter implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(WorkerLatencyWriter.class);
 
+    /**
+     * Takes a snapshot of one of the latencies recorded by a worker
+     */
+    @FunctionalInterface
+    private interface LatencySnapshot {
+        Histogram take(MaestroWorker worker, Histogram intervalHistogram);
+    }
+
+    /**
+     * A latency file shared by all the workers of the same type
+     */
+    private static final class LatencyReport implements AutoCloseable {
+        private final File reportFile;
+        private final long globalStartReportingTime;
+        private LatencyWriter latencyWriter;
+        private boolean failed;
+
+        LatencyReport(File reportFile, long globalStartReportingTime) {
+            this.reportFile = reportFile;
+            this.globalStartReportingTime = globalStartReportingTime;
+        }
+
+        boolean open() {
+            if (latencyWriter == null && !failed) {
+                try {
+                    latencyWriter = new LatencyWriter(reportFile);
+                    latencyWriter.outputLegend(globalStartReportingTime);
+                } catch (IOException e) {
+                    logger.error("Unable to create the latency file {}: {}", reportFile, e.getMessage(), e);
+                    failed = true;
+                }
+            }
+
+            return latencyWriter != null;
+        }
+
+        void outputIntervalHistogram(Histogram histogram) {
+            //the file is only created when there's something to write on it
+            if (open()) {
+                latencyWriter.outputIntervalHistogram(histogram);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (latencyWriter != null) {
+                latencyWriter.close();
+                latencyWriter = null;
+            }
+        }
+    }
+
     private static final class WorkerIntervalReport {
         private final MaestroWorker worker;
-        private final LatencyWriter latencyWriter;
+        private final LatencyReport latencyReport;
+        private final LatencySnapshot latencySnapshot;
         private long lastReportTime;
         private Histogram intervalHistogram;
+        private Histogram sampleHistogram;
+        private Histogram accumulatedHistogram;
         private final boolean reportIntervalLatencies;
         private final long startReportingTime;
         private final LatencyEvaluator latencyEvaluator;
+        private final LiveLatencyStats liveStats;
 
-        public WorkerIntervalReport(LatencyWriter latencyWriter, MaestroWorker worker, boolean reportIntervalLatencies,
-                                    long globalStartReportingTime, LatencyEvaluator latencyEvaluator) {
-            this.latencyWriter = latencyWriter;
+        public WorkerIntervalReport(LatencyReport latencyReport, LatencySnapshot latencySnapshot, MaestroWorker worker,
+                                    boolean reportIntervalLatencies, long globalStartReportingTime,
+                                    LatencyEvaluator latencyEvaluator, LiveLatencyStats liveStats) {
+            this.latencyReport = latencyReport;
+            this.latencySnapshot = latencySnapshot;
             this.worker = worker;
             this.intervalHistogram = null;
             //We can't be sure the worker is already up & running
@@ -55,6 +115,30 @@ public final class WorkerLatencyWriter implements Runnable {
             this.startReportingTime = this.lastReportTime;
             this.reportIntervalLatencies = reportIntervalLatencies;
             this.latencyEvaluator = latencyEvaluator;
+            this.liveStats = liveStats;
+        }
+
+        /**
+         * Takes a snapshot of the worker latencies and accumulates it until the next report. This is what
+         * allows the live statistics to be sampled more often than the latencies are reported
+         */
+        public void sample() {
+            final Histogram sampleHistogram = this.latencySnapshot.take(this.worker, this.sampleHistogram);
+            //there are workers that doesn't support taking latencies histograms
+            if (sampleHistogram == null) {
+                return;
+            }
+
+            this.sampleHistogram = sampleHistogram;
+            if (this.accumulatedHistogram == null) {
+                this.accumulatedHistogram = sampleHistogram.copy();
+            } else {
+                this.accumulatedHistogram.add(sampleHistogram);
+            }
+
+            if (this.liveStats != null) {
+                this.liveStats.record(sampleHistogram);
+            }
         }
 
         public void updateReport() {
@@ -76,8 +160,9 @@ public final class WorkerLatencyWriter implements Runnable {
         public void updateReport(final boolean snapshotLatencies) {
             final long reportTime = System.currentTimeMillis();
             if (snapshotLatencies || this.reportIntervalLatencies) {
-                final Histogram intervalHistogram = this.worker.takeLatenciesSnapshot(this.intervalHistogram);
-                //there are workers that doesn't support taking latencies histograms
+                sample();
+
+                final Histogram intervalHistogram = this.accumulatedHistogram;
                 if (intervalHistogram != null) {
                     //the first time the startTimeStamp is the first one: useful when aren't performed
                     //snapshots of interval latencies
@@ -88,6 +173,12 @@ public final class WorkerLatencyWriter implements Runnable {
                         intervalHistogram.setStartTimeStamp(this.lastReportTime);
                     }
                     intervalHistogram.setEndTimeStamp(reportTime);
+
+                    //the previous report is recycled to accumulate the samples of the next one
+                    this.accumulatedHistogram = this.intervalHistogram;
+                    if (this.accumulatedHistogram != null) {
+                        this.accumulatedHistogram.reset();
+                    }
                     this.intervalHistogram = intervalHistogram;
                 }
             }
@@ -96,7 +187,7 @@ public final class WorkerLatencyWriter implements Runnable {
 
         public void outputReport() {
             if (this.intervalHistogram != null && this.intervalHistogram.getTotalCount() > 0) {
-                this.latencyWriter.outputIntervalHistogram(this.intervalHistogram);
+                this.latencyReport.outputIntervalHistogram(this.intervalHistogram);
             }
         }
     }
@@ -106,23 +197,46 @@ public final class WorkerLatencyWriter implements Runnable {
     private final long reportingIntervalMs;
     private final boolean reportIntervalLatencies;
     private LatencyEvaluator latencyEvaluator;
+    private final LiveLatencyStats liveStats;
+    private final long liveStatsIntervalMs;
 
 
     public WorkerLatencyWriter(File reportFolder, List<? extends MaestroWorker> workers) {
-        this.reportFolder = reportFolder;
-        this.workers = new ArrayList<>(workers);
-        //the first sleep will be a very long one :)
-        this.reportingIntervalMs = TimeUnit.DAYS.toMillis(365);
-        this.reportIntervalLatencies = false;
+        this(reportFolder, workers, null, 0);
     }
 
     public WorkerLatencyWriter(File reportFolder, List<? extends MaestroWorker> workers,
                                final LatencyEvaluator latencyEvaluator, long reportingIntervalMs) {
+        this(reportFolder, workers, latencyEvaluator, reportingIntervalMs, null, 0);
+    }
+
+    /**
+     * Constructor
+     * @param reportFolder the directory where the latency files will be saved
+     * @param workers the workers whose latencies are reported
+     * @param latencyEvaluator the latency evaluator or null to save a single histogram for the whole test
+     * @param reportingIntervalMs the interval between each histogram saved when evaluating the latencies
+     * @param liveStats where to publish the statistics of the latest sampling interval (or null if not required)
+     * @param liveStatsIntervalMs the sampling interval for the live statistics
+     */
+    public WorkerLatencyWriter(File reportFolder, List<? extends MaestroWorker> workers,
+                               final LatencyEvaluator latencyEvaluator, long reportingIntervalMs,
+                               final LiveLatencyStats liveStats, long liveStatsIntervalMs) {
         this.reportFolder = reportFolder;
         this.workers = new ArrayList<>(workers);
         this.latencyEvaluator = latencyEvaluator;
-        this.reportingIntervalMs = reportingIntervalMs;
-        this.reportIntervalLatencies = true;
+        if (latencyEvaluator != null) {
+            this.reportingIntervalMs = reportingIntervalMs;
+            this.reportIntervalLatencies = true;
+        }
+        else {
+            //the first sleep will be a very long one :)
+            this.reportingIntervalMs = TimeUnit.DAYS.toMillis(365);
+            this.reportIntervalLatencies = false;
+        }
+
+        this.liveStats = liveStats;
+        this.liveStatsIntervalMs = liveStatsIntervalMs;
     }
 
     private static long getCurrentTimeMsecWithDelay(final long nextReportingTime) throws InterruptedException {
@@ -132,51 +246,129 @@ public final class WorkerLatencyWriter implements Runnable {
         return now;
     }
 
+    /**
+     * Adds the reports of a latency file for all the workers of the given type
+     * @param latencyReports the latency files being written
+     * @param workerReports the per-worker reports being updated
+     * @param fileName the name of the latency file
+     * @param workerType the type of the workers contributing to the file
+     * @param latencySnapshot how to take the latencies snapshot from the worker
+     * @param latencyEvaluator the evaluator for the latencies (or null if they are not evaluated)
+     * @param liveStats where to publish the live statistics (or null if they are not published)
+     * @param eager whether the file should be created even when there are no recorded latencies
+     * @param globalStartReportingTime the start time of the reporting
+     */
+    private void addLatencyReport(final List<LatencyReport> latencyReports, final List<WorkerIntervalReport> workerReports,
+                                  final String fileName, final Class<? extends MaestroWorker> workerType,
+                                  final LatencySnapshot latencySnapshot, final LatencyEvaluator latencyEvaluator,
+                                  final LiveLatencyStats liveStats, boolean eager, long globalStartReportingTime) {
+        final List<? extends MaestroWorker> reportWorkers = this.workers.stream()
+                .filter(workerType::isInstance)
+                .collect(Collectors.toList());
+
+        //avoid creating any file if there aren't any workers of the given type
+        if (reportWorkers.isEmpty()) {
+            return;
+        }
+
+        final LatencyReport latencyReport = new LatencyReport(new File(reportFolder, fileName), globalStartReportingTime);
+        if (eager && !latencyReport.open()) {
+            return;
+        }
+
+        latencyReports.add(latencyReport);
+        reportWorkers.forEach(w -> workerReports.add(new WorkerIntervalReport(latencyReport, latencySnapshot, w,
+                reportIntervalLatencies, globalStartReportingTime, latencyEvaluator, liveStats)));
+    }
+
     @Override
     public void run() {
         logger.debug("Updating latency information every {} milliseconds", reportingIntervalMs);
 
-        final long anyWorkers = this.workers.stream()
-                .filter(w -> w instanceof MaestroReceiverWorker).count();
-        //avoid creating any file if there aren't  any MaestroReceiverWorker
-        if (anyWorkers > 0) {
-            try (LatencyWriter latencyWriter = new LatencyWriter(new File(reportFolder, "receiverd-latency.hdr"))) {
-                final long globalStartReportingTime = System.currentTimeMillis();
-                latencyWriter.outputLegend(globalStartReportingTime);
-                //TODO collect only receiver worker latencies: make it configurable or available on the MaestroWorker API
-                final List<WorkerIntervalReport> workerReports = this.workers.stream()
-                        .filter(w -> w instanceof MaestroReceiverWorker).map(w ->
-                                new WorkerIntervalReport(latencyWriter, w, reportIntervalLatencies, globalStartReportingTime, latencyEvaluator))
-                        .collect(Collectors.toList());
-                final Thread currentThread = Thread.currentThread();
-                long startTime = System.currentTimeMillis();
-                long nextReportingTime = startTime + reportingIntervalMs;
+        final long globalStartReportingTime = System.currentTimeMillis();
+        final List<LatencyReport> latencyReports = new ArrayList<>();
+        final List<WorkerIntervalReport> workerReports = new ArrayList<>();
 
-                try {
-                    while (!currentThread.isInterrupted()) {
-                        final long now = getCurrentTimeMsecWithDelay(nextReportingTime);
-                        if (now >= nextReportingTime) {
-                            //the overall update + output process could take more than the reportingIntervalMs
-                            //sample
-                            workerReports.forEach(WorkerIntervalReport::updateReport);
-                            //output sample
-                            workerReports.forEach(WorkerIntervalReport::outputReport);
-                            //move the new reporting time n reportingIntervalMs > now
-                            while (now >= nextReportingTime) {
-                                nextReportingTime += reportingIntervalMs;
-                            }
-                        }
-                    }
-                } catch (InterruptedException i) {
-                    //it is legal
-                } finally {
-                    //force a final snapshot of the latencies
-                    workerReports.forEach(r -> r.updateReport(true));
+        addLatencyReport(latencyReports, workerReports, "receiverd-latency.hdr", MaestroReceiverWorker.class,
+                MaestroWorker::takeLatenciesSnapshot, latencyEvaluator, liveStats, true, globalStartReportingTime);
+
+        //the senders record how long each send takes (ie.: the time the sender is blocked by the broker)
+        addLatencyReport(latencyReports, workerReports, "senderd-latency.hdr", MaestroSenderWorker.class,
+                MaestroWorker::takeLatenciesSnapshot, null, liveStats, true, globalStartReportingTime);
+
+        //the response times are measured from the expected send time, correcting the coordinated omission
+        addLatencyReport(latencyReports, workerReports, "receiverd-response-time.hdr", MaestroReceiverWorker.class,
+                MaestroWorker::takeResponseTimesSnapshot, null, null, true, globalStartReportingTime);
+
+        //the commit latencies are only recorded on transacted or client acknowledged sessions
+        addLatencyReport(latencyReports, workerReports, "receiverd-commit-latency.hdr", MaestroReceiverWorker.class,
+                MaestroWorker::takeCommitLatenciesSnapshot, null, null, false, globalStartReportingTime);
+        addLatencyReport(latencyReports, workerReports, "senderd-commit-latency.hdr", MaestroSenderWorker.class,
+                MaestroWorker::takeCommitLatenciesSnapshot, null, null, false, globalStartReportingTime);
+
+        //when the message size follows a distribution, the latencies are also broken down per size class: the
+        //count of each interval histogram is the number of messages of the class exchanged on that interval
+        for (int i = 0; i < SizeClasses.COUNT; i++) {
+            final int sizeClass = i;
+            final String suffix = "-" + SizeClasses.name(sizeClass) + ".hdr";
+
+            addLatencyReport(latencyReports, workerReports, "receiverd-latency" + suffix, MaestroReceiverWorker.class,
+                    (w, h) -> w.takeSizeClassLatenciesSnapshot(sizeClass, h), null, null, false,
+                    globalStartReportingTime);
+            addLatencyReport(latencyReports, workerReports, "senderd-latency" + suffix, MaestroSenderWorker.class,
+                    (w, h) -> w.takeSizeClassLatenciesSnapshot(sizeClass, h), null, null, false,
+                    globalStartReportingTime);
+        }
+
+        if (workerReports.isEmpty()) {
+            return;
+        }
+
+        final Thread currentThread = Thread.currentThread();
+        long startTime = System.currentTimeMillis();
+        long nextReportingTime = startTime + reportingIntervalMs;
+
+        //the live statistics may need the latencies to be sampled more often than they are reported
+        final long samplingIntervalMs = liveStats != null ?
+                Math.min(liveStatsIntervalMs, reportingIntervalMs) : reportingIntervalMs;
+        long nextSamplingTime = startTime + samplingIntervalMs;
+        long lastSamplingTime = startTime;
+
+        try {
+            while (!currentThread.isInterrupted()) {
+                final long now = getCurrentTimeMsecWithDelay(Math.min(nextReportingTime, nextSamplingTime));
+                if (now >= nextReportingTime) {
+                    //the overall update + output process could take more than the reportingIntervalMs
+                    //sample
+                    workerReports.forEach(WorkerIntervalReport::updateReport);
+                    //output sample
                     workerReports.forEach(WorkerIntervalReport::outputReport);
+                    //move the new reporting time n reportingIntervalMs > now
+                    while (now >= nextReportingTime) {
+                        nextReportingTime += reportingIntervalMs;
+                    }
+                }
+                else if (now >= nextSamplingTime) {
+                    workerReports.forEach(WorkerIntervalReport::sample);
+                }
+
+                if (now >= nextSamplingTime) {
+                    if (liveStats != null) {
+                        liveStats.publish(lastSamplingTime, now);
+                    }
+                    lastSamplingTime = now;
+                    while (now >= nextSamplingTime) {
+                        nextSamplingTime += samplingIntervalMs;
+                    }
                 }
-            } catch (IOException ex) {
-                ex.printStackTrace();
             }
+        } catch (InterruptedException i) {
+            //it is legal
+        } finally {
+            //force a final snapshot of the latencies
+            workerReports.forEach(r -> r.updateReport(true));
+            workerReports.forEach(WorkerIntervalReport::outputReport);
+            latencyReports.forEach(LatencyReport::close);
         }
     }
 }
@@ -24,8 +24,11 @@ import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.maestro.common.content.SizeClasses;
 import org.maestro.common.worker.MaestroReceiverWorker;
+import org.maestro.common.worker.MaestroSenderWorker;
 import org.maestro.common.worker.MaestroWorker;
+import org.maestro.common.worker.SizeClassRecorders;
 import org.maestro.common.worker.WorkerOptions;
 import org.maestro.common.worker.WorkerStateInfo;
 
@@ -103,6 +106,22 @@ public class WorkerLatencyWriterSanityTest {
         }
     }
 
+    private static final class DummySenderWorker extends DummyWorker implements MaestroSenderWorker {
+
+        final SingleWriterRecorder recorder = new SingleWriterRecorder(TimeUnit.HOURS.toMillis(1), 3);
+        final SizeClassRecorders sizeClassRecorders = new SizeClassRecorders();
+
+        @Override
+        public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
+            return recorder.getIntervalHistogram(intervalHistogram);
+        }
+
+        @Override
+        public Histogram takeSizeClassLatenciesSnapshot(int sizeClass, Histogram intervalHistogram) {
+            return sizeClassRecorders.takeSnapshot(sizeClass, intervalHistogram);
+        }
+    }
+
     @Rule
     public final TemporaryFolder tempTestFolder = new TemporaryFolder();
 
@@ -161,4 +180,82 @@ public class WorkerLatencyWriterSanityTest {
         }
         Assert.assertEquals("The histogram number must be the same of the receivers", receivers, totalReports);
     }
+
+    @Test(timeout = 120_000L)
+    public void shouldWriteCommitLatenciesOnlyWhenRecorded() throws IOException, InterruptedException {
+        final DummyReceiverWorker receiverWorker = new DummyReceiverWorker();
+        receiverWorker.startedEpochMillis = System.currentTimeMillis();
+        receiverWorker.recorder.recordValue(100);
+
+        final File reportFolder = tempTestFolder.newFolder("report");
+        final WorkerLatencyWriter latencyWriter = new WorkerLatencyWriter(reportFolder, Arrays.asList(receiverWorker));
+        final Thread writerThread = new Thread(latencyWriter);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        writerThread.interrupt();
+        writerThread.join();
+
+        Assert.assertTrue(new File(reportFolder, "receiverd-latency.hdr").exists());
+        Assert.assertFalse("The commit latency file must not be created without recorded commits",
+                new File(reportFolder, "receiverd-commit-latency.hdr").exists());
+    }
+
+    @Test(timeout = 120_000L)
+    public void shouldWriteSenderLatencies() throws IOException, InterruptedException {
+        final DummySenderWorker senderWorker = new DummySenderWorker();
+        senderWorker.startedEpochMillis = System.currentTimeMillis();
+        senderWorker.recorder.recordValue(100);
+
+        final File reportFolder = tempTestFolder.newFolder("report");
+        final WorkerLatencyWriter latencyWriter = new WorkerLatencyWriter(reportFolder, Arrays.asList(senderWorker));
+        final Thread writerThread = new Thread(latencyWriter);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        writerThread.interrupt();
+        writerThread.join();
+
+        Assert.assertFalse(new File(reportFolder, "receiverd-latency.hdr").exists());
+        final File reportFile = new File(reportFolder, "senderd-latency.hdr");
+        Assert.assertTrue(reportFile.exists());
+
+        final HistogramLogReader histogramLogReader = new HistogramLogReader(reportFile);
+        final Histogram histogram = (Histogram) histogramLogReader.nextIntervalHistogram();
+        Assert.assertEquals(1, histogram.getTotalCount());
+        Assert.assertEquals(100, histogram.getMaxValue());
+    }
+
+    @Test(timeout = 120_000L)
+    public void shouldWriteSenderLatenciesPerSizeClass() throws IOException, InterruptedException {
+        final DummySenderWorker senderWorker = new DummySenderWorker();
+        senderWorker.startedEpochMillis = System.currentTimeMillis();
+        senderWorker.recorder.recordValue(100);
+        senderWorker.sizeClassRecorders.recordElapsed(200, 100);
+        senderWorker.sizeClassRecorders.recordElapsed(256, 100);
+        senderWorker.sizeClassRecorders.recordElapsed(4096, 200);
+
+        final File reportFolder = tempTestFolder.newFolder("report");
+        final WorkerLatencyWriter latencyWriter = new WorkerLatencyWriter(reportFolder, Arrays.asList(senderWorker));
+        final Thread writerThread = new Thread(latencyWriter);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        writerThread.interrupt();
+        writerThread.join();
+
+        final String smallClassFileName = "senderd-latency-" + SizeClasses.name(SizeClasses.of(256)) + ".hdr";
+        final String largeClassFileName = "senderd-latency-" + SizeClasses.name(SizeClasses.of(4096)) + ".hdr";
+        final String[] reports = reportFolder.list((dir, name) -> name.startsWith("senderd-latency-"));
+        Arrays.sort(Objects.requireNonNull(reports));
+        Assert.assertArrayEquals("Only the recorded size classes must be reported",
+                new String[]{smallClassFileName, largeClassFileName}, reports);
+
+        final Histogram smallClass = (Histogram) new HistogramLogReader(new File(reportFolder, smallClassFileName))
+                .nextIntervalHistogram();
+        Assert.assertEquals(2, smallClass.getTotalCount());
+        Assert.assertEquals(100, smallClass.getMaxValue());
+
+        final Histogram largeClass = (Histogram) new HistogramLogReader(new File(reportFolder, largeClassFileName))
+                .nextIntervalHistogram();
+        Assert.assertEquals(1, largeClass.getTotalCount());
+        Assert.assertEquals(200, largeClass.getMaxValue());
+    }
 }
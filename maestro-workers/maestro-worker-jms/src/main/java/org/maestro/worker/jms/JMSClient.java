@@ -27,6 +27,7 @@
 package org.maestro.worker.jms;
 
 import org.maestro.common.jms.Client;
+import org.maestro.common.worker.WorkerUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,7 +43,9 @@ class JMSClient implements Client {
 
     protected String url = null;
     protected Destination destination = null;
+    protected Destination[] destinations = null;
     protected Connection connection = null;
+    private JMSConnectionPool.Lease connectionLease = null;
     protected JmsOptions opts;
 
     protected int number = -1;
@@ -63,8 +66,9 @@ class JMSClient implements Client {
     public void start() throws Exception {
         logger.debug("Starting the JMS client");
 
-        Destination destination;
+        Destination[] destinations;
         Connection connection = null;
+        JMSConnectionPool.Lease connectionLease = null;
         try {
             opts = new JmsOptions(url);
             final JMSProtocol protocol = opts.getProtocol();
@@ -77,21 +81,78 @@ class JMSClient implements Client {
             String destinationName = opts.getPath().substring(1);
             logger.debug("Requested destination name: {}", destinationName);
 
-            destinationName = setupLimitDestinations(destinationName, opts.getConfiguredLimitDestinations(), getNumber());
-            destination = getDestination(protocol, destinationName);
+            destinations = setupDestinations(protocol, destinationName);
 
-            logger.debug("Creating the connection");
-            connection = factory.createConnection();
-            logger.debug("Connection created successfully");
+            if (opts.isConnectionSharing()) {
+                logger.debug("Taking a shared connection");
+                connectionLease = JMSConnectionPool.getInstance().acquire(protocol.name() + ':' + opts.getConnectionUrl(),
+                        destinations.length, opts.getConnectionsPerHost(), opts.getSessionsPerConnection(),
+                        factory::createConnection);
+                connection = connectionLease.connection();
+            }
+            else {
+                logger.debug("Creating the connection");
+                connection = factory.createConnection();
+                logger.debug("Connection created successfully");
+                connection.start();
+            }
         } catch (Throwable t) {
             logger.warn("Something wrong happened while initializing the JMS client: {}", t.getMessage(), t);
 
-            JMSResourceUtil.capturingClose(connection);
+            if (connectionLease == null) {
+                JMSResourceUtil.capturingClose(connection);
+            }
             throw t;
         }
-        this.destination = destination;
+        this.destinations = destinations;
+        this.destination = destinations[0];
         this.connection = connection;
-        this.connection.start();
+        this.connectionLease = connectionLease;
+    }
+
+    /**
+     * Closes the connection or, if it is shared, returns it to the pool
+     * @return the error thrown while closing the connection or null if there was none
+     */
+    protected Throwable closeConnection() {
+        final Throwable t;
+
+        if (connectionLease != null) {
+            t = JMSConnectionPool.getInstance().release(connectionLease);
+            connectionLease = null;
+        }
+        else {
+            t = JMSResourceUtil.capturingClose(connection);
+        }
+
+        this.connection = null;
+        return t;
+    }
+
+    private Destination[] setupDestinations(final JMSProtocol protocol, final String destinationName) {
+        final int fanOut = opts.getFanOut();
+
+        if (fanOut < 1) {
+            throw new IllegalArgumentException("Invalid fan out value: " + fanOut);
+        }
+
+        /*
+         * Each session of the client gets its own destination: they are numbered as if each one of them
+         * was a separate client, so that the limitDestinations option keeps spreading them evenly
+         */
+        final Destination[] destinations = new Destination[fanOut];
+        for (int i = 0; i < fanOut; i++) {
+            final String name = setupLimitDestinations(destinationName, opts.getConfiguredLimitDestinations(),
+                    fanOutClientNumber(getNumber(), fanOut, i));
+
+            destinations[i] = getDestination(protocol, name);
+        }
+
+        return destinations;
+    }
+
+    static int fanOutClientNumber(final int clientNumber, final int fanOut, final int index) {
+        return clientNumber * fanOut + index;
     }
 
     private Destination getDestination(final JMSProtocol protocol, final String destinationName) {
@@ -115,35 +176,13 @@ class JMSClient implements Client {
 
     public static String setupLimitDestinations(final String destinationName, final int limitDestinations,
                                                  final int clientNumber) {
-        String ret = destinationName;
-
-        if (limitDestinations >= 1) {
-            logger.debug("Client requested a client-specific limit to the number of destinations: {}",
-                    limitDestinations);
-
-            final int destinationId = clientNumber % limitDestinations;
-            ret = destinationName + '.' + destinationId;
-            logger.info("Requested destination name after using client-specific limit to the number of destinations: {}",
-                    ret);
-
-            return ret;
-        } else {
-            if (limitDestinations < 0) {
-                throw new IllegalArgumentException("Negative number of limit destinations is invalid");
-            }
-
-            //original behaviour maintained for backward compatibility
-            logger.info("Requested destination name: {}", destinationName);
-        }
-
-        return ret;
+        return WorkerUtils.setupLimitDestinations(destinationName, limitDestinations, clientNumber);
     }
 
     @Override
     public void stop() {
         logger.debug("Stopping the JMS client");
-        final Throwable t = JMSResourceUtil.capturingClose(connection);
-        this.connection = null;
+        final Throwable t = closeConnection();
         if (t != null) {
             t.printStackTrace();
         }
@@ -0,0 +1,265 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Shares the JMS connections among the clients running on the same worker.
+ * <p>
+ * The connections are grouped by key (ie.: the protocol and the connection URL). Within a group, a new connection
+ * is opened for a client as long as the group has not reached the maximum number of connections and, if the
+ * sessions per connection are limited, all the existing ones are full. Otherwise, the client is assigned to the
+ * least loaded connection, even if that exceeds the limit of sessions. A connection is closed when the last client
+ * using it releases it.
+ * <p>
+ * The connections are opened outside of the pool lock, so that the clients of a worker can start concurrently.
+ * The clients assigned to a connection that is still being opened wait for it to be ready.
+ * <p>
+ * This class is thread-safe.
+ */
+final class JMSConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(JMSConnectionPool.class);
+    private static final JMSConnectionPool instance = new JMSConnectionPool();
+
+    /**
+     * Opens new connections for the pool
+     */
+    @FunctionalInterface
+    interface ConnectionSupplier {
+        Connection newConnection() throws JMSException;
+    }
+
+    /**
+     * A connection assigned to a client
+     */
+    static final class Lease {
+        private final String key;
+        private final PooledConnection pooledConnection;
+        private final Connection connection;
+        private final int sessions;
+        private boolean released;
+
+        private Lease(final String key, final PooledConnection pooledConnection, final Connection connection,
+                      int sessions) {
+            this.key = key;
+            this.pooledConnection = pooledConnection;
+            this.connection = connection;
+            this.sessions = sessions;
+        }
+
+        Connection connection() {
+            return connection;
+        }
+    }
+
+    private static final class PooledConnection {
+        private final CompletableFuture<Connection> connection = new CompletableFuture<>();
+        private int sessions;
+        private int clients;
+
+        /*
+         * Waits for the connection to be opened (by the client that created it)
+         */
+        private Connection await() throws JMSException {
+            try {
+                return connection.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new JMSException("Interrupted while waiting for the connection to be opened");
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+
+                if (cause instanceof JMSException) {
+                    throw (JMSException) cause;
+                }
+
+                final JMSException jmsException = new JMSException("Unable to open the connection: "
+                        + cause.getMessage());
+                jmsException.initCause(cause);
+                throw jmsException;
+            }
+        }
+    }
+
+    private final Map<String, List<PooledConnection>> connections = new HashMap<>();
+
+    JMSConnectionPool() {
+
+    }
+
+    static JMSConnectionPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Assigns a connection to a client
+     * @param key the connection group key
+     * @param sessions the number of sessions the client will create on the connection
+     * @param connectionsPerHost the maximum number of connections for the group (0 for unlimited)
+     * @param sessionsPerConnection the maximum number of sessions per connection (0 for unlimited). It can
+     *                              only be unlimited if the number of connections is limited
+     * @param supplier the supplier used to open a new connection if needed. The connection is started by the pool
+     * @return the lease for the connection. It must be returned to the pool with {@link #release(Lease)}
+     * @throws JMSException if unable to open or start a new connection
+     */
+    Lease acquire(final String key, int sessions, int connectionsPerHost, int sessionsPerConnection,
+                  final ConnectionSupplier supplier) throws JMSException {
+        if (connectionsPerHost < 0) {
+            throw new IllegalArgumentException("Invalid number of connections per host: " + connectionsPerHost);
+        }
+
+        if (sessionsPerConnection < 0) {
+            throw new IllegalArgumentException("Invalid number of sessions per connection: " + sessionsPerConnection);
+        }
+
+        if (connectionsPerHost == 0 && sessionsPerConnection == 0) {
+            throw new IllegalArgumentException("Either the connections per host or the sessions per connection must be set");
+        }
+
+        final PooledConnection selected;
+        final boolean open;
+
+        synchronized (this) {
+            final List<PooledConnection> group = connections.computeIfAbsent(key, k -> new ArrayList<>());
+
+            PooledConnection leastLoaded = null;
+            for (PooledConnection pooledConnection : group) {
+                if (leastLoaded == null || pooledConnection.sessions < leastLoaded.sessions) {
+                    leastLoaded = pooledConnection;
+                }
+            }
+
+            final boolean belowConnectionLimit = connectionsPerHost == 0 || group.size() < connectionsPerHost;
+            if (leastLoaded == null) {
+                open = true;
+            } else if (sessionsPerConnection == 0) {
+                open = belowConnectionLimit;
+            } else if (leastLoaded.sessions + sessions <= sessionsPerConnection) {
+                open = false;
+            } else {
+                open = belowConnectionLimit;
+                if (!open) {
+                    logger.warn("All the {} connections are full: exceeding the limit of {} sessions per connection",
+                            group.size(), sessionsPerConnection);
+                }
+            }
+
+            if (open) {
+                logger.debug("Opening connection {} for {}", group.size() + 1, key);
+
+                selected = new PooledConnection();
+                group.add(selected);
+            } else {
+                selected = leastLoaded;
+            }
+
+            selected.sessions += sessions;
+            selected.clients++;
+        }
+
+        if (open) {
+            open(key, selected, supplier);
+        }
+
+        return new Lease(key, selected, selected.await(), sessions);
+    }
+
+    private void open(final String key, final PooledConnection pooledConnection, final ConnectionSupplier supplier) {
+        try {
+            final Connection connection = supplier.newConnection();
+            try {
+                connection.start();
+            } catch (JMSException e) {
+                JMSResourceUtil.capturingClose(connection);
+                throw e;
+            }
+
+            pooledConnection.connection.complete(connection);
+        } catch (JMSException | RuntimeException e) {
+            // the clients waiting for this connection fail as well
+            synchronized (this) {
+                remove(key, pooledConnection);
+            }
+
+            pooledConnection.connection.completeExceptionally(e);
+        }
+    }
+
+    private void remove(final String key, final PooledConnection pooledConnection) {
+        final List<PooledConnection> group = connections.get(key);
+        if (group != null) {
+            group.remove(pooledConnection);
+            if (group.isEmpty()) {
+                connections.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns a connection to the pool, closing it if it is not used by any other client
+     * @param lease the lease for the connection
+     * @return the error thrown while closing the connection or null if there was none
+     */
+    Throwable release(final Lease lease) {
+        if (lease == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (lease.released) {
+                return null;
+            }
+
+            lease.released = true;
+            final PooledConnection pooledConnection = lease.pooledConnection;
+            pooledConnection.sessions -= lease.sessions;
+            pooledConnection.clients--;
+
+            if (pooledConnection.clients > 0) {
+                return null;
+            }
+
+            remove(lease.key, pooledConnection);
+        }
+
+        logger.debug("Closing the connection for {} as it is no longer used", lease.key);
+        return JMSResourceUtil.capturingClose(lease.connection);
+    }
+
+    /**
+     * Gets the number of connections opened (or being opened) for a group
+     * @param key the connection group key
+     * @return the number of connections
+     */
+    synchronized int connections(final String key) {
+        final List<PooledConnection> group = connections.get(key);
+
+        return group == null ? 0 : group.size();
+    }
+}
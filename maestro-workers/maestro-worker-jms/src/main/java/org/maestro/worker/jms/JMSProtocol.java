@@ -77,4 +77,22 @@ public enum JMSProtocol {
     Topic createTopic(String name) {
         return this.topicFactory.apply(name);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the connection URL option that limits the number of messages buffered by each consumer
+     * @param prefetch the maximum number of messages buffered by each consumer
+     * @return the URL option or null if the protocol can't limit it by number of messages
+     */
+    String prefetchOption(int prefetch) {
+        switch (this) {
+            case AMQP:
+            case OPENWIRE:
+                return "jms.prefetchPolicy.all=" + prefetch;
+            case ARTEMIS:
+                //the consumer window is sized in bytes, so it can only be used to disable the buffering
+                return prefetch == 0 ? "consumerWindowSize=0" : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -16,7 +16,10 @@
 
 package org.maestro.worker.jms;
 
+import org.maestro.common.content.BenchmarkPayload;
 import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.idle.CountingIdleStrategy;
+import org.maestro.common.idle.IdleStrategies;
 import org.maestro.common.jms.ReceiverClient;
 
 import javax.jms.*;
@@ -24,63 +27,249 @@ import java.lang.IllegalStateException;
 import java.nio.ByteBuffer;
 
 final class JMSReceiverClient extends JMSClient implements ReceiverClient {
+    /**
+     * Receives the benchmark payload of the messages delivered asynchronously. It is called by the
+     * provider's dispatch thread
+     */
+    interface PayloadListener {
+        /**
+         * Handles the payload of a received message
+         * @param sendTimeEpochMicros the send time of the message. The expected send time, if any, is given by
+         *                            {@link #expectedSendTimeEpochMicros()}
+         * @throws Exception if unable to handle the payload
+         */
+        void onPayload(long sendTimeEpochMicros) throws Exception;
+
+        /**
+         * Handles errors thrown while reading or handling the payload
+         * @param e the error
+         */
+        void onError(Exception e);
+
+        /**
+         * Whether the listener is done. The messages delivered afterwards are not handled, nor acknowledged
+         * @return true if the listener is done
+         */
+        boolean isDone();
+    }
+
     private static final long RECEIVE_TIMEOUT_MILLIS = 1000L;
-    private static final int PAYLOAD_SIZE = Long.BYTES;
-    private Session session;
-    private MessageConsumer consumer;
+    private static final long FAN_OUT_RECEIVE_TIMEOUT_MILLIS = 1L;
+    private static final int PAYLOAD_SIZE = BenchmarkPayload.LENGTH;
+    private Session[] sessions;
+    private MessageConsumer[] consumers;
     private ByteBuffer payloadBytes;
+    private PayloadReader payloadReader;
+    //the last message received by each session and not yet acknowledged
+    private Message[] lastMessages;
+    private int nextConsumer;
+    private int currentConsumer;
+    private long expectedSendTimeEpochMicros = ReceiverClient.noMessagePayload();
+    private int messageSize = -1;
+    private CountingIdleStrategy idleStrategy;
 
     @Override
     public void start() throws Exception {
         super.start();
         try {
-            session = connection.createSession(opts.getSessionMode() == Session.SESSION_TRANSACTED, opts.getSessionMode());
-            consumer = session.createConsumer(destination);
+            final int fanOut = destinations.length;
+
+            sessions = new Session[fanOut];
+            consumers = new MessageConsumer[fanOut];
+            lastMessages = new Message[fanOut];
+            for (int i = 0; i < fanOut; i++) {
+                sessions[i] = connection.createSession(opts.getSessionMode() == Session.SESSION_TRANSACTED, opts.getSessionMode());
+                consumers[i] = sessions[i].createConsumer(destinations[i]);
+            }
             payloadBytes = ByteBuffer.allocate(PAYLOAD_SIZE).order(ContentStrategy.CONTENT_ENDIANNESS);
+            payloadReader = PayloadReader.create(opts.getProtocol(), opts.isTimestampHeader());
+            idleStrategy = IdleStrategies.forRole(IdleStrategies.ROLE_RECEIVER);
         } catch (Throwable t) {
-            JMSResourceUtil.capturingClose(consumer);
-            this.consumer = null;
-            JMSResourceUtil.capturingClose(session);
-            this.session = null;
-            JMSResourceUtil.capturingClose(connection);
-            this.connection = null;
+            closeSessions();
+            closeConnection();
+        }
+    }
+
+    /*
+     * With multiple consumers, each one is polled in turn. When none of them has a message available, it
+     * waits a little while on the next one, so that an idle client does not spin. With any idle strategy other
+     * than park, the consumers are only polled and the client idles according to the strategy
+     */
+    private Message receive() throws JMSException {
+        if (!idleStrategy.isParking()) {
+            return poll();
+        }
+
+        final Message message;
+        if (consumers.length == 1) {
+            message = consumers[0].receive(RECEIVE_TIMEOUT_MILLIS);
+        }
+        else {
+            message = receiveFanOut();
+        }
+
+        idleStrategy.record(message == null ? 0 : 1);
+        return message;
+    }
+
+    private Message receiveFanOut() throws JMSException {
+        for (int i = 0; i < consumers.length; i++) {
+            final Message message = consumers[selectNextConsumer()].receiveNoWait();
+
+            if (message != null) {
+                return message;
+            }
         }
+
+        return consumers[selectNextConsumer()].receive(FAN_OUT_RECEIVE_TIMEOUT_MILLIS);
     }
 
-    private int getReadBytes(BytesMessage message) throws JMSException {
-        final BytesMessage bytesMessage = message;
-        //just read the benchmark minimum payload
-        return bytesMessage.readBytes(payloadBytes.array(), PAYLOAD_SIZE);
+    private Message poll() throws JMSException {
+        for (int i = 0; i < consumers.length; i++) {
+            final Message message = consumers[selectNextConsumer()].receiveNoWait();
+
+            if (message != null) {
+                idleStrategy.idle(1);
+                return message;
+            }
+        }
+
+        idleStrategy.idle(0);
+        return null;
+    }
+
+    private int selectNextConsumer() {
+        currentConsumer = nextConsumer;
+        nextConsumer++;
+        if (nextConsumer == consumers.length) {
+            nextConsumer = 0;
+        }
+
+        return currentConsumer;
     }
 
 
     @Override
     public long receiveMessages(int sessionMode) throws Exception {
-        final Message message = consumer.receive(RECEIVE_TIMEOUT_MILLIS);
+        final Message message = receive();
 
         if (message == null) {
             return ReceiverClient.noMessagePayload();
-        } else if (sessionMode == Session.CLIENT_ACKNOWLEDGE) {
+        }
+
+        lastMessages[currentConsumer] = message;
+        if (sessionMode == Session.CLIENT_ACKNOWLEDGE) {
             message.acknowledge();
         } else if (sessionMode == Session.SESSION_TRANSACTED) {
-            session.commit();
+            sessions[currentConsumer].commit();
         }
 
+        return readPayload(message);
+    }
+
+    private long readPayload(final Message message) throws JMSException {
+        final int readBytes = payloadReader.read(message, payloadBytes);
+        messageSize = message instanceof BytesMessage ? (int) ((BytesMessage) message).getBodyLength() : -1;
+        if (readBytes >= BenchmarkPayload.MIN_LENGTH || readBytes == -1) {
+            //can read the timestamps using the default endianness of the content strategy
+            if (BenchmarkPayload.hasExpectedSendTime(readBytes)) {
+                expectedSendTimeEpochMicros = payloadBytes.getLong(BenchmarkPayload.EXPECTED_SEND_TIME_OFFSET);
+            }
+            else {
+                expectedSendTimeEpochMicros = ReceiverClient.noMessagePayload();
+            }
 
-        final int readBytes = getReadBytes((BytesMessage) message);
-        if (readBytes == PAYLOAD_SIZE || readBytes == -1) {
-            //can read the timestamp using the default endianness of the content strategy
-            return payloadBytes.getLong(0);
+            return payloadBytes.getLong(BenchmarkPayload.SEND_TIME_OFFSET);
         }
         throw new IllegalStateException("the received message hasn't any benchmark payload");
     }
 
+    /**
+     * Switches to the asynchronous delivery of the messages: after this, the messages are no longer received
+     * with {@link #receiveMessages(int)}. The listener runs on the provider's dispatch thread, which is also the
+     * only thread allowed to acknowledge the messages while the listener is set
+     * @param listener the listener for the benchmark payload of the messages
+     * @throws JMSException if unable to set the listener
+     */
+    void setPayloadListener(final PayloadListener listener) throws JMSException {
+        // the listeners of different sessions may run concurrently
+        if (consumers.length > 1) {
+            throw new IllegalArgumentException("Asynchronous receive is not supported with more than one consumer");
+        }
+
+        consumers[0].setMessageListener(message -> {
+            //the message must not be acknowledged along with the handled ones if it is not handled
+            if (listener.isDone()) {
+                return;
+            }
+
+            try {
+                lastMessages[0] = message;
+                listener.onPayload(readPayload(message));
+            } catch (Exception e) {
+                listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Stops the asynchronous delivery of the messages. It waits for the listener to return, so that the
+     * session can be used by the calling thread afterwards (ie.: to acknowledge the remaining messages)
+     */
+    void stopPayloadListener() {
+        //closing the consumer blocks until the message listener returns
+        JMSResourceUtil.capturingClose(consumers[0]);
+    }
+
+    @Override
+    public long expectedSendTimeEpochMicros() {
+        return expectedSendTimeEpochMicros;
+    }
+
+    @Override
+    public int messageSize() {
+        return messageSize;
+    }
+
+    @Override
+    public void acknowledge(int sessionMode) throws JMSException {
+        for (int i = 0; i < sessions.length; i++) {
+            final Message lastMessage = lastMessages[i];
+
+            //only the sessions that have received messages since the last acknowledgement
+            if (lastMessage != null) {
+                if (sessionMode == Session.SESSION_TRANSACTED) {
+                    sessions[i].commit();
+                } else if (sessionMode == Session.CLIENT_ACKNOWLEDGE) {
+                    //acknowledges all the messages consumed by the session so far
+                    lastMessage.acknowledge();
+                }
+
+                lastMessages[i] = null;
+            }
+        }
+    }
+
+    private void closeSessions() {
+        if (consumers != null) {
+            for (MessageConsumer consumer : consumers) {
+                JMSResourceUtil.capturingClose(consumer);
+            }
+            this.consumers = null;
+        }
+
+        if (sessions != null) {
+            for (Session session : sessions) {
+                JMSResourceUtil.capturingClose(session);
+            }
+            this.sessions = null;
+        }
+    }
+
     @Override
     public void stop() {
-        JMSResourceUtil.capturingClose(consumer);
-        this.consumer = null;
-        JMSResourceUtil.capturingClose(session);
-        this.session = null;
+        lastMessages = null;
+        closeSessions();
         super.stop();
     }
 }
@@ -18,22 +18,26 @@ package org.maestro.worker.jms;
 
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.SingleWriterRecorder;
+import org.maestro.common.content.SizeClasses;
 import org.maestro.common.duration.EpochClocks;
 import org.maestro.common.duration.EpochMicroClock;
 import org.maestro.common.duration.TestDuration;
 import org.maestro.common.duration.TestDurationBuilder;
 import org.maestro.common.exceptions.DurationParseException;
 import org.maestro.common.jms.ReceiverClient;
+import org.maestro.common.worker.LatencyRecorders;
 import org.maestro.common.worker.MaestroReceiverWorker;
+import org.maestro.common.worker.SizeClassRecorders;
 import org.maestro.common.worker.WorkerOptions;
 import org.maestro.common.worker.WorkerStateInfo;
-import org.maestro.common.writers.OneToOneWorkerChannel;
+import org.maestro.common.writers.WorkerChannel;
+import org.maestro.common.writers.WorkerChannels;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.jms.Session;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 
@@ -46,20 +50,24 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
     private TestDuration duration;
     private final AtomicLong messageCount = new AtomicLong(0);
     private volatile long startedEpochMillis = Long.MIN_VALUE;
-    //TODO it could be injected by outside because the precision could be improved using ad-hoc clock timers
-    private static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
-    private final SingleWriterRecorder latencyRecorder = new SingleWriterRecorder(HIGHEST_TRACKABLE_VALUE, 3);
-    //TODO the size need to be configured
-    private final OneToOneWorkerChannel workerChannel = new OneToOneWorkerChannel(128 * 1024);
+    private static final long LISTENER_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private final SingleWriterRecorder latencyRecorder = LatencyRecorders.newRecorder();
+    private final SingleWriterRecorder responseTimeRecorder = LatencyRecorders.newRecorder();
+    private final SingleWriterRecorder commitLatencyRecorder = LatencyRecorders.newRecorder();
+    // only when the message size follows a distribution
+    private SizeClassRecorders sizeClassRecorders;
+    private final WorkerChannel workerChannel = WorkerChannels.newChannel();
 
     private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
 
     private String url;
     private final Supplier<? extends ReceiverClient> clientFactory;
     private int number;
+    // receiver clock - sender clock, as estimated by the front-end
+    private long clockOffsetMicros;
 
     @Override
-    public OneToOneWorkerChannel workerChannel() {
+    public WorkerChannel workerChannel() {
         return workerChannel;
     }
 
@@ -108,26 +116,9 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
     public void setWorkerOptions(WorkerOptions workerOptions) {
         setBroker(workerOptions.getBrokerURL());
         setDuration(workerOptions.getDuration());
-    }
-
-    private static void handleNegativeSampleError(final long sendTimeEpochMicros, final long nowInMicros) {
-        logger.error("Dropped sample: SendTimeEpochMicros {} > ReceivedTimeEpochMicros {}",
-                sendTimeEpochMicros, nowInMicros);
-    }
-
-    private static void handleHugeSampleError(final long sendTimeEpochMicros, final long nowInMicros) {
-        logger.error("Normalized sample: (ReceivedTimeEpochMicros {} - SendTimeEpochMicros {}) > " +
-                        HIGHEST_TRACKABLE_VALUE,
-                nowInMicros, sendTimeEpochMicros);
-    }
-
-    private static void handleInvalidLatency(long sendTimeEpochMicros, long nowInMicros, long elapsedMicros) {
-        if (elapsedMicros == 0) {
-            logger.warn("Registered Latency of 0: please consider to improve timestamp precision");
-        }
-        else {
-            handleNegativeSampleError(sendTimeEpochMicros, nowInMicros);
-        }
+        this.clockOffsetMicros = workerOptions.getClockOffsetMicros();
+        this.sizeClassRecorders = SizeClasses.isBrokenDown(workerOptions.getMessageSize()) ?
+                new SizeClassRecorders() : null;
     }
 
     public void start() {
@@ -141,7 +132,12 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
             doClientStartup(client);
             started = true;
 
-            runReceiveLoop(client);
+            try {
+                runReceiveLoop(client);
+            } finally {
+                //the samples emitted so far are flushed even if the loop fails
+                workerChannel.flush();
+            }
 
             logger.info("Worker {} completed running successfully with {} messages received", id,
                     messageCount);
@@ -169,47 +165,165 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
     }
 
     private void runReceiveLoop(final ReceiverClient client) throws Exception {
+        final JmsOptions opts = ((JMSClient) client).getOpts();
+
+        if (opts.isAsyncReceive()) {
+            if (!(client instanceof JMSReceiverClient)) {
+                throw new IllegalArgumentException("Asynchronous receive is not supported by the client");
+            }
+
+            runListener((JMSReceiverClient) client, opts);
+            return;
+        }
+
         final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
         long count = 0;
-        final JmsOptions opts = ((JMSClient) client).getOpts();
-        final boolean isClientAck = isClientAcknowledge(opts);
+        final TransactionBatch transactionBatch = TransactionBatch.create(opts);
+        final int sessionMode = opts.getSessionMode();
 
         while (duration.canContinue(this) && isRunning()) {
-            final long sendTimeEpochMicros = client.receiveMessages(isAcknowledge(count, opts, isClientAck));
+            //the acknowledgement, when applicable, is handled by the transaction batch
+            final long sendTimeEpochMicros = client.receiveMessages(-1);
 
             if (sendTimeEpochMicros != ReceiverClient.noMessagePayload()) {
-                final long nowInMicros = epochMicroClock.microTime();
-                long elapsedMicros = nowInMicros - sendTimeEpochMicros;
+                final long nowInMicros = epochMicroClock.microTime() - clockOffsetMicros;
 
-                if (elapsedMicros >= 0) {
-                    if (elapsedMicros > HIGHEST_TRACKABLE_VALUE) {
-                        handleHugeSampleError(sendTimeEpochMicros, nowInMicros);
-                        elapsedMicros = HIGHEST_TRACKABLE_VALUE;
-                    }
+                onReceived(client, sendTimeEpochMicros, nowInMicros);
+                count++;
+                messageCount.lazySet(count);
 
-                    latencyRecorder.recordValue(elapsedMicros);
+                if (transactionBatch != null && transactionBatch.onMessage(System.nanoTime())) {
+                    acknowledgeBatch(client, transactionBatch, sessionMode);
                 }
-                else {
-                    handleInvalidLatency(sendTimeEpochMicros, nowInMicros, elapsedMicros);
+            }
+            else {
+                //no message was received within the timeout: close the batch if it has been open for too long
+                if (transactionBatch != null && transactionBatch.isExpired(System.nanoTime())) {
+                    acknowledgeBatch(client, transactionBatch, sessionMode);
                 }
-
-                workerChannel.emitRate(sendTimeEpochMicros, nowInMicros);
-                count++;
-                messageCount.lazySet(count);
             }
         }
+
+        if (transactionBatch != null && transactionBatch.pending() > 0) {
+            acknowledgeBatch(client, transactionBatch, sessionMode);
+        }
     }
 
-    /**
-     * return sessionMode number according to acknowledge type (TRANSACTED/CLIENTS_ACK)
-     *
-     * @param count current count of messages
-     * @param opts Jms Options
-     * @param isClientAck is acknowledge enabled
-     * @return number of session mode, else -1
+    private void onReceived(final ReceiverClient client, final long sendTimeEpochMicros, final long nowInMicros) {
+        //the service latency: from the actual send time
+        LatencyRecorders.recordLatency(latencyRecorder, sendTimeEpochMicros, nowInMicros);
+        if (sizeClassRecorders != null) {
+            sizeClassRecorders.recordLatency(client.messageSize(), sendTimeEpochMicros, nowInMicros);
+        }
+
+        //the response time: from the intended send time, to account for a sender falling behind its schedule
+        final long expectedSendTimeEpochMicros = client.expectedSendTimeEpochMicros();
+        if (expectedSendTimeEpochMicros != ReceiverClient.noMessagePayload()) {
+            LatencyRecorders.recordLatency(responseTimeRecorder, expectedSendTimeEpochMicros, nowInMicros);
+        }
+        else {
+            LatencyRecorders.recordLatency(responseTimeRecorder, sendTimeEpochMicros, nowInMicros);
+        }
+
+        workerChannel.emitRate(sendTimeEpochMicros, nowInMicros);
+    }
+
+    /*
+     * The messages are handled on the provider's dispatch thread, which becomes the single writer of the
+     * recorders and of the worker channel. The worker thread just waits for the test to finish
      */
-    private int isAcknowledge(long count, JmsOptions opts, boolean isClientAck) {
-        return isClientAck && count % opts.getBatchAcknowledge() == 0 ? opts.getSessionMode() : -1;
+    private void runListener(final JMSReceiverClient client, final JmsOptions opts) throws Exception {
+        final PayloadReceiver receiver = new PayloadReceiver(client, opts, Thread.currentThread());
+
+        logger.info("The receiver is using asynchronous receives (prefetch: {})",
+                opts.getPrefetch() >= 0 ? opts.getPrefetch() : "default");
+        client.setPayloadListener(receiver);
+        try {
+            while (!receiver.done && duration.canContinue(this) && isRunning()) {
+                LockSupport.parkNanos(LISTENER_CHECK_INTERVAL_NANOS);
+            }
+        } finally {
+            receiver.done = true;
+            client.stopPayloadListener();
+        }
+
+        if (receiver.error != null) {
+            throw receiver.error;
+        }
+
+        //the listener is no longer running: the remaining messages can be acknowledged from this thread
+        if (receiver.transactionBatch != null && receiver.transactionBatch.pending() > 0) {
+            acknowledgeBatch(client, receiver.transactionBatch, opts.getSessionMode());
+        }
+    }
+
+    private final class PayloadReceiver implements JMSReceiverClient.PayloadListener {
+        private final ReceiverClient client;
+        private final TransactionBatch transactionBatch;
+        private final int sessionMode;
+        private final Thread worker;
+        private EpochMicroClock epochMicroClock;
+        private long count;
+        private volatile boolean done;
+        private volatile Exception error;
+
+        PayloadReceiver(final ReceiverClient client, final JmsOptions opts, final Thread worker) {
+            this.client = client;
+            this.transactionBatch = TransactionBatch.create(opts);
+            this.sessionMode = opts.getSessionMode();
+            this.worker = worker;
+        }
+
+        @Override
+        public void onPayload(long sendTimeEpochMicros) throws Exception {
+            //the clock can only be used by the dispatch thread
+            if (epochMicroClock == null) {
+                epochMicroClock = EpochClocks.exclusiveMicro();
+            }
+
+            final long nowInMicros = epochMicroClock.microTime() - clockOffsetMicros;
+
+            onReceived(client, sendTimeEpochMicros, nowInMicros);
+            count++;
+            messageCount.lazySet(count);
+
+            if (transactionBatch != null && transactionBatch.onMessage(System.nanoTime())) {
+                acknowledgeBatch(client, transactionBatch, sessionMode);
+            }
+
+            if (!duration.canContinue(JMSReceiverWorker.this)) {
+                finish();
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            if (error == null) {
+                error = e;
+            }
+
+            finish();
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        private void finish() {
+            done = true;
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void acknowledgeBatch(final ReceiverClient client, final TransactionBatch transactionBatch,
+                                  int sessionMode) throws Exception {
+        final long startNanos = System.nanoTime();
+        client.acknowledge(sessionMode);
+        final long elapsedNanos = System.nanoTime() - startNanos;
+
+        transactionBatch.onCommit(elapsedNanos);
+        LatencyRecorders.recordElapsed(commitLatencyRecorder, TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
     }
 
     private void doClientStartup(final ReceiverClient client) throws Exception {
@@ -220,16 +334,28 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
         client.start();
     }
 
-    private boolean isClientAcknowledge(JmsOptions opts) {
-        return (opts.getSessionMode() == Session.CLIENT_ACKNOWLEDGE || opts.getSessionMode() == Session.SESSION_TRANSACTED)
-                && opts.getBatchAcknowledge() > 0;
-    }
-
     @Override
     public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
         return latencyRecorder.getIntervalHistogram(intervalHistogram);
     }
 
+    @Override
+    public Histogram takeResponseTimesSnapshot(Histogram intervalHistogram) {
+        return responseTimeRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeCommitLatenciesSnapshot(Histogram intervalHistogram) {
+        return commitLatencyRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeSizeClassLatenciesSnapshot(int sizeClass, Histogram intervalHistogram) {
+        final SizeClassRecorders sizeClassRecorders = this.sizeClassRecorders;
+
+        return sizeClassRecorders == null ? null : sizeClassRecorders.takeSnapshot(sizeClass, intervalHistogram);
+    }
+
     @Override
     public boolean isRunning() {
         return workerStateInfo.isRunning();
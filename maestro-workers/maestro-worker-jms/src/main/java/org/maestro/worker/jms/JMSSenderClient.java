@@ -16,41 +16,140 @@
 
 package org.maestro.worker.jms;
 
+import org.maestro.common.content.BenchmarkPayload;
 import org.maestro.common.content.ContentStrategy;
 import org.maestro.common.jms.SenderClient;
+import org.maestro.common.worker.SendCompletionWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.jms.*;
 import java.nio.ByteBuffer;
 
 final class JMSSenderClient extends JMSClient implements SenderClient {
+    private static final Logger logger = LoggerFactory.getLogger(JMSSenderClient.class);
 
     private ContentStrategy contentStrategy;
-    private Session session;
-    private MessageProducer producer;
+    private Session[] sessions;
+    private MessageProducer[] producers;
+    private ReusableMessage[] reusableMessages;
+    //whether each session has sent messages since its last commit
+    private boolean[] uncommitted;
+    private int nextProducer;
+    private SendCompletionWindow asyncSendWindow;
+    private CompletionListener completionListener;
+    private int messageSize = -1;
 
     @Override
     public void start() throws Exception {
         super.start();
         try {
-            this.session = connection.createSession(opts.getSessionMode() == Session.SESSION_TRANSACTED, opts.getSessionMode());
-            this.producer = session.createProducer(destination);
+            final int fanOut = destinations.length;
 
-            setupMessageDurability();
-            setupPriority();
-            setupTTL();
-            producer.setDisableMessageTimestamp(true);
+            this.sessions = new Session[fanOut];
+            this.producers = new MessageProducer[fanOut];
+            this.uncommitted = new boolean[fanOut];
+            for (int i = 0; i < fanOut; i++) {
+                this.sessions[i] = connection.createSession(opts.getSessionMode() == Session.SESSION_TRANSACTED, opts.getSessionMode());
+                this.producers[i] = sessions[i].createProducer(destinations[i]);
+
+                setupMessageDurability(producers[i]);
+                setupPriority(producers[i]);
+                setupTTL(producers[i]);
+                producers[i].setDisableMessageTimestamp(true);
+            }
+
+            if (fanOut > 1) {
+                logger.info("The sender is distributing the messages across {} sessions and producers", fanOut);
+            }
+
+            setupAsyncSend();
+            setupReusableMessage();
         } catch (Throwable t) {
-            JMSResourceUtil.capturingClose(this.producer);
-            this.producer = null;
-            JMSResourceUtil.capturingClose(this.session);
-            this.session = null;
-            JMSResourceUtil.capturingClose(this.connection);
-            this.connection = null;
+            closeSessions();
+            closeConnection();
             throw t;
         }
     }
 
-    private void setupMessageDurability() throws JMSException {
+    private void setupAsyncSend() {
+        if (!opts.isAsyncSend()) {
+            return;
+        }
+
+        final JMSProtocol protocol = opts.getProtocol();
+        // the other clients only implement JMS 1.1
+        if (protocol != JMSProtocol.AMQP && protocol != JMSProtocol.ARTEMIS) {
+            throw new IllegalArgumentException("Asynchronous send is not supported by the protocol " + protocol);
+        }
+
+        // the completions are only guaranteed to arrive in order for the same session
+        if (producers.length > 1) {
+            throw new IllegalArgumentException("Asynchronous send is not supported with more than one producer");
+        }
+
+        logger.info("The sender is using asynchronous sends with up to {} messages in-flight", opts.getMaxInFlight());
+        asyncSendWindow = new SendCompletionWindow(opts.getMaxInFlight());
+        completionListener = new WindowCompletionListener(asyncSendWindow);
+    }
+
+    /**
+     * Completes the sends on the window as the provider completes them. JMS guarantees that the completions of a
+     * session happen in the same order as the sends
+     */
+    private static final class WindowCompletionListener implements CompletionListener {
+        private final SendCompletionWindow window;
+
+        WindowCompletionListener(final SendCompletionWindow window) {
+            this.window = window;
+        }
+
+        @Override
+        public void onCompletion(Message message) {
+            window.complete();
+        }
+
+        @Override
+        public void onException(Message message, Exception exception) {
+            window.fail(exception);
+        }
+    }
+
+    /**
+     * Gets the window of in-flight asynchronous sends
+     * @return the window or null if the sender is not using asynchronous sends
+     */
+    SendCompletionWindow asyncSendWindow() {
+        return asyncSendWindow;
+    }
+
+    private void setupReusableMessage() throws JMSException {
+        if (!opts.isReuseMessage()) {
+            return;
+        }
+
+        // the message can't be modified before its asynchronous send completes
+        if (asyncSendWindow != null) {
+            logger.warn("Ignoring the request to reuse the message because the sender is using asynchronous sends");
+            return;
+        }
+
+        if (contentStrategy.isFixedSize()) {
+            logger.info("The sender is reusing the same message for every send");
+            reusableMessages = new ReusableMessage[sessions.length];
+            for (int i = 0; i < sessions.length; i++) {
+                final ByteBuffer content = contentStrategy.prepareContent();
+
+                messageSize = content.remaining();
+                reusableMessages[i] = ReusableMessage.create(sessions[i], content);
+            }
+        }
+        else {
+            logger.warn("Ignoring the request to reuse the message because the message size is not fixed");
+        }
+    }
+
+    private void setupMessageDurability(final MessageProducer producer) throws JMSException {
         final boolean durable = opts.isDurable();
 
         if (durable) {
@@ -60,7 +159,7 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
         }
     }
 
-    private void setupTTL() throws JMSException {
+    private void setupTTL(final MessageProducer producer) throws JMSException {
         // Ref: https://docs.oracle.com/cd/E17802_01/products/products/jms/javadoc-102a/javax/jms/MessageProducer.html#setTimeToLive(long)
         final int defaultTTL = 0;
 
@@ -75,7 +174,7 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
         }
     }
 
-    private void setupPriority() throws JMSException {
+    private void setupPriority(final MessageProducer producer) throws JMSException {
         // Ref: https://docs.oracle.com/cd/E17802_01/products/products/jms/javadoc-102a/javax/jms/MessageProducer.html#setPriority(int)
         final int minPriority = 0;
         final int maxPriority = 0;
@@ -93,21 +192,85 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
 
     @Override
     public void sendMessages(long sendTimeEpochInMicros, boolean commitTransaction) throws JMSException {
+        sendMessages(sendTimeEpochInMicros, sendTimeEpochInMicros, commitTransaction);
+    }
+
+    @Override
+    public void sendMessages(long sendTimeEpochInMicros, long expectedSendTimeEpochInMicros,
+                             boolean commitTransaction) throws JMSException {
+        final int current = selectNextProducer();
+        final MessageProducer producer = producers[current];
+
+        if (reusableMessages != null) {
+            final ReusableMessage reusableMessage = reusableMessages[current];
+
+            reusableMessage.setTimestamp(sendTimeEpochInMicros, expectedSendTimeEpochInMicros);
+            if (opts.isTimestampHeader()) {
+                setTimestampProperties(reusableMessage.message(), sendTimeEpochInMicros, expectedSendTimeEpochInMicros);
+            }
+            producer.send(reusableMessage.message());
+        }
+        else {
+            sendNewMessage(sessions[current], producer, sendTimeEpochInMicros, expectedSendTimeEpochInMicros);
+        }
+
+        uncommitted[current] = true;
+        if (commitTransaction) {
+            commit();
+        }
+    }
+
+    private int selectNextProducer() {
+        final int current = nextProducer;
+
+        nextProducer++;
+        if (nextProducer == producers.length) {
+            nextProducer = 0;
+        }
+
+        return current;
+    }
+
+    @Override
+    public void commit() throws JMSException {
+        for (int i = 0; i < sessions.length; i++) {
+            if (uncommitted[i]) {
+                sessions[i].commit();
+                uncommitted[i] = false;
+            }
+        }
+    }
+
+    private void sendNewMessage(final Session session, final MessageProducer producer, long sendTimeEpochInMicros,
+                                long expectedSendTimeEpochInMicros) throws JMSException {
         //prepare the message content
         final ByteBuffer content = contentStrategy.prepareContent();
         final byte[] bytes = content.array();
         final int position = content.position();
         final int offset = content.arrayOffset() + position;
         final int length = content.remaining();
-        //the timestamp is part of the message content
-        content.putLong(position, sendTimeEpochInMicros);
+        messageSize = length;
+        //the timestamps are part of the message content
+        BenchmarkPayload.write(content, sendTimeEpochInMicros, expectedSendTimeEpochInMicros);
         final BytesMessage message = session.createBytesMessage();
         //copy the whole message content (including the benchmark payload ie timestamp)
         message.writeBytes(bytes, offset, length);
-        producer.send(message);
-        if (commitTransaction) {
-            session.commit();
+        if (opts.isTimestampHeader()) {
+            setTimestampProperties(message, sendTimeEpochInMicros, expectedSendTimeEpochInMicros);
         }
+        if (completionListener != null) {
+            producer.send(message, completionListener);
+        }
+        else {
+            producer.send(message);
+        }
+    }
+
+    private static void setTimestampProperties(final Message message, long sendTimeEpochInMicros,
+                                               long expectedSendTimeEpochInMicros) throws JMSException {
+        //the timestamps are also kept in the content, so that any receiver can read them
+        message.setLongProperty(PayloadReader.SEND_TIME_PROPERTY, sendTimeEpochInMicros);
+        message.setLongProperty(PayloadReader.EXPECTED_SEND_TIME_PROPERTY, expectedSendTimeEpochInMicros);
     }
 
     @Override
@@ -115,12 +278,33 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
         this.contentStrategy = contentStrategy;
     }
 
+    @Override
+    public int messageSize() {
+        return messageSize;
+    }
+
     @Override
     public void stop() {
-        JMSResourceUtil.capturingClose(producer);
-        this.producer = null;
-        JMSResourceUtil.capturingClose(session);
-        this.session = null;
+        this.reusableMessages = null;
+        this.asyncSendWindow = null;
+        this.completionListener = null;
+        closeSessions();
         super.stop();
     }
+
+    private void closeSessions() {
+        if (producers != null) {
+            for (MessageProducer producer : producers) {
+                JMSResourceUtil.capturingClose(producer);
+            }
+            this.producers = null;
+        }
+
+        if (sessions != null) {
+            for (Session session : sessions) {
+                JMSResourceUtil.capturingClose(session);
+            }
+            this.sessions = null;
+        }
+    }
 }
@@ -16,26 +16,37 @@
 
 package org.maestro.worker.jms;
 
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
 import org.maestro.common.content.ContentStrategy;
 import org.maestro.common.content.ContentStrategyFactory;
+import org.maestro.common.content.SizeClasses;
 import org.maestro.common.duration.EpochClocks;
 import org.maestro.common.duration.EpochMicroClock;
 import org.maestro.common.duration.TestDuration;
 import org.maestro.common.duration.TestDurationBuilder;
 import org.maestro.common.exceptions.DurationParseException;
 import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.idle.CountingIdleStrategy;
+import org.maestro.common.idle.IdleStrategies;
 import org.maestro.common.jms.SenderClient;
+import org.maestro.common.scheduler.SendScheduler;
+import org.maestro.common.scheduler.SendSchedulers;
+import org.maestro.common.worker.LatencyRecorders;
 import org.maestro.common.worker.MaestroSenderWorker;
+import org.maestro.common.worker.SendCompletionWindow;
+import org.maestro.common.worker.SizeClassRecorders;
 import org.maestro.common.worker.WorkerOptions;
 import org.maestro.common.worker.WorkerStateInfo;
 import org.maestro.common.worker.WorkerUtils;
-import org.maestro.common.writers.OneToOneWorkerChannel;
+import org.maestro.common.writers.WorkerChannel;
+import org.maestro.common.writers.WorkerChannels;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jms.Session;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 /**
@@ -43,30 +54,40 @@ import java.util.function.Supplier;
  */
 public class JMSSenderWorker implements MaestroSenderWorker {
     private static final Logger logger = LoggerFactory.getLogger(JMSSenderWorker.class);
+    private static final long ASYNC_SEND_DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
 
     private ContentStrategy contentStrategy;
     private TestDuration duration;
-    private final OneToOneWorkerChannel workerChannel;
+    private final WorkerChannel workerChannel;
     private final AtomicLong messageCount = new AtomicLong(0);
     private volatile long startedEpochMillis = Long.MIN_VALUE;
+    private final SingleWriterRecorder sendLatencyRecorder = LatencyRecorders.newRecorder();
+    private final SingleWriterRecorder commitLatencyRecorder = LatencyRecorders.newRecorder();
+    // only when the message size follows a distribution
+    private SizeClassRecorders sizeClassRecorders;
 
     private String url;
     private long rate = 0;
+    private String sendSchedulerSpec;
+    private SendScheduler sendScheduler;
+    // shared by the send scheduler and the transaction batch expiration, both on the sender thread
+    private CountingIdleStrategy idleStrategy;
     private int number;
 
     private final Supplier<? extends SenderClient> clientFactory;
+    private final SendCompletionWindow.CompletedSendHandler completedSendHandler = this::onCompletedSend;
 
     public JMSSenderWorker() {
-        this(JMSSenderClient::new, 128 * 1024);
+        this(JMSSenderClient::new, WorkerChannels.capacity());
     }
 
     public JMSSenderWorker(Supplier<? extends SenderClient> clientFactory, int channelCapacity) {
         this.clientFactory = clientFactory;
-        this.workerChannel = new OneToOneWorkerChannel(channelCapacity);
+        this.workerChannel = WorkerChannels.newChannel(channelCapacity);
     }
 
     @Override
-    public OneToOneWorkerChannel workerChannel() {
+    public WorkerChannel workerChannel() {
         return workerChannel;
     }
 
@@ -90,6 +111,7 @@ public class JMSSenderWorker implements MaestroSenderWorker {
 
     private void setMessageSize(String messageSize) {
         contentStrategy = ContentStrategyFactory.parse(messageSize);
+        sizeClassRecorders = SizeClasses.isBrokenDown(messageSize) ? new SizeClassRecorders() : null;
     }
 
     private void setRate(String rate) {
@@ -121,18 +143,11 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         setDuration(workerOptions.getDuration());
         setBroker(workerOptions.getBrokerURL());
         setMessageSize(workerOptions.getMessageSize());
+        setSendScheduler(workerOptions.getSendScheduler());
     }
 
-    private static long waitNanoInterval(final long expectedFireTime, final long intervalInNanos) {
-        assert intervalInNanos > 0;
-        long now;
-        do {
-            now = System.nanoTime();
-            if (now - expectedFireTime < 0) {
-                LockSupport.parkNanos(expectedFireTime - now);
-            }
-        } while (now - expectedFireTime < 0);
-        return now;
+    private void setSendScheduler(String sendSchedulerSpec) {
+        this.sendSchedulerSpec = sendSchedulerSpec;
     }
 
     public void start() {
@@ -146,7 +161,12 @@ public class JMSSenderWorker implements MaestroSenderWorker {
             doClientStartup(client);
             started = true;
 
-            runLoadLoop(client);
+            try {
+                runLoadLoop(client);
+            } finally {
+                //the samples emitted so far are flushed even if the loop fails
+                workerChannel.flush();
+            }
 
             logger.info("Worker {} completed running successfully with {} messages sent", id,
                     messageCount);
@@ -174,54 +194,119 @@ public class JMSSenderWorker implements MaestroSenderWorker {
 
     private void runLoadLoop(final SenderClient client) throws Exception {
         long count = 0;
-        final long intervalInNanos = getIntervalInNanos();
+        final SendScheduler sendScheduler = this.sendScheduler;
 
         //it couldn't uses the Epoch in nanos because it could overflow pretty soon (less than 1 day)
         final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
         final long startFireEpochMicros = epochMicroClock.microTime();
-        //to avoid accumulated approx errors on the expectedSendTimeEpochMillis calculations
-        long elapsedIntervalsNanos = 0;
+        sendScheduler.start(System.nanoTime());
 
-        long nextFireTime = System.nanoTime() + intervalInNanos;
         final JmsOptions opts = ((JMSClient) client).getOpts();
-        final boolean isSessionTransacted = isSessionTransacted(opts);
+        final TransactionBatch transactionBatch = isSessionTransacted(opts) ? TransactionBatch.create(opts) : null;
 
-        if (isSessionTransacted) {
+        if (transactionBatch != null) {
             logger.info("This test is using transactions");
         }
 
-        while (duration.canContinue(this) && isRunning()) {
-            if (intervalInNanos > 0) {
-                final long now = waitNanoInterval(nextFireTime, intervalInNanos);
-                assert (now - nextFireTime) >= 0 : "can't wait less than the configured interval in nanos";
-                nextFireTime += intervalInNanos;
-                elapsedIntervalsNanos += intervalInNanos;
+        final SendCompletionWindow asyncSendWindow = client instanceof JMSSenderClient ?
+                ((JMSSenderClient) client).asyncSendWindow() : null;
+
+        while (duration.canContinue(this) && isRunning() && sendScheduler.hasNext()) {
+            if (transactionBatch != null) {
+                commitExpiredBatch(client, transactionBatch, sendScheduler.nextFireTime());
             }
 
+            final long expectedElapsedNanos = sendScheduler.awaitNext();
             final long sendTimeEpochMicros = epochMicroClock.microTime();
             final long expectedSendTimeEpochMicros;
 
-            if (intervalInNanos > 0) {
-                final long elapsedIntervalsMicros = (elapsedIntervalsNanos / 1_000L);
-                expectedSendTimeEpochMicros = startFireEpochMicros + elapsedIntervalsMicros;
+            if (expectedElapsedNanos != SendScheduler.UNSCHEDULED) {
+                expectedSendTimeEpochMicros = startFireEpochMicros + (expectedElapsedNanos / 1_000L);
             } else {
                 expectedSendTimeEpochMicros = sendTimeEpochMicros;
             }
 
-            client.sendMessages(sendTimeEpochMicros, commitTransaction(count, opts, isSessionTransacted));
-            workerChannel.emitRate(expectedSendTimeEpochMicros, sendTimeEpochMicros);
+            if (asyncSendWindow != null) {
+                asyncSendWindow.awaitCapacity(this.completedSendHandler);
+                asyncSendWindow.register(expectedSendTimeEpochMicros, sendTimeEpochMicros);
+            }
+
+            final long sendStartNanos = System.nanoTime();
+            client.sendMessages(sendTimeEpochMicros, expectedSendTimeEpochMicros, false);
+            if (asyncSendWindow == null) {
+                //the time blocked on the send: on durable queues it shows how busy the broker storage is
+                final long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendStartNanos);
+
+                LatencyRecorders.recordElapsed(sendLatencyRecorder, elapsedMicros);
+                if (sizeClassRecorders != null) {
+                    sizeClassRecorders.recordElapsed(client.messageSize(), elapsedMicros);
+                }
+            }
+            else {
+                asyncSendWindow.setMessageSize(client.messageSize());
+            }
+
+            if (transactionBatch != null && transactionBatch.onMessage(System.nanoTime())) {
+                commitBatch(client, transactionBatch);
+            }
+
+            if (asyncSendWindow == null) {
+                workerChannel.emitRate(expectedSendTimeEpochMicros, sendTimeEpochMicros);
+            }
             count++;
             //update message sent count
             this.messageCount.lazySet(count);
         }
+
+        if (transactionBatch != null && transactionBatch.pending() > 0) {
+            commitBatch(client, transactionBatch);
+        }
+
+        if (asyncSendWindow != null) {
+            asyncSendWindow.awaitCompletion(this.completedSendHandler, ASYNC_SEND_DRAIN_TIMEOUT_NANOS);
+        }
+    }
+
+    private void onCompletedSend(long expectedSendTimeEpochMicros, long sendTimeEpochMicros,
+                                 long completionTimeEpochMicros, int messageSize) {
+        //on asynchronous sends the message is considered sent only when the send completes
+        workerChannel.emitRate(expectedSendTimeEpochMicros, completionTimeEpochMicros);
+        LatencyRecorders.recordElapsed(sendLatencyRecorder, completionTimeEpochMicros - sendTimeEpochMicros);
+        if (sizeClassRecorders != null) {
+            sizeClassRecorders.recordElapsed(messageSize, completionTimeEpochMicros - sendTimeEpochMicros);
+        }
     }
 
-    private boolean commitTransaction(long count, JmsOptions opts, boolean isSessionTransacted) {
-        return isSessionTransacted && count % opts.getBatchAcknowledge() == 0;
+    private void commitBatch(final SenderClient client, final TransactionBatch transactionBatch) throws Exception {
+        final long startNanos = System.nanoTime();
+        client.commit();
+        final long elapsedNanos = System.nanoTime() - startNanos;
+
+        transactionBatch.onCommit(elapsedNanos);
+        LatencyRecorders.recordElapsed(commitLatencyRecorder, TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    /*
+     * On low rates the next message could take longer than the maximum delay of the batch, therefore
+     * the open batch is committed before waiting for the next fire time when it expires first
+     */
+    private void commitExpiredBatch(final SenderClient client, final TransactionBatch transactionBatch,
+                                    final long nextFireTime) throws Exception {
+        if (transactionBatch.canExpire()) {
+            final long expirationNanos = transactionBatch.expirationNanos();
+
+            if (expirationNanos - nextFireTime < 0) {
+                final long now = idleStrategy.idleUntil(expirationNanos);
+
+                if (transactionBatch.isExpired(now)) {
+                    commitBatch(client, transactionBatch);
+                }
+            }
+        }
     }
 
     private boolean isSessionTransacted(JmsOptions opts) {
-        return opts.getSessionMode() == Session.SESSION_TRANSACTED && opts.getBatchAcknowledge() > 0;
+        return opts.getSessionMode() == Session.SESSION_TRANSACTED;
     }
 
     private void doClientStartup(final SenderClient client) throws Exception {
@@ -229,6 +314,10 @@ public class JMSSenderWorker implements MaestroSenderWorker {
             throw new MaestroException("Trying to run a test without defining the message size");
         }
 
+        idleStrategy = IdleStrategies.forRole(IdleStrategies.ROLE_SENDER);
+        sendScheduler = SendSchedulers.parse(sendSchedulerSpec, rate, idleStrategy);
+        logSendSchedule();
+
         client.setUrl(url);
         client.setContentStrategy(contentStrategy);
 
@@ -237,20 +326,37 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         client.start();
     }
 
-    private long getIntervalInNanos() {
+    private void logSendSchedule() {
         final long intervalInNanos = WorkerUtils.getExchangeInterval(this.rate);
 
         if (intervalInNanos > 0) {
             if (logger.isDebugEnabled()) {
                 logger.debug("JMS Sender Worker {} has started firing events with an interval of {} ns and rate of "
-                                + rate + " msg/sec",
-                        Thread.currentThread().getId(), intervalInNanos);
+                                + rate + " msg/sec using the {} scheduler",
+                        Thread.currentThread().getId(), intervalInNanos,
+                        sendSchedulerSpec == null ? "default" : sendSchedulerSpec);
             }
         } else if (this.rate == 0) {
             logger.debug("JMS Sender worker {} has started firing events with an unbounded rate",
                     Thread.currentThread().getId());
         }
-        return intervalInNanos;
+    }
+
+    @Override
+    public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
+        return sendLatencyRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeCommitLatenciesSnapshot(Histogram intervalHistogram) {
+        return commitLatencyRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
+    @Override
+    public Histogram takeSizeClassLatenciesSnapshot(int sizeClass, Histogram intervalHistogram) {
+        final SizeClassRecorders sizeClassRecorders = this.sizeClassRecorders;
+
+        return sizeClassRecorders == null ? null : sizeClassRecorders.takeSnapshot(sizeClass, intervalHistogram);
     }
 
     @Override
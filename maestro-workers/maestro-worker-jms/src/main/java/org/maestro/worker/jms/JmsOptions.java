@@ -62,12 +62,40 @@ class JmsOptions {
         maestroOptions.add("limitDestinations");
         maestroOptions.add("sessionMode");
         maestroOptions.add("batchAcknowledge");
+        maestroOptions.add("reuseMessage");
+        maestroOptions.add("asyncSend");
+        maestroOptions.add("maxInFlight");
+        maestroOptions.add("adaptiveBatch");
+        maestroOptions.add("batchTargetLatency");
+        maestroOptions.add("batchMaxDelay");
+        maestroOptions.add("batchMinSize");
+        maestroOptions.add("batchMaxSize");
+        maestroOptions.add("fanOut");
+        maestroOptions.add("connectionsPerHost");
+        maestroOptions.add("sessionsPerConnection");
+        maestroOptions.add("asyncReceive");
+        maestroOptions.add("prefetch");
+        maestroOptions.add("timestampHeader");
     }
 
     private boolean durable;
     private int sessionMode;
     private int priority;
     private int batchAcknowledge;
+    private boolean reuseMessage;
+    private boolean asyncSend;
+    private int maxInFlight;
+    private boolean adaptiveBatch;
+    private long batchTargetLatency;
+    private long batchMaxDelay;
+    private int batchMinSize;
+    private int batchMaxSize;
+    private int fanOut;
+    private int connectionsPerHost;
+    private int sessionsPerConnection;
+    private boolean asyncReceive;
+    private int prefetch;
+    private boolean timestampHeader;
 
 
 
@@ -87,6 +115,20 @@ class JmsOptions {
             ttl = urlQuery.getLong("ttl", 0L);
             sessionMode = urlQuery.getInteger("sessionMode", Session.AUTO_ACKNOWLEDGE);
             batchAcknowledge = urlQuery.getInteger("batchAcknowledge", 0);
+            reuseMessage = urlQuery.getBoolean("reuseMessage", false);
+            asyncSend = urlQuery.getBoolean("asyncSend", false);
+            maxInFlight = urlQuery.getInteger("maxInFlight", 1024);
+            adaptiveBatch = urlQuery.getBoolean("adaptiveBatch", false);
+            batchTargetLatency = urlQuery.getLong("batchTargetLatency", 10L);
+            batchMaxDelay = urlQuery.getLong("batchMaxDelay", 1000L);
+            batchMinSize = urlQuery.getInteger("batchMinSize", 1);
+            batchMaxSize = urlQuery.getInteger("batchMaxSize", 10000);
+            fanOut = urlQuery.getInteger("fanOut", 1);
+            connectionsPerHost = urlQuery.getInteger("connectionsPerHost", 0);
+            sessionsPerConnection = urlQuery.getInteger("sessionsPerConnection", 0);
+            asyncReceive = urlQuery.getBoolean("asyncReceive", false);
+            prefetch = urlQuery.getInteger("prefetch", -1);
+            timestampHeader = urlQuery.getBoolean("timestampHeader", false);
 
             connectionUrl = filterJMSURL(uri);
 
@@ -113,6 +155,23 @@ class JmsOptions {
                 }
             }
         }
+
+        // the prefetch is applied by the provider-specific URL option, if any
+        if (prefetch >= 0) {
+            final String prefetchOption = protocol.prefetchOption(prefetch);
+
+            if (prefetchOption != null) {
+                if (queryStringBuilder.length() > 0 && queryStringBuilder.charAt(queryStringBuilder.length() - 1) != '&') {
+                    queryStringBuilder.append("&");
+                }
+                queryStringBuilder.append(prefetchOption);
+            }
+            else {
+                logger.warn("Ignoring the prefetch of {} messages because it is not supported by the protocol {}",
+                        prefetch, protocol);
+            }
+        }
+
         String queryString = queryStringBuilder.length() > 0 ? "?" + queryStringBuilder : "";
         return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort() + queryString;
     }
@@ -156,4 +215,69 @@ class JmsOptions {
     public int getBatchAcknowledge() {
         return batchAcknowledge;
     }
+
+    public boolean isReuseMessage() {
+        return reuseMessage;
+    }
+
+    public boolean isAsyncSend() {
+        return asyncSend;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public boolean isAdaptiveBatch() {
+        return adaptiveBatch;
+    }
+
+    public long getBatchTargetLatency() {
+        return batchTargetLatency;
+    }
+
+    public long getBatchMaxDelay() {
+        return batchMaxDelay;
+    }
+
+    public int getBatchMinSize() {
+        return batchMinSize;
+    }
+
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+
+    public int getSessionsPerConnection() {
+        return sessionsPerConnection;
+    }
+
+    /**
+     * Whether the clients share the connections to the broker. This is enabled by setting either the
+     * connectionsPerHost or the sessionsPerConnection options
+     * @return true if the connections are shared or false if each client opens its own connection
+     */
+    public boolean isConnectionSharing() {
+        return connectionsPerHost > 0 || sessionsPerConnection > 0;
+    }
+
+    public boolean isAsyncReceive() {
+        return asyncReceive;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public boolean isTimestampHeader() {
+        return timestampHeader;
+    }
 }
@@ -0,0 +1,226 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.util.ByteSequence;
+import org.apache.qpid.jms.message.JmsMessage;
+import org.apache.qpid.jms.message.facade.JmsMessageFacade;
+import org.apache.qpid.jms.provider.amqp.message.AmqpJmsBytesMessageFacade;
+import org.maestro.common.content.BenchmarkPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the benchmark payload (ie.: the timestamps at the beginning of the content) of the received messages.
+ * <p>
+ * The provider-specific readers copy just the payload bytes straight from the provider's own body buffer,
+ * skipping the JMS body stream. They fall back to the generic reader for any message they can't handle.
+ */
+abstract class PayloadReader {
+    private static final Logger logger = LoggerFactory.getLogger(PayloadReader.class);
+
+    /**
+     * The name of the message property carrying the send time in the header timestamp mode
+     */
+    static final String SEND_TIME_PROPERTY = "MaestroSendTime";
+
+    /**
+     * The name of the message property carrying the expected send time in the header timestamp mode
+     */
+    static final String EXPECTED_SEND_TIME_PROPERTY = "MaestroExpectedSendTime";
+
+    private static final PayloadReader GENERIC = new GenericPayloadReader();
+
+    /**
+     * Creates a payload reader for the given protocol
+     * @param protocol the protocol used by the client
+     * @param timestampHeader whether the timestamps are read from the message properties instead of the body
+     * @return a new payload reader
+     */
+    static PayloadReader create(final JMSProtocol protocol, boolean timestampHeader) {
+        if (timestampHeader) {
+            logger.debug("Using the header payload reader: the timestamps are read from the message properties");
+            return new HeaderPayloadReader();
+        }
+
+        switch (protocol) {
+            case AMQP:
+                logger.debug("Using the Qpid JMS payload reader: the timestamps are read from the body stream");
+                return new QpidJmsPayloadReader();
+            case ARTEMIS:
+                logger.debug("Using the Artemis payload reader: the timestamps are read from the body buffer");
+                return new ArtemisPayloadReader();
+            case OPENWIRE:
+                logger.debug("Using the OpenWire payload reader: the timestamps are read from the message content");
+                return new OpenWirePayloadReader();
+            default:
+                logger.debug("Using the generic payload reader");
+                return GENERIC;
+        }
+    }
+
+    /**
+     * Reads the benchmark payload of a message
+     * @param message the received message
+     * @param payload the buffer where the payload is read into, starting at index 0. It must have a backing array
+     *                with room for {@link BenchmarkPayload#LENGTH} bytes and use the content strategy endianness
+     * @return the number of bytes read or -1 if the message has no content, like {@link BytesMessage#readBytes(byte[], int)}
+     * @throws JMSException if unable to read the message
+     */
+    abstract int read(Message message, ByteBuffer payload) throws JMSException;
+
+    private static int copy(final byte[] source, final int offset, final int length, final ByteBuffer payload) {
+        if (length <= 0) {
+            return -1;
+        }
+
+        final int count = Math.min(length, BenchmarkPayload.LENGTH);
+        System.arraycopy(source, offset, payload.array(), 0, count);
+        return count;
+    }
+
+    /**
+     * Reads the payload through the JMS API
+     */
+    private static final class GenericPayloadReader extends PayloadReader {
+        @Override
+        int read(final Message message, final ByteBuffer payload) throws JMSException {
+            //just read the benchmark minimum payload
+            return ((BytesMessage) message).readBytes(payload.array(), BenchmarkPayload.LENGTH);
+        }
+    }
+
+    /**
+     * Reads the timestamps from the message properties, leaving the body untouched
+     */
+    private static final class HeaderPayloadReader extends PayloadReader {
+        @Override
+        int read(final Message message, final ByteBuffer payload) throws JMSException {
+            if (!message.propertyExists(SEND_TIME_PROPERTY)) {
+                return 0;
+            }
+
+            payload.putLong(BenchmarkPayload.SEND_TIME_OFFSET, message.getLongProperty(SEND_TIME_PROPERTY));
+            if (!message.propertyExists(EXPECTED_SEND_TIME_PROPERTY)) {
+                return BenchmarkPayload.MIN_LENGTH;
+            }
+
+            payload.putLong(BenchmarkPayload.EXPECTED_SEND_TIME_OFFSET, message.getLongProperty(EXPECTED_SEND_TIME_PROPERTY));
+            return BenchmarkPayload.LENGTH;
+        }
+    }
+
+    /**
+     * Reads the payload from the stream over the AMQP body section, without going through the JMS body stream
+     */
+    private static final class QpidJmsPayloadReader extends PayloadReader {
+        @Override
+        int read(final Message message, final ByteBuffer payload) throws JMSException {
+            if (message instanceof JmsMessage) {
+                final JmsMessageFacade facade = ((JmsMessage) message).getFacade();
+
+                if (facade instanceof AmqpJmsBytesMessageFacade) {
+                    return read((AmqpJmsBytesMessageFacade) facade, payload);
+                }
+            }
+
+            return GENERIC.read(message, payload);
+        }
+
+        private static int read(final AmqpJmsBytesMessageFacade facade, final ByteBuffer payload) throws JMSException {
+            if (!facade.hasBody()) {
+                return -1;
+            }
+
+            final byte[] bytes = payload.array();
+            try (InputStream inputStream = facade.getInputStream()) {
+                int count = 0;
+
+                while (count < BenchmarkPayload.LENGTH) {
+                    final int read = inputStream.read(bytes, count, BenchmarkPayload.LENGTH - count);
+                    if (read < 0) {
+                        break;
+                    }
+                    count += read;
+                }
+
+                return count == 0 ? -1 : count;
+            } catch (IOException e) {
+                final JMSException jmsException = new JMSException("Unable to read the message body: " + e.getMessage());
+                jmsException.setLinkedException(e);
+                throw jmsException;
+            }
+        }
+    }
+
+    /**
+     * Reads the payload from the core message body buffer, without moving its reader index
+     */
+    private static final class ArtemisPayloadReader extends PayloadReader {
+        @Override
+        int read(final Message message, final ByteBuffer payload) throws JMSException {
+            if (message instanceof org.apache.activemq.artemis.jms.client.ActiveMQBytesMessage) {
+                final ActiveMQBuffer bodyBuffer = ((org.apache.activemq.artemis.jms.client.ActiveMQBytesMessage) message)
+                        .getCoreMessage().getBodyBuffer();
+                final int count = Math.min(bodyBuffer.readableBytes(), BenchmarkPayload.LENGTH);
+
+                if (count <= 0) {
+                    return -1;
+                }
+
+                //the bytes are copied as they are, so the content strategy endianness is preserved
+                bodyBuffer.getBytes(bodyBuffer.readerIndex(), payload.array(), 0, count);
+                return count;
+            }
+
+            return GENERIC.read(message, payload);
+        }
+    }
+
+    /**
+     * Reads the payload straight from the marshalled message content, unless it is compressed
+     */
+    private static final class OpenWirePayloadReader extends PayloadReader {
+        @Override
+        int read(final Message message, final ByteBuffer payload) throws JMSException {
+            if (message instanceof org.apache.activemq.command.ActiveMQBytesMessage) {
+                final org.apache.activemq.command.ActiveMQBytesMessage bytesMessage =
+                        (org.apache.activemq.command.ActiveMQBytesMessage) message;
+
+                if (!bytesMessage.isCompressed()) {
+                    final ByteSequence content = bytesMessage.getContent();
+
+                    if (content == null) {
+                        return -1;
+                    }
+
+                    return copy(content.getData(), content.getOffset(), content.getLength(), payload);
+                }
+            }
+
+            return GENERIC.read(message, payload);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.jms.client.ActiveMQBytesMessage;
+import org.maestro.common.content.BenchmarkPayload;
+import org.maestro.common.content.ContentStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A bytes message that is built once and sent many times: only the benchmark payload (ie.: the timestamps
+ * at the beginning of the content) is updated before each send.
+ */
+abstract class ReusableMessage {
+    private static final Logger logger = LoggerFactory.getLogger(ReusableMessage.class);
+
+    /**
+     * Creates a reusable message for the given content, using the provider-specific fast path if there is one
+     * @param session the session used to create the message
+     * @param content the message content, as returned by the content strategy
+     * @return a new reusable message
+     * @throws JMSException if unable to create the message
+     */
+    static ReusableMessage create(final Session session, final ByteBuffer content) throws JMSException {
+        final BytesMessage message = session.createBytesMessage();
+
+        if (message instanceof ActiveMQBytesMessage) {
+            logger.debug("Using the Artemis reusable message: the timestamp is written directly on the body buffer");
+
+            return new ArtemisReusableMessage((ActiveMQBytesMessage) message, content);
+        }
+
+        logger.debug("Using the generic reusable message: the content is copied on every send");
+        return new GenericReusableMessage(message, content);
+    }
+
+    /**
+     * Gets the message to be sent
+     * @return the message
+     */
+    abstract Message message();
+
+    /**
+     * Sets the timestamps on the message content
+     * @param sendTimeEpochInMicros the send time in micros since epoch
+     * @param expectedSendTimeEpochInMicros the expected send time in micros since epoch
+     * @throws JMSException if unable to update the message
+     */
+    abstract void setTimestamp(long sendTimeEpochInMicros, long expectedSendTimeEpochInMicros) throws JMSException;
+
+    /**
+     * Reuses the message object, but has to rewrite the whole body through the JMS API
+     */
+    private static final class GenericReusableMessage extends ReusableMessage {
+        private final BytesMessage message;
+        private final ByteBuffer content;
+        private final byte[] bytes;
+        private final int position;
+        private final int offset;
+        private final int length;
+
+        GenericReusableMessage(final BytesMessage message, final ByteBuffer content) {
+            this.message = message;
+            this.content = content;
+            this.bytes = content.array();
+            this.position = content.position();
+            this.offset = content.arrayOffset() + position;
+            this.length = content.remaining();
+        }
+
+        @Override
+        Message message() {
+            return message;
+        }
+
+        @Override
+        void setTimestamp(long sendTimeEpochInMicros, long expectedSendTimeEpochInMicros) throws JMSException {
+            BenchmarkPayload.write(content, sendTimeEpochInMicros, expectedSendTimeEpochInMicros);
+            message.clearBody();
+            message.writeBytes(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Writes the content once and then updates the timestamp in place on the core message body buffer
+     */
+    private static final class ArtemisReusableMessage extends ReusableMessage {
+        private static final boolean REVERSE_BYTES = ContentStrategy.CONTENT_ENDIANNESS != ByteOrder.BIG_ENDIAN;
+
+        private final ActiveMQBytesMessage message;
+        private final ClientMessage coreMessage;
+        private final int timestampIndex;
+        private final boolean hasExpectedSendTime;
+
+        ArtemisReusableMessage(final ActiveMQBytesMessage message, final ByteBuffer content) throws JMSException {
+            this.message = message;
+            this.coreMessage = message.getCoreMessage();
+            this.timestampIndex = coreMessage.getBodyBuffer().readerIndex();
+            this.hasExpectedSendTime = BenchmarkPayload.hasExpectedSendTime(content.remaining());
+
+            message.writeBytes(content.array(), content.arrayOffset() + content.position(), content.remaining());
+        }
+
+        @Override
+        Message message() {
+            return message;
+        }
+
+        private static long toBodyOrder(long value) {
+            // the body buffer is big endian while the content uses the content strategy endianness
+            return REVERSE_BYTES ? Long.reverseBytes(value) : value;
+        }
+
+        @Override
+        void setTimestamp(long sendTimeEpochInMicros, long expectedSendTimeEpochInMicros) {
+            final ActiveMQBuffer bodyBuffer = coreMessage.getBodyBuffer();
+
+            bodyBuffer.setLong(timestampIndex + BenchmarkPayload.SEND_TIME_OFFSET, toBodyOrder(sendTimeEpochInMicros));
+            if (hasExpectedSendTime) {
+                bodyBuffer.setLong(timestampIndex + BenchmarkPayload.EXPECTED_SEND_TIME_OFFSET,
+                        toBodyOrder(expectedSendTimeEpochInMicros));
+            }
+        }
+    }
+}
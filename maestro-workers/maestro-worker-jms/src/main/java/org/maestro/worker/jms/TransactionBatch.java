@@ -0,0 +1,167 @@
+/*
+ *  Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import javax.jms.Session;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a transaction should be committed (or a batch of messages acknowledged).
+ * <p>
+ * In the fixed mode the batch is closed every batchAcknowledge messages. In the adaptive mode the batch
+ * size is adjusted after each commit in order to keep the commit latency close to the configured target:
+ * it grows additively while the commit latency is below the target and it is halved when it is above it.
+ * In both modes an open batch is closed after batchMaxDelay milliseconds, so that low-rate tests do
+ * not hold messages in an open transaction indefinitely.
+ * <p>
+ * This class is not thread-safe and is meant to be used by the worker thread only.
+ */
+final class TransactionBatch {
+    private final boolean adaptive;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetLatencyNanos;
+    private final long maxDelayNanos;
+
+    private int size;
+    private int pending;
+    private long openedNanos;
+    private boolean expired;
+
+    TransactionBatch(int initialSize, int minSize, int maxSize, long targetLatencyNanos, long maxDelayNanos,
+                     boolean adaptive) {
+        if (minSize <= 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid batch size limits: " + minSize + " - " + maxSize);
+        }
+
+        this.adaptive = adaptive;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.maxDelayNanos = maxDelayNanos;
+        this.size = Math.max(minSize, Math.min(maxSize, initialSize));
+    }
+
+    /**
+     * Creates the batch policy for the given options
+     * @param opts the JMS options
+     * @return the batch policy or null if the session is not batching commits/acknowledgements
+     */
+    static TransactionBatch create(final JmsOptions opts) {
+        final int sessionMode = opts.getSessionMode();
+
+        if (sessionMode != Session.SESSION_TRANSACTED && sessionMode != Session.CLIENT_ACKNOWLEDGE) {
+            return null;
+        }
+
+        final long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(opts.getBatchMaxDelay());
+
+        if (opts.isAdaptiveBatch()) {
+            final int initialSize = opts.getBatchAcknowledge() > 0 ? opts.getBatchAcknowledge() : opts.getBatchMinSize();
+
+            return new TransactionBatch(initialSize, opts.getBatchMinSize(), opts.getBatchMaxSize(),
+                    TimeUnit.MILLISECONDS.toNanos(opts.getBatchTargetLatency()), maxDelayNanos, true);
+        }
+
+        if (opts.getBatchAcknowledge() <= 0) {
+            return null;
+        }
+
+        return new TransactionBatch(opts.getBatchAcknowledge(), opts.getBatchAcknowledge(),
+                opts.getBatchAcknowledge(), 0, maxDelayNanos, false);
+    }
+
+    /**
+     * Registers a message on the current batch
+     * @param nowNanos the current time as given by System.nanoTime()
+     * @return true if the batch should be committed now
+     */
+    boolean onMessage(long nowNanos) {
+        if (pending == 0) {
+            openedNanos = nowNanos;
+        }
+
+        pending++;
+        return pending >= size || isExpired(nowNanos);
+    }
+
+    /**
+     * Checks whether there is an open batch that has been held for longer than the maximum delay
+     * @param nowNanos the current time as given by System.nanoTime()
+     * @return true if the batch should be committed now
+     */
+    boolean isExpired(long nowNanos) {
+        if (canExpire() && nowNanos - expirationNanos() >= 0) {
+            expired = true;
+        }
+
+        return expired;
+    }
+
+    /**
+     * Checks whether the current batch can be closed by the time bound
+     * @return true if there is an open batch and the time bound is enabled
+     */
+    boolean canExpire() {
+        return pending > 0 && maxDelayNanos > 0;
+    }
+
+    /**
+     * Gets the time at which the current batch should be closed by the time bound
+     * @return the expiration time, as given by System.nanoTime(), of the current batch
+     */
+    long expirationNanos() {
+        return openedNanos + maxDelayNanos;
+    }
+
+    /**
+     * Closes the current batch and adjusts the batch size
+     * @param latencyNanos how long the commit/acknowledgement took
+     */
+    void onCommit(long latencyNanos) {
+        if (adaptive) {
+            if (latencyNanos > targetLatencyNanos) {
+                size = Math.max(minSize, size / 2);
+            }
+            else {
+                // a batch closed by the time bound says nothing about whether a larger one would fit
+                if (!expired && pending >= size) {
+                    size = Math.min(maxSize, size + Math.max(1, size / 8));
+                }
+            }
+        }
+
+        pending = 0;
+        expired = false;
+    }
+
+    /**
+     * Gets the number of messages in the current batch
+     * @return the number of messages not yet committed
+     */
+    int pending() {
+        return pending;
+    }
+
+    /**
+     * Gets the current batch size
+     * @return the current batch size
+     */
+    int size() {
+        return size;
+    }
+}
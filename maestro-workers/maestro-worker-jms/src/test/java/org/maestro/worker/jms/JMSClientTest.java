@@ -47,4 +47,21 @@ public class JMSClientTest {
                     destinationName);
         }
     }
+
+    @Test
+    public void testFanOutLimitDestinations() {
+        final String requestedDestName = "test.unit.queue";
+        final int fanOut = 2;
+
+        // 2 clients with 2 sessions each are spread across 4 destinations
+        for (int client = 0; client < 2; client++) {
+            for (int i = 0; i < fanOut; i++) {
+                String destinationName = JMSClient.setupLimitDestinations("test.unit.queue", 4,
+                        JMSClient.fanOutClientNumber(client, fanOut, i));
+
+                assertEquals("The destination name does not match the expected one",
+                        requestedDestName + "." + (client * fanOut + i), destinationName);
+            }
+        }
+    }
 }
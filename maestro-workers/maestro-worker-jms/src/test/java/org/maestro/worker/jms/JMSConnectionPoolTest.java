@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.junit.Test;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class JMSConnectionPoolTest {
+    private static final String KEY = "AMQP:amqp://localhost:5672";
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    private Connection newConnection() {
+        opened.incrementAndGet();
+
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        closed.incrementAndGet();
+                    }
+
+                    return null;
+                });
+    }
+
+    @Test
+    public void testSessionsPerConnection() throws Exception {
+        final JMSConnectionPool pool = new JMSConnectionPool();
+
+        final JMSConnectionPool.Lease first = pool.acquire(KEY, 2, 0, 4, this::newConnection);
+        final JMSConnectionPool.Lease second = pool.acquire(KEY, 2, 0, 4, this::newConnection);
+        final JMSConnectionPool.Lease third = pool.acquire(KEY, 2, 0, 4, this::newConnection);
+
+        assertSame(first.connection(), second.connection());
+        assertNotSame(first.connection(), third.connection());
+        assertEquals(2, opened.get());
+        assertEquals(2, pool.connections(KEY));
+
+        pool.release(first);
+        assertEquals(0, closed.get());
+
+        pool.release(second);
+        pool.release(second);
+        assertEquals(1, closed.get());
+
+        pool.release(third);
+        assertEquals(2, closed.get());
+        assertEquals(0, pool.connections(KEY));
+    }
+
+    @Test
+    public void testConnectionsPerHost() throws Exception {
+        final JMSConnectionPool pool = new JMSConnectionPool();
+
+        for (int i = 0; i < 10; i++) {
+            pool.acquire(KEY, 1, 3, 0, this::newConnection);
+        }
+
+        assertEquals(3, pool.connections(KEY));
+        assertEquals(3, opened.get());
+
+        for (int i = 0; i < 10; i++) {
+            pool.acquire(KEY, 1, 3, 2, this::newConnection);
+        }
+
+        assertEquals(3, pool.connections(KEY));
+        assertEquals(0, pool.connections("AMQP:amqp://otherhost:5672"));
+    }
+
+    @Test
+    public void testFailedConnection() throws Exception {
+        final JMSConnectionPool pool = new JMSConnectionPool();
+
+        try {
+            pool.acquire(KEY, 1, 3, 0, () -> {
+                throw new JMSException("refused");
+            });
+            fail("The connection should have failed");
+        } catch (JMSException e) {
+            assertEquals("refused", e.getMessage());
+        }
+
+        assertEquals(0, pool.connections(KEY));
+        pool.acquire(KEY, 1, 3, 0, this::newConnection);
+        assertEquals(1, pool.connections(KEY));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLimits() throws Exception {
+        new JMSConnectionPool().acquire(KEY, 1, 0, 0, this::newConnection);
+    }
+}
@@ -20,6 +20,7 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class JMSOptionsTest {
 
@@ -88,6 +89,38 @@ public class JMSOptionsTest {
                 jmsOptions.getConnectionUrl());
     }
 
+    @Test
+    public void testFanOut() {
+        final String url = "amqp://hostname:5672/test.performance.queue?fanOut=4";
+        JmsOptions jmsOptions = new JmsOptions(url);
+
+        assertEquals("The fan out does not match the expected value", 4, jmsOptions.getFanOut());
+        assertEquals("The connection URL does not match the expected one", "amqp://hostname:5672",
+                jmsOptions.getConnectionUrl());
+        assertEquals("The default fan out does not match the expected value", 1,
+                new JmsOptions("amqp://hostname:5672/test.performance.queue").getFanOut());
+    }
+
+    @Test
+    public void testAsyncReceiveAndPrefetch() {
+        final String url = "amqp://hostname:5672/test.performance.queue?asyncReceive=true&prefetch=10";
+        JmsOptions jmsOptions = new JmsOptions(url);
+
+        assertTrue("Expected asyncReceive to be true", jmsOptions.isAsyncReceive());
+        assertEquals("The prefetch does not match the expected value", 10, jmsOptions.getPrefetch());
+        assertEquals("The connection URL does not match the expected one",
+                "amqp://hostname:5672?jms.prefetchPolicy.all=10", jmsOptions.getConnectionUrl());
+
+        jmsOptions = new JmsOptions("amqp://hostname:5672/test.performance.queue?protocol=ARTEMIS&prefetch=0");
+        assertEquals("The connection URL does not match the expected one",
+                "amqp://hostname:5672?consumerWindowSize=0", jmsOptions.getConnectionUrl());
+
+        jmsOptions = new JmsOptions("amqp://hostname:5672/test.performance.queue");
+        assertFalse("Expected asyncReceive to be false", jmsOptions.isAsyncReceive());
+        assertEquals("The connection URL does not match the expected one",
+                "amqp://hostname:5672", jmsOptions.getConnectionUrl());
+    }
+
     public void testTlsAndJmsOptions() {
         final String url = "amqps://hostname:5671/test.performance.queue?durable=false&jms.username=user1&jms.password=pass1&transport.trustAll";
         JmsOptions jmsOptions = new JmsOptions(url);
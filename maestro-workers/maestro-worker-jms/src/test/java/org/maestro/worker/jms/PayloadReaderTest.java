@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.core.client.impl.ClientMessageImpl;
+import org.apache.activemq.util.ByteSequence;
+import org.apache.qpid.jms.message.JmsBytesMessage;
+import org.apache.qpid.jms.provider.amqp.message.AmqpJmsBytesMessageFacade;
+import org.junit.Test;
+import org.maestro.common.content.BenchmarkPayload;
+import org.maestro.common.content.ContentStrategy;
+
+import javax.jms.BytesMessage;
+import javax.jms.Message;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class PayloadReaderTest {
+    private static final int SIZE = 1024;
+    private static final long SEND_TIME = 1_500_000_000_000_000L;
+    private static final long EXPECTED_SEND_TIME = SEND_TIME - 10;
+
+    private static byte[] content() {
+        final ByteBuffer content = ByteBuffer.allocate(SIZE).order(ContentStrategy.CONTENT_ENDIANNESS);
+
+        BenchmarkPayload.write(content, SEND_TIME, EXPECTED_SEND_TIME);
+        return content.array();
+    }
+
+    private static void assertPayload(final PayloadReader reader, final Message message) throws Exception {
+        final ByteBuffer payload = ByteBuffer.allocate(BenchmarkPayload.LENGTH).order(ContentStrategy.CONTENT_ENDIANNESS);
+
+        assertEquals(BenchmarkPayload.LENGTH, reader.read(message, payload));
+        assertEquals(SEND_TIME, payload.getLong(BenchmarkPayload.SEND_TIME_OFFSET));
+        assertEquals(EXPECTED_SEND_TIME, payload.getLong(BenchmarkPayload.EXPECTED_SEND_TIME_OFFSET));
+    }
+
+    @Test
+    public void testArtemisPayload() throws Exception {
+        final ClientMessage coreMessage = new ClientMessageImpl(
+                org.apache.activemq.artemis.jms.client.ActiveMQBytesMessage.TYPE, false, 0, 0, (byte) 4, SIZE);
+        final BytesMessage message = new org.apache.activemq.artemis.jms.client.ActiveMQBytesMessage(coreMessage, null) {};
+        message.clearBody();
+        message.writeBytes(content());
+        message.reset();
+
+        assertPayload(PayloadReader.create(JMSProtocol.ARTEMIS, false), message);
+        // the body is still readable as a whole afterwards
+        assertEquals(SIZE, message.readBytes(new byte[SIZE]));
+    }
+
+    @Test
+    public void testOpenWirePayload() throws Exception {
+        final org.apache.activemq.command.ActiveMQBytesMessage message =
+                new org.apache.activemq.command.ActiveMQBytesMessage();
+        message.setContent(new ByteSequence(content()));
+
+        assertPayload(PayloadReader.create(JMSProtocol.OPENWIRE, false), message);
+    }
+
+    @Test
+    public void testQpidJmsPayload() throws Exception {
+        final BytesMessage message = new JmsBytesMessage(new AmqpJmsBytesMessageFacade());
+        message.writeBytes(content());
+        message.reset();
+
+        assertPayload(PayloadReader.create(JMSProtocol.AMQP, false), message);
+    }
+
+    @Test
+    public void testHeaderPayload() throws Exception {
+        final PayloadReader reader = PayloadReader.create(JMSProtocol.OPENWIRE, true);
+        final org.apache.activemq.command.ActiveMQBytesMessage message =
+                new org.apache.activemq.command.ActiveMQBytesMessage();
+        final ByteBuffer payload = ByteBuffer.allocate(BenchmarkPayload.LENGTH).order(ContentStrategy.CONTENT_ENDIANNESS);
+
+        assertEquals(0, reader.read(message, payload));
+
+        message.setLongProperty(PayloadReader.SEND_TIME_PROPERTY, SEND_TIME);
+        assertEquals(BenchmarkPayload.MIN_LENGTH, reader.read(message, payload));
+
+        message.setLongProperty(PayloadReader.EXPECTED_SEND_TIME_PROPERTY, EXPECTED_SEND_TIME);
+        assertPayload(reader, message);
+    }
+}
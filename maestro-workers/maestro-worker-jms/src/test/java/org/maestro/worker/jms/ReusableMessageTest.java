@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.core.client.impl.ClientMessageImpl;
+import org.apache.activemq.artemis.jms.client.ActiveMQBytesMessage;
+import org.junit.Test;
+import org.maestro.common.content.BenchmarkPayload;
+import org.maestro.common.content.ContentStrategy;
+
+import javax.jms.BytesMessage;
+import javax.jms.Session;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ReusableMessageTest {
+    private static final int SIZE = 1024;
+
+    private static Session sessionFor(final BytesMessage message) {
+        return (Session) Proxy.newProxyInstance(ReusableMessageTest.class.getClassLoader(),
+                new Class<?>[] { Session.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("createBytesMessage")) {
+                        return message;
+                    }
+
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    public void testArtemisTimestampUpdate() throws Exception {
+        final ClientMessage coreMessage = new ClientMessageImpl(ActiveMQBytesMessage.TYPE, false, 0, 0, (byte) 4, SIZE);
+        final BytesMessage message = new ActiveMQBytesMessage(coreMessage, null) {};
+        // messages created from a core message are read-only, as if they had been received
+        message.clearBody();
+
+        final ByteBuffer content = ByteBuffer.allocate(SIZE).order(ContentStrategy.CONTENT_ENDIANNESS);
+        for (int i = 0; i < SIZE; i++) {
+            content.put(i, (byte) i);
+        }
+
+        final ReusableMessage reusableMessage = ReusableMessage.create(sessionFor(message), content);
+
+        for (long timestamp = 1_500_000_000_000_000L; timestamp < 1_500_000_000_000_010L; timestamp++) {
+            reusableMessage.setTimestamp(timestamp, timestamp - 10);
+
+            final BytesMessage sent = (BytesMessage) reusableMessage.message();
+            sent.reset();
+            assertEquals(SIZE, sent.getBodyLength());
+
+            final byte[] body = new byte[SIZE];
+            assertEquals(SIZE, sent.readBytes(body));
+
+            final ByteBuffer expected = content.duplicate().order(ContentStrategy.CONTENT_ENDIANNESS);
+            expected.putLong(BenchmarkPayload.SEND_TIME_OFFSET, timestamp);
+            expected.putLong(BenchmarkPayload.EXPECTED_SEND_TIME_OFFSET, timestamp - 10);
+            assertArrayEquals(expected.array(), body);
+        }
+    }
+}
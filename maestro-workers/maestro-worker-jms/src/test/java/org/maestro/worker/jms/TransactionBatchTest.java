@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransactionBatchTest {
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testNoBatching() {
+        assertNull(TransactionBatch.create(new JmsOptions("amqp://localhost:5672/test.performance.queue")));
+        assertNull(TransactionBatch.create(
+                new JmsOptions("amqp://localhost:5672/test.performance.queue?sessionMode=0")));
+    }
+
+    @Test
+    public void testFixedBatch() {
+        final TransactionBatch batch = TransactionBatch.create(
+                new JmsOptions("amqp://localhost:5672/test.performance.queue?sessionMode=0&batchAcknowledge=3"));
+
+        assertNotNull(batch);
+        assertFalse(batch.onMessage(0));
+        assertFalse(batch.onMessage(1));
+        assertTrue(batch.onMessage(2));
+
+        //the size never changes on the fixed mode
+        batch.onCommit(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(3, batch.size());
+        assertEquals(0, batch.pending());
+    }
+
+    @Test
+    public void testAdaptiveBatch() {
+        final TransactionBatch batch = new TransactionBatch(16, 1, 32, TARGET_NANOS, MAX_DELAY_NANOS, true);
+
+        fill(batch);
+        batch.onCommit(TARGET_NANOS / 2);
+        assertEquals("The batch must grow when the commit is faster than the target", 18, batch.size());
+
+        fill(batch);
+        batch.onCommit(TARGET_NANOS * 2);
+        assertEquals("The batch must shrink when the commit is slower than the target", 9, batch.size());
+
+        for (int i = 0; i < 100; i++) {
+            fill(batch);
+            batch.onCommit(TARGET_NANOS / 2);
+        }
+        assertEquals(32, batch.size());
+
+        for (int i = 0; i < 100; i++) {
+            fill(batch);
+            batch.onCommit(TARGET_NANOS * 2);
+        }
+        assertEquals(1, batch.size());
+    }
+
+    @Test
+    public void testTimeBound() {
+        final TransactionBatch batch = new TransactionBatch(16, 1, 32, TARGET_NANOS, MAX_DELAY_NANOS, true);
+
+        assertFalse(batch.isExpired(MAX_DELAY_NANOS * 2));
+        assertFalse(batch.canExpire());
+
+        assertFalse(batch.onMessage(100));
+        assertTrue(batch.canExpire());
+        assertEquals(100 + MAX_DELAY_NANOS, batch.expirationNanos());
+        assertFalse(batch.isExpired(MAX_DELAY_NANOS));
+        assertTrue(batch.isExpired(100 + MAX_DELAY_NANOS));
+
+        //batches closed by the time bound don't grow
+        batch.onCommit(TARGET_NANOS / 2);
+        assertEquals(16, batch.size());
+        assertFalse(batch.isExpired(100 + MAX_DELAY_NANOS));
+    }
+
+    private static void fill(final TransactionBatch batch) {
+        while (!batch.onMessage(0)) {
+            assertTrue(batch.pending() < batch.size());
+        }
+    }
+}